@@ -0,0 +1,187 @@
+/*
+ * gpio-events - Hilfsprogramm fuer gui.GpioEventReader...
+ *
+ * Fordert die Leitungen (NE555, Impuls A, Impuls B) am GPIO character device
+ * mit GPIO_V2_GET_LINE_IOCTL an (Eingang, steigende und fallende Flanke,
+ * Zeitstempel CLOCK_MONOTONIC wie System.nanoTime()) und reicht die Ereignisse
+ * (struct gpio_v2_line_event) unveraendert in die Ausgabe (FIFO) weiter.
+ *
+ * Vor dem ersten Ereignis des Kernels wird je Leitung der Anfangspegel
+ * (GPIO_V2_LINE_GET_VALUES_IOCTL) als Ereignis mit seqno 0 geschrieben
+ * (RISING_EDGE: High, FALLING_EDGE: Low). Der Kernel zaehlt seqno ab 1,
+ * GpioEventReader erkennt daran den Anfangspegel von Impuls B.
+ *
+ * Uebersetzen (auf dem Raspi, Kernel ab 5.10):
+ *   gcc -O2 -Wall -o gpio-events native/gpio-events.c
+ * bzw. 'ant native'.
+ *
+ * Aufruf (Voreinstellung: /dev/gpiochip0, Leitungen 17 27 22 wie im Model):
+ *   mkdir -p /run/control03 && mkfifo /run/control03/gpio-events
+ *   ./gpio-events /dev/gpiochip0 /run/control03/gpio-events 17 27 22 &
+ * und in system.properties:
+ *   gpioEventDevice = /run/control03/gpio-events
+ *
+ * Das Oeffnen der FIFO blockiert bis zum Oeffnen durch GpioEventReader, die
+ * Anforderung der Leitungen erfolgt erst danach. Schliesst GpioEventReader die
+ * FIFO, endet das Programm (EPIPE) und gibt die Leitungen frei.
+ *
+ * @author Detlef Tribius
+ */
+#include <errno.h>
+#include <fcntl.h>
+#include <linux/gpio.h>
+#include <signal.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <sys/ioctl.h>
+#include <time.h>
+#include <unistd.h>
+
+#define CONSUMER "control03"
+#define DEFAULT_CHIP "/dev/gpiochip0"
+#define BATCH_EVENTS 64
+#define EVENT_BUFFER_SIZE 1024
+
+static const unsigned int DEFAULT_LINES[] = {17, 27, 22};
+
+/*
+ * write_all() - Schreiben aller Bytes (Teilschreiben, EINTR)...
+ */
+static int write_all(int fd, const void *data, size_t size)
+{
+    const char *bytes = data;
+    while (size > 0)
+    {
+        const ssize_t count = write(fd, bytes, size);
+        if (count < 0)
+        {
+            if (errno == EINTR)
+            {
+                continue;
+            }
+            return -1;
+        }
+        bytes += count;
+        size -= (size_t) count;
+    }
+    return 0;
+}
+
+/*
+ * write_levels() - Anfangspegel je Leitung als Ereignis mit seqno 0...
+ */
+static int write_levels(int line_fd, int out_fd, const unsigned int *lines, unsigned int num_lines)
+{
+    struct gpio_v2_line_values values;
+    struct gpio_v2_line_event events[GPIO_V2_LINES_MAX];
+    struct timespec now;
+    unsigned int index;
+
+    memset(&values, 0, sizeof(values));
+    values.mask = (num_lines >= 64)? ~0ULL : (1ULL << num_lines) - 1ULL;
+    if (ioctl(line_fd, GPIO_V2_LINE_GET_VALUES_IOCTL, &values) < 0)
+    {
+        perror("GPIO_V2_LINE_GET_VALUES_IOCTL");
+        return -1;
+    }
+    clock_gettime(CLOCK_MONOTONIC, &now);
+    memset(events, 0, sizeof(events));
+    for (index = 0; index < num_lines; index++)
+    {
+        events[index].timestamp_ns = (__u64) now.tv_sec * 1000000000ULL + (__u64) now.tv_nsec;
+        events[index].id = (values.bits & (1ULL << index))? GPIO_V2_LINE_EVENT_RISING_EDGE
+                                                          : GPIO_V2_LINE_EVENT_FALLING_EDGE;
+        events[index].offset = lines[index];
+        events[index].seqno = 0;
+        events[index].line_seqno = 0;
+    }
+    return write_all(out_fd, events, num_lines * sizeof(struct gpio_v2_line_event));
+}
+
+int main(int argc, char *argv[])
+{
+    const char *chip = (argc > 1)? argv[1] : DEFAULT_CHIP;
+    const char *output = (argc > 2)? argv[2] : NULL;
+    unsigned int lines[GPIO_V2_LINES_MAX];
+    unsigned int num_lines = 0;
+    struct gpio_v2_line_request request;
+    struct gpio_v2_line_event events[BATCH_EVENTS];
+    int chip_fd;
+    int out_fd;
+    int index;
+
+    if (argc > 1 && (strcmp(argv[1], "-h") == 0 || strcmp(argv[1], "--help") == 0))
+    {
+        fprintf(stderr, "Aufruf: %s [chip] [fifo|-] [line...]\n", argv[0]);
+        return 2;
+    }
+    for (index = 3; index < argc && num_lines < GPIO_V2_LINES_MAX; index++)
+    {
+        lines[num_lines++] = (unsigned int) strtoul(argv[index], NULL, 10);
+    }
+    if (num_lines == 0)
+    {
+        for (index = 0; index < (int) (sizeof(DEFAULT_LINES) / sizeof(DEFAULT_LINES[0])); index++)
+        {
+            lines[num_lines++] = DEFAULT_LINES[index];
+        }
+    }
+
+    // Ende des Lesers: write() liefert EPIPE statt des Signals...
+    signal(SIGPIPE, SIG_IGN);
+
+    out_fd = (output == NULL || strcmp(output, "-") == 0)? STDOUT_FILENO : open(output, O_WRONLY);
+    if (out_fd < 0)
+    {
+        perror(output);
+        return 1;
+    }
+
+    chip_fd = open(chip, O_RDONLY | O_CLOEXEC);
+    if (chip_fd < 0)
+    {
+        perror(chip);
+        return 1;
+    }
+    memset(&request, 0, sizeof(request));
+    memcpy(request.offsets, lines, num_lines * sizeof(lines[0]));
+    strncpy(request.consumer, CONSUMER, sizeof(request.consumer) - 1);
+    request.config.flags = GPIO_V2_LINE_FLAG_INPUT | GPIO_V2_LINE_FLAG_EDGE_RISING | GPIO_V2_LINE_FLAG_EDGE_FALLING;
+    request.num_lines = num_lines;
+    request.event_buffer_size = EVENT_BUFFER_SIZE;
+    if (ioctl(chip_fd, GPIO_V2_GET_LINE_IOCTL, &request) < 0)
+    {
+        perror("GPIO_V2_GET_LINE_IOCTL");
+        return 1;
+    }
+    close(chip_fd);
+
+    // Erst die Anfangspegel, danach die Ereignisse in der Reihenfolge des Kernels...
+    if (write_levels(request.fd, out_fd, lines, num_lines) < 0)
+    {
+        return 1;
+    }
+    for (;;)
+    {
+        const ssize_t count = read(request.fd, events, sizeof(events));
+        if (count < 0)
+        {
+            if (errno == EINTR)
+            {
+                continue;
+            }
+            perror("read");
+            return 1;
+        }
+        if (write_all(out_fd, events, (size_t) count) < 0)
+        {
+            if (errno == EPIPE)
+            {
+                return 0;
+            }
+            perror("write");
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * gpiomem - JNI-Abbildung des GPIO-Blockes fuer gui.GpioRegisterSampler...
+ *
+ * FileChannel.map() scheitert unter Java 8 an /dev/gpiomem (Zeichengeraet,
+ * Dateigroesse 0). Hier wird das Geraet mit mmap() abgebildet und der Bereich
+ * als direkter ByteBuffer an Java uebergeben. Die Abbildung bleibt bis zum Ende
+ * des Prozesses bestehen (ein Sampler je Lauf).
+ *
+ * Uebersetzen (auf dem Raspi, JDK mit include/jni.h):
+ *   gcc -O2 -Wall -shared -fPIC -I$JAVA_HOME/include -I$JAVA_HOME/include/linux \
+ *       -o libcontrol03gpiomem.so native/gpiomem.c
+ * bzw. 'ant native' (Ablage in dist.dir).
+ *
+ * Aufruf: java -Djava.library.path=<Verzeichnis der .so> ... gui.SwingMain
+ * mit gpioRegisterFile = /dev/gpiomem in system.properties (vgl. 'ant run').
+ *
+ * @author Detlef Tribius
+ */
+#include <errno.h>
+#include <fcntl.h>
+#include <jni.h>
+#include <stdio.h>
+#include <string.h>
+#include <sys/mman.h>
+#include <unistd.h>
+
+/*
+ * throw_io_exception() - java.io.IOException mit Dateiname und errno...
+ */
+static void throw_io_exception(JNIEnv *env, const char *name, int error)
+{
+    char message[512];
+    jclass exception = (*env)->FindClass(env, "java/io/IOException");
+    if (exception != NULL)
+    {
+        snprintf(message, sizeof(message), "%s: %s", name, strerror(error));
+        (*env)->ThrowNew(env, exception, message);
+    }
+}
+
+/*
+ * Class:     gui.GpioRegisterSampler
+ * Method:    mapDevice(String path, int size)
+ * Signature: (Ljava/lang/String;I)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL Java_gui_GpioRegisterSampler_mapDevice(JNIEnv *env, jclass clazz, jstring path, jint size)
+{
+    const char *name;
+    void *base;
+    jobject buffer;
+    int fd;
+
+    (void) clazz;
+    if (size <= 0)
+    {
+        throw_io_exception(env, "mapDevice()", EINVAL);
+        return NULL;
+    }
+    name = (*env)->GetStringUTFChars(env, path, NULL);
+    if (name == NULL)
+    {
+        return NULL;
+    }
+    // Nur lesend: der Sampler liest GPLEV0, O_SYNC ohne Zwischenspeicher...
+    fd = open(name, O_RDONLY | O_SYNC | O_CLOEXEC);
+    if (fd < 0)
+    {
+        throw_io_exception(env, name, errno);
+        (*env)->ReleaseStringUTFChars(env, path, name);
+        return NULL;
+    }
+    base = mmap(NULL, (size_t) size, PROT_READ, MAP_SHARED, fd, 0);
+    if (base == MAP_FAILED)
+    {
+        const int error = errno;
+        close(fd);
+        throw_io_exception(env, name, error);
+        (*env)->ReleaseStringUTFChars(env, path, name);
+        return NULL;
+    }
+    // Die Abbildung bleibt nach close() bestehen...
+    close(fd);
+    (*env)->ReleaseStringUTFChars(env, path, name);
+
+    buffer = (*env)->NewDirectByteBuffer(env, base, (jlong) size);
+    if (buffer == NULL)
+    {
+        munmap(base, (size_t) size);
+    }
+    return buffer;
+}
@@ -0,0 +1,487 @@
+/**
+ *
+ */
+package gui;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * AllocationMonitor - Allokation je Takt und Zuordnung von GC-Pausen zu Taktueberlaeufen...
+ * </p>
+ * <p>
+ * Je Takt wird die Allokation des Takt-Threads gemessen
+ * (ThreadMXBean.getThreadAllocatedBytes() vor und nach dem Takt) und ueber
+ * die letzten WINDOW Takte gemittelt. Liegt der Mittelwert ueber der
+ * Alarmschwelle, wird einmalig gewarnt (Log) und der Alarm angezeigt, bis der
+ * Mittelwert wieder darunter liegt.
+ * </p>
+ * <p>
+ * Ein Takt ist ein Ueberlauf, wenn die Taktzeit OVERRUN_FACTOR * Nennwert
+ * ueberschreitet. Die Summe der GC-Zeiten (GarbageCollectorMXBean.getCollectionTime())
+ * wird je Takt verglichen: ist sie seit dem letzten Takt gewachsen, faellt der
+ * Ueberlauf mit einer Pause zusammen (die Pause haelt den Takt-Thread an, die
+ * Zeit ist danach bereits gezaehlt). Die Benachrichtigungen der GCs (Name,
+ * Ursache, Dauer) werden zusaetzlich protokolliert, Pausen laenger als ein Takt
+ * als Warnung.
+ * </p>
+ * <p>
+ * Gemessen und fortgeschrieben wird nur im Takt, ohne Allokation; alle
+ * PUBLISH_INTERVAL Takte entsteht ein unveraenderlicher Stand (Stats) zur Anzeige.
+ * </p>
+ */
+public class AllocationMonitor
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(AllocationMonitor.class);
+
+    /**
+     * WINDOW - Anzahl der Takte der gleitenden Auswertung (5s bei 50Hz)...
+     */
+    public final static int WINDOW = 250;
+
+    /**
+     * PUBLISH_INTERVAL - Takte zwischen zwei Staenden zur Anzeige (1s bei 50Hz)...
+     */
+    public final static int PUBLISH_INTERVAL = 50;
+
+    /**
+     * DEFAULT_ALARM_BYTES_PER_TICK - Voreinstellung der Alarmschwelle (vgl. simulation.maxBytesPerTick)...
+     */
+    public final static long DEFAULT_ALARM_BYTES_PER_TICK = 8192L;
+
+    /**
+     * OVERRUN_FACTOR - Taktzeit ab der ein Takt als Ueberlauf gilt (Vielfaches des Nennwertes)...
+     */
+    public final static double OVERRUN_FACTOR = 1.5;
+
+    /**
+     * threadMXBean - Messung der Allokation (null: nicht unterstuetzt)...
+     */
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    /**
+     * collectors - die GCs der JVM...
+     */
+    private final GarbageCollectorMXBean[] collectors;
+
+    /**
+     * listener - Protokoll der GC-Benachrichtigungen...
+     */
+    private final NotificationListener listener;
+
+    /**
+     * nominalCycleTime - Nennwert der Taktzeit in ns...
+     */
+    private final long nominalCycleTime;
+
+    /**
+     * alarmThreshold - Alarmschwelle in Bytes je Takt (Mittelwert)...
+     */
+    private volatile long alarmThreshold = DEFAULT_ALARM_BYTES_PER_TICK;
+
+    /**
+     * Gleitende Auswertung (nur im Takt)...
+     */
+    private final long[] window = new long[WINDOW];
+    private int index = 0;
+    private int count = 0;
+    private long sum = 0L;
+    private long ticks = 0L;
+    private long collectionTime = 0L;
+    private boolean isAlarm = false;
+
+    /**
+     * Zaehler (Schreiber: Takt)...
+     */
+    private volatile long overruns = 0L;
+    private volatile long gcOverruns = 0L;
+
+    /**
+     *
+     * @param nominalCycleTime - Nennwert der Taktzeit in ns
+     */
+    public AllocationMonitor(long nominalCycleTime)
+    {
+        this.nominalCycleTime = nominalCycleTime;
+        final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported())
+        {
+            this.threadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            this.threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        else
+        {
+            this.threadMXBean = null;
+            logger.warn("AllocationMonitor(): Allokation je Thread wird nicht unterstuetzt.");
+        }
+        final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        this.collectors = collectors.toArray(new GarbageCollectorMXBean[collectors.size()]);
+        this.collectionTime = getCollectionTime();
+
+        this.listener = new NotificationListener()
+        {
+            @Override
+            public void handleNotification(Notification notification, Object handback)
+            {
+                if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+                {
+                    final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                    final long duration = info.getGcInfo().getDuration();
+                    final String text = "GC: " + info.getGcName() + " (" + info.getGcCause() + ") " + duration + " ms";
+                    if (duration * 1000000L > AllocationMonitor.this.nominalCycleTime)
+                    {
+                        logger.warn(text + ", laenger als ein Takt");
+                    }
+                    else
+                    {
+                        logger.debug(text);
+                    }
+                }
+            }
+        };
+        for (GarbageCollectorMXBean collector: this.collectors)
+        {
+            if (collector instanceof NotificationEmitter)
+            {
+                ((NotificationEmitter) collector).addNotificationListener(this.listener, null, null);
+            }
+        }
+    }
+
+    /**
+     * getAllocatedBytes() - bisherige Allokation des aktuellen Threads (zu Beginn des Taktes)...
+     * @return Bytes, -1: nicht unterstuetzt
+     */
+    public long getAllocatedBytes()
+    {
+        return (this.threadMXBean != null)? this.threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1L;
+    }
+
+    /**
+     * record(long startBytes, long cycleTime) - Fortschreibung am Ende des Taktes (nur im Takt)...
+     * @param startBytes - getAllocatedBytes() zu Beginn des Taktes
+     * @param cycleTime - Taktzeit in ns (0: erster Takt)
+     * @return neuer Stand zur Anzeige (alle PUBLISH_INTERVAL Takte) oder null
+     */
+    public Stats record(long startBytes, long cycleTime)
+    {
+        if (startBytes >= 0L)
+        {
+            final long bytes = getAllocatedBytes() - startBytes;
+            this.sum += bytes - this.window[this.index];
+            this.window[this.index] = bytes;
+            this.index = (this.index + 1) % WINDOW;
+            this.count = Math.min(this.count + 1, WINDOW);
+        }
+
+        final long collectionTime = getCollectionTime();
+        if (cycleTime > OVERRUN_FACTOR * this.nominalCycleTime)
+        {
+            this.overruns = this.overruns + 1L;
+            if (collectionTime > this.collectionTime)
+            {
+                this.gcOverruns = this.gcOverruns + 1L;
+            }
+        }
+        this.collectionTime = collectionTime;
+
+        final long mean = getMean();
+        final long alarmThreshold = this.alarmThreshold;
+        if (!this.isAlarm && this.count == WINDOW && mean > alarmThreshold)
+        {
+            this.isAlarm = true;
+            logger.warn("Allokation je Takt " + mean + " Bytes (max. " + getMax() + ") ueber der Schwelle " + alarmThreshold);
+        }
+        else if (this.isAlarm && mean <= alarmThreshold)
+        {
+            this.isAlarm = false;
+            logger.info("Allokation je Takt " + mean + " Bytes wieder unter der Schwelle " + alarmThreshold);
+        }
+
+        return (++this.ticks % PUBLISH_INTERVAL == 0L)? new Stats(mean, getMax(), this.overruns, this.gcOverruns, this.isAlarm) : null;
+    }
+
+    /**
+     * getCollectionTime() - Summe der GC-Zeiten aller GCs in ms...
+     */
+    private long getCollectionTime()
+    {
+        long collectionTime = 0L;
+        for (GarbageCollectorMXBean collector: this.collectors)
+        {
+            collectionTime += Math.max(0L, collector.getCollectionTime());
+        }
+        return collectionTime;
+    }
+
+    private long getMean()
+    {
+        return (this.count > 0)? this.sum / this.count : 0L;
+    }
+
+    private long getMax()
+    {
+        long max = 0L;
+        for (int index = 0; index < this.count; index++)
+        {
+            max = Math.max(max, this.window[index]);
+        }
+        return max;
+    }
+
+    /**
+     * @return the alarmThreshold
+     */
+    public final long getAlarmThreshold()
+    {
+        return this.alarmThreshold;
+    }
+
+    /**
+     * @param alarmThreshold - Alarmschwelle in Bytes je Takt (Mittelwert)
+     */
+    public void setAlarmThreshold(long alarmThreshold)
+    {
+        this.alarmThreshold = alarmThreshold;
+    }
+
+    /**
+     * @return Anzahl der Ueberlaeufe
+     */
+    public final long getOverruns()
+    {
+        return this.overruns;
+    }
+
+    /**
+     * @return Anzahl der Ueberlaeufe mit GC-Pause
+     */
+    public final long getGcOverruns()
+    {
+        return this.gcOverruns;
+    }
+
+    /**
+     * close() - Abmeldung der GC-Benachrichtigungen...
+     */
+    public void close()
+    {
+        for (GarbageCollectorMXBean collector: this.collectors)
+        {
+            if (collector instanceof NotificationEmitter)
+            {
+                try
+                {
+                    ((NotificationEmitter) collector).removeNotificationListener(this.listener);
+                }
+                catch (javax.management.ListenerNotFoundException exception)
+                {
+                    logger.debug("close(): " + exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stats - unveraenderlicher Stand der Auswertung zur Anzeige...
+     */
+    public static class Stats
+    {
+        /**
+         * Keys der Anzeige an der Oberflaeche (vgl. Field)...
+         */
+        public final static String BYTES_PER_TICK_KEY = "bytesPerTickKey";
+        public final static String MAX_BYTES_PER_TICK_KEY = "maxBytesPerTickKey";
+        public final static String OVERRUNS_KEY = "overrunsKey";
+        public final static String ALARM_KEY = "allocationAlarmKey";
+
+        /**
+         * Field - die angezeigten Werte der Stats...
+         * <p>
+         * Zugriff ueber das enum (getValue(Field)) wie bei StepAnalyser.Result.Field,
+         * valueOfKey() nur beim Aufbau der Oberflaeche.
+         * </p>
+         */
+        public enum Field
+        {
+            BYTES_PER_TICK(BYTES_PER_TICK_KEY)
+            {
+                @Override
+                String value(Stats stats)
+                {
+                    return Long.toString(stats.bytesPerTick);
+                }
+            },
+            MAX_BYTES_PER_TICK(MAX_BYTES_PER_TICK_KEY)
+            {
+                @Override
+                String value(Stats stats)
+                {
+                    return Long.toString(stats.maxBytesPerTick);
+                }
+            },
+            OVERRUNS(OVERRUNS_KEY)
+            {
+                @Override
+                String value(Stats stats)
+                {
+                    return stats.overruns + " (GC " + stats.gcOverruns + ")";
+                }
+            },
+            ALARM(ALARM_KEY)
+            {
+                @Override
+                String value(Stats stats)
+                {
+                    return stats.isAlarm? "Alarm" : "ok";
+                }
+            };
+
+            /**
+             * KEYS - Zuordnung key => Field (nur beim Aufbau der Oberflaeche)...
+             */
+            private final static Map<String, Field> KEYS = new HashMap<>();
+
+            static
+            {
+                for (Field field: values())
+                {
+                    KEYS.put(field.key, field);
+                }
+            }
+
+            /**
+             * key - Name des Oberflaechenelementes...
+             */
+            private final String key;
+
+            private Field(String key)
+            {
+                this.key = key;
+            }
+
+            /**
+             * @return the key
+             */
+            public final String getKey()
+            {
+                return this.key;
+            }
+
+            /**
+             * value(Stats stats) - Anzeige des Wertes...
+             */
+            abstract String value(Stats stats);
+
+            /**
+             * valueOfKey(String key) - Wert zum key (Oberflaeche)...
+             * @param key
+             * @return Wert oder null (keine Anzeige der Stats)
+             */
+            public static Field valueOfKey(String key)
+            {
+                return KEYS.get(key);
+            }
+        }
+
+        private final long bytesPerTick;
+        private final long maxBytesPerTick;
+        private final long overruns;
+        private final long gcOverruns;
+        private final boolean isAlarm;
+
+        Stats(long bytesPerTick, long maxBytesPerTick, long overruns, long gcOverruns, boolean isAlarm)
+        {
+            this.bytesPerTick = bytesPerTick;
+            this.maxBytesPerTick = maxBytesPerTick;
+            this.overruns = overruns;
+            this.gcOverruns = gcOverruns;
+            this.isAlarm = isAlarm;
+        }
+
+        /**
+         * @return mittlere Allokation je Takt in Bytes (WINDOW Takte)
+         */
+        public final long getBytesPerTick()
+        {
+            return this.bytesPerTick;
+        }
+
+        /**
+         * @return groesste Allokation eines Taktes in Bytes (WINDOW Takte)
+         */
+        public final long getMaxBytesPerTick()
+        {
+            return this.maxBytesPerTick;
+        }
+
+        /**
+         * @return Anzahl der Ueberlaeufe
+         */
+        public final long getOverruns()
+        {
+            return this.overruns;
+        }
+
+        /**
+         * @return Anzahl der Ueberlaeufe mit GC-Pause
+         */
+        public final long getGcOverruns()
+        {
+            return this.gcOverruns;
+        }
+
+        /**
+         * @return the isAlarm
+         */
+        public final boolean isAlarm()
+        {
+            return this.isAlarm;
+        }
+
+        /**
+         * getValue(Field field) - Bereitstellung der Anzeige...
+         * @param field
+         * @return string-Anzeige
+         */
+        public final String getValue(Field field)
+        {
+            return field.value(this);
+        }
+
+        /**
+         * toString() - zu Protokollzwecken...
+         */
+        @Override
+        public String toString()
+        {
+            return new StringBuilder().append("[")
+                                      .append("Bytes/Takt=").append(this.bytesPerTick)
+                                      .append(" max=").append(this.maxBytesPerTick)
+                                      .append(" Ueberlaeufe=").append(this.overruns)
+                                      .append(" GC=").append(this.gcOverruns)
+                                      .append(this.isAlarm? " Alarm" : "")
+                                      .append("]")
+                                      .toString();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ *
+ */
+package gui;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * AntiWindup - Strategie fuer die Integration der Regelabweichung in der
+ * Begrenzung der Stellgroesse (vgl. PositionController)...
+ * </p>
+ * <p>
+ * Das Integral wird in Impulse * s gefuehrt, der I-Anteil der Stellgroesse
+ * ist integralGain * integral. Die Strategie erhaelt den bisherigen Stand,
+ * den Zuwachs des Taktes (delta * dt, ggf. mit dem Faktor des Gain-Scheduling)
+ * und den P-Anteil und liefert den neuen Stand. Alle Parameter sind primitive
+ * Werte, es wird nichts angelegt.
+ * </p>
+ * <p>
+ * Ohne I-Verstaerkung (integralGain 0) wirkt das Integral nicht auf die
+ * Stellgroesse, die Begrenzung ist nicht zu erkennen. Ausser NONE halten alle
+ * Strategien das Integral dann fest, sonst liefe es unbemerkt auf und wuerde mit
+ * dem Einschalten der I-Verstaerkung auf einen Schlag wirksam.
+ * </p>
+ */
+public interface AntiWindup
+{
+    /**
+     * integrate(...) - neuer Stand des Integrals...
+     * @param integral - bisheriger Stand (Impulse * s)
+     * @param increment - Zuwachs des Taktes delta * dt (Impulse * s)
+     * @param dt - Taktzeit in s
+     * @param proportional - P-Anteil der Stellgroesse
+     * @param integralGain - I-Anteil der Stellgroesse je Impulse * s (&gt;= 0)
+     * @param limit - Begrenzung der Stellgroesse (Betrag)
+     * @return neuer Stand (Impulse * s)
+     */
+    public double integrate(double integral, double increment, double dt, double proportional, double integralGain, double limit);
+
+    /**
+     * Strategy - die verfuegbaren Strategien, Auswahl an der Oberflaeche...
+     */
+    public enum Strategy implements AntiWindup
+    {
+        /**
+         * NONE - immer integrieren (kein Anti-Windup)...
+         */
+        NONE("aus")
+        {
+            @Override
+            public double integrate(double integral, double increment, double dt, double proportional, double integralGain, double limit)
+            {
+                return integral + increment;
+            }
+        },
+
+        /**
+         * FREEZE - nicht integrieren, wenn P-Anteil oder P+I-Anteil die Begrenzung
+         * ueberschreitet (bisheriges Verhalten)...
+         */
+        FREEZE("Einfrieren")
+        {
+            @Override
+            public double integrate(double integral, double increment, double dt, double proportional, double integralGain, double limit)
+            {
+                if (integralGain <= 0.0)
+                {
+                    return integral;
+                }
+                final double output = proportional + integralGain * (integral + increment);
+                return (Math.abs(proportional) > limit || Math.abs(output) > limit)? integral : integral + increment;
+            }
+        },
+
+        /**
+         * CONDITIONAL - in der Begrenzung nur integrieren, wenn der Zuwachs
+         * aus der Begrenzung herausfuehrt (bedingte Integration)...
+         */
+        CONDITIONAL("Bedingt")
+        {
+            @Override
+            public double integrate(double integral, double increment, double dt, double proportional, double integralGain, double limit)
+            {
+                if (integralGain <= 0.0)
+                {
+                    return integral;
+                }
+                final double output = proportional + integralGain * (integral + increment);
+                return (Math.abs(output) > limit && Math.signum(increment) == Math.signum(output))? integral : integral + increment;
+            }
+        },
+
+        /**
+         * BACK_CALCULATION - immer integrieren, in der Begrenzung wird das Integral
+         * mit der Zeitkonstante TRACKING_TIME auf den begrenzten Wert zurueckgefuehrt...
+         */
+        BACK_CALCULATION("Rueckrechnung")
+        {
+            @Override
+            public double integrate(double integral, double increment, double dt, double proportional, double integralGain, double limit)
+            {
+                if (integralGain <= 0.0)
+                {
+                    return integral;
+                }
+                final double integrated = integral + increment;
+                final double output = proportional + integralGain * integrated;
+                if (Math.abs(output) <= limit)
+                {
+                    return integrated;
+                }
+                final double saturated = Math.max(-limit, Math.min(limit, output));
+                final double tracking = Math.min(1.0, dt / TRACKING_TIME);
+                return integrated + tracking * (saturated - output) / integralGain;
+            }
+        },
+
+        /**
+         * CLAMP - immer integrieren, der I-Anteil allein bleibt innerhalb der Begrenzung...
+         */
+        CLAMP("Begrenzen")
+        {
+            @Override
+            public double integrate(double integral, double increment, double dt, double proportional, double integralGain, double limit)
+            {
+                if (integralGain <= 0.0)
+                {
+                    return integral;
+                }
+                final double integrated = integral + increment;
+                final double maxIntegral = limit / integralGain;
+                return Math.max(-maxIntegral, Math.min(maxIntegral, integrated));
+            }
+        };
+
+        /**
+         * TRACKING_TIME - Zeitkonstante der Rueckrechnung in s (einige Takte)...
+         */
+        public final static double TRACKING_TIME = 0.1;
+
+        /**
+         * label - Anzeige an der Oberflaeche (und im CommandLog)...
+         */
+        private final String label;
+
+        private Strategy(String label)
+        {
+            this.label = label;
+        }
+
+        /**
+         * valueOf(Object value) - Strategie zur Eingabe (Strategy, Bezeichnung
+         * bzw. Name aus dem CommandLog, Boolean der frueheren Checkbox)...
+         * @param value
+         * @return Strategie oder null (unbekannt)
+         */
+        public static Strategy valueOf(Object value)
+        {
+            if (value instanceof Strategy)
+            {
+                return (Strategy) value;
+            }
+            if (value instanceof Boolean)
+            {
+                return ((Boolean) value).booleanValue()? FREEZE : NONE;
+            }
+            if (value != null)
+            {
+                for (Strategy strategy: values())
+                {
+                    if (strategy.label.equals(value.toString()) || strategy.name().equals(value.toString()))
+                    {
+                        return strategy;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.label;
+        }
+    }
+}
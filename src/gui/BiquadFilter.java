@@ -0,0 +1,255 @@
+/**
+ *
+ */
+package gui;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * BiquadFilter - Kaskade von Filtern 2. Ordnung (Tiefpass, Kerbfilter) fuer
+ * Regelabweichung und Geschwindigkeit...
+ * </p>
+ * <p>
+ * Die Koeffizienten werden bei der Konfiguration fuer die Abtastrate des Taktes
+ * (Nennwert, vgl. PositionController.REFERENCE_CYCLE_TIME) berechnet (vgl.
+ * R. Bristow-Johnson, "Audio EQ Cookbook"), je Takt fallen nur Multiplikationen
+ * und Additionen auf primitiven Arrays an (transponierte Direktform II):
+ * </p>
+ * <pre>
+ *   y  = b0 * x + s1
+ *   s1 = b1 * x - a1 * y + s2
+ *   s2 = b2 * x - a2 * y
+ * </pre>
+ * <p>
+ * Beide Filtertypen haben die Gleichverstaerkung 1, ein konstantes Signal
+ * (z.B. bleibende Regelabweichung) wird nicht veraendert. Beim ersten Wert nach
+ * reset() wird der eingeschwungene Zustand angenommen (kein Anlaufen von 0).
+ * </p>
+ * <p>
+ * Konfiguration als Text (vgl. parse()), Abschnitte durch Komma getrennt:
+ * <code>lowpass:10:0.707, notch:20:2</code> (Typ:Frequenz in Hz:Guete).
+ * </p>
+ */
+public class BiquadFilter
+{
+    /**
+     * LOW_PASS - Kennung Tiefpass in parse()...
+     */
+    public final static String LOW_PASS = "lowpass";
+
+    /**
+     * NOTCH - Kennung Kerbfilter in parse()...
+     */
+    public final static String NOTCH = "notch";
+
+    /**
+     * DEFAULT_Q - Guete, falls in parse() nicht angegeben (Butterworth)...
+     */
+    public final static double DEFAULT_Q = Math.sqrt(0.5);
+
+    /**
+     * COEFFICIENTS - Anzahl Koeffizienten je Abschnitt (b0, b1, b2, a1, a2)...
+     */
+    private final static int COEFFICIENTS = 5;
+
+    /**
+     * sampleRate - Abtastrate in Hz...
+     */
+    private final double sampleRate;
+
+    /**
+     * coefficients - b0, b1, b2, a1, a2 je Abschnitt (normiert auf a0 = 1)...
+     */
+    private double[] coefficients = new double[0];
+
+    /**
+     * state - s1, s2 je Abschnitt...
+     */
+    private double[] state = new double[0];
+
+    /**
+     * sections - Anzahl der Abschnitte...
+     */
+    private int sections = 0;
+
+    /**
+     * isPrimed - Kennung, der Zustand ist eingeschwungen (sonst beim naechsten filter())...
+     */
+    private boolean isPrimed = false;
+
+    /**
+     * BiquadFilter(double sampleRate) - leere Kaskade (Durchreichen)...
+     * @param sampleRate - Abtastrate in Hz
+     */
+    public BiquadFilter(double sampleRate)
+    {
+        if (!(sampleRate > 0.0))
+        {
+            throw new IllegalArgumentException("sampleRate must be positive!");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * parse(String spec, double sampleRate) - Kaskade aus der Konfiguration...
+     * @param spec - z.B. "lowpass:10:0.707, notch:20:2", leer: Durchreichen
+     * @param sampleRate - Abtastrate in Hz
+     * @return Kaskade
+     */
+    public static BiquadFilter parse(String spec, double sampleRate)
+    {
+        final BiquadFilter filter = new BiquadFilter(sampleRate);
+        for (String section: spec.split(","))
+        {
+            if (section.trim().isEmpty())
+            {
+                continue;
+            }
+            final String[] parts = section.trim().split(":");
+            final String type = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (parts.length < 2)
+            {
+                throw new IllegalArgumentException("frequency missing: " + section);
+            }
+            final double frequency = Double.parseDouble(parts[1].trim());
+            final double q = (parts.length > 2)? Double.parseDouble(parts[2].trim()) : DEFAULT_Q;
+            if (LOW_PASS.equals(type))
+            {
+                filter.addLowPass(frequency, q);
+            }
+            else if (NOTCH.equals(type))
+            {
+                filter.addNotch(frequency, q);
+            }
+            else
+            {
+                throw new IllegalArgumentException("unknown filter type: " + section);
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * addLowPass(double frequency, double q) - Tiefpass 2. Ordnung anfuegen...
+     * @param frequency - Grenzfrequenz in Hz (unterhalb sampleRate/2)
+     * @param q - Guete (0.707: Butterworth)
+     * @return this
+     */
+    public BiquadFilter addLowPass(double frequency, double q)
+    {
+        final double w0 = omega(frequency, q);
+        final double cos = Math.cos(w0);
+        final double alpha = Math.sin(w0) / (2.0 * q);
+        return addSection((1.0 - cos) / 2.0, 1.0 - cos, (1.0 - cos) / 2.0, 1.0 + alpha, -2.0 * cos, 1.0 - alpha);
+    }
+
+    /**
+     * addNotch(double frequency, double q) - Kerbfilter anfuegen...
+     * @param frequency - Mittenfrequenz in Hz (unterhalb sampleRate/2)
+     * @param q - Guete (Mittenfrequenz / Bandbreite)
+     * @return this
+     */
+    public BiquadFilter addNotch(double frequency, double q)
+    {
+        final double w0 = omega(frequency, q);
+        final double cos = Math.cos(w0);
+        final double alpha = Math.sin(w0) / (2.0 * q);
+        return addSection(1.0, -2.0 * cos, 1.0, 1.0 + alpha, -2.0 * cos, 1.0 - alpha);
+    }
+
+    /**
+     * omega() - normierte Kreisfrequenz mit Pruefung der Parameter...
+     */
+    private double omega(double frequency, double q)
+    {
+        if (!(frequency > 0.0 && frequency < this.sampleRate / 2.0) || !(q > 0.0))
+        {
+            throw new IllegalArgumentException("frequency must be in (0, sampleRate/2), q positive!");
+        }
+        return 2.0 * Math.PI * frequency / this.sampleRate;
+    }
+
+    /**
+     * addSection() - Abschnitt anfuegen (nur bei der Konfiguration, nicht im Takt)...
+     */
+    private BiquadFilter addSection(double b0, double b1, double b2, double a0, double a1, double a2)
+    {
+        final double[] coefficients = Arrays.copyOf(this.coefficients, (this.sections + 1) * COEFFICIENTS);
+        final int offset = this.sections * COEFFICIENTS;
+        coefficients[offset] = b0 / a0;
+        coefficients[offset + 1] = b1 / a0;
+        coefficients[offset + 2] = b2 / a0;
+        coefficients[offset + 3] = a1 / a0;
+        coefficients[offset + 4] = a2 / a0;
+        this.coefficients = coefficients;
+        this.state = new double[(this.sections + 1) * 2];
+        this.sections++;
+        this.isPrimed = false;
+        return this;
+    }
+
+    /**
+     * @return Anzahl der Abschnitte (0: Durchreichen)
+     */
+    public final int getSections()
+    {
+        return this.sections;
+    }
+
+    /**
+     * filter(double value) - ein Takt der Kaskade...
+     * @param value - Eingang
+     * @return Ausgang
+     */
+    public double filter(double value)
+    {
+        if (!this.isPrimed)
+        {
+            prime(value);
+        }
+        final double[] c = this.coefficients;
+        final double[] s = this.state;
+        double x = value;
+        for (int section = 0; section < this.sections; section++)
+        {
+            final int offset = section * COEFFICIENTS;
+            final int index = section * 2;
+            final double y = c[offset] * x + s[index];
+            s[index] = c[offset + 1] * x - c[offset + 3] * y + s[index + 1];
+            s[index + 1] = c[offset + 2] * x - c[offset + 4] * y;
+            x = y;
+        }
+        return x;
+    }
+
+    /**
+     * reset() - der naechste Wert in filter() gilt als eingeschwungen...
+     */
+    public void reset()
+    {
+        this.isPrimed = false;
+    }
+
+    /**
+     * prime(double value) - eingeschwungener Zustand fuer den konstanten Eingang value...
+     */
+    private void prime(double value)
+    {
+        final double[] c = this.coefficients;
+        final double[] s = this.state;
+        double x = value;
+        for (int section = 0; section < this.sections; section++)
+        {
+            final int offset = section * COEFFICIENTS;
+            final int index = section * 2;
+            final double y = x * (c[offset] + c[offset + 1] + c[offset + 2]) / (1.0 + c[offset + 3] + c[offset + 4]);
+            s[index + 1] = c[offset + 2] * x - c[offset + 4] * y;
+            s[index] = c[offset + 1] * x - c[offset + 3] * y + s[index + 1];
+            x = y;
+        }
+        this.isPrimed = true;
+    }
+}
@@ -0,0 +1,238 @@
+/**
+ *
+ */
+package gui;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * CascadeController - Kaskadenregelung aus einem schnellen Drehzahlregler (innen)
+ * und einem langsameren Lageregler (aussen)...
+ * </p>
+ * <ul>
+ * <li>Aussen: P-Regler der Lage, beauftragt in jedem outerDivider-ten Takt,
+ * Ausgang ist der Sollwert der Geschwindigkeit (begrenzt auf velocityLimit).</li>
+ * <li>Innen: PI-Regler der Geschwindigkeit in jedem Takt, Ausgang ist die
+ * Stellgroesse des DRV8830 (begrenzt auf maxDrvSetPoint). Integriert wird ueber
+ * die gemessene Taktzeit, in der Begrenzung nur in Richtung der Entlastung
+ * (bedingte Integration).</li>
+ * </ul>
+ * <p>
+ * Einheiten: Lage in Impulse, Geschwindigkeit in Impulse/s,
+ * positionGain in 1/s, velocityGain in Stufen je Impulse/s,
+ * velocityIntegralGain in Stufen je Impulse.
+ * </p>
+ */
+public class CascadeController
+{
+    /**
+     * DEFAULT_OUTER_DIVIDER - Lageregler in jedem n-ten Takt...
+     */
+    public final static int DEFAULT_OUTER_DIVIDER = 4;
+
+    /**
+     * maxDrvSetPoint - Begrenzung der Stellgroesse (Betrag)...
+     */
+    private int maxDrvSetPoint;
+
+    /**
+     * outerDivider - Teiler fuer den Lageregler...
+     */
+    private final int outerDivider;
+
+    /**
+     * positionGain - Verstaerkung Lageregler (1/s)...
+     */
+    private double positionGain = 0.0;
+
+    /**
+     * velocityLimit - Begrenzung des Geschwindigkeits-Sollwertes (Impulse/s)...
+     */
+    private double velocityLimit = 0.0;
+
+    /**
+     * velocityGain - P-Verstaerkung Drehzahlregler...
+     */
+    private double velocityGain = 0.0;
+
+    /**
+     * velocityIntegralGain - I-Verstaerkung Drehzahlregler...
+     */
+    private double velocityIntegralGain = 0.0;
+
+    /**
+     * velocitySetPoint - Sollwert der Geschwindigkeit (Ausgang Lageregler)...
+     */
+    private double velocitySetPoint = 0.0;
+
+    /**
+     * velocityIntegral - Integral der Geschwindigkeitsabweichung (Impulse)...
+     */
+    private double velocityIntegral = 0.0;
+
+    /**
+     * ticks - Taktzaehler fuer den Teiler...
+     */
+    private long ticks = 0L;
+
+    /**
+     * output - Stellgroesse der letzten Beauftragung ohne Rundung (begrenzt)...
+     */
+    private double output = 0.0;
+
+    /**
+     * CascadeController(int maxDrvSetPoint)...
+     * @param maxDrvSetPoint
+     */
+    public CascadeController(int maxDrvSetPoint)
+    {
+        this(maxDrvSetPoint, DEFAULT_OUTER_DIVIDER);
+    }
+
+    /**
+     *
+     * @param maxDrvSetPoint - Begrenzung der Stellgroesse (Betrag)
+     * @param outerDivider - Lageregler in jedem outerDivider-ten Takt
+     */
+    public CascadeController(int maxDrvSetPoint, int outerDivider)
+    {
+        if (outerDivider <= 0)
+        {
+            throw new IllegalArgumentException("outerDivider must be positive!");
+        }
+        this.maxDrvSetPoint = Math.max(0, maxDrvSetPoint);
+        this.outerDivider = outerDivider;
+    }
+
+    /**
+     * @param maxDrvSetPoint - Begrenzung der Stellgroesse (Betrag), z.B. voller Bereich mit OutputStage
+     */
+    public void setMaxDrvSetPoint(int maxDrvSetPoint)
+    {
+        this.maxDrvSetPoint = Math.max(0, maxDrvSetPoint);
+    }
+
+    /**
+     * @param positionGain - Verstaerkung Lageregler (1/s)
+     */
+    public void setPositionGain(double positionGain)
+    {
+        this.positionGain = positionGain;
+    }
+
+    /**
+     * @param velocityLimit - Begrenzung des Geschwindigkeits-Sollwertes (Impulse/s)
+     */
+    public void setVelocityLimit(double velocityLimit)
+    {
+        this.velocityLimit = Math.abs(velocityLimit);
+    }
+
+    /**
+     * @param velocityGain - P-Verstaerkung Drehzahlregler (Stufen je Impulse/s)
+     */
+    public void setVelocityGain(double velocityGain)
+    {
+        this.velocityGain = velocityGain;
+    }
+
+    /**
+     * @param velocityIntegralGain - I-Verstaerkung Drehzahlregler (Stufen je Impulse)
+     */
+    public void setVelocityIntegralGain(double velocityIntegralGain)
+    {
+        this.velocityIntegralGain = velocityIntegralGain;
+    }
+
+    /**
+     * @return Sollwert der Geschwindigkeit (Impulse/s), Ausgang des Lagereglers
+     */
+    public final double getVelocitySetPoint()
+    {
+        return this.velocitySetPoint;
+    }
+
+    /**
+     * @return Stellgroesse der letzten Beauftragung ohne Rundung (vgl. OutputStage)
+     */
+    public final double getOutput()
+    {
+        return this.output;
+    }
+
+    /**
+     * getValue() - ein Takt der Kaskade...
+     * @param dt - Taktzeit in s
+     * @param phiSetPoint - Lage Sollwert (Impulse)
+     * @param phi - Lage Istwert (Impulse)
+     * @param speed - Geschwindigkeit Istwert (Impulse/s)
+     * @return Stellgroesse des DRV8830
+     */
+    public int getValue(double dt, long phiSetPoint, double phi, double speed)
+    {
+        return getValue(dt, phiSetPoint, phi, speed, 0.0);
+    }
+
+    /**
+     * getValue() - ein Takt der Kaskade mit Vorsteuerung der Geschwindigkeit...
+     * <p>
+     * Laeuft der Lage-Sollwert mit bekannter Geschwindigkeit (Drehzahlregelung),
+     * wird diese dem Ausgang des Lagereglers aufgeschaltet, der Lageregler
+     * korrigiert dann nur noch die Abweichung (kein Schleppfehler).
+     * </p>
+     * @param dt - Taktzeit in s
+     * @param phiSetPoint - Lage Sollwert (Impulse)
+     * @param phi - Lage Istwert (Impulse)
+     * @param speed - Geschwindigkeit Istwert (Impulse/s)
+     * @param velocityFeedForward - Geschwindigkeit des Lage-Sollwertes (Impulse/s)
+     * @return Stellgroesse des DRV8830
+     */
+    public int getValue(double dt, long phiSetPoint, double phi, double speed, double velocityFeedForward)
+    {
+        if (this.ticks++ % this.outerDivider == 0L)
+        {
+            this.velocitySetPoint = clamp(velocityFeedForward + this.positionGain * (phiSetPoint - phi), this.velocityLimit);
+        }
+        return getVelocityValue(dt, this.velocitySetPoint, speed);
+    }
+
+    /**
+     * getVelocityValue() - ein Takt nur des Drehzahlreglers...
+     * @param dt - Taktzeit in s
+     * @param velocitySetPoint - Geschwindigkeit Sollwert (Impulse/s)
+     * @param speed - Geschwindigkeit Istwert (Impulse/s)
+     * @return Stellgroesse des DRV8830
+     */
+    public int getVelocityValue(double dt, double velocitySetPoint, double speed)
+    {
+        final double error = velocitySetPoint - speed;
+        final double integral = this.velocityIntegral + error * Math.max(0.0, dt);
+        final double output = this.velocityGain * error + this.velocityIntegralGain * integral;
+        if (Math.abs(output) <= this.maxDrvSetPoint || Math.signum(error) != Math.signum(output))
+        {
+            // Nicht in der Begrenzung bzw. Integration fuehrt aus der Begrenzung heraus...
+            this.velocityIntegral = integral;
+        }
+        this.output = clamp(output, this.maxDrvSetPoint);
+        return (int) Math.round(this.output);
+    }
+
+    /**
+     * reset() - Zuruecksetzen des Gedaechtnisses...
+     */
+    public void reset()
+    {
+        this.velocitySetPoint = 0.0;
+        this.velocityIntegral = 0.0;
+        this.output = 0.0;
+        this.ticks = 0L;
+    }
+
+    /**
+     * clamp() - Begrenzung auf +/- limit...
+     */
+    private static double clamp(double value, double limit)
+    {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+}
@@ -0,0 +1,635 @@
+/**
+ *
+ */
+package gui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * CommandLog - Protokoll der Bedienhandlungen (reset, start, stop, setProperty)
+ * mit dem Taktzaehler, zu dem sie wirksam wurden...
+ * </p>
+ * <p>
+ * Das Protokoll ist eine nur fortgeschriebene Binaerdatei. Die Eintraege werden
+ * vom Aufrufer nur in eine Warteschlange gestellt, ein Hintergrund-Thread schreibt
+ * alle anstehenden Eintraege gemeinsam (group commit) und sichert sie mit einem
+ * einzigen force().
+ * </p>
+ * <p>
+ * Aufbau der Datei: MAGIC (int), VERSION (byte), danach die Eintraege:
+ * </p>
+ * <pre>
+ *   command (byte) | tick (long) | time (long, ms seit 1970) [| key (UTF) | tag (byte) | value]
+ * </pre>
+ * <p>
+ * Mit CommandLog.Replay koennen die Eintraege taktgenau gegen ein Model
+ * (z.B. in der Simulation) wieder eingespielt werden.
+ * </p>
+ */
+public class CommandLog implements Closeable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(CommandLog.class);
+
+    /**
+     * MAGIC - Dateikennung "CLOG"...
+     */
+    public final static int MAGIC = 0x434C4F47;
+
+    /**
+     * VERSION - Version des Dateiformates...
+     */
+    public final static byte VERSION = 1;
+
+    /**
+     * QUEUE_CAPACITY - max. Anzahl wartender Eintraege...
+     */
+    public final static int QUEUE_CAPACITY = 1024;
+
+    /**
+     * Tags zur Kennzeichnung des Wertetyps...
+     */
+    private final static byte TAG_NULL = 0;
+    private final static byte TAG_BOOLEAN = 1;
+    private final static byte TAG_DECIMAL = 2;
+    private final static byte TAG_STRING = 3;
+    private final static byte TAG_BIG_DECIMAL = 4;
+
+    /**
+     * Command - Art der Bedienhandlung...
+     */
+    public enum Command
+    {
+        /**
+         * RESET - Model.reset()
+         */
+        RESET,
+        /**
+         * START - Model.start()
+         */
+        START,
+        /**
+         * STOP - Model.stop()
+         */
+        STOP,
+        /**
+         * PROPERTY - Model.setProperty(key, value)
+         */
+        PROPERTY;
+
+        /**
+         * valueOf(int ordinal) - Command zum Code aus der Datei...
+         * @param ordinal
+         * @return
+         * @throws IOException bei unbekanntem Code
+         */
+        static Command valueOf(int ordinal) throws IOException
+        {
+            final Command[] commands = Command.values();
+            if (ordinal < 0 || ordinal >= commands.length)
+            {
+                throw new IOException("unknown command: " + ordinal);
+            }
+            return commands[ordinal];
+        }
+    }
+
+    /**
+     * Entry - ein Eintrag des Protokolls...
+     */
+    public static class Entry
+    {
+        private final Command command;
+        private final long tick;
+        private final long time;
+        private final String key;
+        private final Object value;
+
+        /**
+         *
+         * @param command
+         * @param tick
+         * @param time
+         * @param key
+         * @param value
+         */
+        public Entry(Command command, long tick, long time, String key, Object value)
+        {
+            this.command = command;
+            this.tick = tick;
+            this.time = time;
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * @return the command
+         */
+        public final Command getCommand()
+        {
+            return this.command;
+        }
+
+        /**
+         * @return the tick
+         */
+        public final long getTick()
+        {
+            return this.tick;
+        }
+
+        /**
+         * @return the time (ms seit 1970)
+         */
+        public final long getTime()
+        {
+            return this.time;
+        }
+
+        /**
+         * @return the key (nur bei Command.PROPERTY)
+         */
+        public final String getKey()
+        {
+            return this.key;
+        }
+
+        /**
+         * @return the value (nur bei Command.PROPERTY)
+         */
+        public final Object getValue()
+        {
+            return this.value;
+        }
+
+        /**
+         * applyTo(Model model) - Ausfuehrung des Eintrages am Model...
+         * @param model
+         */
+        public void applyTo(Model model)
+        {
+            switch (this.command)
+            {
+                case RESET:
+                    model.reset();
+                    break;
+                case START:
+                    model.start();
+                    break;
+                case STOP:
+                    model.stop();
+                    break;
+                case PROPERTY:
+                    model.setProperty(this.key, this.value);
+                    break;
+            }
+        }
+
+        /**
+         * matches(Entry entry) - gleiche Bedienhandlung zum gleichen Takt 
+         * (ohne Zeitstempel, Vergleich von Aufzeichnung und Wiedereinspielung)...
+         * @param entry
+         * @return true: command, tick, key und value stimmen ueberein
+         */
+        public boolean matches(Entry entry)
+        {
+            return (entry != null)
+                && (this.command == entry.command)
+                && (this.tick == entry.tick)
+                && Objects.equals(this.key, entry.key)
+                && Objects.equals(this.value, entry.value);
+        }
+
+        @Override
+        public String toString()
+        {
+            return new StringBuilder().append("[")
+                                      .append(this.tick)
+                                      .append(" ")
+                                      .append(this.command)
+                                      .append((this.key != null)? " " + this.key + "=" + this.value : "")
+                                      .append("]")
+                                      .toString();
+        }
+    }
+
+    /**
+     * POISON - Ende-Kennung fuer den Schreib-Thread...
+     */
+    private final static byte[] POISON = new byte[0];
+
+    /**
+     * queue - Warteschlange der kodierten Eintraege...
+     */
+    private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * channel - Ausgabe in die Protokolldatei...
+     */
+    private final FileChannel channel;
+
+    /**
+     * writer - Hintergrund-Thread fuer das Schreiben...
+     */
+    private final Thread writer;
+
+    /**
+     * closeLock - append() und close() schliessen sich gegenseitig aus, kein
+     * Eintrag gelangt damit hinter POISON in die Warteschlange...
+     */
+    private final Object closeLock = new Object();
+
+    /**
+     * isClosed - Kennung, close() wurde beauftragt (nur unter closeLock geaendert)...
+     */
+    private volatile boolean isClosed = false;
+
+    /**
+     * CommandLog(Path file) - Oeffnen (bzw. Anlegen) der Protokolldatei zum Fortschreiben...
+     * @param file
+     * @throws IOException
+     */
+    public CommandLog(Path file) throws IOException
+    {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (this.channel.size() == 0L)
+        {
+            final ByteBuffer header = ByteBuffer.allocate(5);
+            header.putInt(MAGIC).put(VERSION).flip();
+            while (header.hasRemaining())
+            {
+                this.channel.write(header);
+            }
+        }
+        this.writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                writeLoop();
+            }
+        }, "CommandLog");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * append(Command command, long tick, String key, Object value) - Eintrag in die Warteschlange...
+     * <p>
+     * Der Aufrufer (EDT) wartet nicht auf das Schreiben. Ist die Warteschlange voll,
+     * wird der Eintrag verworfen und protokolliert. Nach close() wird nichts mehr
+     * angenommen, ein gleichzeitig zu close() angenommener Eintrag steht vor POISON
+     * und wird noch geschrieben.
+     * </p>
+     * @param command
+     * @param tick - Taktzaehler, ab dem die Bedienhandlung wirkt
+     * @param key - nur bei Command.PROPERTY
+     * @param value - nur bei Command.PROPERTY
+     * @return true: Eintrag angenommen (wird geschrieben)
+     */
+    public boolean append(Command command, long tick, String key, Object value)
+    {
+        if (this.isClosed)
+        {
+            return false;
+        }
+        try
+        {
+            final byte[] record = encode(command, tick, System.currentTimeMillis(), key, value);
+            synchronized (this.closeLock)
+            {
+                if (this.isClosed)
+                {
+                    return false;
+                }
+                if (!this.queue.offer(record))
+                {
+                    logger.error("CommandLog: Warteschlange voll, Eintrag verworfen: " + command + " " + key);
+                    return false;
+                }
+                return true;
+            }
+        }
+        catch (IOException exception)
+        {
+            logger.error("append()", exception);
+            return false;
+        }
+    }
+
+    /**
+     * writeLoop() - Schreiben aller anstehenden Eintraege je Durchlauf (group commit)...
+     */
+    private void writeLoop()
+    {
+        final List<byte[]> batch = new ArrayList<>(QUEUE_CAPACITY);
+        boolean isRunning = true;
+        while (isRunning)
+        {
+            try
+            {
+                batch.add(this.queue.take());
+                this.queue.drainTo(batch);
+                int size = 0;
+                for (byte[] record: batch)
+                {
+                    size += record.length;
+                }
+                final ByteBuffer buffer = ByteBuffer.allocate(size);
+                for (byte[] record: batch)
+                {
+                    if (record == POISON)
+                    {
+                        isRunning = false;
+                        break;
+                    }
+                    buffer.put(record);
+                }
+                buffer.flip();
+                while (buffer.hasRemaining())
+                {
+                    this.channel.write(buffer);
+                }
+                this.channel.force(false);
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                isRunning = false;
+            }
+            catch (IOException exception)
+            {
+                logger.error("writeLoop()", exception);
+            }
+            finally
+            {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * close() - Schreiben der restlichen Eintraege und Schliessen der Datei...
+     */
+    @Override
+    public void close() throws IOException
+    {
+        synchronized (this.closeLock)
+        {
+            if (this.isClosed)
+            {
+                return;
+            }
+            this.isClosed = true;
+        }
+        try
+        {
+            this.queue.put(POISON);
+            this.writer.join();
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * encode() - Kodierung eines Eintrages...
+     */
+    static byte[] encode(Command command, long tick, long time, String key, Object value) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeByte(command.ordinal());
+        output.writeLong(tick);
+        output.writeLong(time);
+        if (command == Command.PROPERTY)
+        {
+            output.writeUTF(key);
+            if (value == null)
+            {
+                output.writeByte(TAG_NULL);
+            }
+            else if (value instanceof Boolean)
+            {
+                output.writeByte(TAG_BOOLEAN);
+                output.writeBoolean(((Boolean) value).booleanValue());
+            }
+            else if (value instanceof BigDecimal)
+            {
+                final BigDecimal decimal = (BigDecimal) value;
+                final BigInteger unscaled = decimal.unscaledValue();
+                if (unscaled.bitLength() < 64 && decimal.scale() >= Byte.MIN_VALUE && decimal.scale() <= Byte.MAX_VALUE)
+                {
+                    output.writeByte(TAG_DECIMAL);
+                    output.writeByte(decimal.scale());
+                    output.writeLong(unscaled.longValue());
+                }
+                else
+                {
+                    output.writeByte(TAG_BIG_DECIMAL);
+                    output.writeUTF(decimal.toString());
+                }
+            }
+            else
+            {
+                output.writeByte(TAG_STRING);
+                output.writeUTF(value.toString());
+            }
+        }
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * read(Path file) - Einlesen aller Eintraege der Protokolldatei...
+     * <p>
+     * Ein unvollstaendiger letzter Eintrag (Abbruch beim Schreiben) wird ignoriert.
+     * </p>
+     * @param file
+     * @return Liste der Eintraege in Schreibreihenfolge
+     * @throws IOException
+     */
+    public static List<Entry> read(Path file) throws IOException
+    {
+        final List<Entry> entries = new ArrayList<>();
+        try (InputStream inputStream = Files.newInputStream(file);
+             DataInputStream input = new DataInputStream(new java.io.BufferedInputStream(inputStream)))
+        {
+            if (input.readInt() != MAGIC)
+            {
+                throw new IOException("no command log: " + file);
+            }
+            final byte version = input.readByte();
+            if (version != VERSION)
+            {
+                throw new IOException("unsupported version: " + version);
+            }
+            while (true)
+            {
+                final int code = input.read();
+                if (code < 0)
+                {
+                    break;
+                }
+                try
+                {
+                    entries.add(decode(Command.valueOf(code), input));
+                }
+                catch (EOFException exception)
+                {
+                    logger.error("read(): unvollstaendiger Eintrag am Ende von " + file);
+                    break;
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * decode() - Dekodierung eines Eintrages (ohne command)...
+     */
+    private static Entry decode(Command command, DataInputStream input) throws IOException
+    {
+        final long tick = input.readLong();
+        final long time = input.readLong();
+        if (command != Command.PROPERTY)
+        {
+            return new Entry(command, tick, time, null, null);
+        }
+        final String key = input.readUTF();
+        final byte tag = input.readByte();
+        final Object value;
+        switch (tag)
+        {
+            case TAG_NULL:
+                value = null;
+                break;
+            case TAG_BOOLEAN:
+                value = Boolean.valueOf(input.readBoolean());
+                break;
+            case TAG_DECIMAL:
+                final int scale = input.readByte();
+                value = BigDecimal.valueOf(input.readLong(), scale);
+                break;
+            case TAG_BIG_DECIMAL:
+                value = new BigDecimal(input.readUTF());
+                break;
+            case TAG_STRING:
+                value = input.readUTF();
+                break;
+            default:
+                throw new IOException("unknown tag: " + tag);
+        }
+        return new Entry(command, tick, time, key, value);
+    }
+
+    /**
+     * indexOfMismatch(List&lt;Entry&gt; expected, List&lt;Entry&gt; actual) - Vergleich 
+     * zweier Protokolle (vgl. Entry.matches())...
+     * @param expected - z.B. das wiedereingespielte Protokoll
+     * @param actual - z.B. das bei der Wiedereinspielung aufgezeichnete Protokoll
+     * @return Index des ersten abweichenden Eintrages oder -1 (Protokolle stimmen ueberein)
+     */
+    public static int indexOfMismatch(List<Entry> expected, List<Entry> actual)
+    {
+        final int size = Math.min(expected.size(), actual.size());
+        for (int index = 0; index < size; index++)
+        {
+            if (!expected.get(index).matches(actual.get(index)))
+            {
+                return index;
+            }
+        }
+        return (expected.size() == actual.size())? -1 : size;
+    }
+
+    /**
+     * Replay - taktgenaues Wiedereinspielen eines Protokolls...
+     * <p>
+     * Vor jedem Takt wird applyDue() beauftragt, dabei werden alle Eintraege
+     * ausgefuehrt, deren Taktzaehler erreicht ist. Das Model fuehrt sie zu Beginn
+     * des folgenden Taktes aus, also beim gleichen Taktzaehler wie bei der 
+     * Aufzeichnung. Da reset() und stop() den Taktzaehler des Model zuruecksetzen,
+     * werden die Eintraege streng in Protokollreihenfolge abgearbeitet, nach 
+     * einem RESET bzw. STOP gilt fuer die folgenden Eintraege der Taktzaehler 0
+     * (vgl. Simulation.setReplay()).
+     * </p>
+     */
+    public static class Replay
+    {
+        private final List<Entry> entries;
+        private int index = 0;
+
+        /**
+         *
+         * @param entries - Eintraege in Protokollreihenfolge (vgl. read())
+         */
+        public Replay(List<Entry> entries)
+        {
+            this.entries = entries;
+        }
+
+        /**
+         * applyDue(Model model) - Ausfuehrung aller faelligen Eintraege...
+         * @param model
+         * @return Anzahl der ausgefuehrten Eintraege
+         */
+        public int applyDue(Model model)
+        {
+            int count = 0;
+            // Taktzaehler, zu dem die beauftragten Eintraege ausgefuehrt werden...
+            long counter = model.getCounter();
+            while (this.index < this.entries.size() && this.entries.get(this.index).getTick() <= counter)
+            {
+                final Entry entry = this.entries.get(this.index++);
+                entry.applyTo(model);
+                count++;
+                if (entry.getCommand() == Command.RESET || entry.getCommand() == Command.STOP)
+                {
+                    // ...reset() bzw. stop() setzt den Taktzaehler zurueck...
+                    counter = 0L;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * isFinished() - alle Eintraege ausgefuehrt?
+         * @return
+         */
+        public boolean isFinished()
+        {
+            return this.index >= this.entries.size();
+        }
+    }
+}
@@ -3,7 +3,6 @@ package gui;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
-import java.math.BigDecimal;
 
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
@@ -50,7 +49,7 @@ public class Controller implements ActionListener
         this.view = view;
         this.view.addActionListener(this);
         this.model = model;
-        this.model.addPropertyChangeListener(this.view);
+        this.view.addPropertyListeners(this.model);
     }
     
     /**
@@ -64,6 +63,8 @@ public class Controller implements ActionListener
     {
         final JComponent source = (JComponent)event.getSource();
         final String name = source.getName();
+        // Eigenschaft im Model (bei den Eingabeelementen als Client-Property abgelegt)...
+        final Property property = (Property) source.getClientProperty(Property.class);
         if (source instanceof JButton)
         {
             logger.debug("actionPerformed(): " + event.getActionCommand() + " " + name);
@@ -87,11 +88,16 @@ public class Controller implements ActionListener
             }
             return;
         }
+        if (property == null)
+        {
+            logger.warn("actionPerformed(): " + name + " ohne Eigenschaft im Model.");
+            return;
+        }
         if (source instanceof JComboBox<?>)
         {
-            final BigDecimal value = (BigDecimal)((JComboBox<?>)source).getSelectedItem();
+            final Object value = ((JComboBox<?>)source).getSelectedItem();
             logger.info("actionPerformed(): " + event.getActionCommand() + " " + name + " " + ((value != null)? value : ""));
-            this.model.setProperty(name, value);
+            this.model.setProperty(property, value);
             return;
         }
         if (source instanceof JFormattedTextField)
@@ -106,7 +112,7 @@ public class Controller implements ActionListener
                 // getActionCommand() liefert command aus dem Konstruktor des ActionEvent... 
                 logger.info("actionPerformed(): " + event.getActionCommand() + " " + name + " getValue(): "  + output);
                 
-                this.model.setProperty(name, output);
+                this.model.setProperty(property, output);
             }
             catch (Exception exception)
             {
@@ -121,7 +127,7 @@ public class Controller implements ActionListener
             
             logger.debug("actionPerformed(): " + event.getActionCommand() + " " + (isSelected? "selected" : "deselected") );
             
-            this.model.setProperty(name, Boolean.valueOf(isSelected));
+            this.model.setProperty(property, Boolean.valueOf(isSelected));
         }
     }
 }
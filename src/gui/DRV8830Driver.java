@@ -0,0 +1,95 @@
+/**
+ * 
+ */
+package gui;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import raspi.hardware.i2c.DRV8830;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * DRV8830Driver - MotorDriver auf Basis des DRV8830-Bausteins (I2C)...
+ * </p>
+ */
+public class DRV8830Driver implements MotorDriver
+{
+    /**
+     * drv8830 - Referenz auf den DRV8830-Baustein
+     */
+    private final DRV8830 drv8830;
+    
+    /**
+     * 
+     * @param drv8830
+     */
+    public DRV8830Driver(DRV8830 drv8830)
+    {
+        this.drv8830 = Objects.requireNonNull(drv8830, "drv8830 must not be null!");
+    }
+
+    @Override
+    public void drive(int value) throws IOException
+    {
+        if (FlightEvents.isRecording())
+        {
+            final FlightEvents.I2CEvent i2cEvent = begin();
+            this.drv8830.drive(value);
+            commit(i2cEvent, "drive", value);
+        }
+        else
+        {
+            this.drv8830.drive(value);
+        }
+    }
+
+    @Override
+    public void brake() throws IOException
+    {
+        this.drv8830.brake();
+    }
+
+    @Override
+    public int getFault() throws IOException
+    {
+        if (FlightEvents.isRecording())
+        {
+            final FlightEvents.I2CEvent i2cEvent = begin();
+            final int fault = this.drv8830.getFault();
+            commit(i2cEvent, "getFault", fault);
+            return fault;
+        }
+        return this.drv8830.getFault();
+    }
+    
+    /**
+     * begin() - Beginn eines Zugriffes auf den I2C-Bus (vgl. FlightEvents)...
+     * @return Ereignis
+     */
+    private static FlightEvents.I2CEvent begin()
+    {
+        final FlightEvents.I2CEvent i2cEvent = new FlightEvents.I2CEvent();
+        i2cEvent.begin();
+        return i2cEvent;
+    }
+    
+    /**
+     * commit(FlightEvents.I2CEvent i2cEvent, String operation, int value) - Ende 
+     * des Zugriffes, oberhalb der Schwelle wird das Ereignis aufgezeichnet...
+     * @param i2cEvent
+     * @param operation - "drive" oder "getFault"
+     * @param value - Stellwert bzw. Fehlerregister
+     */
+    private static void commit(FlightEvents.I2CEvent i2cEvent, String operation, int value)
+    {
+        i2cEvent.end();
+        if (i2cEvent.shouldCommit())
+        {
+            i2cEvent.operation = operation;
+            i2cEvent.value = value;
+            i2cEvent.commit();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package gui;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Interface EdgeSource - alternative Quelle der Flanken an NE555 und
+ * Inkrementalgeber (statt des GpioPinListenerDigital der pi4j)...
+ * <p>
+ * Die Quelle meldet die Flanken mit eigenem Zeitstempel an das Model
+ * (Model.handleIncA(boolean, long), Model.handleTick(long)), die Zeitbasis
+ * ist die von System.nanoTime() (CLOCK_MONOTONIC). Sie wird mit
+ * Model.setEdgeSource() angemeldet und mit Model.shutdown() beendet.
+ * </p>
+ * @author Detlef Tribius
+ */
+public interface EdgeSource extends Closeable
+{
+    /**
+     * start(Model model) - Beginn der Meldung der Flanken an model...
+     * @param model
+     * @throws IOException - Quelle nicht verfuegbar
+     */
+    public void start(Model model) throws IOException;
+}
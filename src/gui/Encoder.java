@@ -0,0 +1,215 @@
+/**
+ *
+ */
+package gui;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * Encoder - Zaehlung der Impulse des Inkrementalgebers mit Zeitstempel je Flanke...
+ * </p>
+ * <p>
+ * Die Zeitstempel (ns) der letzten Flanken werden in einem kleinen Ringpuffer
+ * (primitive Arrays) abgelegt. Daraus ergeben sich:
+ * </p>
+ * <ul>
+ * <li>getSpeed(now) - Geschwindigkeit aus der Periodendauer der letzten Flanken
+ * (Impulse pro Sekunde),</li>
+ * <li>getPosition(now) - Lage zum Zeitpunkt now, aus der letzten Flanke
+ * extrapoliert (Aufloesung unterhalb eines Impulses).</li>
+ * </ul>
+ * <p>
+ * Die Extrapolation ist auf weniger als einen Impuls begrenzt, denn eine
+ * weitere Flanke waere sonst bereits gemeldet worden. Bleibt die Flanke aus,
+ * klingt sie auf 0 ab (Stillstand).
+ * </p>
+ * <p>
+ * Die Flanken werden im Thread des GPIO-Listeners gemeldet, ausgewertet wird
+ * im Takt. Der Encoder synchronisiert daher auf sich selbst (eigener Monitor, 
+ * nur fuer wenige Zugriffe gehalten), unabhaengig von der Taktung im Model.
+ * </p>
+ */
+public class Encoder
+{
+    /**
+     * RING_SIZE - Anzahl der gespeicherten Flanken (Zweierpotenz)...
+     */
+    public final static int RING_SIZE = 8;
+
+    /**
+     * MASK - Maske fuer den Ringindex...
+     */
+    private final static int MASK = RING_SIZE - 1;
+
+    /**
+     * MAX_EXTRAPOLATION - Begrenzung der Extrapolation (Impulse)...
+     */
+    private final static double MAX_EXTRAPOLATION = 0.999;
+
+    /**
+     * SAMPLE_COUNT - Index des Zaehlerstandes in sample()...
+     */
+    public final static int SAMPLE_COUNT = 0;
+
+    /**
+     * SAMPLE_POSITION - Index der interpolierten Lage in sample()...
+     */
+    public final static int SAMPLE_POSITION = 1;
+
+    /**
+     * SAMPLE_SPEED - Index der Geschwindigkeit in sample()...
+     */
+    public final static int SAMPLE_SPEED = 2;
+
+    /**
+     * SAMPLE_SIZE - Mindestgroesse des Arrays fuer sample()...
+     */
+    public final static int SAMPLE_SIZE = 3;
+
+    /**
+     * times - Zeitstempel der letzten Flanken (ns)...
+     */
+    private final long[] times = new long[RING_SIZE];
+
+    /**
+     * directions - Zaehlrichtung der letzten Flanken (+1/-1)...
+     */
+    private final int[] directions = new int[RING_SIZE];
+
+    /**
+     * edges - Anzahl der Flanken seit reset() (Position im Ring)...
+     */
+    private long edges = 0L;
+
+    /**
+     * count - Lage in Impulse...
+     */
+    private long count = 0L;
+
+    /**
+     * edge(int direction, long nanos) - Flanke mit Zaehlrichtung und Zeitstempel...
+     * @param direction - +1 oder -1
+     * @param nanos - Zeitstempel der Flanke (ns)
+     * @return neuer Zaehlerstand
+     */
+    public synchronized long edge(int direction, long nanos)
+    {
+        final int index = (int) (this.edges & MASK);
+        this.times[index] = nanos;
+        this.directions[index] = (direction >= 0)? 1 : -1;
+        this.edges++;
+        this.count += this.directions[index];
+        return this.count;
+    }
+
+    /**
+     * @return the count
+     */
+    public final synchronized long getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * getSpeed(long now) - Geschwindigkeit in Impulse pro Sekunde (mit Vorzeichen)...
+     * <p>
+     * Es werden die letzten Flanken gleicher Richtung ausgewertet. Liegt die letzte
+     * Flanke laenger zurueck als die letzte Periode, so ist 1/(now - t) eine obere
+     * Schranke fuer die Geschwindigkeit. Damit klingt die Geschwindigkeit im
+     * Stillstand ab.
+     * </p>
+     * @param now - Zeitpunkt (ns)
+     * @return Impulse pro Sekunde
+     */
+    public synchronized double getSpeed(long now)
+    {
+        final double period = getPeriod();
+        if (period <= 0.0)
+        {
+            return 0.0;
+        }
+        final int last = (int) ((this.edges - 1) & MASK);
+        final double sinceLast = (double) (now - this.times[last]);
+        return this.directions[last] * 1.0E9 / Math.max(period, sinceLast);
+    }
+
+    /**
+     * getPosition(long now) - Lage zum Zeitpunkt now in Impulse (nicht ganzzahlig)...
+     * <p>
+     * Innerhalb der letzten Periode wird mit der Periode extrapoliert. Bleibt die
+     * naechste Flanke aus, klingt die Extrapolation ueber eine weitere Periode
+     * auf 0 ab, im Stillstand gilt damit wieder der Zaehlerstand (ohne bleibenden
+     * Versatz in der zuletzt gefahrenen Richtung).
+     * </p>
+     * @param now - Zeitpunkt (ns)
+     * @return extrapolierte Lage
+     */
+    public synchronized double getPosition(long now)
+    {
+        final double period = getPeriod();
+        if (period <= 0.0)
+        {
+            return this.count;
+        }
+        final int last = (int) ((this.edges - 1) & MASK);
+        final double progress = Math.max(0.0, (double) (now - this.times[last]) / period);
+        final double extrapolation = (progress <= 1.0)? Math.min(MAX_EXTRAPOLATION, progress) : Math.max(0.0, 2.0 - progress);
+        return this.count + this.directions[last] * extrapolation;
+    }
+
+    /**
+     * getPeriod() - Periodendauer (ns) der letzten Flanken gleicher Richtung...
+     * @return Periodendauer oder 0.0 (nicht bestimmbar)
+     */
+    private double getPeriod()
+    {
+        if (this.edges < 2L)
+        {
+            return 0.0;
+        }
+        final int last = (int) ((this.edges - 1) & MASK);
+        final int direction = this.directions[last];
+        // Anzahl der auswertbaren Flanken gleicher Richtung...
+        final int available = (int) Math.min(RING_SIZE, this.edges);
+        int first = last;
+        int periods = 0;
+        for (int back = 1; back < available; back++)
+        {
+            final int index = (last - back) & MASK;
+            if (this.directions[index] != direction)
+            {
+                break;
+            }
+            first = index;
+            periods++;
+        }
+        if (periods == 0)
+        {
+            return 0.0;
+        }
+        final long span = this.times[last] - this.times[first];
+        return (span > 0L)? (double) span / periods : 0.0;
+    }
+
+    /**
+     * sample(long now, double[] sample) - Zaehlerstand, Lage und Geschwindigkeit 
+     * zum Zeitpunkt now in einem Zugriff (konsistent zueinander)...
+     * @param now - Zeitpunkt (ns)
+     * @param sample - Ergebnis, Index SAMPLE_COUNT, SAMPLE_POSITION, SAMPLE_SPEED
+     */
+    public synchronized void sample(long now, double[] sample)
+    {
+        sample[SAMPLE_COUNT] = this.count;
+        sample[SAMPLE_POSITION] = getPosition(now);
+        sample[SAMPLE_SPEED] = getSpeed(now);
+    }
+
+    /**
+     * reset() - Zuruecksetzen von Zaehlerstand und Flanken...
+     */
+    public synchronized void reset()
+    {
+        this.edges = 0L;
+        this.count = 0L;
+    }
+}
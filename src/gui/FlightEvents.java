@@ -0,0 +1,213 @@
+/**
+ *
+ */
+package gui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * FlightEvents - Ereignisse fuer den Java Flight Recorder (JFR)...
+ * </p>
+ * <p>
+ * Je Takt, je Berechnung des Reglers, je Zugriff auf den DRV8830 und je
+ * Verteilung des Datensatzes an die Listener entsteht ein Ereignis mit seiner
+ * Dauer. Committed wird nur oberhalb der Schwelle (@Threshold), die Aufzeichnung
+ * enthaelt damit nur die auffaelligen Abschnitte und kostet sonst nur die
+ * Abfrage shouldCommit(). Die Schwellen lassen sich beim Start der Aufzeichnung
+ * ueberschreiben (z.B. control03.Tick#threshold=0 ms), die Aufzeichnung wird in
+ * JDK Mission Control ausgewertet:
+ * </p>
+ * <pre>
+ *   java -XX:StartFlightRecording=filename=control03.jfr,dumponexit=true ... gui.SwingMain
+ * </pre>
+ * <p>
+ * Die Aufrufer legen Ereignisse nur an, solange eine Aufzeichnung laeuft
+ * (isRecording(), ein Listener am FlightRecorder), ohne Aufzeichnung kostet
+ * der Takt damit nur das Lesen eines volatile und allokiert nichts (vgl.
+ * AllocationMonitor). jdk.jfr gibt es ab OpenJDK 8u272 bzw. Java 11, ohne
+ * jdk.jfr ist IS_AVAILABLE und damit isRecording() false.
+ * </p>
+ */
+public class FlightEvents
+{
+    /**
+     * CATEGORY - Kategorie der Ereignisse in JDK Mission Control...
+     */
+    public final static String CATEGORY = "control03";
+
+    /**
+     * IS_AVAILABLE - jdk.jfr ist in der JVM vorhanden...
+     */
+    public final static boolean IS_AVAILABLE = isAvailable();
+
+    /**
+     * isRecording - mindestens eine Aufzeichnung laeuft (vgl. update())...
+     */
+    private static volatile boolean isRecording = false;
+    
+    static
+    {
+        if (IS_AVAILABLE)
+        {
+            register();
+        }
+    }
+    
+    private static boolean isAvailable()
+    {
+        try
+        {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError exception)
+        {
+            return false;
+        }
+    }
+    
+    /**
+     * register() - Listener am FlightRecorder, Zustand laufender Aufzeichnungen
+     * (auch der mit -XX:StartFlightRecording bereits gestarteten)...
+     */
+    private static void register()
+    {
+        FlightRecorder.addListener(new FlightRecorderListener()
+        {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder)
+            {
+                update();
+            }
+            
+            @Override
+            public void recordingStateChanged(Recording recording)
+            {
+                update();
+            }
+        });
+        update();
+    }
+    
+    /**
+     * update() - Ermittlung von isRecording 
+     * (FlightRecorder.getFlightRecorder() erst nach der Initialisierung)...
+     */
+    private static void update()
+    {
+        boolean isRunning = false;
+        if (FlightRecorder.isInitialized())
+        {
+            for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings())
+            {
+                if (recording.getState() == RecordingState.RUNNING)
+                {
+                    isRunning = true;
+                    break;
+                }
+            }
+        }
+        isRecording = isRunning;
+    }
+    
+    /**
+     * isRecording() - Ereignisse anlegen?
+     * @return true: mindestens eine Aufzeichnung laeuft
+     */
+    public static boolean isRecording()
+    {
+        return isRecording;
+    }
+
+    /**
+     * TickEvent - ein Takt (handleTick()) mit Lage, Sollwert und Stellgroesse...
+     */
+    @Name("control03.Tick")
+    @Label("Takt")
+    @Category(CATEGORY)
+    @Description("Verarbeitung eines Taktes des NE555")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static class TickEvent extends Event
+    {
+        @Label("Taktzaehler")
+        long counter;
+
+        @Label("Lage [Impulse]")
+        long phi;
+
+        @Label("Sollwert Lage [Impulse]")
+        long phiSetPoint;
+
+        @Label("Stellgroesse DRV8830")
+        int output;
+
+        @Label("Taktzeit")
+        @Timespan(Timespan.NANOSECONDS)
+        long cycleTime;
+    }
+
+    /**
+     * ControlEvent - Berechnung des Reglerausganges (PositionController bzw. Kaskade)...
+     */
+    @Name("control03.Control")
+    @Label("Regler")
+    @Category(CATEGORY)
+    @Description("Berechnung des Reglerausganges")
+    @Threshold("500 us")
+    @StackTrace(false)
+    public static class ControlEvent extends Event
+    {
+        @Label("Kaskade")
+        boolean isCascade;
+
+        @Label("Reglerausgang")
+        int output;
+    }
+
+    /**
+     * I2CEvent - Zugriff auf den DRV8830 (drive(), getFault())...
+     */
+    @Name("control03.I2C")
+    @Label("I2C DRV8830")
+    @Category(CATEGORY)
+    @Description("Zugriff auf den DRV8830 ueber den I2C-Bus")
+    @Threshold("2 ms")
+    @StackTrace(false)
+    public static class I2CEvent extends Event
+    {
+        @Label("Operation")
+        String operation;
+
+        @Label("Wert")
+        int value;
+    }
+
+    /**
+     * PublishEvent - Verteilung des Datensatzes an die Listener (Property.DATA)...
+     */
+    @Name("control03.Publish")
+    @Label("Veroeffentlichung")
+    @Category(CATEGORY)
+    @Description("Verteilung des Datensatzes eines Taktes an die Listener")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    public static class PublishEvent extends Event
+    {
+        @Label("Taktzaehler")
+        long counter;
+    }
+}
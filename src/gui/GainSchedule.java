@@ -0,0 +1,257 @@
+/**
+ *
+ */
+package gui;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * GainSchedule - Anpassung der Reglerverstaerkungen an Regelabweichung und Drehzahl...
+ * </p>
+ * <p>
+ * Die Stuetzstellen werden als Tabelle ueber Baender von |Regelabweichung|
+ * (Impulse) und |Drehzahl| (U/min) vorgegeben. Jede Stuetzstelle liefert einen
+ * Faktor fuer die P- und die I-Verstaerkung, die an der Oberflaeche gewaehlten
+ * Verstaerkungen werden damit multipliziert. Zwischen den Baendern wird
+ * bilinear interpoliert (weicher Uebergang).
+ * </p>
+ * <p>
+ * Die Interpolation erfolgt im Konstruktor auf ein feines, gleichabstaendiges
+ * Raster. Je Takt fallen damit nur eine Indexberechnung und zwei Array-Zugriffe an.
+ * </p>
+ */
+public class GainSchedule
+{
+    /**
+     * DEFAULT_ERROR_BANDS - Stuetzstellen der Regelabweichung in Impulse...
+     */
+    public final static double[] DEFAULT_ERROR_BANDS = new double[] {0.0, 10.0, 50.0, 200.0, 1000.0};
+
+    /**
+     * DEFAULT_SPEED_BANDS - Stuetzstellen der Drehzahl in U/min...
+     */
+    public final static double[] DEFAULT_SPEED_BANDS = new double[] {0.0, 20.0, 60.0, 120.0};
+
+    /**
+     * DEFAULT_PROPORTIONAL - Faktoren P-Anteil [Regelabweichung][Drehzahl]:
+     * weit vom Ziel aggressiv, nahe am Ziel (und schnell) sanft...
+     */
+    public final static double[][] DEFAULT_PROPORTIONAL = new double[][]
+    {
+        {0.5, 0.5, 0.4, 0.3},
+        {0.8, 0.7, 0.6, 0.5},
+        {1.0, 1.0, 0.9, 0.8},
+        {1.5, 1.5, 1.2, 1.0},
+        {2.0, 2.0, 1.5, 1.2}
+    };
+
+    /**
+     * DEFAULT_INTEGRAL - Faktoren I-Anteil [Regelabweichung][Drehzahl]:
+     * Integration nur nahe am Ziel, weit vom Ziel kein Aufintegrieren...
+     */
+    public final static double[][] DEFAULT_INTEGRAL = new double[][]
+    {
+        {1.0, 1.0, 0.8, 0.5},
+        {1.0, 1.0, 0.8, 0.5},
+        {0.5, 0.5, 0.3, 0.2},
+        {0.0, 0.0, 0.0, 0.0},
+        {0.0, 0.0, 0.0, 0.0}
+    };
+
+    /**
+     * DEFAULT_ERROR_BIN - Rasterweite der Regelabweichung (Impulse)...
+     */
+    public final static double DEFAULT_ERROR_BIN = 8.0;
+
+    /**
+     * DEFAULT_SPEED_BIN - Rasterweite der Drehzahl (U/min)...
+     */
+    public final static double DEFAULT_SPEED_BIN = 4.0;
+
+    /**
+     * errorScale - 1/Rasterweite Regelabweichung...
+     */
+    private final double errorScale;
+
+    /**
+     * speedScale - 1/Rasterweite Drehzahl...
+     */
+    private final double speedScale;
+
+    /**
+     * errorBins - Anzahl der Rasterpunkte Regelabweichung...
+     */
+    private final int errorBins;
+
+    /**
+     * speedBins - Anzahl der Rasterpunkte Drehzahl...
+     */
+    private final int speedBins;
+
+    /**
+     * proportionalTable - interpolierte Faktoren P-Anteil, Index: errorBin * speedBins + speedBin
+     */
+    private final double[] proportionalTable;
+
+    /**
+     * integralTable - interpolierte Faktoren I-Anteil, Index wie proportionalTable
+     */
+    private final double[] integralTable;
+
+    /**
+     * GainSchedule() - Standardtabelle...
+     */
+    public GainSchedule()
+    {
+        this(DEFAULT_ERROR_BANDS, DEFAULT_SPEED_BANDS, DEFAULT_PROPORTIONAL, DEFAULT_INTEGRAL, DEFAULT_ERROR_BIN, DEFAULT_SPEED_BIN);
+    }
+
+    /**
+     *
+     * @param errorBands - Stuetzstellen |Regelabweichung| (Impulse), aufsteigend, beginnend mit 0
+     * @param speedBands - Stuetzstellen |Drehzahl| (U/min), aufsteigend, beginnend mit 0
+     * @param proportional - Faktoren P-Anteil [errorBands.length][speedBands.length]
+     * @param integral - Faktoren I-Anteil [errorBands.length][speedBands.length]
+     * @param errorBin - Rasterweite Regelabweichung
+     * @param speedBin - Rasterweite Drehzahl
+     */
+    public GainSchedule(double[] errorBands, double[] speedBands, double[][] proportional, double[][] integral, double errorBin, double speedBin)
+    {
+        checkBands(errorBands, "errorBands");
+        checkBands(speedBands, "speedBands");
+        checkTable(proportional, errorBands.length, speedBands.length, "proportional");
+        checkTable(integral, errorBands.length, speedBands.length, "integral");
+        if (errorBin <= 0.0 || speedBin <= 0.0)
+        {
+            throw new IllegalArgumentException("errorBin and speedBin must be positive!");
+        }
+        this.errorScale = 1.0 / errorBin;
+        this.speedScale = 1.0 / speedBin;
+        // Raster bis einschliesslich der letzten Stuetzstelle...
+        this.errorBins = (int) Math.ceil(errorBands[errorBands.length - 1] / errorBin) + 1;
+        this.speedBins = (int) Math.ceil(speedBands[speedBands.length - 1] / speedBin) + 1;
+        this.proportionalTable = new double[this.errorBins * this.speedBins];
+        this.integralTable = new double[this.errorBins * this.speedBins];
+        for (int errorIndex = 0; errorIndex < this.errorBins; errorIndex++)
+        {
+            for (int speedIndex = 0; speedIndex < this.speedBins; speedIndex++)
+            {
+                final double error = errorIndex * errorBin;
+                final double speed = speedIndex * speedBin;
+                final int index = errorIndex * this.speedBins + speedIndex;
+                this.proportionalTable[index] = interpolate(errorBands, speedBands, proportional, error, speed);
+                this.integralTable[index] = interpolate(errorBands, speedBands, integral, error, speed);
+            }
+        }
+    }
+
+    /**
+     * index(double error, double speed) - Tabellenindex zu Regelabweichung und Drehzahl...
+     * @param error - Regelabweichung (Impulse), Vorzeichen wird ignoriert
+     * @param speed - Drehzahl (U/min), Vorzeichen wird ignoriert
+     * @return Index fuer getProportionalFactor()/getIntegralFactor()
+     */
+    public int index(double error, double speed)
+    {
+        final int errorIndex = (int) Math.min(this.errorBins - 1, Math.abs(error) * this.errorScale + 0.5);
+        final int speedIndex = (int) Math.min(this.speedBins - 1, Math.abs(speed) * this.speedScale + 0.5);
+        return errorIndex * this.speedBins + speedIndex;
+    }
+
+    /**
+     * @param index - vgl. index()
+     * @return Faktor fuer die P-Verstaerkung
+     */
+    public double getProportionalFactor(int index)
+    {
+        return this.proportionalTable[index];
+    }
+
+    /**
+     * @param index - vgl. index()
+     * @return Faktor fuer die I-Verstaerkung
+     */
+    public double getIntegralFactor(int index)
+    {
+        return this.integralTable[index];
+    }
+
+    /**
+     * interpolate() - bilineare Interpolation in der Stuetzstellentabelle...
+     */
+    private static double interpolate(double[] errorBands, double[] speedBands, double[][] table, double error, double speed)
+    {
+        final int i = segment(errorBands, error);
+        final int j = segment(speedBands, speed);
+        final double u = fraction(errorBands, i, error);
+        final double v = fraction(speedBands, j, speed);
+        final int i1 = Math.min(i + 1, errorBands.length - 1);
+        final int j1 = Math.min(j + 1, speedBands.length - 1);
+        return (1.0 - u) * (1.0 - v) * table[i][j]
+             + u * (1.0 - v) * table[i1][j]
+             + (1.0 - u) * v * table[i][j1]
+             + u * v * table[i1][j1];
+    }
+
+    /**
+     * segment() - Index der Stuetzstelle links von value...
+     */
+    private static int segment(double[] bands, double value)
+    {
+        int index = 0;
+        while (index < bands.length - 1 && value >= bands[index + 1])
+        {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * fraction() - relative Lage von value im Segment index (0...1)...
+     */
+    private static double fraction(double[] bands, int index, double value)
+    {
+        if (index >= bands.length - 1)
+        {
+            return 0.0;
+        }
+        final double width = bands[index + 1] - bands[index];
+        return Math.max(0.0, Math.min(1.0, (value - bands[index]) / width));
+    }
+
+    /**
+     * checkBands() - Pruefung der Stuetzstellen...
+     */
+    private static void checkBands(double[] bands, String name)
+    {
+        if (bands == null || bands.length == 0 || bands[0] != 0.0)
+        {
+            throw new IllegalArgumentException(name + " must start with 0!");
+        }
+        for (int index = 1; index < bands.length; index++)
+        {
+            if (bands[index] <= bands[index - 1])
+            {
+                throw new IllegalArgumentException(name + " must be ascending!");
+            }
+        }
+    }
+
+    /**
+     * checkTable() - Pruefung der Dimension einer Faktorentabelle...
+     */
+    private static void checkTable(double[][] table, int rows, int columns, String name)
+    {
+        if (table == null || table.length != rows)
+        {
+            throw new IllegalArgumentException(name + " must have " + rows + " rows!");
+        }
+        for (double[] row: table)
+        {
+            if (row == null || row.length != columns)
+            {
+                throw new IllegalArgumentException(name + " must have " + columns + " columns!");
+            }
+        }
+    }
+}
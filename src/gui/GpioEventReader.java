@@ -0,0 +1,429 @@
+/**
+ *
+ */
+package gui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * GpioEventReader - Flanken aus dem GPIO character device des Linux-Kernels
+ * mit dem Zeitstempel des Kernels (vgl. EdgeSource)...
+ * </p>
+ * <p>
+ * Gelesen werden Ereignisse im Format struct gpio_v2_line_event
+ * (linux/gpio.h, EVENT_SIZE Bytes, Byte-Reihenfolge des Rechners):
+ * </p>
+ * <pre>
+ *   u64 timestamp_ns   Zeitpunkt der Flanke (CLOCK_MONOTONIC, wie System.nanoTime())
+ *   u32 id             RISING_EDGE bzw. FALLING_EDGE
+ *   u32 offset         Leitung (BCM-Nummer)
+ *   u32 seqno          laufende Nummer je Anforderung (Luecke: Ereignisse verloren)
+ *   u32 line_seqno     laufende Nummer je Leitung
+ *   u32 padding[6]
+ * </pre>
+ * <p>
+ * Je read() werden bis zu BATCH_EVENTS Ereignisse in einen direkten Puffer
+ * gelesen und im eigenen Thread an das Model gemeldet: steigende Flanke NE555
+ * als Takt, steigende Flanke A mit dem Zustand von B als Impuls. Den Zustand
+ * von B liefern die Ereignisse der Leitung B selbst, in der Reihenfolge des
+ * Kernels (keine Abfrage des Pegels zum spaeteren Zeitpunkt des Listeners).
+ * </p>
+ * <p>
+ * Die Anforderung der Leitungen (ioctl GPIO_V2_GET_LINE_IOCTL auf /dev/gpiochipN)
+ * ist mit NIO unter Java 8 nicht moeglich, gelesen wird daher aus einer FIFO
+ * (mkfifo), in die das Hilfsprogramm native/gpio-events.c die Ereignisse der
+ * angeforderten Leitungen unveraendert weiterreicht (Uebersetzen und Aufruf
+ * vgl. dort bzw. 'ant native'). Eine Datei im selben Format dient als Ersatz
+ * des Geraetes ohne Raspi (vgl. encode(), main()); am Ende der Datei endet der Thread.
+ * </p>
+ * <p>
+ * Vor dem ersten Ereignis des Kernels schreibt gpio-events je Leitung den
+ * Anfangspegel als Ereignis mit seqno 0 (der Kernel zaehlt ab 1). Damit ist der
+ * Zustand von B schon beim ersten Impuls A bekannt. Fehlt der Anfangspegel
+ * (z.B. Datei ohne diese Ereignisse), gilt B bis zur ersten Flanke von B als
+ * Low, einmalig mit Warnung.
+ * </p>
+ */
+public class GpioEventReader implements EdgeSource, Runnable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(GpioEventReader.class);
+
+    /**
+     * EVENT_SIZE - Groesse von struct gpio_v2_line_event in Bytes...
+     */
+    public final static int EVENT_SIZE = 48;
+
+    /**
+     * BATCH_EVENTS - max. Anzahl der Ereignisse je read()...
+     */
+    public final static int BATCH_EVENTS = 64;
+
+    /**
+     * RISING_EDGE, FALLING_EDGE - id der Ereignisse (GPIO_V2_LINE_EVENT_RISING_EDGE/_FALLING_EDGE)...
+     */
+    public final static int RISING_EDGE = 1;
+
+    public final static int FALLING_EDGE = 2;
+
+    /**
+     * Leitungen (BCM-Nummer) gemaess der Belegung im Model (RaspiPin.GPIO_00, _02, _03)...
+     */
+    public final static int DEFAULT_NE555_LINE = 17;
+
+    public final static int DEFAULT_INC_A_LINE = 27;
+
+    public final static int DEFAULT_INC_B_LINE = 22;
+
+    /**
+     * Lage der Felder im Ereignis...
+     */
+    private final static int TIMESTAMP_OFFSET = 0;
+    private final static int ID_OFFSET = 8;
+    private final static int LINE_OFFSET = 12;
+    private final static int SEQNO_OFFSET = 16;
+    private final static int LINE_SEQNO_OFFSET = 20;
+
+    /**
+     * path - Geraet, FIFO oder Datei...
+     */
+    private final Path path;
+
+    /**
+     * Leitungen von NE555, Impuls A und Impuls B...
+     */
+    private final int ne555Line;
+    private final int incALine;
+    private final int incBLine;
+
+    /**
+     * buffer - Puffer fuer BATCH_EVENTS Ereignisse (nur im Thread des Readers)...
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_EVENTS * EVENT_SIZE).order(ByteOrder.nativeOrder());
+
+    /**
+     * channel - geoeffnete Quelle...
+     */
+    private volatile FileChannel channel = null;
+
+    /**
+     * model - Empfaenger der Flanken...
+     */
+    private Model model = null;
+
+    /**
+     * is_B_High - letzter gemeldeter Zustand von Impuls B (Anfangspegel bzw. Flanke)...
+     */
+    private boolean is_B_High = false;
+
+    /**
+     * is_B_Known - Zustand von B ist bekannt (Anfangspegel oder Flanke von B gelesen)...
+     */
+    private boolean is_B_Known = false;
+
+    /**
+     * seqno - laufende Nummer des letzten Ereignisses (0: noch keines)...
+     */
+    private long seqno = 0L;
+
+    /**
+     * Zaehler (Schreiber: Thread des Readers)...
+     */
+    private volatile long eventCount = 0L;
+    private volatile long readCount = 0L;
+    private volatile long lostCount = 0L;
+
+    /**
+     *
+     * @param path - Geraet, FIFO oder Datei
+     */
+    public GpioEventReader(Path path)
+    {
+        this(path, DEFAULT_NE555_LINE, DEFAULT_INC_A_LINE, DEFAULT_INC_B_LINE);
+    }
+
+    /**
+     *
+     * @param path - Geraet, FIFO oder Datei
+     * @param ne555Line - Leitung des NE555 (BCM)
+     * @param incALine - Leitung des Impulses A (BCM)
+     * @param incBLine - Leitung des Impulses B (BCM)
+     */
+    public GpioEventReader(Path path, int ne555Line, int incALine, int incBLine)
+    {
+        this.path = path;
+        this.ne555Line = ne555Line;
+        this.incALine = incALine;
+        this.incBLine = incBLine;
+    }
+
+    /**
+     * start(Model model) - Oeffnen der Quelle, Lesen im eigenen Thread...
+     * <p>
+     * Bei einer FIFO blockiert das Oeffnen bis zum Oeffnen durch den Schreiber,
+     * daher erfolgt auch das Oeffnen im Thread.
+     * </p>
+     */
+    @Override
+    public void start(Model model) throws IOException
+    {
+        if (this.model != null)
+        {
+            throw new IllegalStateException("GpioEventReader already started!");
+        }
+        this.model = model;
+        final Thread thread = new Thread(this, "GPIO-Events");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * run() - Lesen der Ereignisse bis zum Ende der Quelle bzw. bis close()...
+     */
+    @Override
+    public void run()
+    {
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ))
+        {
+            this.channel = channel;
+            while (channel.read(this.buffer) >= 0)
+            {
+                this.readCount++;
+                this.buffer.flip();
+                while (this.buffer.remaining() >= EVENT_SIZE)
+                {
+                    dispatch(this.buffer.position());
+                    this.buffer.position(this.buffer.position() + EVENT_SIZE);
+                }
+                // Ein unvollstaendiges Ereignis bleibt fuer das naechste read() stehen...
+                this.buffer.compact();
+            }
+            logger.info("run(): Ende von " + this.path + " " + this);
+        }
+        catch (AsynchronousCloseException exception)
+        {
+            logger.debug("run(): close()");
+        }
+        catch (IOException exception)
+        {
+            logger.error("run()", exception);
+        }
+    }
+
+    /**
+     * dispatch(int index) - Meldung eines Ereignisses an das Model...
+     * @param index - Beginn des Ereignisses im buffer
+     */
+    private void dispatch(int index)
+    {
+        final long timestamp = this.buffer.getLong(index + TIMESTAMP_OFFSET);
+        final int id = this.buffer.getInt(index + ID_OFFSET);
+        final int line = this.buffer.getInt(index + LINE_OFFSET);
+        final long seqno = this.buffer.getInt(index + SEQNO_OFFSET) & 0xFFFFFFFFL;
+        if (seqno == 0L)
+        {
+            // Anfangspegel von gpio-events, keine Flanke...
+            if (line == this.incBLine)
+            {
+                this.is_B_High = (id == RISING_EDGE);
+                this.is_B_Known = true;
+            }
+            return;
+        }
+        if (this.seqno != 0L && seqno > this.seqno + 1L)
+        {
+            this.lostCount += seqno - this.seqno - 1L;
+        }
+        this.seqno = seqno;
+        this.eventCount++;
+        if (line == this.incBLine)
+        {
+            this.is_B_High = (id == RISING_EDGE);
+            this.is_B_Known = true;
+        }
+        else if (id == RISING_EDGE)
+        {
+            if (line == this.incALine)
+            {
+                if (!this.is_B_Known)
+                {
+                    logger.warn("dispatch(): kein Anfangspegel von B (seqno 0), B gilt als Low");
+                    this.is_B_Known = true;
+                }
+                this.model.handleIncA(this.is_B_High, timestamp);
+            }
+            else if (line == this.ne555Line)
+            {
+                this.model.handleTick(timestamp);
+            }
+        }
+    }
+
+    /**
+     * close() - Beenden des Lesens...
+     */
+    @Override
+    public void close() throws IOException
+    {
+        final FileChannel channel = this.channel;
+        if (channel != null)
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return Anzahl der gelesenen Ereignisse
+     */
+    public final long getEventCount()
+    {
+        return this.eventCount;
+    }
+
+    /**
+     * @return Anzahl der read()-Aufrufe
+     */
+    public final long getReadCount()
+    {
+        return this.readCount;
+    }
+
+    /**
+     * @return Anzahl der verlorenen Ereignisse (Luecken in seqno)
+     */
+    public final long getLostCount()
+    {
+        return this.lostCount;
+    }
+
+    /**
+     * encode() - Ablage eines Ereignisses im Format des Kernels (Ersatz des Geraetes)...
+     * @param buffer - Ziel (Byte-Reihenfolge des Rechners), mind. EVENT_SIZE Bytes frei
+     * @param timestamp - Zeitpunkt in ns
+     * @param id - RISING_EDGE bzw. FALLING_EDGE
+     * @param line - Leitung (BCM)
+     * @param seqno - laufende Nummer (ab 1, 0: Anfangspegel)
+     * @param lineSeqno - laufende Nummer der Leitung (ab 1)
+     */
+    public static void encode(ByteBuffer buffer, long timestamp, int id, int line, int seqno, int lineSeqno)
+    {
+        final int index = buffer.position();
+        buffer.putLong(index + TIMESTAMP_OFFSET, timestamp);
+        buffer.putInt(index + ID_OFFSET, id);
+        buffer.putInt(index + LINE_OFFSET, line);
+        buffer.putInt(index + SEQNO_OFFSET, seqno);
+        buffer.putInt(index + LINE_SEQNO_OFFSET, lineSeqno);
+        for (int offset = LINE_SEQNO_OFFSET + 4; offset < EVENT_SIZE; offset += 4)
+        {
+            buffer.putInt(index + offset, 0);
+        }
+        buffer.position(index + EVENT_SIZE);
+    }
+
+    /**
+     * toString() - zu Protokollzwecken...
+     */
+    @Override
+    public String toString()
+    {
+        return new StringBuilder().append("GpioEventReader[").append(this.path)
+                                  .append(" Ereignisse=").append(this.eventCount)
+                                  .append(" read()=").append(this.readCount)
+                                  .append(" verloren=").append(this.lostCount)
+                                  .append("]")
+                                  .toString();
+    }
+
+    /**
+     * main() - Ersatz des Geraetes: Aufzeichnung einer gleichfoermigen Drehung
+     * und Wiedergabe ueber ein Model ohne Hardware...
+     * @param args - file [rpm] [seconds]
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Aufruf: java gui.GpioEventReader file [rpm] [seconds]");
+            System.exit(2);
+        }
+        final Path path = Paths.get(args[0]);
+        final double rpm = (args.length > 1)? Double.parseDouble(args[1]) : 60.0;
+        final double seconds = (args.length > 2)? Double.parseDouble(args[2]) : 2.0;
+
+        // Impuls A: Periode aus der Drehzahl, B um eine Viertelperiode nacheilend (positive Richtung),
+        // Takt: Periode 20ms; die Ereignisse werden zeitlich geordnet abgelegt...
+        final long period = Math.round(60.0E9 / (rpm * Model.CIRCUMFERENCE.doubleValue()));
+        final long tickPeriod = Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L;
+        final long end = Math.round(seconds * 1.0E9);
+        final long origin = 1000000000L;
+        final long[] next = {0L, period / 4L, tickPeriod / 2L};
+        final int[] lines = {DEFAULT_INC_A_LINE, DEFAULT_INC_B_LINE, DEFAULT_NE555_LINE};
+        final long[] halfPeriods = {period / 2L, period / 2L, tickPeriod / 2L};
+        final boolean[] levels = {false, false, false};
+        final int[] lineSeqnos = new int[lines.length];
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_EVENTS * EVENT_SIZE).order(ByteOrder.nativeOrder());
+        int seqno = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            // Anfangspegel wie von gpio-events (seqno 0)...
+            for (int line = 0; line < lines.length; line++)
+            {
+                encode(buffer, origin, levels[line]? RISING_EDGE : FALLING_EDGE, lines[line], 0, 0);
+            }
+            while (true)
+            {
+                int line = 0;
+                for (int index = 1; index < lines.length; index++)
+                {
+                    line = (next[index] < next[line])? index : line;
+                }
+                if (next[line] > end)
+                {
+                    break;
+                }
+                levels[line] = !levels[line];
+                encode(buffer, origin + next[line], levels[line]? RISING_EDGE : FALLING_EDGE, lines[line], ++seqno, ++lineSeqnos[line]);
+                next[line] += halfPeriods[line];
+                if (!buffer.hasRemaining())
+                {
+                    buffer.flip();
+                    channel.write(buffer);
+                    buffer.clear();
+                }
+            }
+            buffer.flip();
+            channel.write(buffer);
+        }
+
+        final Model model = new Model(new SimulatedDrive(), new VirtualClock());
+        final GpioEventReader reader = new GpioEventReader(path);
+        final long startNanos = System.nanoTime();
+        model.setEdgeSource(reader);
+        while (reader.getEventCount() < seqno && System.nanoTime() - startNanos < 10000000000L)
+        {
+            Thread.sleep(10L);
+        }
+        final Data data = model.getData();
+        System.out.println(reader);
+        System.out.println("Ereignisse/read(): " + (reader.getEventCount() / Math.max(1L, reader.getReadCount())));
+        System.out.println("Takte:             " + data.getCounter() + ", Taktzeit " + data.getCycleTime() + " s");
+        System.out.println("Drehzahl:          " + data.getRpm() + " (Soll " + rpm + ")");
+        model.shutdown();
+    }
+}
@@ -0,0 +1,396 @@
+/**
+ *
+ */
+package gui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * GpioRegisterSampler - Abtastung der Pegel von NE555, Impuls A und Impuls B
+ * direkt im Register GPLEV0 des GPIO-Blockes (vgl. EdgeSource)...
+ * </p>
+ * <p>
+ * Ein eigener Thread liest in einer engen Schleife das Register (ein Zugriff
+ * je Abtastung, keine Unterbrechung, kein Listener) und bildet die Flanken
+ * in Software: steigende Flanke NE555 als Takt, steigende Flanke A mit dem
+ * Pegel von B als Impuls (wie im Model). Aendern A und B zwischen zwei
+ * Abtastungen gleichzeitig ihren Pegel, ist eine Flanke verloren gegangen
+ * (getErrorCount()). Der Aufwand je Abtastung ist konstant und unabhaengig
+ * von der Impulsrate, die hoechste Impulsrate ergibt sich aus der Abtastrate.
+ * </p>
+ * <p>
+ * Der Registerblock wird als ByteBuffer uebergeben. map() bildet eine gewoehnliche
+ * Datei mit FileChannel.map() ab (REGISTER_BLOCK_SIZE Bytes), sie dient so als
+ * Ersatz des Geraetes (vgl. main()). Fuer /dev/gpiomem scheitert FileChannel.map()
+ * unter Java 8 an der Dateigroesse 0 des Geraetes, Geraete bildet map() daher
+ * ueber die JNI-Bibliothek NATIVE_LIBRARY (native/gpiomem.c, 'ant native') ab,
+ * zu laden ueber -Djava.library.path.
+ * </p>
+ * <p>
+ * Die Schleife belegt einen Prozessorkern; mit period > 0 wird zwischen den
+ * Abtastungen gewartet (LockSupport.parkNanos()).
+ * </p>
+ */
+public class GpioRegisterSampler implements EdgeSource, Runnable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(GpioRegisterSampler.class);
+
+    /**
+     * REGISTER_BLOCK_SIZE - Groesse des abgebildeten GPIO-Blockes (eine Seite)...
+     */
+    public final static int REGISTER_BLOCK_SIZE = 4096;
+
+    /**
+     * NATIVE_LIBRARY - JNI-Bibliothek fuer die Abbildung von Geraeten (libcontrol03gpiomem.so)...
+     */
+    public final static String NATIVE_LIBRARY = "control03gpiomem";
+
+    /**
+     * GPLEV0_OFFSET - Lage des Registers GPLEV0 (Pegel GPIO 0...31) im Block...
+     */
+    public final static int GPLEV0_OFFSET = 0x34;
+
+    /**
+     * registers - der GPIO-Block (little endian)...
+     */
+    private final ByteBuffer registers;
+
+    /**
+     * Masken der Leitungen in GPLEV0...
+     */
+    private final int ne555Mask;
+    private final int incAMask;
+    private final int incBMask;
+
+    /**
+     * period - Wartezeit zwischen den Abtastungen in ns (0: ohne Warten)...
+     */
+    private final long period;
+
+    /**
+     * clock - Zeitbasis der Flanken (TickClock.SYSTEM, im Ersatz VirtualClock)...
+     */
+    private final TickClock clock;
+
+    /**
+     * past - Pegel der letzten Abtastung (nur im Thread des Samplers)...
+     */
+    private int past;
+
+    /**
+     * isRunning - die Abtastung laeuft...
+     * <p>
+     * Das Lesen von isRunning (volatile) je Abtastung verhindert zugleich, dass
+     * der Zugriff auf das Register aus der Schleife herausgezogen wird.
+     * </p>
+     */
+    private volatile boolean isRunning = false;
+
+    /**
+     * model - Empfaenger der Flanken...
+     */
+    private Model model = null;
+
+    /**
+     * Zaehler (Schreiber: Thread des Samplers)...
+     */
+    private volatile long sampleCount = 0L;
+    private volatile long edgeCount = 0L;
+    private volatile long errorCount = 0L;
+
+    /**
+     *
+     * @param registers - GPIO-Block (vgl. map())
+     */
+    public GpioRegisterSampler(ByteBuffer registers)
+    {
+        this(registers, GpioEventReader.DEFAULT_NE555_LINE, GpioEventReader.DEFAULT_INC_A_LINE, GpioEventReader.DEFAULT_INC_B_LINE, 0L, TickClock.SYSTEM);
+    }
+
+    /**
+     *
+     * @param registers - GPIO-Block (vgl. map())
+     * @param ne555Line - Leitung des NE555 (BCM, 0...31)
+     * @param incALine - Leitung des Impulses A (BCM, 0...31)
+     * @param incBLine - Leitung des Impulses B (BCM, 0...31)
+     * @param period - Wartezeit zwischen den Abtastungen in ns (0: ohne Warten)
+     * @param clock - Zeitbasis der Flanken
+     */
+    public GpioRegisterSampler(ByteBuffer registers, int ne555Line, int incALine, int incBLine, long period, TickClock clock)
+    {
+        if (registers.capacity() < GPLEV0_OFFSET + 4)
+        {
+            throw new IllegalArgumentException("registers too small!");
+        }
+        this.registers = registers.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.ne555Mask = 1 << ne555Line;
+        this.incAMask = 1 << incALine;
+        this.incBMask = 1 << incBLine;
+        this.period = period;
+        this.clock = clock;
+        this.past = this.registers.getInt(GPLEV0_OFFSET);
+    }
+
+    /**
+     * isNativeLoaded - NATIVE_LIBRARY ist geladen (vgl. loadNative())...
+     */
+    private static boolean isNativeLoaded = false;
+
+    /**
+     * map(Path path) - Abbildung des GPIO-Blockes...
+     * <p>
+     * Eine gewoehnliche Datei wird mit FileChannel.map() abgebildet, ein Geraet
+     * (z.B. /dev/gpiomem) ueber NATIVE_LIBRARY mit mmap().
+     * </p>
+     * @param path - /dev/gpiomem oder Ersatz des Geraetes (mind. REGISTER_BLOCK_SIZE Bytes)
+     * @return Puffer (nur lesend)
+     * @throws IOException
+     */
+    public static ByteBuffer map(Path path) throws IOException
+    {
+        if (!Files.isRegularFile(path))
+        {
+            loadNative();
+            return mapDevice(path.toString(), REGISTER_BLOCK_SIZE);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0L, REGISTER_BLOCK_SIZE);
+        }
+    }
+
+    /**
+     * loadNative() - Laden von NATIVE_LIBRARY (einmalig)...
+     * @throws IOException - Bibliothek nicht gefunden
+     */
+    private static synchronized void loadNative() throws IOException
+    {
+        if (isNativeLoaded)
+        {
+            return;
+        }
+        try
+        {
+            System.loadLibrary(NATIVE_LIBRARY);
+            isNativeLoaded = true;
+        }
+        catch (UnsatisfiedLinkError error)
+        {
+            throw new IOException("lib" + NATIVE_LIBRARY + ".so not found (ant native, -Djava.library.path): " + error.getMessage());
+        }
+    }
+
+    /**
+     * mapDevice(String path, int size) - Abbildung eines Geraetes mit mmap() 
+     * (nur lesend, bis zum Ende des Prozesses, vgl. native/gpiomem.c)...
+     * @param path - Geraet
+     * @param size - Groesse der Abbildung in Bytes
+     * @return direkter Puffer auf die Abbildung
+     * @throws IOException
+     */
+    private static native ByteBuffer mapDevice(String path, int size) throws IOException;
+
+    /**
+     * start(Model model) - Abtastung im eigenen Thread...
+     */
+    @Override
+    public void start(Model model)
+    {
+        if (this.model != null)
+        {
+            throw new IllegalStateException("GpioRegisterSampler already started!");
+        }
+        this.model = model;
+        this.isRunning = true;
+        final Thread thread = new Thread(this, "GPIO-Sampler");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * setModel(Model model) - Empfaenger der Flanken ohne eigenen Thread, die
+     * Abtastung erfolgt dann mit poll() durch den Aufrufer (vgl. main())...
+     * @param model
+     */
+    void setModel(Model model)
+    {
+        if (this.model != null)
+        {
+            throw new IllegalStateException("GpioRegisterSampler already started!");
+        }
+        this.model = model;
+    }
+
+    /**
+     * run() - Abtastung bis close()...
+     */
+    @Override
+    public void run()
+    {
+        long samples = 0L;
+        while (this.isRunning)
+        {
+            poll();
+            // Zaehler nur gelegentlich veroeffentlichen (volatile write je Abtastung waere teuer)...
+            if ((++samples & 0xFFFL) == 0L)
+            {
+                this.sampleCount = samples;
+            }
+            if (this.period > 0L)
+            {
+                LockSupport.parkNanos(this.period);
+            }
+        }
+        this.sampleCount = samples;
+        logger.info("run(): Ende " + this);
+    }
+
+    /**
+     * poll() - eine Abtastung, Meldung der Flanken an das Model (nur im Thread des Samplers)...
+     */
+    void poll()
+    {
+        final int level = this.registers.getInt(GPLEV0_OFFSET);
+        final int changed = level ^ this.past;
+        if (changed != 0)
+        {
+            final long now = this.clock.nanoTime();
+            if ((changed & this.incAMask) != 0 && (changed & this.incBMask) != 0)
+            {
+                // A und B zugleich: mindestens eine Flanke nicht abgetastet...
+                this.errorCount++;
+            }
+            if ((changed & level & this.incAMask) != 0)
+            {
+                this.edgeCount++;
+                this.model.handleIncA((level & this.incBMask) != 0, now);
+            }
+            if ((changed & level & this.ne555Mask) != 0)
+            {
+                this.model.handleTick(now);
+            }
+            this.past = level;
+        }
+    }
+
+    /**
+     * close() - Beenden der Abtastung...
+     */
+    @Override
+    public void close()
+    {
+        this.isRunning = false;
+    }
+
+    /**
+     * @return Anzahl der Abtastungen (in Schritten von 4096 aktualisiert)
+     */
+    public final long getSampleCount()
+    {
+        return this.sampleCount;
+    }
+
+    /**
+     * @return Anzahl der steigenden Flanken A
+     */
+    public final long getEdgeCount()
+    {
+        return this.edgeCount;
+    }
+
+    /**
+     * @return Anzahl der Abtastungen mit gleichzeitiger Aenderung von A und B
+     */
+    public final long getErrorCount()
+    {
+        return this.errorCount;
+    }
+
+    /**
+     * toString() - zu Protokollzwecken...
+     */
+    @Override
+    public String toString()
+    {
+        return new StringBuilder().append("GpioRegisterSampler[")
+                                  .append("Abtastungen=").append(this.sampleCount)
+                                  .append(" Flanken=").append(this.edgeCount)
+                                  .append(" Fehler=").append(this.errorCount)
+                                  .append("]")
+                                  .toString();
+    }
+
+    /**
+     * main() - Ersatz des Geraetes: eine Datei als GPIO-Block mit den Pegeln einer
+     * gleichfoermigen Drehung, je Viertelperiode von A eine Abtastung (VirtualClock)...
+     * @param args - file [rpm] [seconds]
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Aufruf: java gui.GpioRegisterSampler file [rpm] [seconds]");
+            System.exit(2);
+        }
+        final Path path = Paths.get(args[0]);
+        final double rpm = (args.length > 1)? Double.parseDouble(args[1]) : 60.0;
+        final double seconds = (args.length > 2)? Double.parseDouble(args[2]) : 2.0;
+
+        Files.write(path, new byte[REGISTER_BLOCK_SIZE]);
+        final MappedByteBuffer levels;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            levels = channel.map(FileChannel.MapMode.READ_WRITE, 0L, REGISTER_BLOCK_SIZE);
+        }
+        levels.order(ByteOrder.LITTLE_ENDIAN);
+
+        final VirtualClock clock = new VirtualClock();
+        final Model model = new Model(new SimulatedDrive(), clock);
+        final GpioRegisterSampler sampler = new GpioRegisterSampler(map(path), GpioEventReader.DEFAULT_NE555_LINE,
+                                                                    GpioEventReader.DEFAULT_INC_A_LINE, GpioEventReader.DEFAULT_INC_B_LINE,
+                                                                    0L, clock);
+        // Ohne start(): die Abtastung erfolgt hier im Takt der virtuellen Zeit...
+        sampler.setModel(model);
+
+        // Gray-Folge von A/B (positive Richtung: B eilt nach), Takt (NE555) mit 20ms...
+        final long quarter = Math.round(60.0E9 / (rpm * Model.CIRCUMFERENCE.doubleValue()) / 4.0);
+        final long tickPeriod = Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L;
+        final long steps = Math.round(seconds * 1.0E9 / quarter);
+        for (long step = 0L; step < steps; step++)
+        {
+            final int state = (int) (step & 3L);
+            final boolean isAHigh = (state == 0 || state == 1);
+            final boolean isBHigh = (state == 1 || state == 2);
+            final boolean isTickHigh = (clock.nanoTime() % tickPeriod) < tickPeriod / 2L;
+            levels.putInt(GPLEV0_OFFSET, (isAHigh? 1 << GpioEventReader.DEFAULT_INC_A_LINE : 0)
+                                       | (isBHigh? 1 << GpioEventReader.DEFAULT_INC_B_LINE : 0)
+                                       | (isTickHigh? 1 << GpioEventReader.DEFAULT_NE555_LINE : 0));
+            sampler.poll();
+            clock.advance(quarter);
+        }
+        final Data data = model.getData();
+        System.out.println(sampler);
+        System.out.println("Flanken A (Soll):  " + sampler.getEdgeCount() + " (" + ((steps + 3L) / 4L) + ")");
+        System.out.println("Takte:             " + data.getCounter() + ", Taktzeit " + data.getCycleTime() + " s");
+        System.out.println("Drehzahl:          " + data.getRpm() + " (Soll " + rpm + ")");
+    }
+}
@@ -0,0 +1,429 @@
+/**
+ *
+ */
+package gui;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * MetricsServer - eingebetteter HTTP-Server zur Beobachtung des laufenden Model...
+ * </p>
+ * <ul>
+ * <li>/metrics - Kennzahlen im Textformat von Prometheus (vgl. TickMetrics)</li>
+ * <li>/events - Server-Sent Events mit dem zuletzt veroeffentlichten Data-Satz,
+ * hoechstens eventsPerSecond je Sekunde und Client</li>
+ * </ul>
+ * <p>
+ * Der Takt wird nicht beruehrt: gelesen werden nur die Atomics der TickMetrics,
+ * der volatile Data-Satz und der Status des Model. Die Anfragen laufen in einem
+ * begrenzten Pool aus Daemon-Threads (Java 8, keine virtuellen Threads), die
+ * Anzahl der Event-Clients ist auf MAX_EVENT_CLIENTS begrenzt, damit immer
+ * Threads fuer /metrics frei bleiben.
+ * </p>
+ * <p>
+ * Aufruf ohne Raspi (Simulation in Echtzeit): <code>java gui.MetricsServer [host:port]</code>,
+ * danach z.B. <code>curl http://127.0.0.1:9103/metrics</code>.
+ * </p>
+ */
+public class MetricsServer implements Closeable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(MetricsServer.class);
+
+    /**
+     * DEFAULT_HOST - Voreinstellung, nur lokal erreichbar...
+     */
+    public final static String DEFAULT_HOST = "127.0.0.1";
+
+    /**
+     * DEFAULT_PORT - Voreinstellung Port...
+     */
+    public final static int DEFAULT_PORT = 9103;
+
+    /**
+     * DEFAULT_EVENTS_PER_SECOND - Voreinstellung Events je Sekunde und Client...
+     */
+    public final static int DEFAULT_EVENTS_PER_SECOND = 10;
+
+    /**
+     * MAX_EVENT_CLIENTS - groesste Anzahl gleichzeitiger Event-Clients...
+     */
+    public final static int MAX_EVENT_CLIENTS = 4;
+
+    /**
+     * METRICS_PATH, EVENTS_PATH - Pfade der Endpunkte...
+     */
+    public final static String METRICS_PATH = "/metrics";
+
+    public final static String EVENTS_PATH = "/events";
+
+    /**
+     * QUANTILES - ausgegebene Perzentile der Taktzeit...
+     */
+    private final static double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * model - beobachtetes Model...
+     */
+    private final Model model;
+
+    /**
+     * eventsPerSecond - Events je Sekunde und Client...
+     */
+    private final int eventsPerSecond;
+
+    /**
+     * server - der HTTP-Server...
+     */
+    private final HttpServer server;
+
+    /**
+     * executor - Threads der Anfragen...
+     */
+    private final ExecutorService executor;
+
+    /**
+     * eventClients - Anzahl der verbundenen Event-Clients...
+     */
+    private final AtomicInteger eventClients = new AtomicInteger();
+
+    /**
+     * isClosed - Kennung, der Server wird beendet (Event-Clients trennen)...
+     */
+    private volatile boolean isClosed = false;
+
+    /**
+     * MetricsServer(InetSocketAddress address, Model model, int eventsPerSecond) - Start des Servers...
+     * @param address - Adresse und Port
+     * @param model - beobachtetes Model
+     * @param eventsPerSecond - Events je Sekunde und Client (1...Taktrate)
+     * @throws IOException
+     */
+    public MetricsServer(InetSocketAddress address, Model model, int eventsPerSecond) throws IOException
+    {
+        if (eventsPerSecond <= 0)
+        {
+            throw new IllegalArgumentException("eventsPerSecond must be positive!");
+        }
+        this.model = Objects.requireNonNull(model, "model must not be null!");
+        this.eventsPerSecond = eventsPerSecond;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newFixedThreadPool(MAX_EVENT_CLIENTS + 2, new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, "metrics-" + this.count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.server.setExecutor(this.executor);
+        this.server.createContext(METRICS_PATH, new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                handleMetrics(exchange);
+            }
+        });
+        this.server.createContext(EVENTS_PATH, new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                handleEvents(exchange);
+            }
+        });
+        this.server.start();
+        logger.info("MetricsServer: http://" + address.getHostString() + ":" + getPort() + METRICS_PATH);
+    }
+
+    /**
+     * parse(String address) - Adresse aus "host:port" bzw. "port" (Host DEFAULT_HOST)...
+     * @param address
+     * @return
+     */
+    public static InetSocketAddress parse(String address)
+    {
+        final int colon = address.lastIndexOf(':');
+        if (colon < 0)
+        {
+            return new InetSocketAddress(DEFAULT_HOST, Integer.parseInt(address.trim()));
+        }
+        return new InetSocketAddress(address.substring(0, colon).trim(), Integer.parseInt(address.substring(colon + 1).trim()));
+    }
+
+    /**
+     * @return tatsaechlicher Port (z.B. bei Port 0)
+     */
+    public final int getPort()
+    {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * handleMetrics(HttpExchange exchange) - Ausgabe der Kennzahlen...
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            if (!"GET".equals(exchange.getRequestMethod()))
+            {
+                exchange.sendResponseHeaders(405, -1L);
+                return;
+            }
+            final byte[] body = getMetrics().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody())
+            {
+                output.write(body);
+            }
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    /**
+     * getMetrics() - Kennzahlen im Textformat von Prometheus...
+     * @return
+     */
+    public String getMetrics()
+    {
+        final TickMetrics metrics = this.model.getMetrics();
+        final StringBuilder builder = new StringBuilder(2048);
+
+        appendHeader(builder, "control_ticks_total", "counter", "Number of ticks since start.");
+        appendValue(builder, "control_ticks_total", null, metrics.getTicks());
+
+        appendHeader(builder, "control_tick_rate_hertz", "gauge", "Smoothed tick rate.");
+        appendValue(builder, "control_tick_rate_hertz", null, metrics.getTickRate());
+
+        appendHeader(builder, "control_cycle_time_seconds", "summary", "Measured tick period since start (histogram resolution 0.1 ms).");
+        for (double quantile: QUANTILES)
+        {
+            final long percentile = metrics.getCycleTimePercentile(quantile);
+            builder.append("control_cycle_time_seconds{quantile=\"").append(quantile).append("\"} ")
+                   .append((percentile == Long.MAX_VALUE)? "+Inf" : toSeconds(percentile)).append('\n');
+        }
+        appendValue(builder, "control_cycle_time_seconds_sum", null, toSeconds(metrics.getCycleTimeSum()));
+        appendValue(builder, "control_cycle_time_seconds_count", null, metrics.getCycleTimeCount());
+
+        appendHeader(builder, "control_i2c_errors_total", "counter", "Failed accesses to the DRV8830.");
+        appendValue(builder, "control_i2c_errors_total", null, metrics.getI2CErrors());
+
+        appendHeader(builder, "control_drv8830_faults_total", "counter", "DRV8830 fault reports by FAULT register bit.");
+        for (int bit = 0; bit < TickMetrics.FAULT_REASONS.length; bit++)
+        {
+            appendValue(builder, "control_drv8830_faults_total", "reason=\"" + TickMetrics.FAULT_REASONS[bit] + "\"", metrics.getFaults(bit));
+        }
+
+        appendHeader(builder, "control_saturation_ratio", "gauge", "Share of started ticks with the controller output at its limit.");
+        appendValue(builder, "control_saturation_ratio", null, metrics.getSaturationRatio());
+
+        final StepAnalyser stepAnalyser = this.model.getStepAnalyser();
+        appendHeader(builder, "control_moves_total", "counter", "Completed moves (set point changes) evaluated by the step-response analyser.");
+        appendValue(builder, "control_moves_total", null, stepAnalyser.getCount());
+        final StepAnalyser.Result[] results = stepAnalyser.getResults();
+        if (results.length > 0)
+        {
+            final StepAnalyser.Result result = results[0];
+            appendHeader(builder, "control_move_rise_time_seconds", "gauge", "Rise time 10-90% of the last move.");
+            appendValue(builder, "control_move_rise_time_seconds", null, result.getRiseTime());
+            appendHeader(builder, "control_move_overshoot_percent", "gauge", "Peak overshoot of the last move.");
+            appendValue(builder, "control_move_overshoot_percent", null, result.getOvershoot());
+            appendHeader(builder, "control_move_settling_time_seconds", "gauge", "Settling time of the last move (NaN: not settled).");
+            appendValue(builder, "control_move_settling_time_seconds", null, result.getSettlingTime());
+            appendHeader(builder, "control_move_steady_state_error", "gauge", "Mean steady-state error of the last move in counts.");
+            appendValue(builder, "control_move_steady_state_error", null, result.getSteadyStateError());
+            appendHeader(builder, "control_move_iae", "gauge", "Integrated absolute error of the last move in counts * s.");
+            appendValue(builder, "control_move_iae", null, result.getIae());
+        }
+
+        appendHeader(builder, "control_status", "gauge", "Current status of the model (1: active).");
+        final Status status = this.model.getStatus();
+        for (Status value: Status.values())
+        {
+            appendValue(builder, "control_status", "status=\"" + value.name() + "\"", (value == status)? 1L : 0L);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * handleEvents(HttpExchange exchange) - Server-Sent Events bis der Client trennt...
+     */
+    private void handleEvents(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            if (!"GET".equals(exchange.getRequestMethod()))
+            {
+                exchange.sendResponseHeaders(405, -1L);
+                return;
+            }
+            if (this.eventClients.incrementAndGet() > MAX_EVENT_CLIENTS)
+            {
+                exchange.sendResponseHeaders(503, -1L);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0L);
+            final long period = TimeUnit.SECONDS.toMillis(1L) / this.eventsPerSecond;
+            try (OutputStream output = exchange.getResponseBody())
+            {
+                Long counter = null;
+                while (!this.isClosed)
+                {
+                    final Data data = this.model.getData();
+                    if (data.getCounter() != null && !data.getCounter().equals(counter))
+                    {
+                        counter = data.getCounter();
+                        output.write(toEvent(data, this.model.getStatus()).getBytes(StandardCharsets.UTF_8));
+                        output.flush();
+                    }
+                    Thread.sleep(period);
+                }
+            }
+            catch (IOException exception)
+            {
+                // Client hat getrennt...
+                logger.debug("handleEvents(): " + exception);
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        finally
+        {
+            this.eventClients.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    /**
+     * toEvent(Data data, Status status) - ein Event (JSON) zum Data-Satz...
+     * @param data
+     * @param status
+     * @return
+     */
+    static String toEvent(Data data, Status status)
+    {
+        return new StringBuilder(192).append("id: ").append(data.getCounter()).append('\n')
+                                     .append("data: {\"counter\":").append(data.getCounter())
+                                     .append(",\"phi\":").append(data.getPhi())
+                                     .append(",\"rotation\":").append(toJson(data.getValue(Data.ROTATION_KEY)))
+                                     .append(",\"rpm\":").append(toJson(data.getRpm()))
+                                     .append(",\"cycleTime\":").append(toJson(data.getCycleTime()))
+                                     .append(",\"drvSetPoint\":").append(data.getDrvSetPoint())
+                                     .append(",\"status\":\"").append(status.name()).append("\"}\n\n")
+                                     .toString();
+    }
+
+    private static String toJson(BigDecimal value)
+    {
+        return (value != null)? value.toPlainString() : "null";
+    }
+
+    private static String toJson(String value)
+    {
+        return (value != null)? new BigDecimal(value).toPlainString() : "null";
+    }
+
+    private static void appendHeader(StringBuilder builder, String name, String type, String help)
+    {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void appendValue(StringBuilder builder, String name, String labels, long value)
+    {
+        appendValue(builder, name, labels, Long.toString(value));
+    }
+
+    private static void appendValue(StringBuilder builder, String name, String labels, double value)
+    {
+        appendValue(builder, name, labels, Double.isNaN(value)? "NaN" : String.format(Locale.ROOT, "%.6f", value));
+    }
+
+    private static void appendValue(StringBuilder builder, String name, String labels, String value)
+    {
+        builder.append(name);
+        if (labels != null)
+        {
+            builder.append('{').append(labels).append('}');
+        }
+        builder.append(' ').append(value).append('\n');
+    }
+
+    private static String toSeconds(long nanos)
+    {
+        return BigDecimal.valueOf(nanos, 9).toPlainString();
+    }
+
+    @Override
+    public void close()
+    {
+        this.isClosed = true;
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * main() - Simulation in Echtzeit mit MetricsServer, zum Test ohne Raspi...
+     * @param args - [host:port] [destination]
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception
+    {
+        final InetSocketAddress address = parse((args.length > 0)? args[0] : DEFAULT_HOST + ":" + DEFAULT_PORT);
+        final String destination = (args.length > 1)? args[1] : Simulation.DEFAULT_DESTINATION;
+        final Simulation simulation = new Simulation(new SimulatedDrive(),
+                                                     TimeUnit.MILLISECONDS.toNanos(Simulation.DEFAULT_CYCLE_TIME_MILLIS));
+        final Model model = simulation.getModel();
+        model.reset();
+        model.setProperty(Property.ENHANCEMENT, Model.ENHANCEMENTS[3]);
+        model.setProperty(Property.INTEGRAL_ENHANCEMENT, Model.INTEGRAL_ENHANCEMENTS[5]);
+        model.setProperty(Property.DESTINATION, destination);
+        model.start();
+        try (MetricsServer metricsServer = new MetricsServer(address, model, DEFAULT_EVENTS_PER_SECOND))
+        {
+            System.out.println("http://" + address.getHostString() + ":" + metricsServer.getPort() + METRICS_PATH + ", " + EVENTS_PATH);
+            while (true)
+            {
+                simulation.tick();
+                Thread.sleep(Simulation.DEFAULT_CYCLE_TIME_MILLIS);
+            }
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package gui;
 
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,8 +55,11 @@ public class Model
 
     /**
      * Status status
+     * <p>
+     * Wird nur im Takt geschrieben (vgl. handleTick()), volatile fuer lesende Zugriffe...
+     * </p>
      */
-    private Status status = Status.Reset;
+    private volatile Status status = Status.Reset;
     
     /**
      * Kennung isRaspi kennzeichnet, der Lauf erfolgt auf dem RasberryPi.
@@ -97,9 +104,59 @@ public class Model
     public final static int ADDRESS = 0x60; 
 
     /**
-     * drv8830 - Referenz auf den DRV8830-Baustein unter der Adresse ADDRESS
+     * motorDriver - Referenz auf das Stellglied, auf dem Raspi der 
+     * DRV8830-Baustein unter der Adresse ADDRESS
+     * <p>
+     * Geschrieben im Takt, gelesen auch von stop() (daher volatile).
+     * </p>
+     */
+    private volatile MotorDriver motorDriver = null;
+    
+    /**
+     * STOP_LOCK_TIMEOUT_MILLIS - Wartezeit von stop() auf den I2C-Bus...
+     * <p>
+     * Ist der Bus laenger belegt, bremst der naechste Takt (isStopRequested).
+     * </p>
+     */
+    public final static long STOP_LOCK_TIMEOUT_MILLIS = 50L;
+    
+    /**
+     * i2cLock - Zugriff auf den motorDriver (drive(), brake(), getFault())...
+     * <p>
+     * Der Takt und stop() greifen auf den I2C-Bus zu, der Takt bleibt aber
+     * einziger Schreiber der Regelgroessen (stop() bremst nur).
+     * </p>
+     */
+    private final ReentrantLock i2cLock = new ReentrantLock();
+    
+    /**
+     * isStopRequested - stop() wurde beauftragt (bis zum naechsten start())...
+     * <p>
+     * Gesetzt in stop() vor dem Abbremsen, zurueckgesetzt bei der Ausfuehrung
+     * des naechsten start() im Takt.
+     * Der Takt prueft die Kennung unter i2cLock vor jedem drive(), ein bereits 
+     * laufender Takt faehrt den Motor nach dem Abbremsen damit nicht wieder an.
+     * </p>
+     */
+    private volatile boolean isStopRequested = false;
+    
+    /**
+     * motorDriverTask - Einrichtung des DRV8830 im Hintergrund (nur auf dem Raspi, sonst null)...
+     * <p>
+     * Das Ergebnis wird im Takt in motorDriver uebernommen, sobald es vorliegt.
+     * </p>
+     */
+    private final FutureTask<MotorDriver> motorDriverTask;
+    
+    /**
+     * isFirstTick - Kennung fuer die Protokollierung des ersten Taktes (Anlaufzeit)...
+     */
+    private boolean isFirstTick = true;
+    
+    /**
+     * clock - Zeitbasis der Taktung, im Betrieb TickClock.SYSTEM...
      */
-    private DRV8830 drv8830 = null;
+    private final TickClock clock;
     
     /**
      * drvSetPoint - Sollwert fuer den DRV8830 (int)
@@ -161,6 +218,24 @@ public class Model
      */
     private final GpioPinDigitalInput gpio_Inc_B_Pin; 
     
+    /**
+     * gpioListener, gpioPins - Listener an NE555 und Impuls A (nur Raspi), 
+     * wird bei Anmeldung einer EdgeSource abgemeldet...
+     */
+    private final GpioPinListenerDigital gpioListener;
+    
+    private final GpioPinDigitalInput[] gpioPins;
+    
+    /**
+     * edgeSource - alternative Quelle der Flanken (statt gpioListener), wird mit shutdown() beendet...
+     */
+    private EdgeSource edgeSource = null;
+    
+    /**
+     * allocationMonitor - Messung der Allokation je Takt (null: keine Messung)...
+     */
+    private volatile AllocationMonitor allocationMonitor = null;
+    
     /**
      * GPIO_NE555_PIN_NAME - String-Name des Takt-Pins an dem der Ne555
      * angeschlossen ist.
@@ -201,12 +276,16 @@ public class Model
     public static final String NAME_END_BUTTON = "endButton";
     
     /**
-     * dataMap - nimmt die Eingaben der GUI auf...
+     * values - nimmt die Eingaben der GUI auf...
      * <p>
-     * Ablage key => Eingabe-Object
+     * Ablage je Property unter ordinal(), Typ vgl. Property.getType().
+     * Geschrieben wird von der Oberflaeche (setProperty()) und vom Takt 
+     * (STEP_RESPONSE, ALLOCATION, DESTINATION im Geschwindigkeitsmodus), 
+     * gelesen von ueberall (getProperty()), daher AtomicReferenceArray 
+     * (getAndSet() liefert den alten Wert je Eintrag ohne Verlust).
      * </p>
      */
-    private final java.util.TreeMap<String, Object>  dataMap = new java.util.TreeMap<>();
+    private final AtomicReferenceArray<Object> values = new AtomicReferenceArray<>(Property.values().length);
 
     /**
      * Unter dem DATA_KEY werden Anzeigewerte fuer die Oberflaeche zusammengefasst.
@@ -214,6 +293,18 @@ public class Model
      */
     public final static String DATA_KEY = "dataKey"; 
     
+    /**
+     * STEP_RESPONSE_KEY - Key des Ergebnisses der letzten Bewegung (vgl. StepAnalyser),
+     * wird wie DATA_KEY vom Model veroeffentlicht...
+     */
+    public final static String STEP_RESPONSE_KEY = "stepResponseKey";
+    
+    /**
+     * ALLOCATION_KEY - Key des Standes der Allokation je Takt (vgl. AllocationMonitor),
+     * wird wie DATA_KEY vom Model veroeffentlicht...
+     */
+    public final static String ALLOCATION_KEY = "allocationKey";
+    
     /**
      * DATA_DESTINATION_KEY = "dataDestinationKey - Key zum Zugriff auf den Sollwert der Zielgroesse (Lage)
      * <p>
@@ -242,25 +333,82 @@ public class Model
     public final static String DATA_INTEGRAL_ENHANCEMENT_KEY = "dataIntegralEnhancementKey";
     
     /**
-     * 
+     * DATA_ANTI_WINDUP_KEY - Key zum Zugriff auf die Strategie des Anti-Windup
+     * (vgl. AntiWindup.Strategy, frueher Schalter: Boolean wird weiter angenommen)...
      */
     public final static String DATA_ANTI_WINDUP_KEY = "dataAntiWindupKey";
     
     /**
-     * DATA_KEYS[] - Array mit den Keys zur Ablage in der dataMap...
+     * DATA_COMPENSATION_KEY - Key zum Zugriff auf den Schalter der Stellgroessen-Aufbereitung
+     * (Vorsteuerung, Reibungs- und Totzonenkompensation, vgl. OutputConditioner).
+     */
+    public final static String DATA_COMPENSATION_KEY = "dataCompensationKey";
+    
+    /**
+     * DATA_GAIN_SCHEDULING_KEY - Key zum Zugriff auf den Schalter der Verstaerkungsanpassung
+     * nach Regelabweichung und Drehzahl (vgl. GainSchedule).
+     */
+    public final static String DATA_GAIN_SCHEDULING_KEY = "dataGainSchedulingKey";
+    
+    /**
+     * DATA_OBSERVER_KEY - Key zum Zugriff auf den Schalter der Rueckfuehrung 
+     * ueber den Zustandsbeobachter (vgl. StateObserver).
+     */
+    public final static String DATA_OBSERVER_KEY = "dataObserverKey";
+    
+    /**
+     * DATA_CASCADE_KEY - Key zum Zugriff auf den Schalter der Kaskadenregelung
+     * (Drehzahlregler innen, Lageregler aussen, vgl. CascadeController).
+     */
+    public final static String DATA_CASCADE_KEY = "dataCascadeKey";
+    
+    /**
+     * DATA_POSITION_GAIN_KEY - Key zum Zugriff auf die Verstaerkung des Lagereglers der Kaskade...
+     */
+    public final static String DATA_POSITION_GAIN_KEY = "dataPositionGainKey";
+    
+    /**
+     * DATA_VELOCITY_GAIN_KEY - Key zum Zugriff auf die P-Verstaerkung des Drehzahlreglers der Kaskade...
+     */
+    public final static String DATA_VELOCITY_GAIN_KEY = "dataVelocityGainKey";
+    
+    /**
+     * DATA_VELOCITY_INTEGRAL_GAIN_KEY - Key zum Zugriff auf die I-Verstaerkung des Drehzahlreglers der Kaskade...
+     */
+    public final static String DATA_VELOCITY_INTEGRAL_GAIN_KEY = "dataVelocityIntegralGainKey";
+    
+    /**
+     * DATA_VELOCITY_LIMIT_KEY - Key zum Zugriff auf die Drehzahlbegrenzung der Kaskade (U/min)...
+     */
+    public final static String DATA_VELOCITY_LIMIT_KEY = "dataVelocityLimitKey";
+    
+    /**
+     * DATA_VELOCITY_MODE_KEY - Key zum Zugriff auf den Schalter der Drehzahlregelung
+     * (statt Lageregelung auf DATA_DESTINATION_KEY)...
+     */
+    public final static String DATA_VELOCITY_MODE_KEY = "dataVelocityModeKey";
+    
+    /**
+     * DATA_RPM_SET_POINT_KEY - Key zum Zugriff auf den Sollwert der Drehzahl (U/min)
      * <p>
-     * DATA_KEYS muss alle Keys aufnehmen, auf die reagiert werden soll.
-     * Falls ein Key fehlt, wird eine entsprechende Aenderung ignoriert. 
+     * Die Eingabe erfolgt wie DATA_DESTINATION_KEY als Text, die Umrechnung in
+     * Impulse pro Sekunde ueber CONST (vgl. CIRCUMFERENCE).
      * </p>
      */
-    private final static String[] DATA_KEYS = 
-    {
-        DATA_KEY,
-        DATA_DESTINATION_KEY,
-        DATA_ENHANCEMENT_KEY,
-        DATA_INTEGRAL_ENHANCEMENT_KEY,
-        DATA_ANTI_WINDUP_KEY
-    };
+    public final static String DATA_RPM_SET_POINT_KEY = "dataRpmSetPointKey";
+    
+    /**
+     * DATA_OUTPUT_STAGE_KEY - Key zum Zugriff auf den Schalter der Ausgangsstufe
+     * (voller Spannungsbereich des DRV8830 mit Sigma-Delta-Modulation, vgl. OutputStage)...
+     */
+    public final static String DATA_OUTPUT_STAGE_KEY = "dataOutputStageKey";
+    
+    /**
+     * DATA_FILTER_KEY - Key zum Zugriff auf den Schalter der Filter von Regelabweichung
+     * und Geschwindigkeit (vgl. BiquadFilter)...
+     */
+    public final static String DATA_FILTER_KEY = "dataFilterKey";
+    
 
     /**
      * MAX_VALUE - max. Sollwert des PWM-Schaltkreises (hier nur der Betrag!)...
@@ -270,6 +418,28 @@ public class Model
      */
     private final static int MAX_VALUE = 15;     
     
+    /**
+     * DEFAULT_DEAD_ZONE - Voreinstellung Totzone des DRV8830 (vgl. drvSetPoint), 
+     * Basis der Totzonen-Inversion (vgl. setConditioning())...
+     */
+    public final static int DEFAULT_DEAD_ZONE = 5;
+    
+    /**
+     * DEFAULT_FRICTION_OFFSET - Voreinstellung zusaetzlicher Offset zur Ueberwindung der Haftreibung...
+     */
+    public final static int DEFAULT_FRICTION_OFFSET = 0;
+    
+    /**
+     * DEFAULT_VELOCITY_FEED_FORWARD - Voreinstellung Vorsteuerung: Stellwert je Impuls/s 
+     * Sollgeschwindigkeit (Kehrwert der Streckenverstaerkung, vgl. SimulatedDrive.DEFAULT_GAIN)...
+     */
+    public final static double DEFAULT_VELOCITY_FEED_FORWARD = 0.01;
+    
+    /**
+     * DEFAULT_ACCELERATION_FEED_FORWARD - Voreinstellung Vorsteuerung: Stellwert je Impuls/s^2 Sollbeschleunigung...
+     */
+    public final static double DEFAULT_ACCELERATION_FEED_FORWARD = 0.0;
+    
     /**
      * SET_POINT_SCALE = 5
      */
@@ -334,6 +504,84 @@ public class Model
      * Index zur Auswahl der Selektion...
      */
     public final static int SELECTED_INTEGRAL_ENHANCEMENTS_INDEX = 0;
+    
+    /**
+     * POSITION_GAINS - Verstaerkungen des Lagereglers der Kaskade (1/s)
+     * zur Auswahl in der Combobox...
+     */
+    public final static BigDecimal[] POSITION_GAINS = new BigDecimal[]
+    {
+        BigDecimal.valueOf(0.5).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(1.0).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(2.0).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(4.0).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(8.0).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP)
+    };
+    
+    /**
+     * Index zur Auswahl der Selektion...
+     */
+    public final static int SELECTED_POSITION_GAINS_INDEX = 2;
+    
+    /**
+     * VELOCITY_GAINS - P-Verstaerkungen des Drehzahlreglers der Kaskade (Stufen je Impulse/s)
+     * zur Auswahl in der Combobox...
+     */
+    public final static BigDecimal[] VELOCITY_GAINS = new BigDecimal[]
+    {
+        BigDecimal.valueOf(0.005).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(0.01).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(0.02).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(0.04).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP)
+    };
+    
+    /**
+     * Index zur Auswahl der Selektion...
+     */
+    public final static int SELECTED_VELOCITY_GAINS_INDEX = 2;
+    
+    /**
+     * VELOCITY_INTEGRAL_GAINS - I-Verstaerkungen des Drehzahlreglers der Kaskade (Stufen je Impuls)
+     * zur Auswahl in der Combobox...
+     */
+    public final static BigDecimal[] VELOCITY_INTEGRAL_GAINS = new BigDecimal[]
+    {
+        BigDecimal.valueOf(0.0).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(0.1).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(0.3).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(1.0).setScale(ENHANCEMENT_SCALE, BigDecimal.ROUND_HALF_UP)
+    };
+    
+    /**
+     * Index zur Auswahl der Selektion...
+     */
+    public final static int SELECTED_VELOCITY_INTEGRAL_GAINS_INDEX = 2;
+    
+    /**
+     * VELOCITY_LIMITS - Drehzahlbegrenzung der Kaskade (U/min) zur Auswahl in der Combobox...
+     */
+    public final static BigDecimal[] VELOCITY_LIMITS = new BigDecimal[]
+    {
+        BigDecimal.valueOf(30).setScale(Model.SCALE_RPM, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(60).setScale(Model.SCALE_RPM, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(90).setScale(Model.SCALE_RPM, BigDecimal.ROUND_HALF_UP),
+        BigDecimal.valueOf(120).setScale(Model.SCALE_RPM, BigDecimal.ROUND_HALF_UP)
+    };
+    
+    /**
+     * Index zur Auswahl der Selektion...
+     */
+    public final static int SELECTED_VELOCITY_LIMITS_INDEX = 3;
+    
+    /**
+     * ANTI_WINDUP_STRATEGIES - Strategien des Anti-Windup zur Auswahl in der Combobox...
+     */
+    public final static AntiWindup.Strategy[] ANTI_WINDUP_STRATEGIES = AntiWindup.Strategy.values();
+    
+    /**
+     * Index zur Auswahl der Selektion (FREEZE, bisheriges Verhalten)...
+     */
+    public final static int SELECTED_ANTI_WINDUP_STRATEGIES_INDEX = AntiWindup.Strategy.FREEZE.ordinal();
 
     /**
      * FORMATTED_TEXT_FIELD_PATTERN = "#0.00" - Formatstring fuer das JFormattedTextField...
@@ -341,9 +589,9 @@ public class Model
     public final static String FORMATTED_TEXT_FIELD_PATTERN = "#0.000";
     
     /**
-     * support - Referenz auf den PropertyChangeSupport...
+     * listeners - angemeldete Listener je Property unter ordinal() (Kopie beim Schreiben)...
      */
-    private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+    private volatile PropertyListener<?>[][] listeners = new PropertyListener<?>[Property.values().length][0];
     
     /**
      * counter - Taktzaehler (keine weitere funktionale Bedeutung)
@@ -367,24 +615,66 @@ public class Model
      * </p>
      */
     private long phiSetPoint = 0L;
+    
     /**
-     * 
+     * phiReference - Fuehrungsgroesse der Drehzahlregelung in Impulse (nicht gerundet)...
+     * <p>
+     * In der Drehzahlregelung laeuft der Lage-Sollwert mit der Soll-Drehzahl:
+     * phiReference += speedSetPoint * dt, phiSetPoint = round(phiReference).
+     * Lageregler, Kaskade und Vorsteuerung arbeiten unveraendert weiter.
+     * </p>
+     */
+    private double phiReference = 0.0;
+    
+    /**
+     * speedSetPoint - Sollwert der Drehzahl in Impulse pro Sekunde...
+     */
+    private double speedSetPoint = 0.0;
+    
+    /**
+     * isVelocityMode - Schalter, Drehzahlregelung statt Lageregelung auf destination...
+     */
+    private boolean isVelocityMode = false;
+    
+    /**
+     * MAX_FOLLOWING_ERROR - Begrenzung des Abstandes der Fuehrungsgroesse 
+     * zur Lage in der Drehzahlregelung (Impulse)...
+     * <p>
+     * Wird der Motor blockiert, laeuft die Fuehrungsgroesse nicht weiter davon,
+     * nach der Freigabe wird nichts "aufgeholt".
+     * </p>
+     */
+    public final static double MAX_FOLLOWING_ERROR = 100.0;
+    /**
+     * encoder - Zaehlung der Impulse mit Zeitstempel je Flanke...
+     * <p>
+     * Liefert die Lage zum Taktzeitpunkt (interpoliert) und die Geschwindigkeit
+     * aus der Periodendauer der Flanken.
+     * </p>
      */
-    private long[] position = new long[] {0L, 0L};
+    private final Encoder encoder = new Encoder();
     
     /**
-     * Instant past - letzter Zeitstempel...
+     * past - letzter Zeitstempel...
      * <p>
      * Der Takt wird durch den Ne555 vorgegeben. 
      * Hier wird der letzte Zeitstempel abgelegt zur Bestimmung
      * der Taktdauer T. Die Taktdauer wird in cycleTime abgelegt.
      * </p>
      * <p>
-     * Der Anfangswert muss null sein, um die Erstbeauftragung zu erkennen,
+     * Der Zeitstempel wird in Nanosekunden (vgl. TickClock) abgelegt.
+     * </p>
+     */
+    private long past = 0L;
+    
+    /**
+     * isPastValid - Kennung, past ist belegt...
+     * <p>
+     * Der Anfangswert muss false sein, um die Erstbeauftragung zu erkennen,
      * da erst bei Zweitbeauftragung die Taktdauer bestimmbar ist.
      * </p>
      */
-    private Instant past = null;
+    private boolean isPastValid = false;
     
     /**
      * cycleTime - aktuell ermittelte Taktzeit aus (now - past)...
@@ -422,6 +712,11 @@ public class Model
      * CONST
      */
     public final static BigDecimal CONST = BigDecimal.valueOf(60L).divide(CIRCUMFERENCE, SCALE_INTERN, BigDecimal.ROUND_HALF_UP);
+    
+    /**
+     * RPM_PER_SPEED - Umrechnung Impulse pro Sekunde in U/min (CONST als double)...
+     */
+    public final static double RPM_PER_SPEED = CONST.doubleValue();
 
     
     /**
@@ -440,9 +735,9 @@ public class Model
     private BigDecimal integralEnhancement = BigDecimal.ZERO;   
     
     /**
-     * 
+     * antiWindup - Strategie des Anti-Windup im PositionController...
      */
-    private boolean isAntiWindUp = true;
+    private AntiWindup.Strategy antiWindup = AntiWindup.Strategy.FREEZE;
     
     /**
      * destination - Sollwert der Lage, Angabe in Umdrehungen
@@ -472,15 +767,163 @@ public class Model
     private BigDecimal rpm = null;
     
     /**
-     * lock - Object fuer das Synchronisieren...
+     * tickLock - Object fuer das Synchronisieren der Taktung...
+     * <p>
+     * Stellt sicher, dass immer nur ein Takt die Regelgroessen bearbeitet 
+     * (einziger Schreiber). Die Flanken des Inkrementalgebers synchronisieren
+     * nur auf den encoder und konkurrieren nicht mit der Taktung.
+     * </p>
+     */
+    final private Object tickLock = new Object(); 
+    
+    /**
+     * hasTickSource - Kennung, es gibt eine Taktung (Raspi oder Simulation)...
+     * <p>
+     * Nur dann werden Bedienhandlungen in die Warteschlange commands gestellt,
+     * sonst sofort ausgefuehrt.
+     * </p>
+     */
+    private final boolean hasTickSource;
+    
+    /**
+     * commands - Warteschlange der Bedienhandlungen (mehrere Erzeuger, ein Verbraucher)...
+     * <p>
+     * Die Bedienhandlungen (reset(), start(), stop(), setProperty()) werden nicht
+     * direkt ausgefuehrt, sondern zu Beginn des naechsten Taktes im Takt-Thread.
+     * Damit ist die Taktung der einzige Schreiber der Regelgroessen.
+     * </p>
+     */
+    private final java.util.concurrent.ConcurrentLinkedQueue<Runnable> commands = new java.util.concurrent.ConcurrentLinkedQueue<>();
+    
+    /**
+     * data - zuletzt veroeffentlichter (unveraenderlicher) Datensatz des Taktes...
+     */
+    private volatile Data data = new Data();
+    
+    /**
+     * sample - Zaehlerstand, Lage und Geschwindigkeit aus dem encoder (nur im Takt verwendet)...
+     */
+    private final double[] sample = new double[Encoder.SAMPLE_SIZE];
+    
+    /**
+     * gainSchedule - Tabelle zur Anpassung der Verstaerkungen...
+     */
+    final private GainSchedule gainSchedule = new GainSchedule();
+    
+    /**
+     * isGainScheduling - Schalter fuer die Anpassung der Verstaerkungen...
+     */
+    private boolean isGainScheduling = false;
+    
+    /**
+     * observer - Schaetzung von Lage, Geschwindigkeit und Last (laeuft in jedem Takt mit)...
+     */
+    private StateObserver observer = new StateObserver(DEFAULT_DEAD_ZONE);
+    
+    /**
+     * Streckenmodell des Beobachters (vgl. setConditioning(), setObserverModel()),
+     * nur unter dem Monitor des Model geaendert...
+     */
+    private int observerDeadZone = DEFAULT_DEAD_ZONE;
+    private double observerGain = StateObserver.DEFAULT_GAIN;
+    private double observerTimeConstant = StateObserver.DEFAULT_TIME_CONSTANT;
+    private double observerVelocityNoise = StateObserver.DEFAULT_VELOCITY_NOISE;
+    private double observerLoadNoise = StateObserver.DEFAULT_LOAD_NOISE;
+    
+    /**
+     * cascadeController - Kaskadenregelung (Drehzahl innen, Lage aussen)...
+     */
+    final private CascadeController cascadeController = newCascadeController();
+    
+    /**
+     * isCascade - Schalter, Kaskadenregelung statt PositionController...
+     */
+    private boolean isCascade = false;
+    
+    /**
+     * isObserver - Schalter, Rueckfuehrung der geschaetzten statt der gemessenen Groessen...
+     */
+    private boolean isObserver = false;
+    
+    /**
+     * commandLog - Protokoll der Bedienhandlungen (optional, sonst null)...
+     */
+    private volatile CommandLog commandLog = null;
+    
+    /**
+     * telemetryRecorder - Aufzeichnung der Taktdaten (optional, sonst null)...
+     */
+    private volatile TelemetryRecorder telemetryRecorder = null;
+    
+    /**
+     * telemetryPublisher - Versand der Taktdaten per UDP (optional, sonst null)...
+     */
+    private volatile TelemetryPublisher telemetryPublisher = null;
+    
+    /**
+     * metricsServer - HTTP-Endpunkt fuer Kennzahlen und Events (optional, sonst null)...
+     */
+    private volatile MetricsServer metricsServer = null;
+    
+    /**
+     * metrics - Kennzahlen des Taktes (nur im Takt geschrieben, vgl. MetricsServer)...
+     */
+    final private TickMetrics metrics = new TickMetrics();
+    
+    /**
+     * stepAnalyser - Auswertung der Sprungantwort je Aenderung des Lage-Sollwertes...
      */
-    final private Object lock = new Object(); 
+    final private StepAnalyser stepAnalyser = new StepAnalyser();
     
     /**
      * 
      */
     final private PositionController positionController = new PositionController(MAX_VALUE, enhancement, integralEnhancement);
     
+    /**
+     * outputConditioner - Aufbereitung des Reglerausganges vor der Ausgabe an den DRV8830...
+     */
+    private OutputConditioner outputConditioner = new OutputConditioner(MAX_VALUE, 
+                                                                        DEFAULT_DEAD_ZONE, 
+                                                                        DEFAULT_FRICTION_OFFSET, 
+                                                                        DEFAULT_VELOCITY_FEED_FORWARD, 
+                                                                        DEFAULT_ACCELERATION_FEED_FORWARD);
+    
+    /**
+     * outputStage - Abbildung des ungerundeten Reglerausganges auf den vollen Bereich des DRV8830...
+     */
+    private OutputStage outputStage = new OutputStage(DEFAULT_DEAD_ZONE, OutputStage.MAX_VSET);
+    
+    /**
+     * SAMPLE_RATE - Abtastrate der Filter in Hz (Nennwert des Taktes)...
+     */
+    public final static double SAMPLE_RATE = 1.0 / PositionController.REFERENCE_CYCLE_TIME;
+    
+    /**
+     * DEFAULT_ERROR_FILTER - Voreinstellung Filter der Regelabweichung (vgl. BiquadFilter.parse())...
+     */
+    public final static String DEFAULT_ERROR_FILTER = "lowpass:12:0.707";
+    
+    /**
+     * DEFAULT_VELOCITY_FILTER - Voreinstellung Filter der Geschwindigkeit (vgl. BiquadFilter.parse())...
+     */
+    public final static String DEFAULT_VELOCITY_FILTER = "lowpass:8:0.707";
+    
+    /**
+     * errorFilter - Filter der Regelabweichung im PositionController...
+     */
+    private BiquadFilter errorFilter = BiquadFilter.parse(DEFAULT_ERROR_FILTER, SAMPLE_RATE);
+    
+    /**
+     * velocityFilter - Filter der rueckgefuehrten Geschwindigkeit...
+     */
+    private BiquadFilter velocityFilter = BiquadFilter.parse(DEFAULT_VELOCITY_FILTER, SAMPLE_RATE);
+    
+    /**
+     * isFilter - Schalter fuer errorFilter und velocityFilter...
+     */
+    private boolean isFilter = false;
+    
     /**
      * Default-Konstruktor 
      */
@@ -493,12 +936,40 @@ public class Model
         // Kennung isRaspi setzen...
         this.isRaspi = OS_NAME_RASPI.equals(os_name) && OS_ARCH_RASPI.equals(os_arch);
         
-        // *** Befuellen der dataMap... ***
-        // Die dataMap muss mit allen Key-Eintraegen befuellt werden, sonst 
-        // ist setProperty(String key, Object newValue) unwirksam!
-        for (String key: Model.DATA_KEYS)
+        this.clock = TickClock.SYSTEM;
+        // Eine Taktung gibt es nur auf dem Raspi...
+        this.hasTickSource = this.isRaspi;
+        
+        ///////////////////////////////////////////////////////////////////////////////////////////
+        // Die I2C-Schnittstelle wird parallel zur GPIO-Einrichtung im Hintergrund
+        // eingerichtet, die Uebernahme erfolgt im Takt (vgl. handleTick())...
+        this.motorDriverTask = this.isRaspi? new FutureTask<>(new Callable<MotorDriver>()
         {
-            this.dataMap.put(key, null);
+            @Override
+            public MotorDriver call()
+            {
+                try
+                {
+                    final I2CBus i2cBus = I2CFactory.getInstance(I2CBus.BUS_1);
+                    final MotorDriver motorDriver = new DRV8830Driver(new DRV8830(i2cBus.getDevice(ADDRESS)));
+                    int fault = motorDriver.getFault(); 
+                    logger.info("drv8830 liefert mit getFault() die Kennung: " + fault);                  
+                    StartupTimer.mark("I2C/DRV8830");
+                    return motorDriver;
+                } 
+                catch (Throwable exception)
+                {
+                    logger.error("I2CFactory.getInstance()", exception);
+                    System.exit(0);
+                    return null;
+                }
+            }
+        }) : null;
+        if (this.motorDriverTask != null)
+        {
+            final Thread thread = new Thread(this.motorDriverTask, "I2C-Init");
+            thread.setDaemon(true);
+            thread.start();
         }
         
         // ...den gpioController anlegen...
@@ -516,7 +987,7 @@ public class Model
             {
                 /**
                  * handleGpioPinDigitalStateChangeEvent() - Reaktion auf
-                 * 
+                 * die Flanken an GPIO_INC_A_PIN und GPIO_NE555_PIN...
                  */
                 @Override
                 public void handleGpioPinDigitalStateChangeEvent(GpioPinDigitalStateChangeEvent event)
@@ -524,151 +995,18 @@ public class Model
                     final GpioPin gpioPin = event.getPin();
                     final String pinName = gpioPin.getName();
                     final PinEdge pinEdge = event.getEdge();
-                    // Die steigende Flanke A wird jeweils zur Messung ausgewertet.
-                    // Die Drehrichtung ergibt sich dabei daras, ob B bereits High
-                    // ist oder noch Low.
-                    // Dieses Vorgehen setzt voraus, dass bei Auftritt der Flanke
-                    // der Zusatnd der anderen Impulsfolge bekannt ist, dazu dienen
-                    // die Zustandsgroessen is_A_High bzw. is_B_High.
-                    // Anm.: Die Impulsfolgen A und B sind auch vertauschbar.
-                    pinLabel:
-                    synchronized (lock)
+                    // Wenn Flanke UND INC_A, dann...
+                    if ((PinEdge.RISING == pinEdge) && GPIO_INC_A_PIN_NAME.equals(pinName))
                     {
-                        // Wenn Flanke UND INC_A, dann...
-                        if ((PinEdge.RISING == pinEdge) && GPIO_INC_A_PIN_NAME.equals(pinName))
-                        {
-                            // Zustand von Impuls B...
-                            boolean is_B_High = (Model.this.gpio_Inc_B_Pin != null)? Model.this.gpio_Inc_B_Pin.isHigh() : true;
-                            
-                            //////////////////////////////////////////////////////////////
-                            // Hier: Steigende Flanke und Impuls A...
-                            //////////////////////////////////////////////////////////////
-                            // Hier erfolgt das Zaehlen der Impulse in Model.this.phi 
-                            // in Abhaengigkeit davon, welchen Zustand der Impuls B 
-                            // angenommen hat...
-                            Model.this.phi += (is_B_High)? -1L : +1L;
-                            
-                            break pinLabel;
-                        }
-                        
-                        if ((PinEdge.RISING == pinEdge) && GPIO_NE555_PIN_NAME.equals(pinName))
-                        {
-                            ///////////////////////////////////////////////////////////////////
-                            // Die Taktung hat einen Referenzpunkt erreicht.
-                            ///////////////////////////////////////////////////////////////////
-                            
-                            // Den Status bestimmen: isStarted oder nicht...
-                            final boolean isStarted = Model.this.status.equals(Status.Start);
-                            
-                            Model.this.counter++;
-                            
-                            // Reglerausgang bestimmen...
-                            final int outPut = getPositioncontroller().getValue(Model.this.cycleTimeDecimal, 
-                                                                                Model.this.phiSetPoint, 
-                                                                                Model.this.phi);
-                            
-                            Model.this.drvSetPoint = isStarted? outPut : 0;
-                            
-                            // now zur zeitlichen Einordnung des Ereignisses...
-                            // Jetzt werden die Kenngroesse der Taktung ermittelt:
-                            // - now: der jetzige Zeitpunkt, die Zeitdauer ergibt sich
-                            //        durch Differenzbildung zu Model.this.past...
-                            // now wird im Verlauf im Zustand Model.this.past abgelegt. 
-                            final Instant now = Instant.now();
-                            // Model.this.past: Zeitpunkt der letzten Taktung...
-                            if (Model.this.past == null)
-                            {
-                                // Erste Beauftragung: Model.this.past = null...
-                                Model.this.past = now;
-                            }
-                            // Model.this.cycleTime: Taktzeit aus der Differenz now - past.
-                            // Ablage der aktuell gemessenen Taktzeit in der Zustandsgroesse cycleTime...
-                            Model.this.cycleTime = Duration.between(Model.this.past, now);
-                          
-                            // Bestimmung des Anzeigewertes von Model.this.cycleTime in Sekunden...
-                            // cycleTimeDecimal - momentane Taktzeit (cycleTime) in Sekunden...
-                            Model.this.cycleTimeDecimal = toBigDecimalSeconds(Model.this.cycleTime, SCALE_CYCLE_TIME);
-                          
-                            //////////////////////////////////////////////////////////////////////////
-                            // ...und Ablage der aktuelle ermittelten Taktzeit...
-                            Model.this.past = now;
-                            //////////////////////////////////////////////////////////////////////////
-                         
-                            // Das Array position[] dient der Ermittlung des Zuwachses der Position
-                            // waehrend der letzten Taktung: phi[k+1]-phi[k].
-                            Model.this.position[1] = Model.this.position[0];
-                            Model.this.position[0] = Model.this.phi;
-                          
-                            Model.this.rotation = BigDecimal.valueOf(Model.this.phi).divide(CIRCUMFERENCE, SCALE_RPM, BigDecimal.ROUND_HALF_UP);
-                          
-                            // increment: Zuwachs an Impulsen als BigDecimal
-                            final BigDecimal increment = BigDecimal.valueOf(Model.this.position[0] - Model.this.position[1]);
-                          
-                            Model.this.rpm = (BigDecimal.ZERO.compareTo(cycleTimeDecimal) != 0)? (increment.divide(cycleTimeDecimal, SCALE_INTERN, BigDecimal.ROUND_HALF_UP).multiply(Model.CONST).setScale(SCALE_RPM, BigDecimal.ROUND_HALF_UP)) : BigDecimal.ZERO;
-                          
-                            Model.this.rpm = (Model.this.rpm.abs().compareTo(BigDecimal.ONE.movePointLeft(2)) < 0)? BigDecimal.ZERO : Model.this.rpm; 
-
-                            
-                            if (Model.this.dataMap.containsKey(DATA_KEY))
-                            {
-                                // Die dataMap haelt die Daten zur Anzeige in der View...
-                                final Object oldValue = Model.this.dataMap.get(DATA_KEY);
-                                final Data oldData = (oldValue instanceof Data)? (Data) oldValue : new Data();
-                              
-                                // Model.this.counter: fortlaufender Zaehler...
-                                final Data newData = new Data(Long.valueOf(Model.this.counter),
-                                                              Long.valueOf(Model.this.phi),
-                                                              Model.this.rotation,
-                                                              Model.this.rpm,
-                                                              Model.this.cycleTimeDecimal,
-                                                              Model.this.drvSetPoint);
-                                setProperty(DATA_KEY, newData);
-                            }
-                          
-                            logger.debug(now + ": Taktzeit=" + Model.this.cycleTime + ", phi=" + Model.this.phi);
-                            
-                            if (isStarted)
-                            {
-                                if (Model.this.drv8830 == null)
-                                {
-                                    logger.error("Zugriff auf DRV8830?");
-                                    break pinLabel;
-                                }
-                                
-                                try
-                                {
-                                    
-                                    int fault = Model.this.drv8830.getFault(); 
-                                    // Bei fault == 0 => Fehlerfrei, sonst Fehler!
-                                    if (fault != 0)
-                                    {
-                                        final DRV8830.Fault error = DRV8830.Fault.getFault(fault);
-                                        logger.error("DRV8830-Fehler: " + error.getReason());
-                                    }
-                                    Model.this.drv8830.drive(Model.this.drvSetPoint);
-                                } 
-                                catch (IOException exception)
-                                {
-                                    logger.error("drive():", exception);
-                                }
-                            } //
-                        }
-                    } // 
-                }
-        
-                /**
-                 * toBigDecimalSeconds(Duration duration) - liefert die Anzahl der Sekunden
-                 * <p>
-                 * Vgl. toBigDecimalSeconds() aus Duration in Java 11.
-                 * </p>
-                 * @param duration
-                 * @return
-                 */
-                private BigDecimal toBigDecimalSeconds(Duration duration, int scale)
-                {
-                    Objects.requireNonNull(duration, "duration must not be null!");
-                    final BigDecimal result = BigDecimal.valueOf(duration.getSeconds()).add(BigDecimal.valueOf(duration.getNano(), 9)).setScale(scale,  BigDecimal.ROUND_HALF_UP);
-                    return (result.compareTo(BigDecimal.ONE.movePointLeft(scale)) < 0)? BigDecimal.ZERO : result;   
+                        // Zustand von Impuls B...
+                        final boolean is_B_High = (Model.this.gpio_Inc_B_Pin != null)? Model.this.gpio_Inc_B_Pin.isHigh() : true;
+                        handleIncA(is_B_High);
+                        return;
+                    }
+                    if ((PinEdge.RISING == pinEdge) && GPIO_NE555_PIN_NAME.equals(pinName))
+                    {
+                        handleTick();
+                    }
                 }
             };
             
@@ -681,143 +1019,1110 @@ public class Model
 
             this.gpioController.addListener(listener, gpioPins);            
             
+            this.gpioListener = listener;
+            this.gpioPins = gpioPins;
+            
             ///////////////////////////////////////////////////////////////////////////////////////
             
-            this.dataMap.put(DATA_KEY, new Data());
-            logger.debug(DATA_KEY + " in dataMap aufgenommen.");
+        } // end if(this.isRaspi).
+        else
+        {
+            this.gpioListener = null;
+            this.gpioPins = null;
+        }
+    }
+    
+    /**
+     * Konstruktor fuer den Lauf ohne GPIO-Hardware (Simulation)...
+     * <p>
+     * Die Flanken werden durch den Aufrufer ueber handleIncA() und handleTick()
+     * vorgegeben, die Zeitbasis liefert clock, die Ausgabe erfolgt an motorDriver.
+     * </p>
+     * @param motorDriver - Stellglied (z.B. SimulatedDrive)
+     * @param clock - Zeitbasis (z.B. VirtualClock)
+     */
+    Model(MotorDriver motorDriver, TickClock clock)
+    {
+        this.isRaspi = false;
+        this.hasTickSource = true;
+        this.clock = Objects.requireNonNull(clock, "clock must not be null!");
+        this.gpioController = null;
+        this.gpio_Inc_B_Pin = null;
+        this.gpioListener = null;
+        this.gpioPins = null;
+        this.motorDriver = motorDriver;
+        this.motorDriverTask = null;
+    }
+    
+    /**
+     * handleIncA(boolean is_B_High) - steigende Flanke am Impuls A...
+     * <p>
+     * Die steigende Flanke A wird jeweils zur Messung ausgewertet.
+     * Die Drehrichtung ergibt sich dabei daraus, ob B bereits High
+     * ist oder noch Low.
+     * Dieses Vorgehen setzt voraus, dass bei Auftritt der Flanke
+     * der Zustand der anderen Impulsfolge bekannt ist.
+     * Anm.: Die Impulsfolgen A und B sind auch vertauschbar.
+     * </p>
+     * @param is_B_High - Zustand von Impuls B
+     */
+    void handleIncA(boolean is_B_High)
+    {
+        handleIncA(is_B_High, this.clock.nanoTime());
+    }
+    
+    /**
+     * handleIncA(boolean is_B_High, long timestamp) - steigende Flanke am Impuls A
+     * mit dem Zeitstempel der Quelle (vgl. EdgeSource)...
+     * @param is_B_High - Zustand von Impuls B
+     * @param timestamp - Zeitpunkt der Flanke in ns (Zeitbasis wie clock)
+     */
+    void handleIncA(boolean is_B_High, long timestamp)
+    {
+        //////////////////////////////////////////////////////////////
+        // Hier: Steigende Flanke und Impuls A...
+        //////////////////////////////////////////////////////////////
+        // Hier erfolgt das Zaehlen der Impulse im encoder 
+        // in Abhaengigkeit davon, welchen Zustand der Impuls B 
+        // angenommen hat. Die Flanke wird mit Zeitstempel abgelegt,
+        // this.phi wird erst im Takt uebernommen...
+        this.encoder.edge((is_B_High)? -1 : +1, timestamp);
+    }
+    
+    /**
+     * handleTick() - steigende Flanke am NE555, 
+     * die Taktung hat einen Referenzpunkt erreicht...
+     */
+    void handleTick()
+    {
+        handleTick(this.clock.nanoTime());
+    }
+    
+    /**
+     * handleTick(long now) - steigende Flanke am NE555 mit dem Zeitstempel 
+     * der Quelle (vgl. EdgeSource)...
+     * @param now - Zeitpunkt der Flanke in ns (Zeitbasis wie clock)
+     */
+    void handleTick(long now)
+    {
+        synchronized (tickLock)
+        {
+            // Allokation des Takt-Threads waehrend des Taktes (vgl. AllocationMonitor)...
+            final AllocationMonitor allocationMonitor = this.allocationMonitor;
+            final long allocatedBytes = (allocationMonitor != null)? allocationMonitor.getAllocatedBytes() : -1L;
             
-            ///////////////////////////////////////////////////////////////////////////////////////
-            // Die I2C-Schnittstelle einrichten...
-            try
+            if (FlightEvents.isRecording())
             {
-                final I2CBus i2cBus = I2CFactory.getInstance(I2CBus.BUS_1);
-                this.drv8830 = new DRV8830(i2cBus.getDevice(ADDRESS));
-                int fault = this.drv8830.getFault(); 
-                logger.info("drv8830 liefert mit getFault() die Kennung: " + fault);                  
-            } 
-            catch (Throwable exception)
+                // Ereignis des Taktes fuer den Flight Recorder (vgl. FlightEvents)...
+                final FlightEvents.TickEvent tickEvent = new FlightEvents.TickEvent();
+                tickEvent.begin();
+                processTick(now);
+                tickEvent.end();
+                if (tickEvent.shouldCommit())
+                {
+                    tickEvent.counter = this.counter;
+                    tickEvent.phi = this.phi;
+                    tickEvent.phiSetPoint = this.phiSetPoint;
+                    tickEvent.output = this.drvSetPoint;
+                    tickEvent.cycleTime = this.cycleTime.toNanos();
+                    tickEvent.commit();
+                }
+            }
+            else
             {
-                logger.error("I2CFactory.getInstance()", exception);
-                System.exit(0);
+                processTick(now);
             }
-            ///////////////////////////////////////////////////////////////////////////////////////
             
-        } // end if(this.isRaspi).
-        else
+            if (allocationMonitor != null)
+            {
+                publishAllocation(allocationMonitor.record(allocatedBytes, this.cycleTime.toNanos()));
+            }
+        }
+    }
+    
+    /**
+     * processTick(long now) - Ausfuehrung des Taktes (nur aus handleTick(), tickLock gehalten)...
+     * @param now - Zeitpunkt der Flanke in ns
+     */
+    private void processTick(long now)
+    {
+        tickLabel:
+        {
+            if (this.isFirstTick)
+            {
+                this.isFirstTick = false;
+                StartupTimer.mark("erster Takt");
+            }
+            
+            // Motortreiber uebernehmen, sobald die Einrichtung im Hintergrund abgeschlossen ist...
+            if (this.motorDriver == null && this.motorDriverTask != null && this.motorDriverTask.isDone())
+            {
+                this.motorDriver = getMotorDriver(this.motorDriverTask);
+            }
+            
+            // Anstehende Bedienhandlungen an der Taktgrenze ausfuehren...
+            applyCommands();
+            
+            // Den Status bestimmen: isStarted oder nicht...
+            final boolean isStarted = this.status.equals(Status.Start);
+            
+            this.counter++;
+            
+            // Zaehlerstand, Lage (interpoliert) und Geschwindigkeit aus dem encoder...
+            this.encoder.sample(now, this.sample);
+            this.phi = (long) this.sample[Encoder.SAMPLE_COUNT];
+            
+            // Lage-Istwert zum Taktzeitpunkt, aus den letzten Flanken interpoliert...
+            final double phiInterpolated = this.sample[Encoder.SAMPLE_POSITION];
+            
+            // Gemessene Taktzeit in s (hochaufloesend, erster Takt: 0)...
+            final double dt = this.isPastValid? (now - this.past) * 1.0E-9 : 0.0;
+            
+            // Sprungantwort der laufenden Bewegung (nur im Lauf)...
+            if (isStarted)
+            {
+                publishStepResponse(this.stepAnalyser.update(dt, phiInterpolated));
+            }
+            
+            // Beobachter: Eingang ist der bis jetzt ausgegebene drvSetPoint, Messung der Zaehlerstand...
+            this.observer.update(dt, this.drvSetPoint, this.phi);
+            
+            // Rueckfuehrung: gemessen (interpoliert) oder geschaetzt...
+            final double phiFeedback = this.isObserver? this.observer.getPosition() : phiInterpolated;
+            final double speedMeasured = this.isObserver? this.observer.getVelocity() : this.sample[Encoder.SAMPLE_SPEED];
+            final double speedFeedback = this.isFilter? this.velocityFilter.filter(speedMeasured) : speedMeasured;
+            
+            if (this.isVelocityMode)
+            {
+                // Drehzahlregelung: Fuehrungsgroesse mit der Soll-Drehzahl weiterfuehren
+                // (nur im Lauf), Schleppabstand auf MAX_FOLLOWING_ERROR begrenzen...
+                final double reference = isStarted? this.phiReference + this.speedSetPoint * dt : phiFeedback;
+                this.phiReference = Math.max(phiFeedback - MAX_FOLLOWING_ERROR, 
+                                             Math.min(phiFeedback + MAX_FOLLOWING_ERROR, reference));
+                this.phiSetPoint = Math.round(this.phiReference);
+            }
+            
+            if (this.isGainScheduling)
+            {
+                // Verstaerkungen nach |Regelabweichung| und |Drehzahl|...
+                final int index = this.gainSchedule.index(this.phiSetPoint - phiFeedback, 
+                                                          speedFeedback * RPM_PER_SPEED);
+                getPositioncontroller().setGainFactors(this.gainSchedule.getProportionalFactor(index), 
+                                                       this.gainSchedule.getIntegralFactor(index));
+            }
+            
+            // Reglerausgang bestimmen...
+            final FlightEvents.ControlEvent controlEvent = FlightEvents.isRecording()? new FlightEvents.ControlEvent() : null;
+            if (controlEvent != null)
+            {
+                controlEvent.begin();
+            }
+            final int outPut = this.isCascade? this.cascadeController.getValue(dt, this.phiSetPoint, phiFeedback, speedFeedback, 
+                                                                               this.isVelocityMode? this.speedSetPoint : 0.0)
+                                             : getPositioncontroller().getValue(dt, 
+                                                                                this.phiSetPoint, 
+                                                                                phiFeedback);
+            if (controlEvent != null)
+            {
+                controlEvent.end();
+                if (controlEvent.shouldCommit())
+                {
+                    controlEvent.isCascade = this.isCascade;
+                    controlEvent.output = outPut;
+                    controlEvent.commit();
+                }
+            }
+            
+            // Aufbereitung (Vorsteuerung, Reibung, Totzone), in jedem Takt zur Verfolgung des Sollwertes,
+            // im Geschwindigkeitsmodus aus der (nicht gerundeten) Fuehrungsgroesse...
+            final int conditionedOutPut = this.outputConditioner.apply(outPut, 
+                                                                       this.isVelocityMode? this.phiReference : this.phiSetPoint, 
+                                                                       dt);
+            
+            // Ausgangsstufe: ungerundeter Reglerausgang + Vorsteuerung, Totzone und (mit Kompensation) 
+            // Haftreibung bildet die Stufe selbst ab...
+            final int stageOutPut = this.outputStage.isEnabled()? this.outputStage.apply((this.isCascade? this.cascadeController.getOutput() 
+                                                                                                         : getPositioncontroller().getOutput())
+                                                                                         + this.outputConditioner.getFeedForward(), 
+                                                                                         this.outputConditioner.isEnabled())
+                                                                : conditionedOutPut;
+            
+            this.drvSetPoint = isStarted? stageOutPut : 0;
+            
+            // Jetzt werden die Kenngroesse der Taktung ermittelt:
+            // - now: der jetzige Zeitpunkt (ns), die Zeitdauer ergibt sich
+            //        durch Differenzbildung zu this.past...
+            // now wird im Verlauf im Zustand this.past abgelegt. 
+            // this.past: Zeitpunkt der letzten Taktung...
+            if (!this.isPastValid)
+            {
+                // Erste Beauftragung: Noch kein Zeitpunkt past...
+                this.past = now;
+                this.isPastValid = true;
+            }
+            // this.cycleTime: Taktzeit aus der Differenz now - past.
+            // Ablage der aktuell gemessenen Taktzeit in der Zustandsgroesse cycleTime...
+            this.cycleTime = Duration.ofNanos(now - this.past);
+          
+            // Bestimmung des Anzeigewertes von this.cycleTime in Sekunden...
+            // cycleTimeDecimal - momentane Taktzeit (cycleTime) in Sekunden...
+            this.cycleTimeDecimal = toBigDecimalSeconds(this.cycleTime, SCALE_CYCLE_TIME);
+            
+            // Kennzahlen: Taktzeit, Anteil der Takte in der Begrenzung des Reglers...
+            final int maxOutPut = this.outputStage.isEnabled()? this.outputStage.getMaxValue() : MAX_VALUE;
+            this.metrics.record(now - this.past, isStarted, Math.abs(outPut) >= maxOutPut);
+          
+            //////////////////////////////////////////////////////////////////////////
+            // ...und Ablage der aktuelle ermittelten Taktzeit...
+            this.past = now;
+            //////////////////////////////////////////////////////////////////////////
+         
+            this.rotation = BigDecimal.valueOf(this.phi).divide(CIRCUMFERENCE, SCALE_RPM, BigDecimal.ROUND_HALF_UP);
+          
+            // Drehzahl aus der Periodendauer der letzten Flanken bzw. vom Beobachter (Impulse pro Sekunde)...
+            final double speed = speedFeedback;
+          
+            this.rpm = BigDecimal.valueOf(speed).multiply(Model.CONST).setScale(SCALE_RPM, BigDecimal.ROUND_HALF_UP);
+          
+            this.rpm = (this.rpm.abs().compareTo(BigDecimal.ONE.movePointLeft(2)) < 0)? BigDecimal.ZERO : this.rpm; 
+
+            
+            // this.counter: fortlaufender Zaehler...
+            final Data newData = new Data(Long.valueOf(this.counter),
+                                          Long.valueOf(this.phi),
+                                          this.rotation,
+                                          this.rpm,
+                                          this.cycleTimeDecimal,
+                                          this.drvSetPoint);
+            publishData(newData);
+            
+            final TelemetryRecorder telemetryRecorder = this.telemetryRecorder;
+            if (telemetryRecorder != null)
+            {
+                telemetryRecorder.record(this.counter, now, this.phi, this.cycleTime.toNanos(), this.drvSetPoint);
+            }
+            final TelemetryPublisher telemetryPublisher = this.telemetryPublisher;
+            if (telemetryPublisher != null)
+            {
+                telemetryPublisher.publish(this.counter, now, this.phi, this.phiSetPoint, this.cycleTime.toNanos(), 
+                                           speed, this.drvSetPoint, this.status);
+            }
+          
+            logger.debug(now + ": Taktzeit=" + this.cycleTime + ", phi=" + this.phi);
+            
+            if (isStarted)
+            {
+                if (this.motorDriver == null)
+                {
+                    logger.error("Zugriff auf DRV8830?");
+                    break tickLabel;
+                }
+                
+                this.i2cLock.lock();
+                try
+                {
+                    
+                    int fault = this.motorDriver.getFault(); 
+                    // Bei fault == 0 => Fehlerfrei, sonst Fehler!
+                    if (fault != 0)
+                    {
+                        this.metrics.recordFault(fault);
+                        final DRV8830.Fault error = DRV8830.Fault.getFault(fault);
+                        logger.error("DRV8830-Fehler: " + error.getReason());
+                    }
+                    // stop() hat bereits gebremst, nicht wieder anfahren...
+                    if (!this.isStopRequested)
+                    {
+                        this.motorDriver.drive(this.drvSetPoint);
+                    }
+                } 
+                catch (IOException exception)
+                {
+                    this.metrics.recordI2CError();
+                    logger.error("drive():", exception);
+                }
+                finally
+                {
+                    this.i2cLock.unlock();
+                }
+            } //
+        }
+    }
+
+    /**
+     * newCascadeController() - Kaskadenregelung mit den Voreinstellungen der Comboboxen...
+     */
+    private static CascadeController newCascadeController()
+    {
+        final CascadeController cascadeController = new CascadeController(MAX_VALUE);
+        cascadeController.setPositionGain(POSITION_GAINS[SELECTED_POSITION_GAINS_INDEX].doubleValue());
+        cascadeController.setVelocityGain(VELOCITY_GAINS[SELECTED_VELOCITY_GAINS_INDEX].doubleValue());
+        cascadeController.setVelocityIntegralGain(VELOCITY_INTEGRAL_GAINS[SELECTED_VELOCITY_INTEGRAL_GAINS_INDEX].doubleValue());
+        cascadeController.setVelocityLimit(VELOCITY_LIMITS[SELECTED_VELOCITY_LIMITS_INDEX].doubleValue() / RPM_PER_SPEED);
+        return cascadeController;
+    }
+    
+    /**
+     * getMotorDriver(FutureTask<MotorDriver> task) - Ergebnis der abgeschlossenen Einrichtung...
+     * @param task - abgeschlossene Einrichtung
+     * @return MotorDriver oder null bei Fehler
+     */
+    private static MotorDriver getMotorDriver(FutureTask<MotorDriver> task)
+    {
+        try
+        {
+            return task.get();
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException exception)
+        {
+            logger.error("getMotorDriver()", exception);
+        }
+        return null;
+    }
+
+    /**
+     * toBigDecimalSeconds(Duration duration) - liefert die Anzahl der Sekunden
+     * <p>
+     * Vgl. toBigDecimalSeconds() aus Duration in Java 11.
+     * </p>
+     * @param duration
+     * @return
+     */
+    private static BigDecimal toBigDecimalSeconds(Duration duration, int scale)
+    {
+        Objects.requireNonNull(duration, "duration must not be null!");
+        final BigDecimal result = BigDecimal.valueOf(duration.getSeconds()).add(BigDecimal.valueOf(duration.getNano(), 9)).setScale(scale,  BigDecimal.ROUND_HALF_UP);
+        return (result.compareTo(BigDecimal.ONE.movePointLeft(scale)) < 0)? BigDecimal.ZERO : result;   
+    }
+     
+    /**
+     * 
+     * @return
+     */
+    public PositionController getPositioncontroller()
+    {
+        return this.positionController;
+    }
+    
+    
+    /**
+     * getCounter() - aktueller Stand des Taktzaehlers...
+     * <p>
+     * Nur im Takt-Thread (bzw. in der Simulation) aktuell, 
+     * sonst vgl. getData().getCounter().
+     * </p>
+     * @return
+     */
+    public long getCounter()
+    {
+        return this.counter;
+    }
+    
+    /**
+     * getData() - zuletzt im Takt veroeffentlichter Datensatz (unveraenderlich)...
+     * @return
+     */
+    public Data getData()
+    {
+        return this.data;
+    }
+    
+    /**
+     * getStatus() - aktueller Status (wird nur im Takt geaendert)...
+     * @return
+     */
+    public Status getStatus()
+    {
+        return this.status;
+    }
+    
+    /**
+     * setCommandLog(CommandLog commandLog) - Protokollierung der Bedienhandlungen...
+     * <p>
+     * Jede Bedienhandlung wird mit dem Taktzaehler abgelegt, ab dem sie wirkt.
+     * </p>
+     * @param commandLog - Protokoll oder null (keine Protokollierung)
+     */
+    public void setCommandLog(CommandLog commandLog)
+    {
+        this.commandLog = commandLog;
+    }
+    
+    /**
+     * setTelemetryRecorder(TelemetryRecorder telemetryRecorder) - Aufzeichnung der Taktdaten...
+     * @param telemetryRecorder - Aufzeichnung oder null (keine Aufzeichnung)
+     */
+    public void setTelemetryRecorder(TelemetryRecorder telemetryRecorder)
+    {
+        this.telemetryRecorder = telemetryRecorder;
+    }
+    
+    /**
+     * setFilters(BiquadFilter errorFilter, BiquadFilter velocityFilter) - Filter 
+     * statt der Voreinstellung, Uebernahme im naechsten Takt...
+     * @param errorFilter - Filter der Regelabweichung
+     * @param velocityFilter - Filter der Geschwindigkeit
+     */
+    public void setFilters(BiquadFilter errorFilter, BiquadFilter velocityFilter)
+    {
+        Objects.requireNonNull(errorFilter, "errorFilter must not be null!");
+        Objects.requireNonNull(velocityFilter, "velocityFilter must not be null!");
+        submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                Model.this.errorFilter = errorFilter;
+                Model.this.velocityFilter = velocityFilter;
+                getPositioncontroller().setErrorFilter(Model.this.isFilter? errorFilter : null);
+            }
+        });
+    }
+    
+    /**
+     * setConditioning() - Totzone, Reibung und Vorsteuerung statt der Voreinstellung,
+     * Uebernahme im naechsten Takt...
+     * <p>
+     * Die Tabellen von OutputConditioner und OutputStage werden neu berechnet,
+     * der Beobachter mit der Totzone (und dem Streckenmodell, vgl. setObserverModel())
+     * neu aufgesetzt. Die Schalter (Kompensation, Ausgangsstufe) bleiben erhalten.
+     * </p>
+     * @param deadZone - Totzone des DRV8830
+     * @param frictionOffset - zusaetzlicher Offset zur Ueberwindung der Haftreibung
+     * @param velocityFeedForward - Stellwert je Impuls/s Sollgeschwindigkeit
+     * @param accelerationFeedForward - Stellwert je Impuls/s^2 Sollbeschleunigung
+     * @throws IllegalArgumentException - ungueltige Werte (vgl. OutputConditioner, OutputStage)
+     */
+    public synchronized void setConditioning(int deadZone, int frictionOffset, double velocityFeedForward, double accelerationFeedForward)
+    {
+        // Pruefung der Werte bereits beim Aufrufer...
+        final OutputConditioner outputConditioner = new OutputConditioner(MAX_VALUE, 
+                                                                          deadZone, 
+                                                                          frictionOffset, 
+                                                                          velocityFeedForward, 
+                                                                          accelerationFeedForward);
+        final OutputStage outputStage = new OutputStage(deadZone, frictionOffset, OutputStage.MAX_VSET);
+        final StateObserver observer = new StateObserver(this.observerGain, 
+                                                         this.observerTimeConstant, 
+                                                         deadZone, 
+                                                         StateObserver.DEFAULT_MEASUREMENT_VARIANCE, 
+                                                         this.observerVelocityNoise, 
+                                                         this.observerLoadNoise);
+        this.observerDeadZone = deadZone;
+        submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                outputConditioner.setEnabled(Model.this.outputConditioner.isEnabled());
+                outputStage.setEnabled(Model.this.outputStage.isEnabled());
+                observer.reset(Model.this.phi);
+                Model.this.outputConditioner = outputConditioner;
+                Model.this.outputStage = outputStage;
+                Model.this.observer = observer;
+                // Mit der Ausgangsstufe haengt die Begrenzung der Regler von der Totzone ab...
+                final int maxDrvSetPoint = outputStage.isEnabled()? outputStage.getMaxValue() : MAX_VALUE;
+                getPositioncontroller().setMaxDrvSetPoint(maxDrvSetPoint);
+                Model.this.cascadeController.setMaxDrvSetPoint(maxDrvSetPoint);
+            }
+        });
+    }
+    
+    /**
+     * setObserverModel() - Streckenmodell des Beobachters statt der Voreinstellung
+     * (Werte von SimulatedDrive), Uebernahme im naechsten Takt...
+     * <p>
+     * Die Totzone kommt aus setConditioning(). Der Beobachter wird neu aufgesetzt
+     * (Stillstand in der aktuellen Lage), der Schalter bleibt erhalten.
+     * </p>
+     * @param gain - Impulse pro Sekunde je Sollwertstufe oberhalb der Totzone
+     * @param timeConstant - Zeitkonstante der Geschwindigkeit in s
+     * @param velocityNoise - Rauschdichte Geschwindigkeit ((Impulse/s)^2 je s)
+     * @param loadNoise - Rauschdichte Last ((Impulse/s)^2 je s)
+     * @throws IllegalArgumentException - ungueltige Werte (vgl. StateObserver)
+     */
+    public synchronized void setObserverModel(double gain, double timeConstant, double velocityNoise, double loadNoise)
+    {
+        final StateObserver observer = new StateObserver(gain, 
+                                                         timeConstant, 
+                                                         this.observerDeadZone, 
+                                                         StateObserver.DEFAULT_MEASUREMENT_VARIANCE, 
+                                                         velocityNoise, 
+                                                         loadNoise);
+        this.observerGain = gain;
+        this.observerTimeConstant = timeConstant;
+        this.observerVelocityNoise = velocityNoise;
+        this.observerLoadNoise = loadNoise;
+        submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                observer.reset(Model.this.phi);
+                Model.this.observer = observer;
+            }
+        });
+    }
+    
+    /**
+     * getObserver() - Beobachter des Taktes (nur im Takt bzw. in der Simulation auszuwerten)...
+     */
+    final StateObserver getObserver()
+    {
+        return this.observer;
+    }
+    
+    /**
+     * setTelemetryPublisher(TelemetryPublisher telemetryPublisher) - Versand der Taktdaten per UDP...
+     * @param telemetryPublisher - Versand oder null (kein Versand)
+     */
+    public void setTelemetryPublisher(TelemetryPublisher telemetryPublisher)
+    {
+        this.telemetryPublisher = telemetryPublisher;
+    }
+    
+    /**
+     * setMetricsServer(MetricsServer metricsServer) - HTTP-Endpunkt, wird mit shutdown() beendet...
+     * @param metricsServer - Endpunkt oder null
+     */
+    public void setMetricsServer(MetricsServer metricsServer)
+    {
+        this.metricsServer = metricsServer;
+    }
+    
+    /**
+     * setEdgeSource(EdgeSource edgeSource) - alternative Quelle der Flanken...
+     * <p>
+     * Der Listener der pi4j wird abgemeldet, die Flanken kommen danach nur noch 
+     * aus edgeSource (Zeitstempel der Quelle). Eine bisherige Quelle wird beendet,
+     * die neue wird mit shutdown() beendet.
+     * </p>
+     * @param edgeSource
+     * @throws IOException - Quelle nicht verfuegbar
+     */
+    public synchronized void setEdgeSource(EdgeSource edgeSource) throws IOException
+    {
+        if (this.gpioController != null && this.gpioListener != null)
+        {
+            this.gpioController.removeListener(this.gpioListener, this.gpioPins);
+        }
+        final EdgeSource oldEdgeSource = this.edgeSource;
+        this.edgeSource = edgeSource;
+        if (oldEdgeSource != null)
+        {
+            oldEdgeSource.close();
+        }
+        edgeSource.start(this);
+        logger.info("setEdgeSource(): " + edgeSource);
+    }
+    
+    /**
+     * getAllocationMonitor() - Messung der Allokation je Takt (evtl. null)...
+     * @return
+     */
+    public AllocationMonitor getAllocationMonitor()
+    {
+        return this.allocationMonitor;
+    }
+    
+    /**
+     * setAllocationMonitor(AllocationMonitor allocationMonitor) - Messung der Allokation 
+     * je Takt, wird mit shutdown() beendet...
+     * @param allocationMonitor - Messung oder null
+     */
+    public void setAllocationMonitor(AllocationMonitor allocationMonitor)
+    {
+        this.allocationMonitor = allocationMonitor;
+    }
+    
+    /**
+     * getStepAnalyser() - Auswertung der Sprungantwort (Ergebnisse aus beliebigen Threads lesbar)...
+     * @return
+     */
+    public StepAnalyser getStepAnalyser()
+    {
+        return this.stepAnalyser;
+    }
+    
+    /**
+     * getMetrics() - Kennzahlen des Taktes (Lesen aus beliebigen Threads)...
+     * @return
+     */
+    public TickMetrics getMetrics()
+    {
+        return this.metrics;
+    }
+    
+    /**
+     * logCommand() - Ablage der Bedienhandlung im commandLog (falls vorhanden)...
+     * <p>
+     * Wird bei der Ausfuehrung im Takt beauftragt, this.counter ist damit 
+     * der Takt, ab dem die Bedienhandlung wirkt.
+     * </p>
+     * @param command
+     * @param key
+     * @param value
+     */
+    private void logCommand(CommandLog.Command command, String key, Object value)
+    {
+        final CommandLog commandLog = this.commandLog;
+        if (commandLog != null)
         {
-            this.dataMap.put(DATA_KEY, null);
-            logger.debug(DATA_KEY + " in dataMap mit value=null aufgenommen.");
+            commandLog.append(command, this.counter, key, value);
         }
     }
-     
+    
     /**
-     * 
-     * @return
+     * submit(Runnable command) - Bedienhandlung zur Ausfuehrung im naechsten Takt...
+     * <p>
+     * Ohne Taktung (Lauf ausserhalb des Raspi) wird sofort ausgefuehrt.
+     * </p>
+     * @param command
      */
-    public PositionController getPositioncontroller()
+    private void submit(Runnable command)
     {
-        return this.positionController;
+        if (this.hasTickSource)
+        {
+            this.commands.offer(command);
+        }
+        else
+        {
+            command.run();
+        }
     }
     
+    /**
+     * applyCommands() - Ausfuehrung aller anstehenden Bedienhandlungen (nur im Takt)...
+     */
+    private void applyCommands()
+    {
+        Runnable command;
+        while ((command = this.commands.poll()) != null)
+        {
+            command.run();
+        }
+    }
     
     /**
-     * 
+     * addPropertyListener() - Anmeldung eines Listeners fuer eine Eigenschaft...
+     * @param property - die Eigenschaft
+     * @param type - Typ der Werte, muss property.getType() aufnehmen koennen
      * @param listener
      */
-    public void addPropertyChangeListener(PropertyChangeListener listener)
+    public synchronized <T> void addPropertyListener(Property property, Class<T> type, PropertyListener<? super T> listener)
     {
-        this.support.addPropertyChangeListener(listener);
+        Objects.requireNonNull(listener, "listener must not be null!");
+        if (!type.isAssignableFrom(property.getType()))
+        {
+            throw new IllegalArgumentException(property + " has values of type " + property.getType().getName());
+        }
+        final PropertyListener<?>[][] listeners = this.listeners.clone();
+        final PropertyListener<?>[] propertyListeners = listeners[property.ordinal()];
+        listeners[property.ordinal()] = java.util.Arrays.copyOf(propertyListeners, propertyListeners.length + 1);
+        listeners[property.ordinal()][propertyListeners.length] = listener;
+        this.listeners = listeners;
     }
 
     /**
-     * 
+     * removePropertyListener() - Abmeldung eines Listeners...
+     * @param property
      * @param listener
      */
-    public void removePropertyChangeListener(PropertyChangeListener listener)
+    public synchronized void removePropertyListener(Property property, PropertyListener<?> listener)
     {
-        this.support.removePropertyChangeListener(listener);
+        final PropertyListener<?>[][] listeners = this.listeners.clone();
+        final PropertyListener<?>[] propertyListeners = listeners[property.ordinal()];
+        for (int index = 0; index < propertyListeners.length; index++)
+        {
+            if (propertyListeners[index] == listener)
+            {
+                final PropertyListener<?>[] remaining = new PropertyListener<?>[propertyListeners.length - 1];
+                System.arraycopy(propertyListeners, 0, remaining, 0, index);
+                System.arraycopy(propertyListeners, index + 1, remaining, index, remaining.length - index);
+                listeners[property.ordinal()] = remaining;
+                this.listeners = listeners;
+                return;
+            }
+        }
     }
 
     /**
-     * setProperty(String key, Object newValue) - Die View wird informiert...
-     * 
+     * fireProperty() - Benachrichtigung der Listener der Eigenschaft 
+     * (wie bisher nicht bei gleichem Wert)...
+     */
+    @SuppressWarnings("unchecked")
+    private void fireProperty(Property property, Object oldValue, Object newValue)
+    {
+        if (oldValue != null && oldValue.equals(newValue))
+        {
+            return;
+        }
+        for (PropertyListener<?> listener: this.listeners[property.ordinal()])
+        {
+            ((PropertyListener<Object>) listener).propertyChanged(property, oldValue, newValue);
+        }
+    }
+
+    /**
+     * getProperty(Property property, Class&lt;T&gt; type) - zuletzt eingegebener Wert...
+     * @param property
+     * @param type
+     * @return Wert oder null (keine Eingabe)
+     */
+    public <T> T getProperty(Property property, Class<T> type)
+    {
+        return type.cast((property == Property.DATA)? this.data : this.values.get(property.ordinal()));
+    }
+
+    /**
+     * setProperty(String key, Object newValue) - Eingabe unter dem key
+     * (Name des Oberflaechenelementes bzw. Kennung im CommandLog)...
+     * <p>
+     * Unbekannte keys werden ignoriert, sonst vgl. setProperty(Property, Object).
+     * </p>
      * @param key
      * @param newValue
      */
     public void setProperty(String key, Object newValue)
     {
-        if (this.dataMap.containsKey(key))
+        final Property property = Property.valueOfKey(key);
+        if (property != null)
         {
-            Object oldValue = this.dataMap.get(key);
-            
-            this.dataMap.put(key, newValue);
-            
-            if (Model.DATA_ENHANCEMENT_KEY.equals(key))
+            setProperty(property, newValue);
+        }
+    }
+    
+    /**
+     * setProperty(Property property, Object newValue) - Die View wird informiert...
+     * <p>
+     * Die Eingaben der Oberflaeche werden unter der Property abgelegt und an die
+     * View zurueckgemeldet, die Uebernahme in die Regelgroessen erfolgt im
+     * naechsten Takt (vgl. applyProperty()). Der Datensatz unter Property.DATA
+     * wird ueber publishData() veroeffentlicht.
+     * </p>
+     * @param property
+     * @param value - Wert im Typ property.getType() (bzw. vgl. Property.convert())
+     */
+    public void setProperty(Property property, Object value)
+    {
+        final Object newValue = property.convert(value);
+        if (newValue == null)
+        {
+            logger.warn("setProperty(): " + property + " ungueltig: " + value);
+            return;
+        }
+        
+        if (property == Property.DATA)
+        {
+            publishData((Data) newValue);
+            return;
+        }
+        
+        if (property == Property.STEP_RESPONSE || property == Property.ALLOCATION)
+        {
+            // Ergebnis wird nur vom Model selbst veroeffentlicht...
+            return;
+        }
+        
+        final Object oldValue = this.values.getAndSet(property.ordinal(), newValue);
+        
+        submit(new Runnable()
+        {
+            @Override
+            public void run()
             {
-                if (newValue instanceof BigDecimal)
-                {
-                    this.enhancement = (BigDecimal) newValue;
-                    
-                    getPositioncontroller().setEnhancement(this.enhancement);
-                    
-                    logger.debug("enhancement: " + getPositioncontroller().getEnhancement().toString());                    
-                }
+                applyProperty(property, newValue);
+            }
+        });
+        
+        if (oldValue == null || !oldValue.equals(newValue))
+        {
+            logger.debug(property + ": " + oldValue + " => " + newValue);
+        }
+        
+        fireProperty(property, oldValue, newValue);
+    }
+    
+    /**
+     * publishData(Data newData) - Veroeffentlichung des Datensatzes eines Taktes...
+     * @param newData
+     */
+    private void publishData(Data newData)
+    {
+        final Data oldData = this.data;
+        this.data = newData;
+        if (FlightEvents.isRecording())
+        {
+            // Dauer der Listener (Oberflaeche, Aufzeichnung) fuer den Flight Recorder...
+            final FlightEvents.PublishEvent publishEvent = new FlightEvents.PublishEvent();
+            publishEvent.begin();
+            fireProperty(Property.DATA, oldData, newData);
+            publishEvent.end();
+            if (publishEvent.shouldCommit())
+            {
+                publishEvent.counter = newData.getCounter().longValue();
+                publishEvent.commit();
+            }
+        }
+        else
+        {
+            fireProperty(Property.DATA, oldData, newData);
+        }
+    }
+    
+    /**
+     * applyProperty(Property property, Object newValue) - Uebernahme einer Eingabe 
+     * in die Regelgroessen (nur im Takt)...
+     * @param property
+     * @param newValue - Wert im Typ property.getType()
+     */
+    private void applyProperty(Property property, Object newValue)
+    {
+        logCommand(CommandLog.Command.PROPERTY, property.getKey(), newValue);
+        
+        switch (property)
+        {
+            case ENHANCEMENT:
+            {
+                this.enhancement = (BigDecimal) newValue;
+                
+                getPositioncontroller().setEnhancement(this.enhancement);
+                
+                logger.debug("enhancement: " + getPositioncontroller().getEnhancement().toString());                    
+                break;
             }
             
-            if (Model.DATA_INTEGRAL_ENHANCEMENT_KEY.equals(key))
+            case INTEGRAL_ENHANCEMENT:
             {
-                if (newValue instanceof BigDecimal)
-                {
-                    this.integralEnhancement = (BigDecimal) newValue;
-                    
-                    getPositioncontroller().setIntegralEnhancement(this.integralEnhancement);
-                    
-                    logger.debug("enhancement: " + getPositioncontroller().getEnhancement().toString());                    
-                }
+                this.integralEnhancement = (BigDecimal) newValue;
+                
+                getPositioncontroller().setIntegralEnhancement(this.integralEnhancement);
+                
+                logger.debug("enhancement: " + getPositioncontroller().getEnhancement().toString());                    
+                break;
             }
             
-            if (Model.DATA_DESTINATION_KEY.equals(key))
+            case DESTINATION:
             {
-                if (newValue instanceof String)
+                NumberFormat format = NumberFormat.getInstance(Locale.GERMAN);
+                try
                 {
-                    NumberFormat format = NumberFormat.getInstance(Locale.GERMAN);
-                    try
+                    Number number = format.parse(newValue.toString());
+                    final BigDecimal newDestination = BigDecimal.valueOf(number.doubleValue());
+                    if (this.isVelocityMode)
+                    {
+                        // In der Drehzahlregelung fuehrt phiReference, die Lage wird beim Verlassen uebernommen...
+                        logger.info("setProperty() destination: " + newDestination + " in der Drehzahlregelung ohne Wirkung.");
+                    }
+                    else
                     {
-                        Number number = format.parse(newValue.toString());
-                        final BigDecimal newDestination = BigDecimal.valueOf(number.doubleValue());
                         // this.destination - Sollwert in Umdrehungen angegeben.
                         this.destination = newDestination;
                         
                         // Bestimmung des Sollwertes this.phiSetPoint in Impulsen...
                         this.phiSetPoint = Model.CIRCUMFERENCE.multiply(newDestination).longValue();
                         
+                        // Auswertung der Sprungantwort ab der aktuellen Lage...
+                        publishStepResponse(this.stepAnalyser.start(this.counter, this.phi, this.phiSetPoint));
+                        
                         logger.debug("setProperty() destination: " + newDestination + ", phiSetPoint: " + this.phiSetPoint);
-                    } 
-                    catch (ParseException exception)
-                    {
-                        logger.error("setProperty()", exception);
                     }
-                }    
+                } 
+                catch (ParseException exception)
+                {
+                    logger.error("setProperty()", exception);
+                }
+                break;
             }
-
-            if (Model.DATA_ANTI_WINDUP_KEY.equals(key))
+            
+            case ANTI_WINDUP:
+            {
+                this.antiWindup = (AntiWindup.Strategy) newValue;
+                
+                getPositioncontroller().setAntiWindup(this.antiWindup);                
+                
+                logger.debug("antiWindup: " + this.antiWindup.name());
+                break;
+            }
+            
+            case COMPENSATION:
+            {
+                this.outputConditioner.setEnabled(((Boolean) newValue).booleanValue());
+                
+                logger.debug("isCompensation: " + this.outputConditioner.isEnabled());
+                break;
+            }
+            
+            case GAIN_SCHEDULING:
+            {
+                this.isGainScheduling = ((Boolean) newValue).booleanValue();
+                if (!this.isGainScheduling)
+                {
+                    // Ohne Anpassung gelten die eingestellten Verstaerkungen...
+                    getPositioncontroller().setGainFactors(1.0, 1.0);
+                }
+                
+                logger.debug("isGainScheduling: " + this.isGainScheduling);
+                break;
+            }
+            
+            case CASCADE:
+            {
+                this.isCascade = ((Boolean) newValue).booleanValue();
+                this.cascadeController.reset();
+                
+                logger.debug("isCascade: " + this.isCascade);
+                break;
+            }
+            
+            case POSITION_GAIN:
+            {
+                this.cascadeController.setPositionGain(((BigDecimal) newValue).doubleValue());
+                break;
+            }
+            
+            case VELOCITY_GAIN:
+            {
+                this.cascadeController.setVelocityGain(((BigDecimal) newValue).doubleValue());
+                break;
+            }
+            
+            case VELOCITY_INTEGRAL_GAIN:
+            {
+                this.cascadeController.setVelocityIntegralGain(((BigDecimal) newValue).doubleValue());
+                break;
+            }
+            
+            case VELOCITY_LIMIT:
+            {
+                // U/min => Impulse/s...
+                this.cascadeController.setVelocityLimit(((BigDecimal) newValue).doubleValue() / RPM_PER_SPEED);
+                break;
+            }
+            
+            case OBSERVER:
+            {
+                this.isObserver = ((Boolean) newValue).booleanValue();
+                
+                logger.debug("isObserver: " + this.isObserver);
+                break;
+            }
+            
+            case FILTER:
             {
-                this.isAntiWindUp = Boolean.TRUE.equals(newValue);
+                this.isFilter = ((Boolean) newValue).booleanValue();
+                this.velocityFilter.reset();
+                getPositioncontroller().setErrorFilter(this.isFilter? this.errorFilter : null);
                 
-                getPositioncontroller().setAntiWindUp(this.isAntiWindUp);                
+                logger.debug("isFilter: " + this.isFilter);
+                break;
+            }
+            
+            case OUTPUT_STAGE:
+            {
+                this.outputStage.setEnabled(((Boolean) newValue).booleanValue());
+                // Mit der Ausgangsstufe begrenzen die Regler erst am Ende des Bereiches des DRV8830...
+                final int maxDrvSetPoint = this.outputStage.isEnabled()? this.outputStage.getMaxValue() : MAX_VALUE;
+                getPositioncontroller().setMaxDrvSetPoint(maxDrvSetPoint);
+                this.cascadeController.setMaxDrvSetPoint(maxDrvSetPoint);
                 
-                logger.debug("isAntiWindUp: " + this.isAntiWindUp);
+                logger.debug("isOutputStage: " + this.outputStage.isEnabled());
+                break;
+            }
+            
+            case RPM_SET_POINT:
+            {
+                NumberFormat format = NumberFormat.getInstance(Locale.GERMAN);
+                try
+                {
+                    final Number number = format.parse(newValue.toString());
+                    // U/min => Impulse/s...
+                    this.speedSetPoint = number.doubleValue() / RPM_PER_SPEED;
+                    
+                    logger.debug("setProperty() rpm: " + number + ", speedSetPoint: " + this.speedSetPoint);
+                }
+                catch (ParseException exception)
+                {
+                    logger.error("setProperty()", exception);
+                }
+                break;
             }
             
-            if (oldValue == null || newValue == null || !oldValue.equals(newValue))
+            case VELOCITY_MODE:
             {
-                logger.debug(key + ": " + oldValue + " => " + newValue);
+                final boolean isVelocityMode = ((Boolean) newValue).booleanValue();
+                if (isVelocityMode != this.isVelocityMode)
+                {
+                    // Stossfreie Umschaltung: die Regelabweichung bleibt beim Wechsel erhalten...
+                    if (isVelocityMode)
+                    {
+                        // Die Fuehrungsgroesse startet am bisherigen Lage-Sollwert...
+                        this.phiReference = this.phiSetPoint;
+                        this.stepAnalyser.cancel();
+                    }
+                    else
+                    {
+                        // Der erreichte Lage-Sollwert wird zum neuen Ziel...
+                        applyDestination(BigDecimal.valueOf(this.phiSetPoint).divide(CIRCUMFERENCE, SCALE_INTERN, BigDecimal.ROUND_HALF_UP));
+                    }
+                    this.isVelocityMode = isVelocityMode;
+                }
+                
+                logger.debug("isVelocityMode: " + this.isVelocityMode);
+                break;
             }
             
-            support.firePropertyChange(key, oldValue, newValue);
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * publishStepResponse(StepAnalyser.Result result) - Veroeffentlichung 
+     * des Ergebnisses einer Bewegung (nur im Takt)...
+     * @param result - Ergebnis oder null (keine Bewegung abgeschlossen)
+     */
+    private void publishStepResponse(StepAnalyser.Result result)
+    {
+        if (result != null)
+        {
+            logger.info("Sprungantwort: " + result);
+            final Object oldValue = this.values.getAndSet(Property.STEP_RESPONSE.ordinal(), result);
+            fireProperty(Property.STEP_RESPONSE, oldValue, result);
+        }
+    }
+    
+    /**
+     * publishAllocation(AllocationMonitor.Stats stats) - Veroeffentlichung 
+     * des Standes der Allokation je Takt (nur im Takt)...
+     * @param stats - Stand oder null (kein neuer Stand)
+     */
+    private void publishAllocation(AllocationMonitor.Stats stats)
+    {
+        if (stats != null)
+        {
+            final Object oldValue = this.values.getAndSet(Property.ALLOCATION.ordinal(), stats);
+            fireProperty(Property.ALLOCATION, oldValue, stats);
         }
     }
     
+    /**
+     * applyDestination(BigDecimal destination) - Uebernahme des Lage-Sollwertes 
+     * aus dem Model heraus, die View wird informiert (nur im Takt)...
+     * @param destination - Sollwert in Umdrehungen
+     */
+    private void applyDestination(BigDecimal destination)
+    {
+        this.destination = destination;
+        final String newValue = new DecimalFormat(FORMATTED_TEXT_FIELD_PATTERN).format(destination);
+        final Object oldValue = this.values.getAndSet(Property.DESTINATION.ordinal(), newValue);
+        fireProperty(Property.DESTINATION, oldValue, newValue);
+    }
+    
     /**
      * shutdown()...
      * <p>
@@ -827,18 +2132,106 @@ public class Model
     public void shutdown()
     {
        logger.debug("shutdown()..."); 
+       final EdgeSource edgeSource;
+       synchronized (this)
+       {
+           edgeSource = this.edgeSource;
+           this.edgeSource = null;
+       }
+       if (edgeSource != null)
+       {
+           try
+           {
+               edgeSource.close();
+           }
+           catch (IOException exception)
+           {
+               logger.error("shutdown()", exception);
+           }
+       }
        if (isRaspi)
        {
            this.gpioController.shutdown();  
        }
+       if (this.commandLog != null)
+       {
+           try
+           {
+               this.commandLog.close();
+           }
+           catch (IOException exception)
+           {
+               logger.error("shutdown()", exception);
+           }
+       }
+       final TelemetryRecorder telemetryRecorder;
+       final TelemetryPublisher telemetryPublisher;
+       synchronized (tickLock)
+       {
+           // Nach Verlassen des Blockes wird kein Takt mehr aufgezeichnet...
+           telemetryRecorder = this.telemetryRecorder;
+           this.telemetryRecorder = null;
+           telemetryPublisher = this.telemetryPublisher;
+           this.telemetryPublisher = null;
+       }
+       if (telemetryRecorder != null)
+       {
+           try
+           {
+               telemetryRecorder.close();
+           }
+           catch (IOException exception)
+           {
+               logger.error("shutdown()", exception);
+           }
+       }
+       if (telemetryPublisher != null)
+       {
+           try
+           {
+               telemetryPublisher.close();
+           }
+           catch (IOException exception)
+           {
+               logger.error("shutdown()", exception);
+           }
+       }
+       final MetricsServer metricsServer = this.metricsServer;
+       if (metricsServer != null)
+       {
+           this.metricsServer = null;
+           metricsServer.close();
+       }
+       final AllocationMonitor allocationMonitor = this.allocationMonitor;
+       if (allocationMonitor != null)
+       {
+           this.allocationMonitor = null;
+           allocationMonitor.close();
+       }
     }
     
     /**
-     * reset()...
+     * reset()... wird im naechsten Takt ausgefuehrt.
      */
     public void reset()
     {
         logger.debug("reset()...");
+        submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                applyReset();
+            }
+        });
+    }
+    
+    /**
+     * applyReset() - Ausfuehrung von reset() (nur im Takt)...
+     */
+    private void applyReset()
+    {
+        logCommand(CommandLog.Command.RESET, null, null);
         
         // Status auf Reset...
         this.status = Status.Reset;
@@ -849,33 +2242,110 @@ public class Model
         this.drvSetPoint = 0;
         
         this.phi = 0L;
-        for (int index = 0; index < this.position.length; index++)
-        {
-            this.position[index] = 0L;                
-        }
+        this.encoder.reset();
+        this.observer.reset(0.0);
+        this.phiReference = 0.0;
+        this.cascadeController.reset();
         if (this.positionController != null)
         {
             this.positionController.resetData();
         }
+        this.outputConditioner.reset();
+        this.outputStage.reset();
+        this.velocityFilter.reset();
+        this.stepAnalyser.cancel();
     }
 
     /**
-     * start()...
+     * start()... wird im naechsten Takt ausgefuehrt.
      */
     public void start()
     {
         logger.debug("start()...");
-        
-        // Status auf Start...
-        this.status = Status.Start;
+        submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                logCommand(CommandLog.Command.START, null, null);
+                
+                // Status auf Start, ein vorheriges stop() ist ausgefuehrt...
+                Model.this.status = Status.Start;
+                Model.this.isStopRequested = false;
+            }
+        });
     }
     
     /**
-     * stop() 
+     * stop()... bremst sofort, die Regelgroessen werden im naechsten Takt zurueckgesetzt.
+     * <p>
+     * Das Abbremsen haengt nicht vom Takt ab (NE555 ausgefallen, Takt verzoegert):
+     * isStopRequested unterbindet jedes weitere drive(), brake() erfolgt direkt
+     * unter i2cLock (hoechstens STOP_LOCK_TIMEOUT_MILLIS Wartezeit auf den Bus).
+     * </p>
      */
     public void stop()
     {
         logger.debug("stop()...");
+        if (this.hasTickSource)
+        {
+            this.isStopRequested = true;
+            brake();
+        }
+        submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                applyStop();
+            }
+        });
+    }
+    
+    /**
+     * brake() - sofortiges Abbremsen ausserhalb des Taktes (vgl. stop())...
+     */
+    private void brake()
+    {
+        final MotorDriver motorDriver = this.motorDriver;
+        if (motorDriver == null)
+        {
+            // Noch kein Stellglied, also auch noch kein drive()...
+            return;
+        }
+        try
+        {
+            if (!this.i2cLock.tryLock(STOP_LOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+            {
+                logger.warn("stop(): I2C-Bus belegt, Abbremsen im naechsten Takt");
+                return;
+            }
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try
+        {
+            motorDriver.brake();
+        }
+        catch (IOException exception)
+        {
+            logger.error("brake():", exception);
+        }
+        finally
+        {
+            this.i2cLock.unlock();
+        }
+    }
+    
+    /**
+     * applyStop() - Ausfuehrung von stop() (nur im Takt)...
+     */
+    private void applyStop()
+    {
+        logCommand(CommandLog.Command.STOP, null, null);
         
         // Status auf Stop...
         this.status = Status.Stop;
@@ -885,14 +2355,15 @@ public class Model
         // Sollwert auf 0...
         this.drvSetPoint = 0;
         
-        if (isRaspi)
+        if (this.motorDriver != null)
         {
+            this.i2cLock.lock();
             try
             {
                 // Abbremsen...
-                this.drv8830.brake();
+                this.motorDriver.brake();
             
-                int fault = this.drv8830.getFault(); 
+                int fault = this.motorDriver.getFault(); 
                 // Bei fault == 0 => Fehlerfrei, sonst Fehler!
                 if (fault != 0)
                 {
@@ -904,6 +2375,10 @@ public class Model
             {
                 logger.error("brake():", exception);
             }
+            finally
+            {
+                this.i2cLock.unlock();
+            }
         }
     }
     
@@ -0,0 +1,40 @@
+/**
+ * 
+ */
+package gui;
+
+import java.io.IOException;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * MotorDriver - Schnittstelle zum Stellglied (Motortreiber).
+ * </p>
+ * <p>
+ * Auf dem Raspi wird der DRV8830 ueber I2C angesprochen (vgl. DRV8830Driver),
+ * ausserhalb des Raspi kann eine simulierte Strecke eingesetzt werden 
+ * (vgl. SimulatedDrive).
+ * </p>
+ */
+public interface MotorDriver
+{
+    /**
+     * drive(int value) - Ausgabe des Sollwertes an den Motortreiber...
+     * @param value - Sollwert, das Vorzeichen bestimmt die Drehrichtung
+     * @throws IOException
+     */
+    public void drive(int value) throws IOException;
+    
+    /**
+     * brake() - Abbremsen des Motors...
+     * @throws IOException
+     */
+    public void brake() throws IOException;
+    
+    /**
+     * getFault() - Fehlerkennung des Motortreibers, 0 => fehlerfrei
+     * @return Fehlerkennung (Kodierung wie DRV8830.Fault)
+     * @throws IOException
+     */
+    public int getFault() throws IOException;
+}
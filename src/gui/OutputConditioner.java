@@ -0,0 +1,208 @@
+/**
+ *
+ */
+package gui;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * OutputConditioner - Aufbereitung der Stellgroesse zwischen Regler und DRV8830...
+ * </p>
+ * <p>
+ * Die Stufe umfasst:
+ * </p>
+ * <ul>
+ * <li>Vorsteuerung (feed-forward) aus der Geschwindigkeit des Lage-Sollwertes
+ * (Impulse/s) und deren Aenderung (Impulse/s^2), bezogen auf die gemessene
+ * Taktzeit dt und damit unabhaengig von der Taktrate,</li>
+ * <li>Kompensation der Haftreibung (Coulomb-Reibung) durch einen festen Offset,</li>
+ * <li>Inversion der Totzone des DRV8830 (erst ab deadZone dreht sich der Motor).</li>
+ * </ul>
+ * <p>
+ * Die Vorsteuerung wirkt nur bei einem gefuehrten Sollwert (Profil), d.h. wenn
+ * sich der Sollwert in aufeinanderfolgenden Takten aendert (Geschwindigkeitsmodus,
+ * Rampe, Sinus). Ein Sprung des Sollwertes (Eingabe eines neuen Zieles) aendert
+ * den Sollwert in nur einem Takt, dafuer gibt es keine Vorsteuerung: die Ableitung
+ * eines Sprunges waere ein Stoss ueber einen Takt.
+ * </p>
+ * <p>
+ * Die Kennlinie von Totzone und Reibung wird im Konstruktor als Tabelle
+ * vorberechnet, je Takt fallen nur ein Array-Zugriff und die Vorsteuerung an.
+ * </p>
+ */
+public class OutputConditioner
+{
+    /**
+     * maxValue - Begrenzung der Stellgroesse (Betrag)...
+     */
+    private final int maxValue;
+
+    /**
+     * outputTable - Kennlinie Totzone + Reibung, Index: outPut + maxValue
+     */
+    private final int[] outputTable;
+
+    /**
+     * velocityGain - Vorsteuerung: Stellwert je Impuls/s Sollgeschwindigkeit...
+     */
+    private final double velocityGain;
+
+    /**
+     * accelerationGain - Vorsteuerung: Stellwert je Impuls/s^2 Sollbeschleunigung...
+     */
+    private final double accelerationGain;
+
+    /**
+     * isEnabled - Schalter fuer die Aufbereitung, sonst Durchreichen...
+     */
+    private boolean isEnabled = false;
+
+    /**
+     * phiSetPoint - Lage-Sollwert des letzten Taktes...
+     */
+    private double phiSetPoint = 0.0;
+
+    /**
+     * velocity - Geschwindigkeit des Sollwertes im letzten Takt (Impulse/s)...
+     */
+    private double velocity = 0.0;
+
+    /**
+     * isProfiled - der Sollwert hat sich im letzten und vorletzten Takt geaendert...
+     */
+    private boolean isProfiled = false;
+
+    /**
+     * isInitial - Kennung, es liegt noch kein letzter Sollwert vor...
+     */
+    private boolean isInitial = true;
+
+    /**
+     * feedForward - Vorsteuerung des letzten Taktes (0, falls nicht eingeschaltet)...
+     */
+    private int feedForward = 0;
+
+    /**
+     * OutputConditioner(int maxValue, int deadZone) - nur Totzonen-Inversion...
+     * @param maxValue
+     * @param deadZone
+     */
+    public OutputConditioner(int maxValue, int deadZone)
+    {
+        this(maxValue, deadZone, 0, 0.0, 0.0);
+    }
+
+    /**
+     *
+     * @param maxValue - Begrenzung der Stellgroesse (Betrag)
+     * @param deadZone - Totzone des Stellgliedes (Betrag, |u| &lt;= deadZone =&gt; Stillstand)
+     * @param frictionOffset - zusaetzlicher Offset zur Ueberwindung der Haftreibung
+     * @param velocityGain - Vorsteuerung: Stellwert je Impuls/s Sollgeschwindigkeit
+     * @param accelerationGain - Vorsteuerung: Stellwert je Impuls/s^2 Sollbeschleunigung
+     */
+    public OutputConditioner(int maxValue, int deadZone, int frictionOffset, double velocityGain, double accelerationGain)
+    {
+        if (maxValue <= 0)
+        {
+            throw new IllegalArgumentException("maxValue must be positive!");
+        }
+        if (deadZone < 0 || frictionOffset < 0 || deadZone + frictionOffset >= maxValue)
+        {
+            throw new IllegalArgumentException("deadZone + frictionOffset must be in [0, maxValue)!");
+        }
+        this.maxValue = maxValue;
+
+        // Totzone + Reibung: |u| in 1..maxValue wird auf offset+1..maxValue abgebildet...
+        final int offset = deadZone + frictionOffset;
+        this.outputTable = new int[2 * maxValue + 1];
+        for (int value = -maxValue; value <= maxValue; value++)
+        {
+            final int magnitude = Math.abs(value);
+            final int output = (magnitude == 0)? 0 : offset + (int) Math.round((double) magnitude * (maxValue - offset) / maxValue);
+            this.outputTable[value + maxValue] = Integer.signum(value) * Math.max(offset + 1, Math.min(maxValue, output));
+        }
+        this.velocityGain = velocityGain;
+        this.accelerationGain = accelerationGain;
+    }
+
+    /**
+     * @return the isEnabled
+     */
+    public final boolean isEnabled()
+    {
+        return this.isEnabled;
+    }
+
+    /**
+     * @param isEnabled the isEnabled to set
+     */
+    public final void setEnabled(boolean isEnabled)
+    {
+        this.isEnabled = isEnabled;
+    }
+
+    /**
+     * apply(int outPut, double phiSetPoint, double dt) - Aufbereitung der Stellgroesse...
+     * <p>
+     * Muss in jedem Takt beauftragt werden, damit die Geschwindigkeit des
+     * Sollwertes korrekt bestimmt wird. Vorsteuerung nur bei gefuehrtem Sollwert
+     * (Aenderung in diesem und im letzten Takt), bei einem Sprung keine Vorsteuerung.
+     * </p>
+     * @param outPut - Reglerausgang (begrenzt auf +/- maxValue)
+     * @param phiSetPoint - aktueller Lage-Sollwert in Impulse (im Geschwindigkeitsmodus die Fuehrungsgroesse)
+     * @param dt - gemessene Taktzeit in s (&lt;= 0: keine Vorsteuerung, z.B. erster Takt)
+     * @return aufbereitete Stellgroesse (begrenzt auf +/- maxValue)
+     */
+    public int apply(int outPut, double phiSetPoint, double dt)
+    {
+        final double velocity = (this.isInitial || dt <= 0.0)? 0.0 : (phiSetPoint - this.phiSetPoint) / dt;
+        // Gefuehrt: der Sollwert aendert sich in aufeinanderfolgenden Takten...
+        final boolean isProfiled = (velocity != 0.0) && (this.velocity != 0.0);
+        final double acceleration = (isProfiled && this.isProfiled)? (velocity - this.velocity) / dt : 0.0;
+        this.phiSetPoint = phiSetPoint;
+        this.velocity = velocity;
+        this.isProfiled = isProfiled;
+        this.isInitial = false;
+
+        if (!this.isEnabled)
+        {
+            this.feedForward = 0;
+            return outPut;
+        }
+        final int feedForward = isProfiled? clamp(Math.round(this.velocityGain * velocity + this.accelerationGain * acceleration), this.maxValue) 
+                                          : 0;
+        this.feedForward = feedForward;
+        final int value = clamp(outPut + feedForward, this.maxValue);
+        return this.outputTable[value + this.maxValue];
+    }
+
+    /**
+     * getFeedForward() - Vorsteuerung des letzten apply() ohne Totzone und Reibung,
+     * z.B. fuer die OutputStage, die die Totzone selbst abbildet...
+     * @return Vorsteuerung (0, falls nicht eingeschaltet)
+     */
+    public final int getFeedForward()
+    {
+        return this.feedForward;
+    }
+
+    /**
+     * reset() - Zuruecksetzen des Gedaechtnisses (Sollwertverlauf)...
+     */
+    public void reset()
+    {
+        this.feedForward = 0;
+        this.phiSetPoint = 0.0;
+        this.velocity = 0.0;
+        this.isProfiled = false;
+        this.isInitial = true;
+    }
+
+    /**
+     * clamp() - Begrenzung auf +/- limit...
+     */
+    private static int clamp(long value, int limit)
+    {
+        return (int) Math.max(-limit, Math.min(limit, value));
+    }
+}
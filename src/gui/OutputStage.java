@@ -0,0 +1,172 @@
+/**
+ *
+ */
+package gui;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * OutputStage - Abbildung des ungerundeten Reglerausganges auf den vollen
+ * Spannungsbereich des DRV8830 mit Sigma-Delta-Modulation ueber die Takte...
+ * </p>
+ * <p>
+ * Der DRV8830 stellt mit VSET deadZone+1...63 (0,48V...5,06V) ein. Ohne
+ * Ausgangsstufe begrenzen die Regler auf +/- Model.MAX_VALUE in ganzen Stufen,
+ * genutzt wird nur ein Ausschnitt des Bereiches. Mit der Ausgangsstufe rechnen
+ * die Regler in Stufen oberhalb der Totzone bis getMaxValue() = maxVset - deadZone,
+ * die Steigung (und damit die Einstellung der Verstaerkungen) bleibt erhalten.
+ * Die Totzone wird invertiert, der Rundungsfehler an den naechsten Takt
+ * weitergegeben (Sigma-Delta 1. Ordnung):
+ * </p>
+ * <pre>
+ *   target   = sign(u) * (deadZone + |u|) + residual
+ *   value    = round(target)
+ *   residual = target - value
+ * </pre>
+ * <p>
+ * Mit Kompensation der Haftreibung (vgl. OutputConditioner) kommt frictionOffset
+ * zur Totzone hinzu, |u| wird wie dort auf den verbleibenden Bereich skaliert:
+ * target = sign(u) * (deadZone + frictionOffset + |u| * (getMaxValue() - frictionOffset) / getMaxValue()) + residual.
+ * </p>
+ * <p>
+ * Im Mittel ueber wenige Takte wird damit jeder Zwischenwert ausgegeben, die
+ * Mechanik (Zeitkonstante einige Takte) glaettet das Wechseln der Stufen.
+ * Bei u = 0 und beim Vorzeichenwechsel wird der Rest verworfen, damit der Motor
+ * sofort steht bzw. nicht mit dem Rest der Gegenrichtung anlaeuft.
+ * </p>
+ */
+public class OutputStage
+{
+    /**
+     * MAX_VSET - groesster Wert des VSET-Registers des DRV8830 (0x3F, 5,06V)...
+     */
+    public final static int MAX_VSET = 0x3F;
+
+    /**
+     * deadZone - Totzone des DRV8830, bis einschliesslich deadZone steht der Motor...
+     */
+    private final int deadZone;
+
+    /**
+     * frictionOffset - zusaetzlicher Offset zur Ueberwindung der Haftreibung (nur mit Kompensation)...
+     */
+    private final int frictionOffset;
+
+    /**
+     * maxVset - groesster auszugebender Wert (Betrag, hoechstens MAX_VSET)...
+     */
+    private final int maxVset;
+
+    /**
+     * isEnabled - Schalter fuer die Ausgangsstufe...
+     */
+    private boolean isEnabled = false;
+
+    /**
+     * residual - Rundungsfehler des letzten Taktes...
+     */
+    private double residual = 0.0;
+
+    /**
+     * sign - Vorzeichen des letzten Taktes (0: Stillstand)...
+     */
+    private double sign = 0.0;
+
+    /**
+     * OutputStage(int deadZone, int maxVset) - ohne Kompensation der Haftreibung...
+     * @param deadZone - Totzone des DRV8830
+     * @param maxVset - groesster auszugebender Wert (Betrag, deadZone &lt; maxVset &lt;= MAX_VSET)
+     */
+    public OutputStage(int deadZone, int maxVset)
+    {
+        this(deadZone, 0, maxVset);
+    }
+
+    /**
+     *
+     * @param deadZone - Totzone des DRV8830
+     * @param frictionOffset - zusaetzlicher Offset zur Ueberwindung der Haftreibung
+     * @param maxVset - groesster auszugebender Wert (Betrag, deadZone + frictionOffset &lt; maxVset &lt;= MAX_VSET)
+     */
+    public OutputStage(int deadZone, int frictionOffset, int maxVset)
+    {
+        if (deadZone < 0 || maxVset <= deadZone || maxVset > MAX_VSET)
+        {
+            throw new IllegalArgumentException("maxVset must be in (deadZone, MAX_VSET]!");
+        }
+        if (frictionOffset < 0 || deadZone + frictionOffset >= maxVset)
+        {
+            throw new IllegalArgumentException("deadZone + frictionOffset must be in [0, maxVset)!");
+        }
+        this.deadZone = deadZone;
+        this.frictionOffset = frictionOffset;
+        this.maxVset = maxVset;
+    }
+
+    /**
+     * @return Begrenzung des Reglerausganges (Betrag) fuer den vollen Bereich
+     */
+    public final int getMaxValue()
+    {
+        return this.maxVset - this.deadZone;
+    }
+
+    /**
+     * @return the isEnabled
+     */
+    public final boolean isEnabled()
+    {
+        return this.isEnabled;
+    }
+
+    /**
+     * @param isEnabled the isEnabled to set
+     */
+    public final void setEnabled(boolean isEnabled)
+    {
+        this.isEnabled = isEnabled;
+        reset();
+    }
+
+    /**
+     * apply(double outPut, boolean isCompensated) - Abbildung und Modulation eines Taktes...
+     * <p>
+     * Muss in jedem Takt genau einmal beauftragt werden.
+     * </p>
+     * @param outPut - Reglerausgang ohne Rundung (wird auf +/- getMaxValue() begrenzt)
+     * @param isCompensated - Kompensation der Haftreibung (Schalter des OutputConditioner)
+     * @return Wert fuer den DRV8830 (+/- maxVset)
+     */
+    public int apply(double outPut, boolean isCompensated)
+    {
+        final int maxValue = getMaxValue();
+        final double limited = Math.min(Math.abs(outPut), maxValue);
+        final double magnitude = (isCompensated && limited > 0.0)? this.frictionOffset + limited * (maxValue - this.frictionOffset) / maxValue 
+                                                                  : limited;
+        if (magnitude == 0.0 || Double.isNaN(outPut))
+        {
+            reset();
+            return 0;
+        }
+        final double sign = Math.signum(outPut);
+        if (sign != this.sign)
+        {
+            // Vorzeichenwechsel: Rest der Gegenrichtung verwerfen...
+            this.residual = 0.0;
+            this.sign = sign;
+        }
+        final double target = sign * (this.deadZone + magnitude) + this.residual;
+        final int value = (int) Math.max(-this.maxVset, Math.min(this.maxVset, Math.round(target)));
+        this.residual = target - value;
+        return value;
+    }
+
+    /**
+     * reset() - Zuruecksetzen des Rundungsfehlers...
+     */
+    public void reset()
+    {
+        this.residual = 0.0;
+        this.sign = 0.0;
+    }
+}
@@ -4,7 +4,7 @@
 package gui;
 
 import java.math.BigDecimal;
-import java.time.Instant;
+import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,24 +30,34 @@ public class PositionController
     public static int SCALE_CYCLE_TIME = 3;
     
     /**
-     * Zeitpunkt der aktuellen Beauftragung...
+     * REFERENCE_CYCLE_TIME - Bezugstaktzeit in s (Nenntakt des NE555)...
+     * <p>
+     * Die I-Verstaerkung (integralEnhancement) ist auf diese Taktzeit bezogen:
+     * Ki [1/s] = integralEnhancement / REFERENCE_CYCLE_TIME. Integriert wird ueber
+     * die gemessene Taktzeit, damit bleibt das Verhalten bei abweichender
+     * Taktzeit (Drift des NE555, verzoegerte oder ausgefallene Takte) gleich.
+     * </p>
      */
-    private Instant now = null;
+    public final static double REFERENCE_CYCLE_TIME = 0.020;
     
     /**
-     * Zeitpunkt der letzten Beauftragung...
+     * MAX_MERGED_TICKS - max. Anzahl Bezugstakte, ueber die in einem Takt integriert wird...
+     * <p>
+     * Laengere Pausen (z.B. Garbage Collection, angehaltener Takt) fuehren
+     * damit nicht zu einem Sprung im I-Anteil.
+     * </p>
      */
-    private Instant past = null;
+    public final static double MAX_MERGED_TICKS = 4.0;
     
     /**
-     * 
+     * missedTicks - Anzahl ausgefallener Takte (Taktzeit &gt; 1,5 Bezugstakte)...
      */
-    private BigDecimal cycleTimeDecimal = BigDecimal.ZERO;    
+    private long missedTicks = 0L;
     
     /**
      * Begrenzung der Stellgroesse, als final eingefuehrt!!
      */
-    private final int maxDrvSetPoint;
+    private int maxDrvSetPoint;
     
     /**
      * enhancement - Reglerverstaerkung...
@@ -66,14 +76,30 @@ public class PositionController
     private BigDecimal integralEnhancement;
     
     /**
-     * isAntiWindUp - Schalter fuer die Modifikation des Reglerverhaltens...
+     * proportionalFactor - Faktor auf enhancement (vgl. GainSchedule), Standard 1.0...
+     */
+    private double proportionalFactor = 1.0;
+    
+    /**
+     * integralFactor - Faktor auf integralEnhancement (vgl. GainSchedule), Standard 1.0...
      */
-    private boolean isAntiWindUp = true;    
+    private double integralFactor = 1.0;
     
     /**
-     * Summation (Integration) der Regelabweichungen... 
+     * antiWindup - Strategie fuer die Integration in der Begrenzung...
      */
-    private long integralDelta;
+    private AntiWindup.Strategy antiWindup = AntiWindup.Strategy.FREEZE;
+    
+    /**
+     * Summation (Integration) der Regelabweichungen ueber die Zeit (Impulse * s),
+     * je Takt gewichtet mit integralFactor... 
+     */
+    private double integralDelta;
+    
+    /**
+     * dt - Taktzeit der aktuellen Beauftragung in s (begrenzt)...
+     */
+    private double dt = 0.0;
     
     /**
      * SIZE_MEMORY - Umfang des Gedaechtnisses (Groesses des Array delta[])
@@ -83,13 +109,24 @@ public class PositionController
     /**
      * Array mit den Regelabweichungen...
      */
-    private long delta[] = new long[SIZE_MEMORY];
+    private double delta[] = new double[SIZE_MEMORY];
     
     /**
      * outPut - Ergebnis der Regelberechnung, wird als Stellgroesse ausgegeben...
      */
     private long outPut = 0;
     
+    /**
+     * output - Ergebnis der Regelberechnung ohne Rundung (begrenzt auf +/- maxDrvSetPoint),
+     * fuer eine hochaufloesende Ausgangsstufe (vgl. OutputStage)...
+     */
+    private double output = 0.0;
+    
+    /**
+     * errorFilter - Filter der Regelabweichung (optional, sonst null)...
+     */
+    private BiquadFilter errorFilter = null;
+    
     /**
      * 
      * @param maxDrvSetPoint
@@ -119,11 +156,11 @@ public class PositionController
         this.enhancement = (enhancement != null)? enhancement : BigDecimal.ZERO;
         this.integralEnhancement = (integralEnhancement != null)? integralEnhancement : BigDecimal.ZERO;
         // I-Anteil (ausgedrueckt in Impulse)...
-        this.integralDelta = 0L;
+        this.integralDelta = 0.0;
         this.maxDrvSetPoint = (maxDrvSetPoint > 0)? maxDrvSetPoint : 0;
         for (int index = 0; index < this.delta.length; index++)
         {
-            this.delta[index] = 0L;
+            this.delta[index] = 0.0;
         }
     }
     
@@ -164,19 +201,47 @@ public class PositionController
     }
 
     /**
-     * @return the isAntiWindUp
+     * setGainFactors(double proportionalFactor, double integralFactor) - Faktoren
+     * auf die eingestellten Verstaerkungen (Gain-Scheduling)...
+     * @param proportionalFactor
+     * @param integralFactor
+     */
+    public void setGainFactors(double proportionalFactor, double integralFactor)
+    {
+        this.proportionalFactor = proportionalFactor;
+        this.integralFactor = integralFactor;
+    }
+    
+    /**
+     * @return the isAntiWindUp (Strategie ungleich NONE)
      */
     public final boolean isAntiWindUp()
     {
-        return this.isAntiWindUp;
+        return this.antiWindup != AntiWindup.Strategy.NONE;
     }
 
     /**
-     * @param isAntiWindUp the isAntiWindUp to set
+     * @param isAntiWindUp the isAntiWindUp to set (FREEZE bzw. NONE)
      */
     public final void setAntiWindUp(boolean isAntiWindUp)
     {
-        this.isAntiWindUp = isAntiWindUp;
+        this.antiWindup = isAntiWindUp? AntiWindup.Strategy.FREEZE : AntiWindup.Strategy.NONE;
+    }
+
+    /**
+     * @return the antiWindup
+     */
+    public final AntiWindup.Strategy getAntiWindup()
+    {
+        return this.antiWindup;
+    }
+
+    /**
+     * @param antiWindup the antiWindup to set
+     */
+    public final void setAntiWindup(AntiWindup.Strategy antiWindup)
+    {
+        this.antiWindup = Objects.requireNonNull(antiWindup, "antiWindup must not be null!");
     }
 
     /**
@@ -190,11 +255,57 @@ public class PositionController
                         long phiSetPoint, 
                         long phi)
     {
+        return getValue(cycleTimeDecimal, phiSetPoint, (double) phi);
+    }
+    
+    /**
+     * getValue()... mit der gemessenen Taktzeit in Sekunden (hohe Aufloesung, 
+     * vgl. Model.handleTick()).
+     * @param dt - Taktzeit in s (&lt;= 0: keine Integration, z.B. erster Takt)
+     * @param phiSetPoint - Lage Sollwert
+     * @param phi - Lage Istwert (interpoliert, nicht ganzzahlig)
+     * @return
+     */
+    public int getValue(double dt, 
+                        long phiSetPoint, 
+                        double phi)
+    {
+        if (dt > 1.5 * REFERENCE_CYCLE_TIME)
+        {
+            this.missedTicks += Math.round(dt / REFERENCE_CYCLE_TIME) - 1L;
+        }
+        this.dt = Math.max(0.0, Math.min(dt, MAX_MERGED_TICKS * REFERENCE_CYCLE_TIME));
+        return getValue(phiSetPoint, phi, this.dt);
+    }
+    
+    /**
+     * getValue()... mit Lage-Istwert unterhalb der Impulsaufloesung
+     * (vgl. Encoder.getPosition()).
+     * @param cycleTimeDecimal
+     * @param phiSetPoint - Lage Sollwert
+     * @param phi - Lage Istwert (interpoliert, nicht ganzzahlig)
+     * @return
+     */
+    public int getValue(BigDecimal cycleTimeDecimal, 
+                        long phiSetPoint, 
+                        double phi)
+    {
+        final double dt = (cycleTimeDecimal != null)? cycleTimeDecimal.doubleValue() : 0.0;
+        return getValue(dt, phiSetPoint, phi);
+    }
+    
+    /**
+     * getValue()... Regelgesetz, dt bereits begrenzt.
+     */
+    private int getValue(long phiSetPoint, 
+                         double phi,
+                         double dt)
+    {
         
-        logger.info( "getValue() Takt [s]: " + cycleTimeDecimal + ", Lage: " + phiSetPoint + " (Soll) " + phi + " (Ist)");
+        logger.info( "getValue() Takt [s]: " + dt + ", Lage: " + phiSetPoint + " (Soll) " + phi + " (Ist)");
         
-        // Differenz (Soll-Ist) bestimmen... 
-        final long delta = phiSetPoint - phi;
+        // Differenz (Soll-Ist) bestimmen, ggf. gefiltert... 
+        final double delta = (this.errorFilter != null)? this.errorFilter.filter(phiSetPoint - phi) : phiSetPoint - phi;
         
         for (int index = 1; index < this.delta.length; index++)
         {
@@ -202,16 +313,6 @@ public class PositionController
         }
         this.delta[0] = delta;
         // Jetzt im Array this.delta die Regeldifferenzen der letzten Beauftragungen...
-        
-        // Den Zeitpunkt der letzten Beauftragung merken...
-        this.past = now;
-        // Den aktuellen Zeitpunkt merken...
-        // now zur zeitlichen Einordnung des Ereignisses.
-        this.now = Instant.now();
-        
-        // cycleTimeDecimal - momentane Taktzeit (cycleTime) in Sekunden,
-        // wird 'ausserhalb' bestimmt und hier mitgegeben...
-        this.cycleTimeDecimal = (cycleTimeDecimal != null)? cycleTimeDecimal : BigDecimal.ZERO;
       
         //////////////////////////////////////////////////////////////////////////////////////////
         // Zwei Moeglichkeiten:
@@ -224,75 +325,52 @@ public class PositionController
         
         
         // delta ist die Regelabweichung delta = (Lage-Soll)-(Lage-Ist)...
-        // Jetzt Berechnung nur Integralanteil als BigDecimal aus integralEnhancement * (delta + this.integralDelta)...
-        final BigDecimal bigDecimalIntegral = this.integralEnhancement.multiply(BigDecimal.valueOf(delta + this.integralDelta));
-        // => bigDecimalIntegral beinhaltet den Integralanteil aus (delta + Summe(delta)) * this.integralEnhancement.
-        // Es fehlt fuer den naechsten Aufruf noch die Summation delta zu Summe(delta).
+        // Integration ueber die gemessene Taktzeit dt, bezogen auf REFERENCE_CYCLE_TIME.
+        // Der Faktor aus dem Gain-Scheduling wirkt nur auf den Zuwachs des Taktes, 
+        // ein Wechsel des Bandes skaliert damit nicht das bisherige Integral...
+        final double integralIncrement = this.integralFactor * delta * dt;
 
         // Output aus dem P-Anteil (delta)... 
-        final BigDecimal bigDecimalProportional = this.enhancement.multiply(BigDecimal.valueOf(delta));
-
-        label:
-        if (isAntiWindUp())
+        final BigDecimal bigDecimalProportional = this.enhancement.multiply(BigDecimal.valueOf(delta * this.proportionalFactor));
+        
+        // I-Anteil der Stellgroesse je Impulse * s...
+        final double integralGain = this.integralEnhancement.doubleValue() / REFERENCE_CYCLE_TIME;
+        
+        // Die Strategie entscheidet ueber die Integration in der Begrenzung...
+        this.integralDelta = this.antiWindup.integrate(this.integralDelta, 
+                                                       integralIncrement, 
+                                                       dt, 
+                                                       bigDecimalProportional.doubleValue(), 
+                                                       integralGain, 
+                                                       this.maxDrvSetPoint);
+        
+        // Jetzt Berechnung nur Integralanteil als BigDecimal aus integralEnhancement * Summe(delta*dt)...
+        final BigDecimal bigDecimalIntegral = this.integralEnhancement.multiply(BigDecimal.valueOf(this.integralDelta / REFERENCE_CYCLE_TIME));
+        
+        // Achtung, lokale Var. outPut: Moeglicher Verlust an relevanten Stellen...
+        final long outPut = bigDecimalProportional.longValue()              // P-Anteil
+                          + bigDecimalIntegral.longValue();                 // I-Anteil
+        
+        final int sign = (outPut >= 0)? 1 : -1;
+        
+        // Begrenzung der Ausgabe?
+        if (Math.abs(outPut) > Math.abs(maxDrvSetPoint))
         {
-            {
-                // Achtung, lokale Var. outPut: Moeglicher Verlust an relevanten Stellen...
-                final long outPut = bigDecimalProportional.longValue();
-                final int sign = (outPut >= 0)? 1 : -1;
-                if (Math.abs(outPut) > Math.abs(maxDrvSetPoint))
-                {
-                    logger.info("isAntiWindUp: Begrenzung, bigDecimalOutput (nur P-Anteil) = " + outPut); 
-                    // maxDrvSetPoint wurde nur mit dem P-Anteil ueberschritten... 
-                    this.outPut = sign * Math.abs(maxDrvSetPoint);
-                    // Ausgabe in der Begrenzung, dann auch keine Integration der Lageabweichung...
-                    break label;
-                }
-            }
-            {
-                // Achtung, lokale Var. outPut: Moeglicher Verlust an relevanten Stellen...
-                final long outPut = bigDecimalProportional.longValue()              // P-Anteil
-                                  + bigDecimalIntegral.longValue();                 // I-Anteil
-                final int sign = (outPut >= 0)? 1 : -1;
-                if (Math.abs(outPut) > Math.abs(maxDrvSetPoint))
-                {
-                    logger.info("isAntiWindUp: Begrenzung, bigDecimalOutput (PI-Anteil) = " + outPut); 
-                    // maxDrvSetPoint wurde nur mit dem P-Anteil ueberschritten... 
-                    this.outPut = sign * Math.abs(maxDrvSetPoint);
-                    // Ausgabe in der Begrenzung, dann auch keine Integration...
-                    break label;
-                }
-                logger.info("isAntiWindUp: Keine Begrenzung, bigDecimalOutput (PI-Anteil) = " + outPut); 
-                this.integralDelta += delta;
-                this.outPut = outPut;
-                break label;
-            }
-        } // end() isAntiWindUp().
+            logger.info(this.antiWindup.name() + ": Begrenzung, bigDecimalOutput (PI-Anteil) = " + outPut); 
+            this.outPut = sign * Math.abs(maxDrvSetPoint);
+        }
         else
         {
-            // KEIN AntiWindUp()...
-            final long outPut = bigDecimalProportional.longValue()              // P-Anteil
-                              + bigDecimalIntegral.longValue();                 // I-Anteil
-             
-            final int sign = (outPut >= 0)? 1 : -1;
-
-            // Begrenzung der Ausgabe?
-            if (Math.abs(outPut) > Math.abs(maxDrvSetPoint))
-            {
-                // maxDrvSetPoint wurde ueberschritten, 
-                this.outPut = sign * Math.abs(maxDrvSetPoint);
-            }
-            else
-            {
-                this.outPut = outPut;
-            }
-            // Aber immer Integration der Lageabweichung, da KEIN AntiWindUp()!
-            this.integralDelta += delta;
-            
-            logger.info("Kein AntiWindUp: bigDecimalOutput (PI-Anteil) = " + outPut); 
-            
-            break label;
-        } // end() KEIN AntiWindUp().
+            logger.info(this.antiWindup.name() + ": Keine Begrenzung, bigDecimalOutput (PI-Anteil) = " + outPut); 
+            this.outPut = outPut;
+        }
         
+        // Ungerundeter Wert: in der Begrenzung der Grenzwert, sonst P-Anteil + I-Anteil...
+        this.output = (Math.abs(this.outPut) >= this.maxDrvSetPoint)? (double) this.outPut 
+                                                                     : Math.max(-this.maxDrvSetPoint, 
+                                                                                Math.min(this.maxDrvSetPoint, 
+                                                                                         bigDecimalProportional.doubleValue() 
+                                                                                         + bigDecimalIntegral.doubleValue()));
         return (int) this.outPut;
     }
     
@@ -304,10 +382,78 @@ public class PositionController
         logger.info( "resetData()...");
         for (int index = 0; index < this.delta.length; index++)
         {
-            this.delta[index] = 0;
+            this.delta[index] = 0.0;
         }
-        this.integralDelta = 0;
+        this.integralDelta = 0.0;
         this.outPut = 0;
+        this.output = 0.0;
+        this.dt = 0.0;
+        if (this.errorFilter != null)
+        {
+            this.errorFilter.reset();
+        }
+    }
+    
+    /**
+     * @return Anzahl ausgefallener Takte (vgl. REFERENCE_CYCLE_TIME)
+     */
+    public final long getMissedTicks()
+    {
+        return this.missedTicks;
+    }
+    
+    /**
+     * @param errorFilter - Filter der Regelabweichung oder null (kein Filter)
+     */
+    public void setErrorFilter(BiquadFilter errorFilter)
+    {
+        this.errorFilter = errorFilter;
+        if (errorFilter != null)
+        {
+            // Einschwingen auf die naechste Regelabweichung...
+            errorFilter.reset();
+        }
+    }
+    
+    /**
+     * @param maxDrvSetPoint - Begrenzung der Stellgroesse (Betrag), z.B. voller Bereich mit OutputStage
+     */
+    public void setMaxDrvSetPoint(int maxDrvSetPoint)
+    {
+        this.maxDrvSetPoint = (maxDrvSetPoint > 0)? maxDrvSetPoint : 0;
+    }
+    
+    /**
+     * @return Begrenzung der Stellgroesse (Betrag)
+     */
+    public final int getMaxDrvSetPoint()
+    {
+        return this.maxDrvSetPoint;
+    }
+    
+    /**
+     * @return I-Anteil der Stellgroesse nach der letzten Regelberechnung 
+     *         (integralEnhancement * Summe(delta*dt), vgl. AntiWindup)
+     */
+    public final double getIntegralOutput()
+    {
+        return this.integralEnhancement.doubleValue() * this.integralDelta / REFERENCE_CYCLE_TIME;
+    }
+    
+    /**
+     * @return Ergebnis der letzten Regelberechnung ohne Rundung (vgl. getValue())
+     */
+    public final double getOutput()
+    {
+        return this.output;
+    }
+    
+    /**
+     * @return Taktzeit der letzten Beauftragung in s (begrenzt)
+     */
+    public final double getCycleTime()
+    {
+        return this.dt;
     }
 
 }
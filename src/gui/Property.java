@@ -0,0 +1,132 @@
+/**
+ *
+ */
+package gui;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * Property - die Eigenschaften des Model mit dem Typ ihrer Werte...
+ * </p>
+ * <p>
+ * Im Model werden die Werte und die Listener (vgl. PropertyListener) ueber
+ * ordinal() in Arrays abgelegt, die Verteilung einer Aenderung ist damit ein
+ * Arrayzugriff ohne Vergleich von Zeichenketten. Der key (z.B.
+ * Model.DATA_DESTINATION_KEY) bleibt der Name der Oberflaechenelemente und
+ * die Kennung im CommandLog, valueOfKey() wird nur an diesen Grenzen benoetigt.
+ * </p>
+ */
+public enum Property
+{
+    /**
+     * DATA - Datensatz des Taktes (nur Anzeige, wird vom Model veroeffentlicht)...
+     */
+    DATA(Model.DATA_KEY, Data.class),
+
+    /**
+     * STEP_RESPONSE - Ergebnis der letzten Bewegung (nur Anzeige, wird vom Model veroeffentlicht)...
+     */
+    STEP_RESPONSE(Model.STEP_RESPONSE_KEY, StepAnalyser.Result.class),
+
+    /**
+     * ALLOCATION - Stand der Allokation je Takt (nur Anzeige, wird vom Model veroeffentlicht)...
+     */
+    ALLOCATION(Model.ALLOCATION_KEY, AllocationMonitor.Stats.class),
+
+    DESTINATION(Model.DATA_DESTINATION_KEY, String.class),
+    RPM_SET_POINT(Model.DATA_RPM_SET_POINT_KEY, String.class),
+    VELOCITY_MODE(Model.DATA_VELOCITY_MODE_KEY, Boolean.class),
+    ENHANCEMENT(Model.DATA_ENHANCEMENT_KEY, BigDecimal.class),
+    INTEGRAL_ENHANCEMENT(Model.DATA_INTEGRAL_ENHANCEMENT_KEY, BigDecimal.class),
+
+    /**
+     * ANTI_WINDUP - Strategie, aus dem CommandLog auch als Bezeichnung bzw. Boolean...
+     */
+    ANTI_WINDUP(Model.DATA_ANTI_WINDUP_KEY, AntiWindup.Strategy.class)
+    {
+        @Override
+        public Object convert(Object value)
+        {
+            return AntiWindup.Strategy.valueOf(value);
+        }
+    },
+    COMPENSATION(Model.DATA_COMPENSATION_KEY, Boolean.class),
+    OUTPUT_STAGE(Model.DATA_OUTPUT_STAGE_KEY, Boolean.class),
+    FILTER(Model.DATA_FILTER_KEY, Boolean.class),
+    GAIN_SCHEDULING(Model.DATA_GAIN_SCHEDULING_KEY, Boolean.class),
+    OBSERVER(Model.DATA_OBSERVER_KEY, Boolean.class),
+    CASCADE(Model.DATA_CASCADE_KEY, Boolean.class),
+    POSITION_GAIN(Model.DATA_POSITION_GAIN_KEY, BigDecimal.class),
+    VELOCITY_GAIN(Model.DATA_VELOCITY_GAIN_KEY, BigDecimal.class),
+    VELOCITY_INTEGRAL_GAIN(Model.DATA_VELOCITY_INTEGRAL_GAIN_KEY, BigDecimal.class),
+    VELOCITY_LIMIT(Model.DATA_VELOCITY_LIMIT_KEY, BigDecimal.class);
+
+    /**
+     * KEYS - Zuordnung key => Property (nur an den Grenzen, vgl. valueOfKey())...
+     */
+    private final static Map<String, Property> KEYS = new HashMap<>();
+
+    static
+    {
+        for (Property property: values())
+        {
+            KEYS.put(property.key, property);
+        }
+    }
+
+    /**
+     * key - Name des Oberflaechenelementes, Kennung im CommandLog...
+     */
+    private final String key;
+
+    /**
+     * type - Typ der Werte...
+     */
+    private final Class<?> type;
+
+    private Property(String key, Class<?> type)
+    {
+        this.key = key;
+        this.type = type;
+    }
+
+    /**
+     * @return the key
+     */
+    public final String getKey()
+    {
+        return this.key;
+    }
+
+    /**
+     * @return the type
+     */
+    public final Class<?> getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * convert(Object value) - Wert im Typ der Eigenschaft...
+     * @param value
+     * @return value bzw. umgewandelter Wert, null: ungueltig
+     */
+    public Object convert(Object value)
+    {
+        return this.type.isInstance(value)? value : null;
+    }
+
+    /**
+     * valueOfKey(String key) - Eigenschaft zum key (Oberflaeche, CommandLog)...
+     * @param key
+     * @return Eigenschaft oder null (unbekannt)
+     */
+    public static Property valueOfKey(String key)
+    {
+        return KEYS.get(key);
+    }
+}
@@ -0,0 +1,23 @@
+package gui;
+
+/**
+ * Interface PropertyListener - Benachrichtigung ueber die Aenderung
+ * einer Eigenschaft des Model (vgl. Model.addPropertyListener())...
+ * <p>
+ * Der Listener wird je Eigenschaft angemeldet, T ist der Typ der Werte
+ * (vgl. Property.getType()). Es wird kein Ereignisobjekt angelegt.
+ * </p>
+ * @author Detlef Tribius
+ *
+ * @param <T> Typ der Werte
+ */
+public interface PropertyListener<T>
+{
+    /**
+     * propertyChanged() - die Eigenschaft hat sich geaendert...
+     * @param property - die Eigenschaft
+     * @param oldValue - bisheriger Wert (evtl. null)
+     * @param newValue - neuer Wert
+     */
+    public void propertyChanged(Property property, T oldValue, T newValue);
+}
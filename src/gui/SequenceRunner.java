@@ -0,0 +1,579 @@
+/**
+ *
+ */
+package gui;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * SequenceRunner - Ablauf einer Testsequenz aus einer Textdatei ohne Oberflaeche...
+ * </p>
+ * <p>
+ * Je Zeile ein Kommando, Leerzeilen und Kommentare (ab '#') werden ignoriert,
+ * Lagen in Umdrehungen, Zeiten in s (Dezimalpunkt):
+ * </p>
+ * <ul>
+ * <li>set &lt;Property&gt; &lt;Wert&gt; - Eigenschaft setzen (Name, z.B. ENHANCEMENT, oder key)</li>
+ * <li>start, stop, reset - wie die Bedienelemente der Oberflaeche</li>
+ * <li>step &lt;Lage&gt; &lt;Dauer&gt; - Sprung des Lage-Sollwertes</li>
+ * <li>ramp &lt;Lage&gt; &lt;Dauer&gt; - Rampe vom aktuellen Sollwert bis Lage</li>
+ * <li>sine &lt;Amplitude&gt; &lt;Frequenz Hz&gt; &lt;Dauer&gt; - Sinus um den aktuellen Sollwert</li>
+ * <li>wait &lt;Dauer&gt; - Sollwert halten</li>
+ * </ul>
+ * <p>
+ * Die Datei wird vor dem Lauf vollstaendig geprueft, ein Fehler bricht mit der
+ * Zeilennummer ab. Rampe und Sinus geben je Takt einen neuen Sollwert vor.
+ * Je Segment (step, ramp, sine, wait) wird eine Zeile des Berichtes (CSV, ';')
+ * erzeugt: Takte, Dauer, IAE, RMS und Maximum der Regelabweichung gegen den
+ * vorgegebenen Sollwert, Anteil der Takte in der Begrenzung (vgl. TickMetrics)
+ * und bei step die Sprungantwort (vgl. StepAnalyser), soweit sie innerhalb des
+ * Segmentes eingeschwungen ist.
+ * </p>
+ * <p>
+ * Aufruf: <code>java gui.SequenceRunner sequence [report]</code>, ohne report
+ * auf System.out. Standard ist die Simulation (vgl. Simulation), mit der
+ * Systemeigenschaft sequence.hardware=true laeuft die Sequenz auf dem Raspi.
+ * </p>
+ */
+public class SequenceRunner
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(SequenceRunner.class);
+
+    /**
+     * HARDWARE_KEY - Systemeigenschaft fuer den Lauf auf dem Raspi (statt Simulation)...
+     */
+    public final static String HARDWARE_KEY = "sequence.hardware";
+
+    /**
+     * TICK_TIMEOUT_MILLIS - max. Wartezeit auf einen Takt der Hardware in ms...
+     */
+    public final static long TICK_TIMEOUT_MILLIS = 1000L;
+
+    /**
+     * DESTINATION_SCALE - Nachkommastellen des Lage-Sollwertes in Umdrehungen...
+     */
+    public final static int DESTINATION_SCALE = 4;
+
+    /**
+     * SEPARATOR - Trennzeichen im Bericht...
+     */
+    public final static String SEPARATOR = ";";
+
+    /**
+     * HEADER - Kopfzeile des Berichtes...
+     */
+    public final static String HEADER = "segment;line;command;ticks;duration_s;iae;rms_error;max_error;saturation_pct;"
+                                      + "rise_time_s;overshoot_pct;settling_time_s;steady_state_error";
+
+    /**
+     * DECIMAL_PATTERN - Zahl der Sequenz: optionales Vorzeichen, Dezimalpunkt...
+     */
+    private final static Pattern DECIMAL_PATTERN = Pattern.compile("[+-]?\\d+(\\.\\d+)?");
+
+    /**
+     * Kommandos der Sequenz...
+     */
+    private final static String SET = "set";
+    private final static String START = "start";
+    private final static String STOP = "stop";
+    private final static String RESET = "reset";
+    private final static String STEP = "step";
+    private final static String RAMP = "ramp";
+    private final static String SINE = "sine";
+    private final static String WAIT = "wait";
+
+    /**
+     * Interface TickSource - Warten auf den naechsten Takt...
+     */
+    public static interface TickSource
+    {
+        /**
+         * awaitTick() - kehrt nach dem naechsten Takt zurueck...
+         * @return Taktzeit in s
+         * @throws InterruptedException
+         */
+        public double awaitTick() throws InterruptedException;
+    }
+
+    /**
+     * model - das Model (Simulation oder Hardware)...
+     */
+    private final Model model;
+
+    /**
+     * tickSource - Taktung...
+     */
+    private final TickSource tickSource;
+
+    /**
+     * destination - aktueller Lage-Sollwert in Umdrehungen (Skalierung DESTINATION_SCALE)...
+     */
+    private BigDecimal destination = BigDecimal.ZERO.setScale(DESTINATION_SCALE);
+
+    /**
+     * format - Lage-Sollwert in der Darstellung der Oberflaeche (vgl. Model, Locale.GERMAN)...
+     */
+    private final DecimalFormat format = new DecimalFormat("0.####", DecimalFormatSymbols.getInstance(Locale.GERMAN));
+
+    /**
+     *
+     * @param model
+     * @param tickSource
+     */
+    public SequenceRunner(Model model, TickSource tickSource)
+    {
+        this.model = model;
+        this.tickSource = tickSource;
+    }
+
+    /**
+     * parse(List&lt;String&gt; lines) - Pruefung und Zerlegung der Sequenz...
+     * @param lines
+     * @return Kommandos
+     * @throws IllegalArgumentException - Fehler mit Zeilennummer
+     */
+    public static List<Command> parse(List<String> lines)
+    {
+        final List<Command> commands = new ArrayList<>();
+        for (int index = 0; index < lines.size(); index++)
+        {
+            final Command command = Command.parse(index + 1, lines.get(index));
+            if (command != null)
+            {
+                commands.add(command);
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * run(List&lt;Command&gt; commands, PrintStream report) - Ablauf der Sequenz...
+     * @param commands
+     * @param report - Bericht (CSV mit Kopfzeile)
+     * @throws InterruptedException
+     */
+    public void run(List<Command> commands, PrintStream report) throws InterruptedException
+    {
+        report.println(HEADER);
+        int segment = 0;
+        for (Command command: commands)
+        {
+            logger.info("run(): " + command);
+            switch (command.name)
+            {
+                case SET:
+                {
+                    this.model.setProperty(command.property, command.value);
+                    if (command.property == Property.DESTINATION)
+                    {
+                        this.destination = ((BigDecimal) command.number).setScale(DESTINATION_SCALE);
+                    }
+                    break;
+                }
+                case START:
+                {
+                    this.model.start();
+                    break;
+                }
+                case STOP:
+                {
+                    this.model.stop();
+                    break;
+                }
+                case RESET:
+                {
+                    this.model.reset();
+                    break;
+                }
+                default:
+                {
+                    report.println(runSegment(++segment, command));
+                    report.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * runSegment(int segment, Command command) - Ablauf eines Segmentes mit Auswertung...
+     * @return Zeile des Berichtes
+     */
+    private String runSegment(int segment, Command command) throws InterruptedException
+    {
+        final double duration = command.args[command.args.length - 1];
+        final BigDecimal origin = this.destination;
+        final TickMetrics metrics = this.model.getMetrics();
+        final long startedTicks = metrics.getStartedTicks();
+        final long saturatedTicks = metrics.getSaturatedTicks();
+        final long stepCount = this.model.getStepAnalyser().getCount();
+
+        if (STEP.equals(command.name))
+        {
+            applyDestination(BigDecimal.valueOf(command.args[0]));
+        }
+
+        int ticks = 0;
+        double elapsed = 0.0;
+        double iae = 0.0;
+        double squareSum = 0.0;
+        double maxError = 0.0;
+        // Toleranz gegen die Rundung der Summe der Taktzeiten...
+        while (elapsed < duration - 1.0E-9)
+        {
+            if (RAMP.equals(command.name))
+            {
+                final double progress = Math.min(1.0, (elapsed + 1.0E-9) / duration);
+                applyDestination(BigDecimal.valueOf(origin.doubleValue() + (command.args[0] - origin.doubleValue()) * progress));
+            }
+            else if (SINE.equals(command.name))
+            {
+                applyDestination(BigDecimal.valueOf(origin.doubleValue() + command.args[0] * Math.sin(2.0 * Math.PI * command.args[1] * elapsed)));
+            }
+            final double dt = this.tickSource.awaitTick();
+            final double error = Model.CIRCUMFERENCE.multiply(this.destination).longValue() - this.model.getData().getPhi().longValue();
+            ticks++;
+            elapsed += dt;
+            iae += Math.abs(error) * dt;
+            squareSum += error * error;
+            maxError = Math.max(maxError, Math.abs(error));
+        }
+
+        if (RAMP.equals(command.name))
+        {
+            // Der letzte Takt gibt (Dauer - Taktzeit)/Dauer vor, das folgende Segment beginnt am Ziel...
+            applyDestination(BigDecimal.valueOf(command.args[0]));
+        }
+        else if (SINE.equals(command.name))
+        {
+            // Zurueck auf die Mitte, das folgende Segment beginnt dort...
+            applyDestination(origin);
+        }
+
+        final long started = metrics.getStartedTicks() - startedTicks;
+        final long saturated = metrics.getSaturatedTicks() - saturatedTicks;
+        final StringBuilder builder = new StringBuilder().append(segment)
+                                                         .append(SEPARATOR).append(command.lineNumber)
+                                                         .append(SEPARATOR).append(command.text)
+                                                         .append(SEPARATOR).append(ticks)
+                                                         .append(SEPARATOR).append(format(elapsed, 3))
+                                                         .append(SEPARATOR).append(format(iae, 1))
+                                                         .append(SEPARATOR).append(format((ticks > 0)? Math.sqrt(squareSum / ticks) : Double.NaN, 1))
+                                                         .append(SEPARATOR).append(format(maxError, 0))
+                                                         .append(SEPARATOR).append(format((started > 0L)? 100.0 * saturated / started : Double.NaN, 1));
+        final StepAnalyser.Result result = STEP.equals(command.name)? getStepResult(stepCount) : null;
+        builder.append(SEPARATOR).append((result != null)? result.getValue(StepAnalyser.Result.Field.RISE_TIME) : "")
+               .append(SEPARATOR).append((result != null)? result.getValue(StepAnalyser.Result.Field.OVERSHOOT) : "")
+               .append(SEPARATOR).append((result != null)? result.getValue(StepAnalyser.Result.Field.SETTLING_TIME) : "")
+               .append(SEPARATOR).append((result != null)? result.getValue(StepAnalyser.Result.Field.STEADY_STATE_ERROR) : "");
+        return builder.toString();
+    }
+
+    /**
+     * getStepResult(long stepCount) - im Segment eingeschwungene Bewegung...
+     * <p>
+     * Bei konstantem Sollwert beginnt keine weitere Bewegung, die Bewegung des
+     * Sprunges ist damit die neueste, sofern sie eingeschwungen ist (eine beim
+     * Sprung abgebrochene vorherige Bewegung ist unvollstaendig).
+     * </p>
+     * @param stepCount - Anzahl der Bewegungen zu Beginn des Segmentes
+     * @return Ergebnis oder null (nicht innerhalb des Segmentes eingeschwungen)
+     */
+    private StepAnalyser.Result getStepResult(long stepCount)
+    {
+        final StepAnalyser stepAnalyser = this.model.getStepAnalyser();
+        if (stepAnalyser.getCount() == stepCount)
+        {
+            return null;
+        }
+        final StepAnalyser.Result result = stepAnalyser.getResults()[0];
+        return result.isSettled()? result : null;
+    }
+
+    /**
+     * applyDestination(BigDecimal destination) - Vorgabe des Lage-Sollwertes (nur bei Aenderung)...
+     */
+    private void applyDestination(BigDecimal destination)
+    {
+        final BigDecimal newDestination = destination.setScale(DESTINATION_SCALE, BigDecimal.ROUND_HALF_UP);
+        if (newDestination.compareTo(this.destination) != 0)
+        {
+            this.destination = newDestination;
+            this.model.setProperty(Property.DESTINATION, this.format.format(newDestination));
+        }
+    }
+
+    private static String format(double value, int scale)
+    {
+        return (Double.isNaN(value) || Double.isInfinite(value))? "" : BigDecimal.valueOf(value).setScale(scale, BigDecimal.ROUND_HALF_UP).toString();
+    }
+
+    /**
+     * main() - Lauf einer Sequenz in der Simulation bzw. auf dem Raspi...
+     * @param args - sequence [report]
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Aufruf: java gui.SequenceRunner sequence [report]");
+            System.exit(2);
+        }
+        final List<Command> commands = parse(Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8));
+
+        final Model model;
+        final TickSource tickSource;
+        if (Boolean.getBoolean(HARDWARE_KEY))
+        {
+            model = new Model();
+            tickSource = new TickSource()
+            {
+                private long counter = model.getData().getCounter().longValue();
+
+                @Override
+                public double awaitTick() throws InterruptedException
+                {
+                    // Der Takt veroeffentlicht je Takt einen neuen Datensatz...
+                    final long timeout = System.nanoTime() + TICK_TIMEOUT_MILLIS * 1000000L;
+                    Data data;
+                    while ((data = model.getData()).getCounter().longValue() == this.counter)
+                    {
+                        if (System.nanoTime() > timeout)
+                        {
+                            throw new IllegalStateException("kein Takt innerhalb von " + TICK_TIMEOUT_MILLIS + " ms");
+                        }
+                        Thread.sleep(1L);
+                    }
+                    this.counter = data.getCounter().longValue();
+                    return data.getCycleTime().doubleValue();
+                }
+            };
+        }
+        else
+        {
+            final Simulation simulation = new Simulation(new SimulatedDrive(), Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L);
+            model = simulation.getModel();
+            model.reset();
+            tickSource = new TickSource()
+            {
+                @Override
+                public double awaitTick()
+                {
+                    simulation.tick();
+                    return Simulation.DEFAULT_CYCLE_TIME_MILLIS / 1000.0;
+                }
+            };
+        }
+
+        final PrintStream report = (args.length > 1)? new PrintStream(args[1], StandardCharsets.UTF_8.name()) : System.out;
+        try
+        {
+            new SequenceRunner(model, tickSource).run(commands, report);
+            // Abbremsen im naechsten Takt, vor dem Herunterfahren...
+            model.stop();
+            tickSource.awaitTick();
+        }
+        finally
+        {
+            if (report != System.out)
+            {
+                report.close();
+            }
+            model.shutdown();
+        }
+    }
+
+    /**
+     * Command - ein geprueftes Kommando der Sequenz...
+     */
+    public static class Command
+    {
+        private final int lineNumber;
+        private final String text;
+        private final String name;
+        private final Property property;
+        private final Object value;
+        private final BigDecimal number;
+        private final double[] args;
+
+        private Command(int lineNumber, String text, String name, Property property, Object value, BigDecimal number, double[] args)
+        {
+            this.lineNumber = lineNumber;
+            this.text = text;
+            this.name = name;
+            this.property = property;
+            this.value = value;
+            this.number = number;
+            this.args = args;
+        }
+
+        /**
+         * parse(int lineNumber, String line) - Zerlegung einer Zeile...
+         * @param lineNumber
+         * @param line
+         * @return Kommando oder null (Leerzeile, Kommentar)
+         * @throws IllegalArgumentException - ungueltige Zeile
+         */
+        static Command parse(int lineNumber, String line)
+        {
+            final int comment = line.indexOf('#');
+            final String text = ((comment >= 0)? line.substring(0, comment) : line).trim();
+            if (text.isEmpty())
+            {
+                return null;
+            }
+            final String[] tokens = text.split("\\s+");
+            final String name = tokens[0].toLowerCase(Locale.ROOT);
+            try
+            {
+                switch (name)
+                {
+                    case SET:
+                    {
+                        expect(tokens, 3);
+                        return parseSet(lineNumber, text, tokens[1], tokens[2]);
+                    }
+                    case START:
+                    case STOP:
+                    case RESET:
+                    {
+                        expect(tokens, 1);
+                        return new Command(lineNumber, text, name, null, null, null, new double[0]);
+                    }
+                    case STEP:
+                    case RAMP:
+                    case WAIT:
+                    case SINE:
+                    {
+                        expect(tokens, WAIT.equals(name)? 2 : SINE.equals(name)? 4 : 3);
+                        final double[] args = new double[tokens.length - 1];
+                        for (int index = 0; index < args.length; index++)
+                        {
+                            args[index] = parseDecimal(tokens[index + 1]).doubleValue();
+                        }
+                        if (!(args[args.length - 1] > 0.0))
+                        {
+                            throw new IllegalArgumentException("Dauer muss positiv sein");
+                        }
+                        return new Command(lineNumber, text, name, null, null, null, args);
+                    }
+                    default:
+                    {
+                        throw new IllegalArgumentException("unbekanntes Kommando " + tokens[0]);
+                    }
+                }
+            }
+            catch (IllegalArgumentException exception)
+            {
+                throw new IllegalArgumentException("Zeile " + lineNumber + ": " + text + " - " + exception.getMessage(), exception);
+            }
+        }
+
+        /**
+         * parseDecimal(String text) - Zahl mit Dezimalpunkt (ohne Exponent, ohne Tausendertrennung)...
+         */
+        private static BigDecimal parseDecimal(String text)
+        {
+            if (!DECIMAL_PATTERN.matcher(text).matches())
+            {
+                throw new IllegalArgumentException("Zahl mit Dezimalpunkt erwartet (z.B. 2.5): " + text);
+            }
+            return new BigDecimal(text);
+        }
+
+        private static void expect(String[] tokens, int count)
+        {
+            if (tokens.length != count)
+            {
+                throw new IllegalArgumentException((count - 1) + " Argument(e) erwartet");
+            }
+        }
+
+        /**
+         * parseSet() - Eigenschaft ueber Name oder key, Wert im Typ der Eigenschaft...
+         */
+        private static Command parseSet(int lineNumber, String text, String propertyName, String valueText)
+        {
+            Property property = Property.valueOfKey(propertyName);
+            if (property == null)
+            {
+                try
+                {
+                    property = Property.valueOf(propertyName.toUpperCase(Locale.ROOT));
+                }
+                catch (IllegalArgumentException exception)
+                {
+                    throw new IllegalArgumentException("unbekannte Eigenschaft " + propertyName);
+                }
+            }
+            if (property == Property.DATA || property == Property.STEP_RESPONSE || property == Property.ALLOCATION)
+            {
+                throw new IllegalArgumentException(property + " ist nur Anzeige");
+            }
+            final Object value;
+            BigDecimal number = null;
+            if (property.getType() == BigDecimal.class)
+            {
+                value = parseDecimal(valueText);
+            }
+            else if (property.getType() == Boolean.class)
+            {
+                if (!"true".equalsIgnoreCase(valueText) && !"false".equalsIgnoreCase(valueText))
+                {
+                    throw new IllegalArgumentException("true oder false erwartet");
+                }
+                value = Boolean.valueOf(valueText);
+            }
+            else if (property.getType() == String.class)
+            {
+                // Lage bzw. Drehzahl mit Dezimalpunkt wie step/ramp/sine (Komma und Tausendertrennung
+                // der Oberflaeche sind mehrdeutig), an das Model in der Darstellung der Oberflaeche...
+                final BigDecimal decimal = parseDecimal(valueText);
+                if (decimal.scale() > DESTINATION_SCALE)
+                {
+                    throw new IllegalArgumentException("max. " + DESTINATION_SCALE + " Nachkommastellen");
+                }
+                number = decimal;
+                value = new DecimalFormat("0.####", DecimalFormatSymbols.getInstance(Locale.GERMAN)).format(decimal);
+            }
+            else
+            {
+                value = property.convert(valueText);
+            }
+            if (property.convert(value) == null)
+            {
+                throw new IllegalArgumentException("ungueltiger Wert " + valueText);
+            }
+            return new Command(lineNumber, text, SET, property, value, number, null);
+        }
+
+        /**
+         * toString() - zu Protokollzwecken...
+         */
+        @Override
+        public String toString()
+        {
+            return "Zeile " + this.lineNumber + ": " + this.text;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ *
+ */
+package gui;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * SimulatedDrive - simulierte Strecke (Motortreiber + Motor + Inkrementalgeber)
+ * fuer den Lauf ohne Raspi.
+ * </p>
+ * <p>
+ * Jeder Aufruf von drive() bzw. brake() wird protokolliert (Anzahl und
+ * letzte Sollwerte in einem Ringpuffer). Die Mechanik wird als Verzoegerungsglied
+ * erster Ordnung mit Totzone nachgebildet:
+ * </p>
+ * <pre>
+ *   speed' = (GAIN * (|u| - DEAD_ZONE) * sign(u) - speed) / TIME_CONSTANT
+ * </pre>
+ * <p>
+ * speed wird in Impulsen pro Sekunde gemessen. Mit advance() wird die Strecke
+ * um eine Zeitspanne weitergerechnet, Ergebnis ist die Anzahl der dabei
+ * aufgetretenen Impulse (mit Vorzeichen).
+ * </p>
+ */
+public class SimulatedDrive implements MotorDriver
+{
+    /**
+     * DEAD_ZONE - Totzone des DRV8830 (vgl. Model.drvSetPoint), erst ab
+     * |u| > DEAD_ZONE dreht sich der Motor...
+     */
+    public final static int DEAD_ZONE = 5;
+
+    /**
+     * DEFAULT_GAIN - Impulse pro Sekunde je Sollwertstufe oberhalb der Totzone...
+     */
+    public final static double DEFAULT_GAIN = 100.0;
+
+    /**
+     * DEFAULT_TIME_CONSTANT - Zeitkonstante der Mechanik in Sekunden...
+     */
+    public final static double DEFAULT_TIME_CONSTANT = 0.05;
+
+    /**
+     * HISTORY_SIZE - Umfang des Ringpuffers fuer die letzten Sollwerte...
+     */
+    public final static int HISTORY_SIZE = 1024;
+
+    /**
+     * gain - Impulse pro Sekunde je Sollwertstufe...
+     */
+    private final double gain;
+
+    /**
+     * timeConstant - Zeitkonstante in Sekunden...
+     */
+    private final double timeConstant;
+
+    /**
+     * value - aktueller Sollwert (zuletzt mit drive() ausgegeben, 0 nach brake())
+     */
+    private int value = 0;
+
+    /**
+     * speed - aktuelle Geschwindigkeit in Impulse pro Sekunde...
+     */
+    private double speed = 0.0;
+
+    /**
+     * position - Lage in Impulse (nicht ganzzahlig)...
+     */
+    private double position = 0.0;
+
+    /**
+     * counted - bereits als Impuls gemeldete Lage...
+     */
+    private long counted = 0L;
+
+    /**
+     * driveCount - Anzahl der drive()-Aufrufe...
+     */
+    private long driveCount = 0L;
+
+    /**
+     * brakeCount - Anzahl der brake()-Aufrufe...
+     */
+    private long brakeCount = 0L;
+
+    /**
+     * history - Ringpuffer mit den letzten Sollwerten (brake() wird als 0 abgelegt)...
+     */
+    private final int[] history = new int[HISTORY_SIZE];
+
+    /**
+     * fault - simulierte Fehlerkennung (vgl. DRV8830.Fault)...
+     */
+    private int fault = 0;
+
+    /**
+     * Default-Konstruktor...
+     */
+    public SimulatedDrive()
+    {
+        this(DEFAULT_GAIN, DEFAULT_TIME_CONSTANT);
+    }
+
+    /**
+     *
+     * @param gain - Impulse pro Sekunde je Sollwertstufe
+     * @param timeConstant - Zeitkonstante in Sekunden
+     */
+    public SimulatedDrive(double gain, double timeConstant)
+    {
+        if (timeConstant <= 0.0)
+        {
+            throw new IllegalArgumentException("timeConstant must be positive!");
+        }
+        this.gain = gain;
+        this.timeConstant = timeConstant;
+    }
+
+    @Override
+    public void drive(int value)
+    {
+        this.value = value;
+        this.history[(int)((this.driveCount + this.brakeCount) % HISTORY_SIZE)] = value;
+        this.driveCount++;
+    }
+
+    @Override
+    public void brake()
+    {
+        this.value = 0;
+        this.history[(int)((this.driveCount + this.brakeCount) % HISTORY_SIZE)] = 0;
+        this.brakeCount++;
+    }
+
+    @Override
+    public int getFault()
+    {
+        return this.fault;
+    }
+
+    /**
+     * setFault(int fault) - Vorgabe einer Fehlerkennung...
+     * @param fault
+     */
+    public void setFault(int fault)
+    {
+        this.fault = fault;
+    }
+
+    /**
+     * advance(long deltaNanos) - Weiterrechnen der Strecke...
+     * @param deltaNanos - Zeitspanne in Nanosekunden
+     * @return Anzahl der aufgetretenen Impulse (mit Vorzeichen)
+     */
+    public long advance(long deltaNanos)
+    {
+        final double dt = deltaNanos * 1.0E-9;
+        final int magnitude = Math.abs(this.value) - DEAD_ZONE;
+        final double target = (magnitude > 0)? Math.signum(this.value) * this.gain * magnitude : 0.0;
+        // Exakte Loesung des Verzoegerungsgliedes ueber dt...
+        final double decay = Math.exp(-dt / this.timeConstant);
+        final double speed = target + (this.speed - target) * decay;
+        // Lage als Mittelwert der Geschwindigkeit ueber dt (Trapez)...
+        this.position += 0.5 * (this.speed + speed) * dt;
+        this.speed = speed;
+        final long count = (long) Math.floor(this.position);
+        final long increment = count - this.counted;
+        this.counted = count;
+        return increment;
+    }
+
+    /**
+     * @return the value
+     */
+    public final int getValue()
+    {
+        return this.value;
+    }
+
+    /**
+     * @return the speed (Impulse pro Sekunde)
+     */
+    public final double getSpeed()
+    {
+        return this.speed;
+    }
+
+    /**
+     * @return the position (Impulse)
+     */
+    public final double getPosition()
+    {
+        return this.position;
+    }
+
+    /**
+     * @return the driveCount
+     */
+    public final long getDriveCount()
+    {
+        return this.driveCount;
+    }
+
+    /**
+     * @return the brakeCount
+     */
+    public final long getBrakeCount()
+    {
+        return this.brakeCount;
+    }
+
+    /**
+     * getHistory(int back) - Sollwert des back-letzten Aufrufes (0 - letzter Aufruf)...
+     * @param back
+     * @return
+     */
+    public final int getHistory(int back)
+    {
+        final long calls = this.driveCount + this.brakeCount;
+        if (back < 0 || back >= HISTORY_SIZE || back >= calls)
+        {
+            throw new IndexOutOfBoundsException("back: " + back);
+        }
+        return this.history[(int)((calls - 1 - back) % HISTORY_SIZE)];
+    }
+}
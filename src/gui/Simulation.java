@@ -0,0 +1,633 @@
+/**
+ *
+ */
+package gui;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * Simulation - Lauf von Model und PositionController ohne Raspi...
+ * </p>
+ * <p>
+ * Die Taktung (NE555) und die Impulse (Inkrementalgeber) werden aus einer
+ * VirtualClock und der simulierten Strecke SimulatedDrive erzeugt. Damit
+ * laufen einige tausend Takte deterministisch in Millisekunden durch.
+ * </p>
+ * <p>
+ * Aufruf: <code>java gui.Simulation [ticks] [cycleTimeMillis] [destination]</code>
+ * </p>
+ * <p>
+ * Optional werden Grenzwerte ueber Systemeigenschaften geprueft, bei
+ * Verletzung endet der Lauf mit Exit-Code 1 (vgl. Target 'simulate' in build.xml):
+ * </p>
+ * <ul>
+ * <li>simulation.minTicksPerSecond - min. Anzahl Takte pro Sekunde (Rechenzeit)</li>
+ * <li>simulation.maxBytesPerTick - max. Allokation pro Takt in Bytes</li>
+ * <li>simulation.maxPositionError - max. Regelabweichung am Ende in Impulse</li>
+ * <li>simulation.maxOvershoot - max. Ueberschwingen in Impulse</li>
+ * <li>simulation.maxSettlingTime - max. Einschwingzeit der Sprungantwort in s (StepAnalyser)</li>
+ * <li>simulation.minSaturatedTicks - min. Dauer der Begrenzung in Takten (der Sprung muss
+ *     die Begrenzung erreichen, sonst sagt die Pruefung des Anti-Windup nichts)</li>
+ * <li>simulation.minIntegralAtDesaturation, simulation.maxIntegralAtDesaturation - Bereich
+ *     des I-Anteils beim Verlassen der Begrenzung (in Sprungrichtung, vgl. getIntegralAtDesaturation())</li>
+ * <li>simulation.expectViolation - true: Gegenprobe, der Lauf muss mindestens einen
+ *     Grenzwert verletzen (z.B. Anti-Windup NONE)</li>
+ * </ul>
+ * <p>
+ * Leere Werte gelten als nicht gesetzt.
+ * </p>
+ * <p>
+ * Mit simulation.replay=&lt;Datei&gt; wird ein Protokoll der Bedienhandlungen 
+ * (CommandLog, z.B. vom Raspi) taktgenau wiedereingespielt. Die dabei erneut
+ * aufgezeichneten Eintraege muessen mit dem Protokoll uebereinstimmen 
+ * (Rundreise, vgl. checkReplay()), sonst endet der Lauf mit Exit-Code 1.
+ * </p>
+ */
+public class Simulation
+{
+    /**
+     * DEFAULT_TICKS - Anzahl der simulierten Takte...
+     */
+    public final static int DEFAULT_TICKS = 10000;
+
+    /**
+     * DEFAULT_CYCLE_TIME_MILLIS - simulierte Taktzeit des NE555 in ms...
+     */
+    public final static long DEFAULT_CYCLE_TIME_MILLIS = 20L;
+
+    /**
+     * DEFAULT_DESTINATION - Sollwert der Lage in Umdrehungen...
+     */
+    public final static String DEFAULT_DESTINATION = "10";
+
+    /**
+     * MIN_TICKS_PER_SECOND_KEY - Systemeigenschaft fuer den Grenzwert Takte pro Sekunde...
+     */
+    public final static String MIN_TICKS_PER_SECOND_KEY = "simulation.minTicksPerSecond";
+
+    /**
+     * MAX_BYTES_PER_TICK_KEY - Systemeigenschaft fuer den Grenzwert Allokation pro Takt...
+     */
+    public final static String MAX_BYTES_PER_TICK_KEY = "simulation.maxBytesPerTick";
+
+    /**
+     * MAX_POSITION_ERROR_KEY - Systemeigenschaft fuer die max. Regelabweichung am Ende...
+     */
+    public final static String MAX_POSITION_ERROR_KEY = "simulation.maxPositionError";
+
+    /**
+     * MAX_OVERSHOOT_KEY - Systemeigenschaft fuer das max. Ueberschwingen (Impulse)...
+     */
+    public final static String MAX_OVERSHOOT_KEY = "simulation.maxOvershoot";
+
+    /**
+     * MAX_SETTLING_TIME_KEY - Systemeigenschaft fuer die max. Einschwingzeit in s...
+     */
+    public final static String MAX_SETTLING_TIME_KEY = "simulation.maxSettlingTime";
+
+    /**
+     * MIN_SATURATED_TICKS_KEY - Systemeigenschaft fuer die min. Dauer der Begrenzung in Takten...
+     */
+    public final static String MIN_SATURATED_TICKS_KEY = "simulation.minSaturatedTicks";
+
+    /**
+     * MIN_INTEGRAL_AT_DESATURATION_KEY, MAX_INTEGRAL_AT_DESATURATION_KEY - Systemeigenschaften 
+     * fuer den Bereich des I-Anteils beim Verlassen der Begrenzung...
+     */
+    public final static String MIN_INTEGRAL_AT_DESATURATION_KEY = "simulation.minIntegralAtDesaturation";
+
+    public final static String MAX_INTEGRAL_AT_DESATURATION_KEY = "simulation.maxIntegralAtDesaturation";
+
+    /**
+     * EXPECT_VIOLATION_KEY - Systemeigenschaft fuer die Gegenprobe (Verletzung erwartet)...
+     */
+    public final static String EXPECT_VIOLATION_KEY = "simulation.expectViolation";
+
+    /**
+     * REPLAY_KEY - Systemeigenschaft mit dem Namen eines Protokolls der Bedienhandlungen
+     * (CommandLog), das anstelle der Voreinstellung wiedereingespielt wird...
+     */
+    public final static String REPLAY_KEY = "simulation.replay";
+
+    /**
+     * ANTI_WINDUP_KEY - Systemeigenschaft fuer die Anti-Windup-Strategie (Name, vgl. AntiWindup.Strategy)...
+     */
+    public final static String ANTI_WINDUP_KEY = "simulation.antiWindup";
+
+    /**
+     * clock - virtuelle Zeitbasis...
+     */
+    private final VirtualClock clock = new VirtualClock();
+
+    /**
+     * drive - simulierte Strecke...
+     */
+    private final SimulatedDrive drive;
+
+    /**
+     * model - das Model im Simulationsbetrieb...
+     */
+    private final Model model;
+
+    /**
+     * cycleTimeNanos - Taktzeit in Nanosekunden...
+     */
+    private final long cycleTimeNanos;
+
+    /**
+     * phi - Lage (Impulse) gemaess der Strecke, wird parallel zum Model mitgezaehlt...
+     */
+    private long phi = 0L;
+
+    /**
+     * maxPhi, minPhi - Extremwerte der Lage (Auswertung des Ueberschwingens)...
+     */
+    private long maxPhi = 0L;
+
+    private long minPhi = 0L;
+
+    /**
+     * saturatedTicks - Anzahl der Takte mit dem Lageregler in der Begrenzung...
+     */
+    private long saturatedTicks = 0L;
+
+    /**
+     * saturationRun, maxSaturationRun - Dauer der laufenden bzw. der laengsten Begrenzung in Takten...
+     */
+    private long saturationRun = 0L;
+
+    private long maxSaturationRun = 0L;
+
+    /**
+     * integralAtDesaturation - I-Anteil beim Verlassen der laengsten Begrenzung...
+     */
+    private double integralAtDesaturation = 0.0;
+
+    /**
+     * replay - wiedereinzuspielendes Protokoll der Bedienhandlungen (optional, sonst null)...
+     */
+    private CommandLog.Replay replay = null;
+
+    /**
+     *
+     * @param drive - simulierte Strecke
+     * @param cycleTimeNanos - Taktzeit in Nanosekunden
+     */
+    public Simulation(SimulatedDrive drive, long cycleTimeNanos)
+    {
+        if (cycleTimeNanos <= 0L)
+        {
+            throw new IllegalArgumentException("cycleTimeNanos must be positive!");
+        }
+        this.drive = (drive != null)? drive : new SimulatedDrive();
+        this.cycleTimeNanos = cycleTimeNanos;
+        this.model = new Model(this.drive, this.clock);
+    }
+
+    /**
+     * @return the model
+     */
+    public final Model getModel()
+    {
+        return this.model;
+    }
+
+    /**
+     * @return the drive
+     */
+    public final SimulatedDrive getDrive()
+    {
+        return this.drive;
+    }
+
+    /**
+     * @return the clock
+     */
+    public final VirtualClock getClock()
+    {
+        return this.clock;
+    }
+
+    /**
+     * @return the phi
+     */
+    public final long getPhi()
+    {
+        return this.phi;
+    }
+
+    /**
+     * @return the maxPhi
+     */
+    public final long getMaxPhi()
+    {
+        return this.maxPhi;
+    }
+
+    /**
+     * @return the minPhi
+     */
+    public final long getMinPhi()
+    {
+        return this.minPhi;
+    }
+
+    /**
+     * @return Anzahl der Takte mit dem Lageregler in der Begrenzung
+     */
+    public final long getSaturatedTicks()
+    {
+        return this.saturatedTicks;
+    }
+
+    /**
+     * @return Dauer der laengsten Begrenzung in Takten
+     */
+    public final long getMaxSaturationRun()
+    {
+        return this.maxSaturationRun;
+    }
+
+    /**
+     * @return I-Anteil der Stellgroesse im ersten Takt nach der laengsten Begrenzung
+     *         (vorzeichenbehaftet, vgl. PositionController.getIntegralOutput())
+     */
+    public final double getIntegralAtDesaturation()
+    {
+        return this.integralAtDesaturation;
+    }
+
+    /**
+     * @return the replay
+     */
+    public final CommandLog.Replay getReplay()
+    {
+        return this.replay;
+    }
+
+    /**
+     * setReplay(CommandLog.Replay replay) - Wiedereinspielen eines Protokolls,
+     * vor jedem Takt werden die faelligen Eintraege beauftragt...
+     * @param replay - Protokoll oder null (kein Wiedereinspielen)
+     */
+    public void setReplay(CommandLog.Replay replay)
+    {
+        this.replay = replay;
+    }
+
+    /**
+     * tick() - ein Takt: Strecke weiterrechnen, Impulse melden, Taktflanke ausloesen...
+     */
+    public void tick()
+    {
+        if (this.replay != null)
+        {
+            // Faellige Bedienhandlungen, ausgefuehrt zu Beginn von handleTick()...
+            this.replay.applyDue(this.model);
+        }
+        final long increment = this.drive.advance(this.cycleTimeNanos);
+        // Positive Richtung: B ist bei der steigenden Flanke A noch Low...
+        final boolean is_B_High = (increment < 0L);
+        // Die Flanken werden gleichmaessig ueber die Taktzeit verteilt...
+        final long edges = Math.abs(increment);
+        final long step = this.cycleTimeNanos / (edges + 1L);
+        for (long index = edges; index > 0L; index--)
+        {
+            this.clock.advance(step);
+            this.model.handleIncA(is_B_High);
+        }
+        this.phi += increment;
+        this.maxPhi = Math.max(this.maxPhi, this.phi);
+        this.minPhi = Math.min(this.minPhi, this.phi);
+        this.clock.advance(this.cycleTimeNanos - edges * step);
+        this.model.handleTick();
+        recordSaturation();
+    }
+
+    /**
+     * recordSaturation() - Dauer der Begrenzung des Lagereglers und I-Anteil
+     * beim Verlassen der Begrenzung (Bewertung des Anti-Windup)...
+     */
+    private void recordSaturation()
+    {
+        final PositionController positionController = this.model.getPositioncontroller();
+        if (Math.abs(positionController.getOutput()) >= positionController.getMaxDrvSetPoint())
+        {
+            this.saturatedTicks++;
+            this.saturationRun++;
+            return;
+        }
+        if (this.saturationRun > 0L && this.saturationRun >= this.maxSaturationRun)
+        {
+            this.maxSaturationRun = this.saturationRun;
+            this.integralAtDesaturation = positionController.getIntegralOutput();
+        }
+        this.saturationRun = 0L;
+    }
+
+    /**
+     * run(int ticks) - Beauftragung von ticks Takten...
+     * @param ticks
+     */
+    public void run(int ticks)
+    {
+        for (int index = 0; index < ticks; index++)
+        {
+            tick();
+        }
+    }
+
+    /**
+     * setUp(String destination, AntiWindup.Strategy antiWindup) - Voreinstellung 
+     * des Laufes (Verstaerkungen wie an der Oberflaeche) und Start zum Sollwert...
+     * @param destination - Sollwert der Lage in Umdrehungen
+     * @param antiWindup - Strategie fuer die Integration in der Begrenzung
+     */
+    public void setUp(String destination, AntiWindup.Strategy antiWindup)
+    {
+        this.model.reset();
+        this.model.setProperty(Property.ENHANCEMENT, Model.ENHANCEMENTS[3]);
+        this.model.setProperty(Property.INTEGRAL_ENHANCEMENT, Model.INTEGRAL_ENHANCEMENTS[5]);
+        this.model.setProperty(Property.ANTI_WINDUP, antiWindup);
+        this.model.setProperty(Property.DESTINATION, destination);
+        this.model.start();
+    }
+
+    /**
+     * measure(int ticks) - Beauftragung von ticks Takten mit Messung von 
+     * Rechenzeit und Allokation des aufrufenden Threads...
+     * @param ticks
+     * @return Messung
+     */
+    public Measurement measure(int ticks)
+    {
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        final long startNanos = System.nanoTime();
+        run(ticks);
+        final long elapsedNanos = Math.max(1L, System.nanoTime() - startNanos);
+        final long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+        return new Measurement(ticks, elapsedNanos, allocatedBytes);
+    }
+
+    /**
+     * getOvershoot(long phiSetPoint) - groesste Ueberschreitung von phiSetPoint 
+     * in Bewegungsrichtung (Impulse)...
+     * @param phiSetPoint - Sollwert in Impulse
+     * @return Ueberschwingen (&gt;= 0)
+     */
+    public long getOvershoot(long phiSetPoint)
+    {
+        return Math.max(0L, (phiSetPoint >= 0L)? this.maxPhi - phiSetPoint : phiSetPoint - this.minPhi);
+    }
+
+    /**
+     * Measurement - Rechenzeit und Allokation eines Laufes (vgl. measure())...
+     */
+    public static class Measurement
+    {
+        private final int ticks;
+        private final long elapsedNanos;
+        private final long allocatedBytes;
+
+        /**
+         *
+         * @param ticks - Anzahl der Takte
+         * @param elapsedNanos - Rechenzeit in ns
+         * @param allocatedBytes - Allokation in Bytes
+         */
+        public Measurement(int ticks, long elapsedNanos, long allocatedBytes)
+        {
+            this.ticks = ticks;
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        /**
+         * @return Anzahl der Takte
+         */
+        public final int getTicks()
+        {
+            return this.ticks;
+        }
+
+        /**
+         * @return Rechenzeit in ns
+         */
+        public final long getElapsedNanos()
+        {
+            return this.elapsedNanos;
+        }
+
+        /**
+         * @return Takte pro Sekunde Rechenzeit
+         */
+        public final double getTicksPerSecond()
+        {
+            return this.ticks * 1.0E9 / this.elapsedNanos;
+        }
+
+        /**
+         * @return Allokation pro Takt in Bytes
+         */
+        public final double getBytesPerTick()
+        {
+            return (this.ticks > 0)? (double) this.allocatedBytes / this.ticks : 0.0;
+        }
+    }
+
+    /**
+     * replay(List&lt;CommandLog.Entry&gt; entries, Path recordFile, int ticks) - 
+     * Wiedereinspielen eines Protokolls mit erneuter Aufzeichnung...
+     * <p>
+     * Nach dem letzten Eintrag folgen noch ticks Takte. Die erneute Aufzeichnung
+     * steht danach in recordFile (vgl. CommandLog.indexOfMismatch()).
+     * </p>
+     * @param entries - Eintraege in Protokollreihenfolge (vgl. CommandLog.read())
+     * @param recordFile - Datei fuer die erneute Aufzeichnung
+     * @param ticks - Anzahl der Takte nach dem letzten Eintrag
+     * @throws IOException
+     */
+    public void replay(List<CommandLog.Entry> entries, Path recordFile, int ticks) throws IOException
+    {
+        final CommandLog.Replay replay = new CommandLog.Replay(entries);
+        try (CommandLog commandLog = new CommandLog(recordFile))
+        {
+            this.model.setCommandLog(commandLog);
+            setReplay(replay);
+            while (!replay.isFinished())
+            {
+                tick();
+            }
+            run(ticks);
+        }
+        finally
+        {
+            setReplay(null);
+            this.model.setCommandLog(null);
+        }
+    }
+
+    /**
+     * checkReplay(String replayFile, int ticks, long cycleTimeNanos) - Rundreise eines 
+     * Protokolls: Wiedereinspielen, erneute Aufzeichnung, Vergleich...
+     * @return true: die erneute Aufzeichnung stimmt mit dem Protokoll ueberein
+     * @throws IOException
+     */
+    private static boolean checkReplay(String replayFile, int ticks, long cycleTimeNanos) throws IOException
+    {
+        final List<CommandLog.Entry> entries = CommandLog.read(Paths.get(replayFile));
+        final Path recordFile = Files.createTempFile("replay", ".clog");
+        try
+        {
+            final Simulation simulation = new Simulation(new SimulatedDrive(), cycleTimeNanos);
+            simulation.replay(entries, recordFile, ticks);
+            final List<CommandLog.Entry> recorded = CommandLog.read(recordFile);
+
+            System.out.println("Eintraege:       " + entries.size() + " (wiedereingespielt " + recorded.size() + ")");
+            System.out.println("Takte:           " + simulation.getModel().getCounter());
+            System.out.println("Lage (Impulse):  " + simulation.getPhi());
+            System.out.println("drive()/brake(): " + simulation.getDrive().getDriveCount() + "/" + simulation.getDrive().getBrakeCount());
+
+            final int index = CommandLog.indexOfMismatch(entries, recorded);
+            if (index >= 0)
+            {
+                System.err.println("Rundreise verletzt ab Eintrag " + index + ": " 
+                                   + ((index < entries.size())? entries.get(index) : "-") + " / " 
+                                   + ((index < recorded.size())? recorded.get(index) : "-"));
+                return false;
+            }
+            return true;
+        }
+        finally
+        {
+            Files.deleteIfExists(recordFile);
+        }
+    }
+
+    /**
+     * getLimit(String key) - Grenzwert aus den Systemeigenschaften...
+     * @param key
+     * @return Wert oder null (nicht gesetzt oder leer)
+     */
+    private static String getLimit(String key)
+    {
+        final String value = System.getProperty(key);
+        return (value != null && value.trim().length() > 0)? value.trim() : null;
+    }
+
+    /**
+     * main() - Simulationslauf mit Auswertung der Grenzwerte...
+     * @param args - [ticks] [cycleTimeMillis] [destination]
+     */
+    public static void main(String[] args) throws IOException
+    {
+        final int ticks = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+        final long cycleTimeMillis = (args.length > 1)? Long.parseLong(args[1]) : DEFAULT_CYCLE_TIME_MILLIS;
+        final String destination = (args.length > 2)? args[2] : DEFAULT_DESTINATION;
+
+        final String replayFile = System.getProperty(REPLAY_KEY);
+        if (replayFile != null)
+        {
+            System.exit(checkReplay(replayFile, ticks, cycleTimeMillis * 1000000L)? 0 : 1);
+        }
+
+        final Simulation simulation = new Simulation(new SimulatedDrive(), cycleTimeMillis * 1000000L);
+        final AntiWindup.Strategy antiWindup = AntiWindup.Strategy.valueOf((Object) System.getProperty(ANTI_WINDUP_KEY, AntiWindup.Strategy.FREEZE.name()));
+        if (antiWindup == null)
+        {
+            throw new IllegalArgumentException("unknown " + ANTI_WINDUP_KEY + ": " + System.getProperty(ANTI_WINDUP_KEY));
+        }
+        simulation.setUp(destination, antiWindup);
+
+        // Aufwaermen (JIT), danach Messung...
+        simulation.run(Math.min(ticks, 1000));
+        final Measurement measurement = simulation.measure(ticks);
+
+        final double ticksPerSecond = measurement.getTicksPerSecond();
+        final double bytesPerTick = measurement.getBytesPerTick();
+        final long phiSetPoint = Model.CIRCUMFERENCE.multiply(new BigDecimal(destination)).longValue();
+        final long positionError = Math.abs(phiSetPoint - simulation.getPhi());
+        final long overshoot = simulation.getOvershoot(phiSetPoint);
+        // I-Anteil in Sprungrichtung, Einschwingzeit der letzten Sprungantwort (NaN: nicht eingeschwungen)...
+        final double integralAtDesaturation = Math.signum(phiSetPoint) * simulation.getIntegralAtDesaturation();
+        final StepAnalyser.Result[] results = simulation.getModel().getStepAnalyser().getResults();
+        final double settlingTime = (results.length > 0 && results[0].isSettled())? results[0].getSettlingTime() : Double.NaN;
+
+        System.out.println("Takte:           " + ticks);
+        System.out.println("Takte/s:         " + Math.round(ticksPerSecond));
+        System.out.println("Latenz/Takt:     " + (measurement.getElapsedNanos() / Math.max(1, ticks)) + " ns");
+        System.out.println("Bytes/Takt:      " + Math.round(bytesPerTick));
+        System.out.println("Lage (Impulse):  " + simulation.getPhi() + " (Soll " + phiSetPoint + ")");
+        System.out.println("Ueberschwingen:  " + overshoot + " (Anti-Windup " + antiWindup.name() + ")");
+        System.out.println("drive()/brake(): " + simulation.getDrive().getDriveCount() + "/" + simulation.getDrive().getBrakeCount());
+        System.out.println("Begrenzung:      " + simulation.getMaxSaturationRun() + " Takte, I-Anteil danach " + Math.round(integralAtDesaturation * 10.0) / 10.0);
+        System.out.println("Einschwingzeit:  " + Math.round(settlingTime * 100.0) / 100.0 + " s");
+
+        boolean isViolated = false;
+        final String minTicksPerSecond = getLimit(MIN_TICKS_PER_SECOND_KEY);
+        if (minTicksPerSecond != null && ticksPerSecond < Double.parseDouble(minTicksPerSecond))
+        {
+            System.err.println("Grenzwert verletzt: Takte/s " + Math.round(ticksPerSecond) + " < " + minTicksPerSecond);
+            isViolated = true;
+        }
+        final String maxBytesPerTick = getLimit(MAX_BYTES_PER_TICK_KEY);
+        if (maxBytesPerTick != null && bytesPerTick > Double.parseDouble(maxBytesPerTick))
+        {
+            System.err.println("Grenzwert verletzt: Bytes/Takt " + Math.round(bytesPerTick) + " > " + maxBytesPerTick);
+            isViolated = true;
+        }
+        final String maxPositionError = getLimit(MAX_POSITION_ERROR_KEY);
+        if (maxPositionError != null && positionError > Long.parseLong(maxPositionError))
+        {
+            System.err.println("Grenzwert verletzt: Regelabweichung " + positionError + " > " + maxPositionError);
+            isViolated = true;
+        }
+        final String maxOvershoot = getLimit(MAX_OVERSHOOT_KEY);
+        if (maxOvershoot != null && overshoot > Long.parseLong(maxOvershoot))
+        {
+            System.err.println("Grenzwert verletzt: Ueberschwingen " + overshoot + " > " + maxOvershoot);
+            isViolated = true;
+        }
+        final String maxSettlingTime = getLimit(MAX_SETTLING_TIME_KEY);
+        if (maxSettlingTime != null && !(settlingTime <= Double.parseDouble(maxSettlingTime)))
+        {
+            System.err.println("Grenzwert verletzt: Einschwingzeit " + settlingTime + " s > " + maxSettlingTime);
+            isViolated = true;
+        }
+        final String minSaturatedTicks = getLimit(MIN_SATURATED_TICKS_KEY);
+        if (minSaturatedTicks != null && simulation.getMaxSaturationRun() < Long.parseLong(minSaturatedTicks))
+        {
+            System.err.println("Grenzwert verletzt: Begrenzung " + simulation.getMaxSaturationRun() + " Takte < " + minSaturatedTicks);
+            isViolated = true;
+        }
+        final String minIntegralAtDesaturation = getLimit(MIN_INTEGRAL_AT_DESATURATION_KEY);
+        if (minIntegralAtDesaturation != null && integralAtDesaturation < Double.parseDouble(minIntegralAtDesaturation))
+        {
+            System.err.println("Grenzwert verletzt: I-Anteil beim Verlassen der Begrenzung " + integralAtDesaturation + " < " + minIntegralAtDesaturation);
+            isViolated = true;
+        }
+        final String maxIntegralAtDesaturation = getLimit(MAX_INTEGRAL_AT_DESATURATION_KEY);
+        if (maxIntegralAtDesaturation != null && integralAtDesaturation > Double.parseDouble(maxIntegralAtDesaturation))
+        {
+            System.err.println("Grenzwert verletzt: I-Anteil beim Verlassen der Begrenzung " + integralAtDesaturation + " > " + maxIntegralAtDesaturation);
+            isViolated = true;
+        }
+        if (Boolean.parseBoolean(getLimit(EXPECT_VIOLATION_KEY)))
+        {
+            // Gegenprobe: die Pruefung muss anschlagen...
+            System.out.println("Gegenprobe:      " + (isViolated? "Grenzwert verletzt (erwartet)" : "kein Grenzwert verletzt!"));
+            System.exit(isViolated? 0 : 1);
+        }
+        System.exit(isViolated? 1 : 0);
+    }
+}
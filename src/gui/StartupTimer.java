@@ -0,0 +1,44 @@
+/**
+ * 
+ */
+package gui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * StartupTimer - Protokollierung der Anlaufphasen (Properties, Hardware, GUI, erster Takt)
+ * mit der Zeit seit Beginn von main()...
+ * </p>
+ */
+public final class StartupTimer
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(StartupTimer.class);
+    
+    /**
+     * START - Zeitpunkt (ns) des ersten Zugriffs auf StartupTimer (Beginn von main())...
+     */
+    private final static long START = System.nanoTime();
+    
+    /**
+     * Keine Instanzen...
+     */
+    private StartupTimer()
+    {
+    }
+    
+    /**
+     * mark(String phase) - Protokollierung des Endes einer Anlaufphase...
+     * @param phase
+     */
+    public static void mark(String phase)
+    {
+        logger.info("Anlauf: " + phase + " nach " + ((System.nanoTime() - START) / 1000000L) + " ms"
+                    + " [" + Thread.currentThread().getName() + "]");
+    }
+}
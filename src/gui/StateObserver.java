@@ -0,0 +1,306 @@
+/**
+ *
+ */
+package gui;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * StateObserver - Kalman-Filter zur Schaetzung von Lage, Geschwindigkeit und Last...
+ * </p>
+ * <p>
+ * Zustaende: x = (Lage [Impulse], Geschwindigkeit [Impulse/s], Last [Impulse/s]).
+ * Streckenmodell wie SimulatedDrive (Verzoegerung 1. Ordnung der Geschwindigkeit,
+ * Totzone des DRV8830), die Last wirkt als Abzug von der Zielgeschwindigkeit.
+ * Verstaerkung, Zeitkonstante und Rauschdichten sind fuer den realen Antrieb
+ * zu bestimmen (vgl. Model.setObserverModel(), system.properties), die
+ * Voreinstellung entspricht SimulatedDrive:
+ * </p>
+ * <pre>
+ *   speed' = (gain * (|u| - deadZone) * sign(u) - load - speed) / timeConstant
+ *   phi'   = speed
+ * </pre>
+ * <p>
+ * Das Modell wird je Takt mit der gemessenen Taktzeit exakt diskretisiert
+ * (Halteglied 0. Ordnung). Eingang ist der im letzten Takt ausgegebene
+ * drvSetPoint, Messgroesse der Zaehlerstand des Inkrementalgebers
+ * (Quantisierung: Varianz 1/12).
+ * </p>
+ * <p>
+ * Alle Matrizen (3x3, zeilenweise) sind primitive Arrays fester Groesse,
+ * je Takt wird nichts angelegt.
+ * </p>
+ */
+public class StateObserver
+{
+    /**
+     * Index der Zustaende...
+     */
+    public final static int POSITION = 0;
+    public final static int VELOCITY = 1;
+    public final static int LOAD = 2;
+
+    /**
+     * N - Anzahl der Zustaende...
+     */
+    private final static int N = 3;
+
+    /**
+     * DEFAULT_GAIN - Impulse pro Sekunde je Sollwertstufe oberhalb der Totzone (vgl. SimulatedDrive)...
+     */
+    public final static double DEFAULT_GAIN = SimulatedDrive.DEFAULT_GAIN;
+
+    /**
+     * DEFAULT_TIME_CONSTANT - Zeitkonstante der Geschwindigkeit in s (vgl. SimulatedDrive)...
+     */
+    public final static double DEFAULT_TIME_CONSTANT = SimulatedDrive.DEFAULT_TIME_CONSTANT;
+
+    /**
+     * DEFAULT_MEASUREMENT_VARIANCE - Varianz der Messung (Quantisierung 1 Impuls: 1/12)...
+     */
+    public final static double DEFAULT_MEASUREMENT_VARIANCE = 1.0 / 12.0;
+
+    /**
+     * DEFAULT_VELOCITY_NOISE - Rauschdichte Geschwindigkeit ((Impulse/s)^2 je s)...
+     */
+    public final static double DEFAULT_VELOCITY_NOISE = 2000.0;
+
+    /**
+     * DEFAULT_LOAD_NOISE - Rauschdichte Last ((Impulse/s)^2 je s)...
+     */
+    public final static double DEFAULT_LOAD_NOISE = 500.0;
+
+    /**
+     * INITIAL_VARIANCE - Anfangsunsicherheit von Geschwindigkeit und Last...
+     */
+    private final static double INITIAL_VARIANCE = 1.0E4;
+
+    private final double gain;
+    private final double timeConstant;
+    private final int deadZone;
+    private final double measurementVariance;
+    private final double velocityNoise;
+    private final double loadNoise;
+
+    /**
+     * x - Zustand...
+     */
+    private final double[] x = new double[N];
+
+    /**
+     * p - Kovarianz der Schaetzung (3x3)...
+     */
+    private final double[] p = new double[N * N];
+
+    /**
+     * f - Systemmatrix des Taktes (3x3)...
+     */
+    private final double[] f = new double[N * N];
+
+    /**
+     * fp - Zwischenergebnis F * P (3x3)...
+     */
+    private final double[] fp = new double[N * N];
+
+    /**
+     * k - Kalman-Verstaerkung...
+     */
+    private final double[] k = new double[N];
+
+    /**
+     * innovation - letzte Differenz Messung - Vorhersage...
+     */
+    private double innovation = 0.0;
+
+    /**
+     * StateObserver(int deadZone) - Standardparameter (vgl. SimulatedDrive)...
+     * @param deadZone - Totzone des DRV8830
+     */
+    public StateObserver(int deadZone)
+    {
+        this(DEFAULT_GAIN, DEFAULT_TIME_CONSTANT, deadZone, DEFAULT_MEASUREMENT_VARIANCE, DEFAULT_VELOCITY_NOISE, DEFAULT_LOAD_NOISE);
+    }
+
+    /**
+     *
+     * @param gain - Impulse pro Sekunde je Sollwertstufe oberhalb der Totzone
+     * @param timeConstant - Zeitkonstante der Geschwindigkeit in s
+     * @param deadZone - Totzone des DRV8830
+     * @param measurementVariance - Varianz der Messung (Impulse^2)
+     * @param velocityNoise - Rauschdichte Geschwindigkeit
+     * @param loadNoise - Rauschdichte Last
+     */
+    public StateObserver(double gain, double timeConstant, int deadZone, double measurementVariance, double velocityNoise, double loadNoise)
+    {
+        if (gain <= 0.0 || timeConstant <= 0.0 || measurementVariance <= 0.0)
+        {
+            throw new IllegalArgumentException("gain, timeConstant and measurementVariance must be positive!");
+        }
+        if (velocityNoise < 0.0 || loadNoise < 0.0)
+        {
+            throw new IllegalArgumentException("velocityNoise and loadNoise must not be negative!");
+        }
+        this.gain = gain;
+        this.timeConstant = timeConstant;
+        this.deadZone = Math.max(0, deadZone);
+        this.measurementVariance = measurementVariance;
+        this.velocityNoise = velocityNoise;
+        this.loadNoise = loadNoise;
+        reset(0.0);
+    }
+
+    /**
+     * reset(double position) - Neubeginn der Schaetzung bei Stillstand in position...
+     * @param position
+     */
+    public void reset(double position)
+    {
+        this.x[POSITION] = position;
+        this.x[VELOCITY] = 0.0;
+        this.x[LOAD] = 0.0;
+        for (int index = 0; index < N * N; index++)
+        {
+            this.p[index] = 0.0;
+        }
+        this.p[POSITION * N + POSITION] = this.measurementVariance;
+        this.p[VELOCITY * N + VELOCITY] = INITIAL_VARIANCE;
+        this.p[LOAD * N + LOAD] = INITIAL_VARIANCE;
+        this.innovation = 0.0;
+    }
+
+    /**
+     * update(double dt, int drvSetPoint, double measurement) - Vorhersage ueber dt
+     * mit dem Eingang drvSetPoint und Korrektur mit der Messung...
+     * @param dt - Zeit seit dem letzten update() in s (&lt;= 0: nur Korrektur)
+     * @param drvSetPoint - waehrend dt ausgegebener Sollwert des DRV8830
+     * @param measurement - gemessene Lage in Impulse
+     */
+    public void update(double dt, int drvSetPoint, double measurement)
+    {
+        if (dt > 0.0)
+        {
+            predict(dt, drvSetPoint);
+        }
+        correct(measurement);
+    }
+
+    /**
+     * predict() - x = F x + B u, P = F P F' + Q...
+     */
+    private void predict(double dt, int drvSetPoint)
+    {
+        final double a = Math.exp(-dt / this.timeConstant);
+        final double c = 1.0 - a;
+        final double tc = this.timeConstant * c;
+        final int magnitude = Math.abs(drvSetPoint) - this.deadZone;
+        final double target = (magnitude > 0)? Integer.signum(drvSetPoint) * this.gain * magnitude : 0.0;
+
+        final double[] f = this.f;
+        f[0] = 1.0; f[1] = tc;  f[2] = -(dt - tc);
+        f[3] = 0.0; f[4] = a;   f[5] = -c;
+        f[6] = 0.0; f[7] = 0.0; f[8] = 1.0;
+
+        final double[] x = this.x;
+        final double drive = target - x[LOAD];
+        x[POSITION] += tc * x[VELOCITY] + (dt - tc) * drive;
+        x[VELOCITY] = a * x[VELOCITY] + c * drive;
+
+        // fp = F * P...
+        final double[] p = this.p;
+        final double[] fp = this.fp;
+        for (int row = 0; row < N; row++)
+        {
+            for (int column = 0; column < N; column++)
+            {
+                double sum = 0.0;
+                for (int index = 0; index < N; index++)
+                {
+                    sum += f[row * N + index] * p[index * N + column];
+                }
+                fp[row * N + column] = sum;
+            }
+        }
+        // P = fp * F' + Q...
+        for (int row = 0; row < N; row++)
+        {
+            for (int column = 0; column < N; column++)
+            {
+                double sum = 0.0;
+                for (int index = 0; index < N; index++)
+                {
+                    sum += fp[row * N + index] * f[column * N + index];
+                }
+                p[row * N + column] = sum;
+            }
+        }
+        p[VELOCITY * N + VELOCITY] += this.velocityNoise * dt;
+        p[LOAD * N + LOAD] += this.loadNoise * dt;
+    }
+
+    /**
+     * correct() - Korrektur mit der Lage-Messung (H = [1 0 0])...
+     */
+    private void correct(double measurement)
+    {
+        final double[] p = this.p;
+        final double[] k = this.k;
+        final double s = p[POSITION * N + POSITION] + this.measurementVariance;
+        for (int row = 0; row < N; row++)
+        {
+            k[row] = p[row * N + POSITION] / s;
+        }
+        this.innovation = measurement - this.x[POSITION];
+        for (int row = 0; row < N; row++)
+        {
+            this.x[row] += k[row] * this.innovation;
+        }
+        // P = (I - K H) P, H P ist die erste Zeile von P...
+        for (int row = 0; row < N; row++)
+        {
+            for (int column = 0; column < N; column++)
+            {
+                this.fp[row * N + column] = p[row * N + column] - k[row] * p[POSITION * N + column];
+            }
+        }
+        // Symmetrie erhalten...
+        for (int row = 0; row < N; row++)
+        {
+            for (int column = 0; column < N; column++)
+            {
+                p[row * N + column] = 0.5 * (this.fp[row * N + column] + this.fp[column * N + row]);
+            }
+        }
+    }
+
+    /**
+     * @return geschaetzte Lage in Impulse
+     */
+    public final double getPosition()
+    {
+        return this.x[POSITION];
+    }
+
+    /**
+     * @return geschaetzte Geschwindigkeit in Impulse/s
+     */
+    public final double getVelocity()
+    {
+        return this.x[VELOCITY];
+    }
+
+    /**
+     * @return geschaetzte Last in Impulse/s (Abzug von der Zielgeschwindigkeit)
+     */
+    public final double getLoad()
+    {
+        return this.x[LOAD];
+    }
+
+    /**
+     * @return letzte Differenz Messung - Vorhersage (Impulse)
+     */
+    public final double getInnovation()
+    {
+        return this.innovation;
+    }
+}
@@ -0,0 +1,473 @@
+/**
+ *
+ */
+package gui;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * StepAnalyser - Auswertung der Sprungantwort je Verfahrbewegung...
+ * </p>
+ * <p>
+ * Mit jeder Aenderung des Lage-Sollwertes beginnt eine Bewegung (start()), die
+ * Takte werden fortlaufend ausgewertet (update()), ohne die Verlaeufe abzulegen.
+ * Ermittelt werden
+ * </p>
+ * <ul>
+ * <li>Anstiegszeit - 10% bis 90% des Sprunges</li>
+ * <li>Ueberschwingen - groesste Ueberschreitung des Zieles in % des Sprunges</li>
+ * <li>Einschwingzeit - ab Beginn bis zum letzten Eintritt in das Toleranzband</li>
+ * <li>bleibende Regelabweichung - Mittelwert in der zweiten Haelfte von HOLD_TIME
+ * (ohne das Einlaufen in das Toleranzband)</li>
+ * <li>IAE - Integral des Betrages der Regelabweichung (Impulse * s)</li>
+ * </ul>
+ * <p>
+ * Die Bewegung ist abgeschlossen, sobald die Lage HOLD_TIME im Toleranzband
+ * (SETTLING_BAND des Sprunges, mindestens MIN_SETTLING_BAND Impulse) bleibt,
+ * oder unvollstaendig, wenn vorher ein neuer Sollwert kommt. Das Ergebnis wird
+ * als unveraenderliches Result in einem Ring der letzten RING_SIZE Bewegungen
+ * abgelegt (eine Allokation je Bewegung, keine im Takt). Gezaehlt wird nur die
+ * Zeit im Status Start.
+ * </p>
+ */
+public class StepAnalyser
+{
+    /**
+     * SETTLING_BAND - Toleranzband als Anteil des Sprunges...
+     */
+    public final static double SETTLING_BAND = 0.02;
+
+    /**
+     * MIN_SETTLING_BAND - kleinstes Toleranzband in Impulsen (Grenzzyklus an der Totzone des DRV8830)...
+     */
+    public final static double MIN_SETTLING_BAND = 15.0;
+
+    /**
+     * HOLD_TIME - Verweildauer im Toleranzband bis zum Abschluss in s...
+     */
+    public final static double HOLD_TIME = 1.0;
+
+    /**
+     * RING_SIZE - Anzahl der abgelegten Bewegungen...
+     */
+    public final static int RING_SIZE = 16;
+
+    /**
+     * Schwellen der Anstiegszeit (Anteil des Sprunges)...
+     */
+    private final static double RISE_LOW = 0.1;
+
+    private final static double RISE_HIGH = 0.9;
+
+    /**
+     * ring - die letzten Ergebnisse, results[count % RING_SIZE] ist der naechste Platz...
+     */
+    private final Result[] ring = new Result[RING_SIZE];
+
+    /**
+     * count - Anzahl der abgeschlossenen Bewegungen...
+     */
+    private volatile long count = 0L;
+
+    /**
+     * Zustand der laufenden Bewegung (nur im Takt)...
+     */
+    private boolean isActive = false;
+    private long tick = 0L;
+    private double start = 0.0;
+    private double target = 0.0;
+    private double band = 0.0;
+    private double elapsed = 0.0;
+    private double riseLowTime = Double.NaN;
+    private double riseHighTime = Double.NaN;
+    private double peak = 0.0;
+    private double enteredTime = Double.NaN;
+    private double bandTime = 0.0;
+    private double bandErrorSum = 0.0;
+    private double bandErrorTime = 0.0;
+    private double iae = 0.0;
+
+    /**
+     * start(long tick, double position, double target) - Beginn einer Bewegung (nur im Takt)...
+     * <p>
+     * Eine laufende Bewegung wird unvollstaendig abgeschlossen. Bewegungen
+     * innerhalb des kleinsten Toleranzbandes werden nicht ausgewertet.
+     * </p>
+     * @param tick - Taktzaehler
+     * @param position - Lage zu Beginn in Impulse
+     * @param target - Ziel in Impulse
+     * @return abgeschlossene vorherige Bewegung oder null
+     */
+    public Result start(long tick, double position, double target)
+    {
+        final Result result = this.isActive? complete(false) : null;
+        if (Math.abs(target - position) <= MIN_SETTLING_BAND)
+        {
+            return result;
+        }
+        this.isActive = true;
+        this.tick = tick;
+        this.start = position;
+        this.target = target;
+        this.band = Math.max(MIN_SETTLING_BAND, SETTLING_BAND * Math.abs(target - position));
+        this.elapsed = 0.0;
+        this.riseLowTime = Double.NaN;
+        this.riseHighTime = Double.NaN;
+        this.peak = 0.0;
+        this.enteredTime = Double.NaN;
+        this.bandTime = 0.0;
+        this.bandErrorSum = 0.0;
+        this.bandErrorTime = 0.0;
+        this.iae = 0.0;
+        return result;
+    }
+
+    /**
+     * cancel() - Abbruch ohne Ergebnis (Reset, Drehzahlregelung)...
+     */
+    public void cancel()
+    {
+        this.isActive = false;
+    }
+
+    /**
+     * update(double dt, double position) - Auswertung eines Taktes (nur im Takt, Status Start)...
+     * @param dt - Taktzeit in s
+     * @param position - Lage in Impulse
+     * @return Ergebnis, falls die Bewegung mit diesem Takt abgeschlossen ist, sonst null
+     */
+    public Result update(double dt, double position)
+    {
+        if (!this.isActive)
+        {
+            return null;
+        }
+        this.elapsed += dt;
+        final double error = this.target - position;
+        this.iae += Math.abs(error) * dt;
+        final double progress = (position - this.start) / (this.target - this.start);
+        this.peak = Math.max(this.peak, progress);
+        if (Double.isNaN(this.riseLowTime) && progress >= RISE_LOW)
+        {
+            this.riseLowTime = this.elapsed;
+        }
+        if (Double.isNaN(this.riseHighTime) && progress >= RISE_HIGH)
+        {
+            this.riseHighTime = this.elapsed;
+        }
+        if (Math.abs(error) <= this.band)
+        {
+            if (Double.isNaN(this.enteredTime))
+            {
+                this.enteredTime = this.elapsed;
+                this.bandTime = 0.0;
+                this.bandErrorSum = 0.0;
+                this.bandErrorTime = 0.0;
+            }
+            this.bandTime += dt;
+            if (this.bandTime > HOLD_TIME / 2.0)
+            {
+                this.bandErrorSum += error * dt;
+                this.bandErrorTime += dt;
+            }
+            if (this.bandTime >= HOLD_TIME)
+            {
+                return complete(true);
+            }
+        }
+        else
+        {
+            this.enteredTime = Double.NaN;
+        }
+        return null;
+    }
+
+    /**
+     * complete(boolean isSettled) - Ablage des Ergebnisses im Ring...
+     */
+    private Result complete(boolean isSettled)
+    {
+        this.isActive = false;
+        final Result result = new Result(this.tick,
+                                         this.target - this.start,
+                                         this.riseHighTime - this.riseLowTime,
+                                         Math.max(0.0, this.peak - 1.0) * 100.0,
+                                         isSettled? this.enteredTime : Double.NaN,
+                                         (this.bandErrorTime > 0.0)? this.bandErrorSum / this.bandErrorTime : Double.NaN,
+                                         this.iae,
+                                         isSettled);
+        final long count = this.count;
+        this.ring[(int) (count % RING_SIZE)] = result;
+        this.count = count + 1L;
+        return result;
+    }
+
+    /**
+     * @return Anzahl der abgeschlossenen Bewegungen
+     */
+    public final long getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * getResults() - die letzten Bewegungen (hoechstens RING_SIZE), die neueste zuerst...
+     * @return Kopie (auch ausserhalb des Taktes lesbar)
+     */
+    public Result[] getResults()
+    {
+        final long count = this.count;
+        final Result[] results = new Result[(int) Math.min(count, RING_SIZE)];
+        for (int index = 0; index < results.length; index++)
+        {
+            results[index] = this.ring[(int) ((count - 1L - index) % RING_SIZE)];
+        }
+        return results;
+    }
+
+    /**
+     * Result - unveraenderliches Ergebnis einer Bewegung...
+     * <p>
+     * Nicht ermittelte Kenngroessen (z.B. Einschwingzeit einer unvollstaendigen
+     * Bewegung) sind NaN, die Anzeige ist dann leer.
+     * </p>
+     */
+    public static class Result
+    {
+        /**
+         * Keys der Anzeige an der Oberflaeche (vgl. Field)...
+         */
+        public final static String RISE_TIME_KEY = "riseTimeKey";
+        public final static String OVERSHOOT_KEY = "overshootKey";
+        public final static String SETTLING_TIME_KEY = "settlingTimeKey";
+        public final static String STEADY_STATE_ERROR_KEY = "steadyStateErrorKey";
+        public final static String IAE_KEY = "iaeKey";
+
+        /**
+         * Field - die angezeigten Kenngroessen mit Nachkommastellen...
+         * <p>
+         * Wie bei Property erfolgt der Zugriff ueber das enum (getValue(Field))
+         * ohne Vergleich von Zeichenketten, valueOfKey() wird nur beim Aufbau
+         * der Oberflaeche benoetigt.
+         * </p>
+         */
+        public enum Field
+        {
+            RISE_TIME(RISE_TIME_KEY, 3)
+            {
+                @Override
+                double value(Result result)
+                {
+                    return result.riseTime;
+                }
+            },
+            OVERSHOOT(OVERSHOOT_KEY, 1)
+            {
+                @Override
+                double value(Result result)
+                {
+                    return result.overshoot;
+                }
+            },
+            SETTLING_TIME(SETTLING_TIME_KEY, 3)
+            {
+                @Override
+                double value(Result result)
+                {
+                    return result.settlingTime;
+                }
+            },
+            STEADY_STATE_ERROR(STEADY_STATE_ERROR_KEY, 1)
+            {
+                @Override
+                double value(Result result)
+                {
+                    return result.steadyStateError;
+                }
+            },
+            IAE(IAE_KEY, 1)
+            {
+                @Override
+                double value(Result result)
+                {
+                    return result.iae;
+                }
+            };
+
+            /**
+             * KEYS - Zuordnung key => Field (nur beim Aufbau der Oberflaeche)...
+             */
+            private final static Map<String, Field> KEYS = new HashMap<>();
+
+            static
+            {
+                for (Field field: values())
+                {
+                    KEYS.put(field.key, field);
+                }
+            }
+
+            /**
+             * key - Name des Oberflaechenelementes...
+             */
+            private final String key;
+
+            /**
+             * scale - Nachkommastellen der Anzeige...
+             */
+            private final int scale;
+
+            private Field(String key, int scale)
+            {
+                this.key = key;
+                this.scale = scale;
+            }
+
+            /**
+             * @return the key
+             */
+            public final String getKey()
+            {
+                return this.key;
+            }
+
+            /**
+             * value(Result result) - Kenngroesse des Ergebnisses (NaN: nicht ermittelt)...
+             */
+            abstract double value(Result result);
+
+            /**
+             * valueOfKey(String key) - Kenngroesse zum key (Oberflaeche)...
+             * @param key
+             * @return Kenngroesse oder null (keine Anzeige des Result)
+             */
+            public static Field valueOfKey(String key)
+            {
+                return KEYS.get(key);
+            }
+        }
+
+        private final long tick;
+        private final double step;
+        private final double riseTime;
+        private final double overshoot;
+        private final double settlingTime;
+        private final double steadyStateError;
+        private final double iae;
+        private final boolean isSettled;
+
+        Result(long tick, double step, double riseTime, double overshoot, double settlingTime, double steadyStateError, double iae, boolean isSettled)
+        {
+            this.tick = tick;
+            this.step = step;
+            this.riseTime = riseTime;
+            this.overshoot = overshoot;
+            this.settlingTime = settlingTime;
+            this.steadyStateError = steadyStateError;
+            this.iae = iae;
+            this.isSettled = isSettled;
+        }
+
+        /**
+         * @return Taktzaehler zu Beginn der Bewegung
+         */
+        public final long getTick()
+        {
+            return this.tick;
+        }
+
+        /**
+         * @return Sprung in Impulse (mit Vorzeichen)
+         */
+        public final double getStep()
+        {
+            return this.step;
+        }
+
+        /**
+         * @return Anstiegszeit 10%...90% in s
+         */
+        public final double getRiseTime()
+        {
+            return this.riseTime;
+        }
+
+        /**
+         * @return Ueberschwingen in % des Sprunges
+         */
+        public final double getOvershoot()
+        {
+            return this.overshoot;
+        }
+
+        /**
+         * @return Einschwingzeit in s
+         */
+        public final double getSettlingTime()
+        {
+            return this.settlingTime;
+        }
+
+        /**
+         * @return bleibende Regelabweichung in Impulse (Ziel - Lage)
+         */
+        public final double getSteadyStateError()
+        {
+            return this.steadyStateError;
+        }
+
+        /**
+         * @return IAE in Impulse * s
+         */
+        public final double getIae()
+        {
+            return this.iae;
+        }
+
+        /**
+         * @return the isSettled
+         */
+        public final boolean isSettled()
+        {
+            return this.isSettled;
+        }
+
+        /**
+         * getValue(Field field) - Bereitstellung der Anzeige...
+         * @param field
+         * @return string-Anzeige (leer: nicht ermittelt)
+         */
+        public final String getValue(Field field)
+        {
+            return format(field.value(this), field.scale);
+        }
+
+        private static String format(double value, int scale)
+        {
+            return (Double.isNaN(value) || Double.isInfinite(value))? "" : BigDecimal.valueOf(value).setScale(scale, BigDecimal.ROUND_HALF_UP).toString();
+        }
+
+        /**
+         * toString() - zu Protokollzwecken...
+         */
+        @Override
+        public String toString()
+        {
+            return new StringBuilder().append("[")
+                                      .append(this.tick)
+                                      .append(" Sprung=").append(format(this.step, 0))
+                                      .append(" tr=").append(format(this.riseTime, 3))
+                                      .append(" Mp=").append(format(this.overshoot, 1)).append("%")
+                                      .append(" ts=").append(format(this.settlingTime, 3))
+                                      .append(" e=").append(format(this.steadyStateError, 1))
+                                      .append(" IAE=").append(format(this.iae, 1))
+                                      .append(this.isSettled? "" : " unvollstaendig")
+                                      .append("]")
+                                      .toString();
+        }
+    }
+}
@@ -3,6 +3,8 @@ package gui;
 import java.awt.EventQueue;
 import java.awt.image.BufferedImage;
 import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 
 import javax.imageio.ImageIO;
 
@@ -34,6 +36,104 @@ public class SwingMain
      */
     private final String iconImageFile;
     
+    /**
+     * COMMAND_LOG_FILE_KEY - Key unter dem die Datei fuer das Protokoll
+     * der Bedienhandlungen abgelegt ist (leer: kein Protokoll)...
+     */
+    public final static String COMMAND_LOG_FILE_KEY = "commandLogFile";
+    
+    /**
+     * TELEMETRY_FILE_KEY - Key unter dem die Datei fuer die Aufzeichnung
+     * der Taktdaten abgelegt ist (leer: keine Aufzeichnung)...
+     */
+    public final static String TELEMETRY_FILE_KEY = "telemetryFile";
+    
+    /**
+     * TELEMETRY_ADDRESS_KEY - Key unter dem das Ziel (host:port, Multicast-Gruppe
+     * oder Unicast) fuer den Versand der Taktdaten abgelegt ist (leer: kein Versand)...
+     */
+    public final static String TELEMETRY_ADDRESS_KEY = "telemetryAddress";
+    
+    /**
+     * METRICS_ADDRESS_KEY - Key unter dem die Adresse (host:port) des HTTP-Endpunktes
+     * fuer Kennzahlen und Events abgelegt ist (leer: kein Endpunkt)...
+     */
+    public final static String METRICS_ADDRESS_KEY = "metricsAddress";
+    
+    /**
+     * GPIO_EVENT_DEVICE_KEY - Key unter dem die Quelle der Flanken im Format des
+     * GPIO character device (FIFO bzw. Datei, vgl. GpioEventReader) abgelegt ist
+     * (leer: Listener der pi4j)...
+     */
+    public final static String GPIO_EVENT_DEVICE_KEY = "gpioEventDevice";
+    
+    /**
+     * GPIO_REGISTER_FILE_KEY - Key unter dem die abzubildende Datei mit dem GPIO-Block
+     * (/dev/gpiomem ueber libcontrol03gpiomem.so bzw. Ersatz, vgl. GpioRegisterSampler) 
+     * abgelegt ist (leer: Listener der pi4j bzw. gpioEventDevice)...
+     */
+    public final static String GPIO_REGISTER_FILE_KEY = "gpioRegisterFile";
+    
+    /**
+     * ALLOCATION_ALARM_KEY - Key unter dem die Alarmschwelle der Allokation je Takt
+     * in Bytes abgelegt ist (vgl. AllocationMonitor, leer: Voreinstellung)...
+     */
+    public final static String ALLOCATION_ALARM_KEY = "allocationAlarmBytesPerTick";
+    
+    /**
+     * ERROR_FILTER_KEY - Key unter dem die Filter der Regelabweichung
+     * (vgl. BiquadFilter.parse()) abgelegt sind, sonst Voreinstellung des Model...
+     */
+    public final static String ERROR_FILTER_KEY = "errorFilter";
+    
+    /**
+     * VELOCITY_FILTER_KEY - Key unter dem die Filter der Geschwindigkeit
+     * (vgl. BiquadFilter.parse()) abgelegt sind, sonst Voreinstellung des Model...
+     */
+    public final static String VELOCITY_FILTER_KEY = "velocityFilter";
+    
+    /**
+     * DEAD_ZONE_KEY - Key unter dem die Totzone des DRV8830 abgelegt ist
+     * (vgl. Model.setConditioning()), sonst Voreinstellung des Model...
+     */
+    public final static String DEAD_ZONE_KEY = "deadZone";
+    
+    /**
+     * FRICTION_OFFSET_KEY - Key unter dem der Offset zur Ueberwindung der Haftreibung abgelegt ist...
+     */
+    public final static String FRICTION_OFFSET_KEY = "frictionOffset";
+    
+    /**
+     * VELOCITY_FEED_FORWARD_KEY - Key unter dem die Vorsteuerung je Impuls/s abgelegt ist...
+     */
+    public final static String VELOCITY_FEED_FORWARD_KEY = "velocityFeedForward";
+    
+    /**
+     * ACCELERATION_FEED_FORWARD_KEY - Key unter dem die Vorsteuerung je Impuls/s^2 abgelegt ist...
+     */
+    public final static String ACCELERATION_FEED_FORWARD_KEY = "accelerationFeedForward";
+    
+    /**
+     * OBSERVER_GAIN_KEY - Key unter dem die Streckenverstaerkung des Beobachters abgelegt ist
+     * (Impulse/s je Sollwertstufe, vgl. Model.setObserverModel()), sonst Voreinstellung (SimulatedDrive)...
+     */
+    public final static String OBSERVER_GAIN_KEY = "observerGain";
+    
+    /**
+     * OBSERVER_TIME_CONSTANT_KEY - Key unter dem die Zeitkonstante des Beobachters (s) abgelegt ist...
+     */
+    public final static String OBSERVER_TIME_CONSTANT_KEY = "observerTimeConstant";
+    
+    /**
+     * OBSERVER_VELOCITY_NOISE_KEY - Key unter dem die Rauschdichte der Geschwindigkeit abgelegt ist...
+     */
+    public final static String OBSERVER_VELOCITY_NOISE_KEY = "observerVelocityNoise";
+    
+    /**
+     * OBSERVER_LOAD_NOISE_KEY - Key unter dem die Rauschdichte der Last abgelegt ist...
+     */
+    public final static String OBSERVER_LOAD_NOISE_KEY = "observerLoadNoise";
+    
     /** 
      * defaultLookAndFeel - boolsche Kennung, es ist kein LookAndFeel ueber die
      * Konfiguration eingestellt worden, verwende dann die 
@@ -41,9 +141,17 @@ public class SwingMain
      */ 
     private final boolean defaultLookAndFeel;
     
+    /**
+     * EXIT_AFTER_STARTUP_KEY - Systemeigenschaft, Anwendung beenden, sobald das
+     * Fenster sichtbar ist. Wird fuer den Trainingslauf zur Erzeugung des
+     * Class-Data-Sharing-Archivs verwendet (vgl. Target 'cds' in build.xml)...
+     */
+    public final static String EXIT_AFTER_STARTUP_KEY = "control03.exitAfterStartup";
+    
     /** main()-Funktionalitaet... */
     public static void main(String[] args)
     {
+        StartupTimer.mark("main()");
         // Start von allem...
         new SwingMain();
     }
@@ -66,6 +174,19 @@ public class SwingMain
             System.err.println( "Can't read the properties file '" + SwingMain.PROPERTIES_FILE + "'! " );
             System.exit(0);
         }
+        StartupTimer.mark("Properties");
+        // *** Einrichtung der Hardware (GPIO, I2C) parallel zum Aufbau der GUI... ***
+        final FutureTask<Model> modelTask = new FutureTask<>(new Callable<Model>()
+        {
+            @Override
+            public Model call()
+            {
+                final Model model = new Model();
+                StartupTimer.mark("Model");
+                return model;
+            }
+        });
+        new Thread(modelTask, "Model-Init").start();
         // Key-Eintrag fuer das LookAndFeel in der property-Datei lautet 'lookAndFeel' 
         this.lookAndFeel = properties.getProperty(SwingMain.LOOK_AND_FEEL_KEY, "");
         // Wenn kein lookAndFeel in der Properties-Datei gesetzt wurde, 
@@ -89,9 +210,9 @@ public class SwingMain
         }
         // *** Testausgabe... ***
         // System.out.println( javax.swing.UIManager.getSystemLookAndFeelClassName() );
+        StartupTimer.mark("LookAndFeel");
         
-        final Model model = new Model();
-        SwingWindow swingWindow = new SwingWindow(model);
+        SwingWindow swingWindow = new SwingWindow(modelTask);
         //
         this.iconImageFile = properties.getProperty(SwingMain.ICON_IMAGE_KEY, "");
         try
@@ -110,13 +231,172 @@ public class SwingMain
         swingWindow.setDefaultCloseOperation(javax.swing.WindowConstants.DO_NOTHING_ON_CLOSE);
         swingWindow.pack();
         swingWindow.setResizable(false);
+        StartupTimer.mark("SwingWindow");
+        // *** Ab hier wird das Model benoetigt... ***
+        final Model model;
+        try
+        {
+            model = modelTask.get();
+        }
+        catch (Exception exception)
+        {
+            System.err.println("Can't initialize the model! " + exception);
+            System.exit(0);
+            return;
+        }
+        // Optional: Protokoll der Bedienhandlungen...
+        final String commandLogFile = properties.getProperty(SwingMain.COMMAND_LOG_FILE_KEY, "").trim();
+        if (commandLogFile.length() > 0)
+        {
+            try
+            {
+                model.setCommandLog(new CommandLog(java.nio.file.Paths.get(commandLogFile)));
+            }
+            catch (Exception exception)
+            {
+                System.err.println("Can't open the command log '" + commandLogFile + "'! " + exception);
+            }
+        }
+        // Optional: Aufzeichnung der Taktdaten...
+        final String telemetryFile = properties.getProperty(SwingMain.TELEMETRY_FILE_KEY, "").trim();
+        if (telemetryFile.length() > 0)
+        {
+            try
+            {
+                model.setTelemetryRecorder(new TelemetryRecorder(java.nio.file.Paths.get(telemetryFile), TickClock.SYSTEM.nanoTime()));
+            }
+            catch (Exception exception)
+            {
+                System.err.println("Can't open the telemetry file '" + telemetryFile + "'! " + exception);
+            }
+        }
+        // Optional: Versand der Taktdaten per UDP...
+        final String telemetryAddress = properties.getProperty(SwingMain.TELEMETRY_ADDRESS_KEY, "").trim();
+        if (telemetryAddress.length() > 0)
+        {
+            try
+            {
+                model.setTelemetryPublisher(new TelemetryPublisher(TelemetryPublisher.parse(telemetryAddress)));
+            }
+            catch (Exception exception)
+            {
+                System.err.println("Can't open the telemetry address '" + telemetryAddress + "'! " + exception);
+            }
+        }
+        // Optional: HTTP-Endpunkt fuer Kennzahlen (/metrics) und Events (/events)...
+        final String metricsAddress = properties.getProperty(SwingMain.METRICS_ADDRESS_KEY, "").trim();
+        if (metricsAddress.length() > 0)
+        {
+            try
+            {
+                model.setMetricsServer(new MetricsServer(MetricsServer.parse(metricsAddress), model, MetricsServer.DEFAULT_EVENTS_PER_SECOND));
+            }
+            catch (Exception exception)
+            {
+                System.err.println("Can't open the metrics address '" + metricsAddress + "'! " + exception);
+            }
+        }
+        // Optional: Flanken mit Zeitstempel des Kernels statt ueber den Listener der pi4j...
+        final String gpioEventDevice = properties.getProperty(SwingMain.GPIO_EVENT_DEVICE_KEY, "").trim();
+        if (gpioEventDevice.length() > 0)
+        {
+            try
+            {
+                model.setEdgeSource(new GpioEventReader(java.nio.file.Paths.get(gpioEventDevice)));
+            }
+            catch (Exception exception)
+            {
+                System.err.println("Can't open the gpio event device '" + gpioEventDevice + "'! " + exception);
+            }
+        }
+        // Optional: Abtastung der Pegel im abgebildeten GPIO-Block (hohe Impulsraten)...
+        final String gpioRegisterFile = properties.getProperty(SwingMain.GPIO_REGISTER_FILE_KEY, "").trim();
+        if (gpioRegisterFile.length() > 0)
+        {
+            try
+            {
+                model.setEdgeSource(new GpioRegisterSampler(GpioRegisterSampler.map(java.nio.file.Paths.get(gpioRegisterFile))));
+            }
+            catch (Exception exception)
+            {
+                System.err.println("Can't map the gpio register file '" + gpioRegisterFile + "'! " + exception);
+            }
+        }
+        // Allokation je Takt und Taktueberlaeufe (Anzeige, Log)...
+        final String allocationAlarm = properties.getProperty(SwingMain.ALLOCATION_ALARM_KEY, "").trim();
+        try
+        {
+            final AllocationMonitor allocationMonitor = new AllocationMonitor(Math.round(PositionController.REFERENCE_CYCLE_TIME * 1.0E9));
+            if (allocationAlarm.length() > 0)
+            {
+                allocationMonitor.setAlarmThreshold(Long.parseLong(allocationAlarm));
+            }
+            model.setAllocationMonitor(allocationMonitor);
+        }
+        catch (Exception exception)
+        {
+            System.err.println("Can't set up the allocation monitor '" + allocationAlarm + "'! " + exception);
+        }
+        // Optional: Filter von Regelabweichung und Geschwindigkeit...
+        final String errorFilter = properties.getProperty(SwingMain.ERROR_FILTER_KEY, Model.DEFAULT_ERROR_FILTER);
+        final String velocityFilter = properties.getProperty(SwingMain.VELOCITY_FILTER_KEY, Model.DEFAULT_VELOCITY_FILTER);
+        try
+        {
+            model.setFilters(BiquadFilter.parse(errorFilter, Model.SAMPLE_RATE), 
+                             BiquadFilter.parse(velocityFilter, Model.SAMPLE_RATE));
+        }
+        catch (IllegalArgumentException exception)
+        {
+            System.err.println("Can't configure the filters '" + errorFilter + "', '" + velocityFilter + "'! " + exception);
+        }
+        // Optional: Totzone, Reibung und Vorsteuerung der Aufbereitung...
+        final String deadZone = properties.getProperty(SwingMain.DEAD_ZONE_KEY, String.valueOf(Model.DEFAULT_DEAD_ZONE)).trim();
+        final String frictionOffset = properties.getProperty(SwingMain.FRICTION_OFFSET_KEY, String.valueOf(Model.DEFAULT_FRICTION_OFFSET)).trim();
+        final String velocityFeedForward = properties.getProperty(SwingMain.VELOCITY_FEED_FORWARD_KEY, String.valueOf(Model.DEFAULT_VELOCITY_FEED_FORWARD)).trim();
+        final String accelerationFeedForward = properties.getProperty(SwingMain.ACCELERATION_FEED_FORWARD_KEY, String.valueOf(Model.DEFAULT_ACCELERATION_FEED_FORWARD)).trim();
+        try
+        {
+            model.setConditioning(Integer.parseInt(deadZone), 
+                                  Integer.parseInt(frictionOffset), 
+                                  Double.parseDouble(velocityFeedForward), 
+                                  Double.parseDouble(accelerationFeedForward));
+        }
+        catch (IllegalArgumentException exception)
+        {
+            System.err.println("Can't configure the conditioning '" + deadZone + "', '" + frictionOffset + "', '" 
+                               + velocityFeedForward + "', '" + accelerationFeedForward + "'! " + exception);
+        }
+        // Optional: Streckenmodell des Beobachters (am realen Antrieb bestimmt)...
+        final String observerGain = properties.getProperty(SwingMain.OBSERVER_GAIN_KEY, String.valueOf(StateObserver.DEFAULT_GAIN)).trim();
+        final String observerTimeConstant = properties.getProperty(SwingMain.OBSERVER_TIME_CONSTANT_KEY, String.valueOf(StateObserver.DEFAULT_TIME_CONSTANT)).trim();
+        final String observerVelocityNoise = properties.getProperty(SwingMain.OBSERVER_VELOCITY_NOISE_KEY, String.valueOf(StateObserver.DEFAULT_VELOCITY_NOISE)).trim();
+        final String observerLoadNoise = properties.getProperty(SwingMain.OBSERVER_LOAD_NOISE_KEY, String.valueOf(StateObserver.DEFAULT_LOAD_NOISE)).trim();
+        try
+        {
+            model.setObserverModel(Double.parseDouble(observerGain), 
+                                   Double.parseDouble(observerTimeConstant), 
+                                   Double.parseDouble(observerVelocityNoise), 
+                                   Double.parseDouble(observerLoadNoise));
+        }
+        catch (IllegalArgumentException exception)
+        {
+            System.err.println("Can't configure the observer '" + observerGain + "', '" + observerTimeConstant + "', '" 
+                               + observerVelocityNoise + "', '" + observerLoadNoise + "'! " + exception);
+        }
         new Controller(swingWindow, model);
+        final boolean exitAfterStartup = Boolean.getBoolean(SwingMain.EXIT_AFTER_STARTUP_KEY);
         EventQueue.invokeLater(new Runnable() 
         {
             @Override
             public void run()
             {
                 swingWindow.setVisible(true);
+                StartupTimer.mark("sichtbar");
+                if (exitAfterStartup)
+                {
+                    model.shutdown();
+                    System.exit(0);
+                }
             }
         });
     }
@@ -2,6 +2,7 @@ package gui;
 
 import java.awt.BorderLayout;
 import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -13,6 +14,11 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.swing.AbstractAction;
 import javax.swing.Box;
@@ -64,13 +70,71 @@ public class SwingWindow extends JFrame implements View
     private final static Logger logger = LoggerFactory.getLogger(SwingWindow.class);      
 
     /**
-     * textComponentMap - nimmt die Controls zur Darstellung der Daten (hier JTextField) auf...
+     * dataKeys, dataComponents - Anzeige der Werte des Datensatzes (key nach Data.getKeys())
+     * und zugehoeriges Control (hier JTextField), paarweise unter gleichem Index...
      */
-    private final java.util.Map<String, JTextComponent> textComponentMap = new java.util.TreeMap<>();
+    private String[] dataKeys = new String[0];
     
-    private final java.util.Map<String, JComboBox<BigDecimal>> comboBoxMap = new java.util.TreeMap<>();
+    private JTextComponent[] dataComponents = new JTextComponent[0];
     
-    private final java.util.Map<String, JCheckBox> checkBoxMap = new java.util.TreeMap<>();
+    /**
+     * pendingData - neuester, noch nicht angezeigter Datensatz (sonst null)...
+     * <p>
+     * Der Takt legt nur den Datensatz ab, solange die Anzeige aussteht wird kein
+     * weiterer Auftrag in den EDT gestellt. Der EDT zeigt den jeweils neuesten an.
+     * </p>
+     */
+    private final AtomicReference<Data> pendingData = new AtomicReference<>();
+    
+    /**
+     * showData - Anzeige des Datensatzes pendingData im EDT (einmal angelegt)...
+     */
+    private final Runnable showData = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            final Data data = SwingWindow.this.pendingData.getAndSet(null);
+            if (data == null)
+            {
+                return;
+            }
+            final String[] dataKeys = SwingWindow.this.dataKeys;
+            final JTextComponent[] dataComponents = SwingWindow.this.dataComponents;
+            for (int index = 0; index < dataKeys.length; index++)
+            {
+                dataComponents[index].setText(data.getValue(dataKeys[index]));
+            }
+        }
+    };
+    
+    /**
+     * stepFields, stepComponents - Anzeige des Ergebnisses der letzten Bewegung (vgl. StepAnalyser.Result)...
+     */
+    private StepAnalyser.Result.Field[] stepFields = new StepAnalyser.Result.Field[0];
+    
+    private JTextComponent[] stepComponents = new JTextComponent[0];
+    
+    /**
+     * allocationFields, allocationComponents - Anzeige der Allokation je Takt (vgl. AllocationMonitor.Stats)...
+     */
+    private AllocationMonitor.Stats.Field[] allocationFields = new AllocationMonitor.Stats.Field[0];
+    
+    private JTextComponent[] allocationComponents = new JTextComponent[0];
+    
+    /**
+     * textComponentMap - nimmt die Controls zur Eingabe der Sollwerte (hier JFormattedTextField) auf...
+     */
+    private final java.util.Map<Property, JTextComponent> textComponentMap = new EnumMap<>(Property.class);
+    
+    private final java.util.Map<Property, JComboBox<BigDecimal>> comboBoxMap = new EnumMap<>(Property.class);
+    
+    private final java.util.Map<Property, JCheckBox> checkBoxMap = new EnumMap<>(Property.class);
+    
+    /**
+     * antiWindupComboBox - Auswahl der Strategie des Anti-Windup...
+     */
+    private JComboBox<AntiWindup.Strategy> antiWindupComboBox = null;
   
     private static final String TEXT_FIELD = JTextField.class.getCanonicalName();
     
@@ -87,14 +151,35 @@ public class SwingWindow extends JFrame implements View
     {
         {TEXT_FIELD,            Data.COUNTER_KEY,                       "Lfd. Nr." },
         {FORMATTED_TEXT_FIELD,  Model.DATA_DESTINATION_KEY,             "Sollwert Lage" },
+        {FORMATTED_TEXT_FIELD,  Model.DATA_RPM_SET_POINT_KEY,           "Sollwert U/min" },
+        {CHECK_BOX,             Model.DATA_VELOCITY_MODE_KEY,           "Drehzahlregelung" },
         {TEXT_FIELD,            Data.PHI_KEY,                           "Impulse" },
         {TEXT_FIELD,            Data.ROTATION_KEY,                      "Umdrehungen" },
         {TEXT_FIELD,            Data.RPM_KEY,                           "Drehzahl" },
         {TEXT_FIELD,            Data.CYCLE_TIME_KEY,                    "Taktzeit" },
         {TEXT_FIELD,            Data.DRV_SET_POINT_KEY,                 "Sollwert DRV8830" },
+        {TEXT_FIELD,            StepAnalyser.Result.RISE_TIME_KEY,      "Anstiegszeit [s]" },
+        {TEXT_FIELD,            StepAnalyser.Result.OVERSHOOT_KEY,      "Überschwingen [%]" },
+        {TEXT_FIELD,            StepAnalyser.Result.SETTLING_TIME_KEY,  "Einschwingzeit [s]" },
+        {TEXT_FIELD,            StepAnalyser.Result.STEADY_STATE_ERROR_KEY, "Bleibende Abw." },
+        {TEXT_FIELD,            StepAnalyser.Result.IAE_KEY,            "IAE [Impulse*s]" },
+        {TEXT_FIELD,            AllocationMonitor.Stats.BYTES_PER_TICK_KEY,     "Bytes/Takt" },
+        {TEXT_FIELD,            AllocationMonitor.Stats.MAX_BYTES_PER_TICK_KEY, "max. Bytes/Takt" },
+        {TEXT_FIELD,            AllocationMonitor.Stats.OVERRUNS_KEY,   "Taktüberläufe" },
+        {TEXT_FIELD,            AllocationMonitor.Stats.ALARM_KEY,      "Allokation" },
         {COMBO_BOX,             Model.DATA_ENHANCEMENT_KEY,             "P-Reglerverstärkung" },
         {COMBO_BOX,             Model.DATA_INTEGRAL_ENHANCEMENT_KEY,    "I-Reglerverstärkung" },
-        {CHECK_BOX,             Model.DATA_ANTI_WINDUP_KEY,             "Anti-Windup" }
+        {COMBO_BOX,             Model.DATA_ANTI_WINDUP_KEY,             "Anti-Windup" },
+        {CHECK_BOX,             Model.DATA_COMPENSATION_KEY,            "Kompensation" },
+        {CHECK_BOX,             Model.DATA_OUTPUT_STAGE_KEY,            "Vollaussteuerung" },
+        {CHECK_BOX,             Model.DATA_FILTER_KEY,                  "Filter" },
+        {CHECK_BOX,             Model.DATA_GAIN_SCHEDULING_KEY,         "Gain-Scheduling" },
+        {CHECK_BOX,             Model.DATA_OBSERVER_KEY,                "Beobachter" },
+        {CHECK_BOX,             Model.DATA_CASCADE_KEY,                 "Kaskade" },
+        {COMBO_BOX,             Model.DATA_POSITION_GAIN_KEY,           "Kaskade Lage [1/s]" },
+        {COMBO_BOX,             Model.DATA_VELOCITY_GAIN_KEY,           "Kaskade Drehzahl-P" },
+        {COMBO_BOX,             Model.DATA_VELOCITY_INTEGRAL_GAIN_KEY,  "Kaskade Drehzahl-I" },
+        {COMBO_BOX,             Model.DATA_VELOCITY_LIMIT_KEY,          "Kaskade max. U/min" }
     };
     
     
@@ -143,6 +228,16 @@ public class SwingWindow extends JFrame implements View
      * This is the default constructor
      */
     public SwingWindow(Model model)
+    {
+        this(CompletableFuture.completedFuture(model));
+    }
+
+    /**
+     * SwingWindow(Future&lt;Model&gt; modelFuture) - das Model wird parallel 
+     * zum Aufbau der GUI erzeugt (vgl. SwingMain)...
+     * @param modelFuture
+     */
+    public SwingWindow(Future<Model> modelFuture)
     {
         super();
         initialize();
@@ -152,7 +247,14 @@ public class SwingWindow extends JFrame implements View
             public void windowClosing(WindowEvent event)
             {
                 logger.debug("windowClosing(WindowEvent)...");
-                model.shutdown();
+                try
+                {
+                    modelFuture.get().shutdown();
+                }
+                catch (Exception exception)
+                {
+                    logger.error("windowClosing(WindowEvent)", exception);
+                }
                 System.exit(0);
             }
         });
@@ -222,6 +324,8 @@ public class SwingWindow extends JFrame implements View
                     final String controlType = controlParam[0];
                     final String controlId = controlParam[1];
                     final String labelText = controlParam[2];
+                    // Eigenschaft im Model (Eingaben), bei der Anzeige des Datensatzes null...
+                    final Property property = Property.valueOfKey(controlId);
                     {
                         JPanel controlPanel = new JPanel();
                         controlPanel.setLayout(new BoxLayout(controlPanel, javax.swing.BoxLayout.X_AXIS));
@@ -233,7 +337,32 @@ public class SwingWindow extends JFrame implements View
                         {
                             JTextField controlTextField = new JTextField(10);
                             controlTextField.setMaximumSize(new Dimension(100, controlTextField.getMinimumSize().height));
-                            this.textComponentMap.put(controlId, controlTextField);
+                            final StepAnalyser.Result.Field stepField = StepAnalyser.Result.Field.valueOfKey(controlId);
+                            final AllocationMonitor.Stats.Field allocationField = AllocationMonitor.Stats.Field.valueOfKey(controlId);
+                            if (stepField != null)
+                            {
+                                // Anzeige der Sprungantwort...
+                                this.stepFields = Arrays.copyOf(this.stepFields, this.stepFields.length + 1);
+                                this.stepFields[this.stepFields.length - 1] = stepField;
+                                this.stepComponents = Arrays.copyOf(this.stepComponents, this.stepComponents.length + 1);
+                                this.stepComponents[this.stepComponents.length - 1] = controlTextField;
+                            }
+                            else if (allocationField != null)
+                            {
+                                // Anzeige der Allokation je Takt...
+                                this.allocationFields = Arrays.copyOf(this.allocationFields, this.allocationFields.length + 1);
+                                this.allocationFields[this.allocationFields.length - 1] = allocationField;
+                                this.allocationComponents = Arrays.copyOf(this.allocationComponents, this.allocationComponents.length + 1);
+                                this.allocationComponents[this.allocationComponents.length - 1] = controlTextField;
+                            }
+                            else
+                            {
+                                // Anzeige des Datensatzes...
+                                this.dataKeys = Arrays.copyOf(this.dataKeys, this.dataKeys.length + 1);
+                                this.dataKeys[this.dataKeys.length - 1] = controlId;
+                                this.dataComponents = Arrays.copyOf(this.dataComponents, this.dataComponents.length + 1);
+                                this.dataComponents[this.dataComponents.length - 1] = controlTextField;
+                            }
                             controlTextField.setEditable(false);
                             controlPanel.add(controlTextField);
                             controlPanel.add(Box.createRigidArea(new Dimension(4, 0)));
@@ -253,13 +382,14 @@ public class SwingWindow extends JFrame implements View
                             controlTextField.setText(value);
                             controlTextField.setHorizontalAlignment(JTextField.RIGHT);
                             controlTextField.setMaximumSize(new Dimension(100, controlTextField.getMinimumSize().height));
-                            this.textComponentMap.put(controlId, controlTextField);
+                            this.textComponentMap.put(property, controlTextField);
                             controlTextField.setEditable(true);
                             controlPanel.add(controlTextField);
                             controlPanel.add(Box.createRigidArea(new Dimension(4, 0)));
                             centerPanel.add(controlPanel);
                             
                             controlTextField.setName(controlId);
+                            controlTextField.putClientProperty(Property.class, property);
                             
                             controlTextField.addPropertyChangeListener(new PropertyChangeListener() 
                             {
@@ -291,8 +421,9 @@ public class SwingWindow extends JFrame implements View
                             // => also die Combobox mit der Regelverstaerkung fuer den P-Anteils...
                             JComboBox<BigDecimal> enhancementsComboBox = new JComboBox<>(Model.ENHANCEMENTS);
                             enhancementsComboBox.setName(controlId);
+                            enhancementsComboBox.putClientProperty(Property.class, property);
                             enhancementsComboBox.setMaximumSize(new Dimension(100, enhancementsComboBox.getMinimumSize().height));
-                            this.comboBoxMap.put(controlId, enhancementsComboBox); 
+                            this.comboBoxMap.put(property, enhancementsComboBox); 
                             controlPanel.add(enhancementsComboBox);
                             controlPanel.add(Box.createRigidArea(new Dimension(4, 0)));
                             centerPanel.add(controlPanel);
@@ -321,8 +452,9 @@ public class SwingWindow extends JFrame implements View
                             // => also die Combobox mit der Regelverstaerkung fuer den I-Anteils...
                             JComboBox<BigDecimal> integralEnhancementsComboBox = new JComboBox<>(Model.INTEGRAL_ENHANCEMENTS);
                             integralEnhancementsComboBox.setName(controlId);
+                            integralEnhancementsComboBox.putClientProperty(Property.class, property);
                             integralEnhancementsComboBox.setMaximumSize(new Dimension(100, integralEnhancementsComboBox.getMinimumSize().height));
-                            this.comboBoxMap.put(controlId, integralEnhancementsComboBox); 
+                            this.comboBoxMap.put(property, integralEnhancementsComboBox); 
                             controlPanel.add(integralEnhancementsComboBox);
                             controlPanel.add(Box.createRigidArea(new Dimension(4, 0)));
                             centerPanel.add(controlPanel);
@@ -344,18 +476,74 @@ public class SwingWindow extends JFrame implements View
                                 }
                             });
                         }
-                        else if (CHECK_BOX.equals(controlType) && Model.DATA_ANTI_WINDUP_KEY.equals(controlId))
+                        else if (COMBO_BOX.equals(controlType) && Model.DATA_ANTI_WINDUP_KEY.equals(controlId))
+                        {
+                            // Die Combobox mit der Strategie des Anti-Windup...
+                            JComboBox<AntiWindup.Strategy> antiWindupComboBox = new JComboBox<>(Model.ANTI_WINDUP_STRATEGIES);
+                            antiWindupComboBox.setName(controlId);
+                            antiWindupComboBox.putClientProperty(Property.class, property);
+                            antiWindupComboBox.setMaximumSize(new Dimension(100, antiWindupComboBox.getMinimumSize().height));
+                            this.antiWindupComboBox = antiWindupComboBox; 
+                            controlPanel.add(antiWindupComboBox);
+                            controlPanel.add(Box.createRigidArea(new Dimension(4, 0)));
+                            centerPanel.add(controlPanel);
+                            
+                            antiWindupComboBox.setSelectedIndex(Model.SELECTED_ANTI_WINDUP_STRATEGIES_INDEX);
+                            
+                            antiWindupComboBox.addActionListener(new ActionListener() 
+                            {
+
+                                @Override
+                                public void actionPerformed(ActionEvent event)
+                                {
+                                    final JComboBox<?> source = (JComboBox<?>)event.getSource();   
+                                    logger.info(source.getName() + ": " + event.getActionCommand());   
+                                    
+                                    actionCommandDelegate(event);
+                                }
+                            });
+                        }
+                        else if (COMBO_BOX.equals(controlType) && comboBoxValues(property) != null)
                         {
-                            // 1.)
-                            // 2.)
-                            JCheckBox antiWindupCheckBox = new JCheckBox();
-                            antiWindupCheckBox.setName(controlId);
-                            this.checkBoxMap.put(controlId, antiWindupCheckBox);
-                            controlPanel.add(antiWindupCheckBox);
+                            // Weitere Comboboxen (Kaskade), Werte und Voreinstellung aus dem Model...
+                            JComboBox<BigDecimal> comboBox = new JComboBox<>(comboBoxValues(property));
+                            comboBox.setName(controlId);
+                            comboBox.putClientProperty(Property.class, property);
+                            comboBox.setMaximumSize(new Dimension(100, comboBox.getMinimumSize().height));
+                            this.comboBoxMap.put(property, comboBox); 
+                            controlPanel.add(comboBox);
                             controlPanel.add(Box.createRigidArea(new Dimension(4, 0)));
                             centerPanel.add(controlPanel);
                             
-                            antiWindupCheckBox.addItemListener(new ItemListener() 
+                            comboBox.setSelectedIndex(comboBoxSelectedIndex(property));
+                            
+                            comboBox.addActionListener(new ActionListener() 
+                            {
+
+                                @Override
+                                @SuppressWarnings("unchecked")
+                                public void actionPerformed(ActionEvent event)
+                                {
+                                    JComboBox<BigDecimal> source = (JComboBox<BigDecimal>)event.getSource();   
+                                    logger.info(source.getName() + ": " + event.getActionCommand());   
+                                    
+                                    actionCommandDelegate(event);
+                                }
+                            });
+                        }
+                        else if (CHECK_BOX.equals(controlType))
+                        {
+                            // Es handelt sich um eine JCheckBox (Anti-Windup, Kompensation, Gain-Scheduling)...
+                            // Der Name der CheckBox ist der Key im Model.
+                            JCheckBox checkBox = new JCheckBox();
+                            checkBox.setName(controlId);
+                            checkBox.putClientProperty(Property.class, property);
+                            this.checkBoxMap.put(property, checkBox);
+                            controlPanel.add(checkBox);
+                            controlPanel.add(Box.createRigidArea(new Dimension(4, 0)));
+                            centerPanel.add(controlPanel);
+                            
+                            checkBox.addItemListener(new ItemListener() 
                             {
 
                                 @Override
@@ -427,85 +615,206 @@ public class SwingWindow extends JFrame implements View
     }
 
     /**
-     * propertyChange(PropertyChangeEvent event) - wird vom Model her beaufragt
-     * und muss die View evtl. nachziehen...  
+     * addPropertyListeners(Model model) - die View wird vom Model her je Eigenschaft 
+     * beauftragt und muss evtl. nachgezogen werden...  
      */
     @Override
-    public void propertyChange(PropertyChangeEvent event)
+    public void addPropertyListeners(Model model)
     {
-        final String propertyName = event.getPropertyName();
-        final Object newValue = event.getNewValue();
-
-        if (Model.DATA_KEY.equals(propertyName))
+        // Datensatz des Taktes...
+        model.addPropertyListener(Property.DATA, Data.class, new PropertyListener<Data>()
+        {
+            @Override
+            public void propertyChanged(Property property, Data oldValue, Data newValue)
+            {
+                // Veroeffentlicht im Takt (tickLock gehalten), Anzeige des neuesten Datensatzes im EDT...
+                if (SwingWindow.this.pendingData.getAndSet(newValue) == null)
+                {
+                    invokeOnEventQueue(SwingWindow.this.showData);
+                }
+            }
+        });
+        
+        // Ergebnis der letzten Bewegung...
+        model.addPropertyListener(Property.STEP_RESPONSE, StepAnalyser.Result.class, new PropertyListener<StepAnalyser.Result>()
         {
-            // propertyChange vom Model her mit DATA_KEY...
-            if (newValue instanceof Data)
+            @Override
+            public void propertyChanged(Property property, StepAnalyser.Result oldValue, final StepAnalyser.Result newValue)
             {
-                final Data newData = (Data) newValue;
-                for(String key: newData.getKeys())
+                // Veroeffentlicht im Takt, Anzeige im EDT...
+                invokeOnEventQueue(new Runnable()
                 {
-                    if (this.textComponentMap.containsKey(key))
+                    @Override
+                    public void run()
                     {
-                        final JTextComponent textComponent = this.textComponentMap.get(key);
-                        textComponent.setText(newData.getValue(key));
-                        continue;
+                        final StepAnalyser.Result.Field[] stepFields = SwingWindow.this.stepFields;
+                        final JTextComponent[] stepComponents = SwingWindow.this.stepComponents;
+                        for (int index = 0; index < stepFields.length; index++)
+                        {
+                            stepComponents[index].setText(newValue.getValue(stepFields[index]));
+                        }
                     }
-                }
+                });
             }
-        }
+        });
         
-        if (Model.DATA_DESTINATION_KEY.equals(propertyName))
+        // Allokation je Takt, Taktueberlaeufe...
+        model.addPropertyListener(Property.ALLOCATION, AllocationMonitor.Stats.class, new PropertyListener<AllocationMonitor.Stats>()
         {
-            // propertyChange vom Model her mit DATA_DESTINATION_KEY...
-            if (this.textComponentMap.containsKey(propertyName))
+            @Override
+            public void propertyChanged(Property property, AllocationMonitor.Stats oldValue, final AllocationMonitor.Stats newValue)
             {
-                final JTextComponent textComponent = this.textComponentMap.get(propertyName);
-                textComponent.setText((String)newValue);
-                logger.debug("Sollwert Lage: " + newValue);
+                // Veroeffentlicht im Takt, Anzeige im EDT...
+                invokeOnEventQueue(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        final AllocationMonitor.Stats.Field[] allocationFields = SwingWindow.this.allocationFields;
+                        final JTextComponent[] allocationComponents = SwingWindow.this.allocationComponents;
+                        for (int index = 0; index < allocationFields.length; index++)
+                        {
+                            allocationComponents[index].setText(newValue.getValue(allocationFields[index]));
+                        }
+                    }
+                });
             }
-        }
+        });
         
-        if (Model.DATA_ENHANCEMENT_KEY.equals(propertyName))
+        // Sollwerte Lage und Drehzahl (Text), DESTINATION auch aus dem Takt (Geschwindigkeitsmodus)...
+        final PropertyListener<String> textListener = new PropertyListener<String>()
         {
-            // propertyChange vom Model her mit DATA_ENHANCEMENT_KEY...
-            final BigDecimal newData = (BigDecimal) newValue;
-            
-            if (this.comboBoxMap.containsKey(propertyName))
+            @Override
+            public void propertyChanged(final Property property, String oldValue, final String newValue)
             {
-                JComboBox<BigDecimal> enhancementComboBox = this.comboBoxMap.get(propertyName);
-                enhancementComboBox.setSelectedItem(newData);
-                logger.debug("P-Reglerverstärkung: " + newValue);
+                invokeOnEventQueue(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        SwingWindow.this.textComponentMap.get(property).setText(newValue);
+                        logger.debug(property + ": " + newValue);
+                    }
+                });
             }
+        };
+        for (Property property: this.textComponentMap.keySet())
+        {
+            model.addPropertyListener(property, String.class, textListener);
         }
         
-        if (Model.DATA_INTEGRAL_ENHANCEMENT_KEY.equals(propertyName))
+        // Comboboxen mit BigDecimal (Verstaerkungen, Kaskade)...
+        final PropertyListener<BigDecimal> comboBoxListener = new PropertyListener<BigDecimal>()
         {
-            // propertyChange vom Model her mit DATA_ENHANCEMENT_KEY...
-            final BigDecimal newData = (BigDecimal) newValue;
-            
-            if (this.comboBoxMap.containsKey(propertyName))
+            @Override
+            public void propertyChanged(Property property, BigDecimal oldValue, BigDecimal newValue)
             {
-                JComboBox<BigDecimal> integralEnhancementComboBox = this.comboBoxMap.get(propertyName);
-                integralEnhancementComboBox.setSelectedItem(newData);
-                logger.debug("I-Reglerverstärkung: " + newValue);
+                SwingWindow.this.comboBoxMap.get(property).setSelectedItem(newValue);
+                logger.debug(property + ": " + newValue);
             }
+        };
+        for (Property property: this.comboBoxMap.keySet())
+        {
+            model.addPropertyListener(property, BigDecimal.class, comboBoxListener);
         }
-
-        if (Model.DATA_ANTI_WINDUP_KEY.equals(propertyName))
+        
+        // Strategie des Anti-Windup...
+        if (this.antiWindupComboBox != null)
         {
-            final boolean isSelected = Boolean.TRUE.equals(newValue);
-            
-            if (this.checkBoxMap.containsKey(propertyName))
+            model.addPropertyListener(Property.ANTI_WINDUP, AntiWindup.Strategy.class, new PropertyListener<AntiWindup.Strategy>()
             {
-                JCheckBox checkBox = this.checkBoxMap.get(propertyName);
-                checkBox.setSelected(isSelected);
-                logger.debug(propertyName + ": " + (isSelected? "selected" : "deselected"));
-            }
-            
+                @Override
+                public void propertyChanged(Property property, AntiWindup.Strategy oldValue, AntiWindup.Strategy newValue)
+                {
+                    SwingWindow.this.antiWindupComboBox.setSelectedItem(newValue);
+                    logger.debug("Anti-Windup: " + newValue);
+                }
+            });
         }
         
-        // Kontrollausgabe im Debuglevel...
-        logger.debug(event.toString());
+        // Checkboxen (Schalter)...
+        final PropertyListener<Boolean> checkBoxListener = new PropertyListener<Boolean>()
+        {
+            @Override
+            public void propertyChanged(Property property, Boolean oldValue, Boolean newValue)
+            {
+                final boolean isSelected = newValue.booleanValue();
+                SwingWindow.this.checkBoxMap.get(property).setSelected(isSelected);
+                logger.debug(property + ": " + (isSelected? "selected" : "deselected"));
+            }
+        };
+        for (Property property: this.checkBoxMap.keySet())
+        {
+            model.addPropertyListener(property, Boolean.class, checkBoxListener);
+        }
+    }
+
+    /**
+     * invokeOnEventQueue(Runnable runnable) - Aenderung der Oberflaeche im EDT...
+     * <p>
+     * Im EDT (Eingabe an der Oberflaeche) wird sofort ausgefuehrt, sonst
+     * (Veroeffentlichung im Takt) mit EventQueue.invokeLater().
+     * </p>
+     * @param runnable
+     */
+    private static void invokeOnEventQueue(Runnable runnable)
+    {
+        if (EventQueue.isDispatchThread())
+        {
+            runnable.run();
+        }
+        else
+        {
+            EventQueue.invokeLater(runnable);
+        }
+    }
+
+    /**
+     * comboBoxValues(Property property) - Auswahlwerte der weiteren Comboboxen (Kaskade)...
+     * @param property
+     * @return Auswahlwerte oder null (keine weitere Combobox)
+     */
+    private static BigDecimal[] comboBoxValues(Property property)
+    {
+        if (property == null)
+        {
+            return null;
+        }
+        switch (property)
+        {
+            case POSITION_GAIN:
+                return Model.POSITION_GAINS;
+            case VELOCITY_GAIN:
+                return Model.VELOCITY_GAINS;
+            case VELOCITY_INTEGRAL_GAIN:
+                return Model.VELOCITY_INTEGRAL_GAINS;
+            case VELOCITY_LIMIT:
+                return Model.VELOCITY_LIMITS;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * comboBoxSelectedIndex(Property property) - Voreinstellung der weiteren Comboboxen (Kaskade)...
+     * @param property
+     * @return Index der Voreinstellung
+     */
+    private static int comboBoxSelectedIndex(Property property)
+    {
+        switch (property)
+        {
+            case POSITION_GAIN:
+                return Model.SELECTED_POSITION_GAINS_INDEX;
+            case VELOCITY_GAIN:
+                return Model.SELECTED_VELOCITY_GAINS_INDEX;
+            case VELOCITY_INTEGRAL_GAIN:
+                return Model.SELECTED_VELOCITY_INTEGRAL_GAINS_INDEX;
+            case VELOCITY_LIMIT:
+                return Model.SELECTED_VELOCITY_LIMITS_INDEX;
+            default:
+                return 0;
+        }
     }
 
     /**
@@ -534,10 +843,10 @@ public class SwingWindow extends JFrame implements View
             // d.i. Last valid value in JFormattedTextField, dort private Object value...
             if ("value".equals(event.getPropertyName()))
             {
-                // Als command wird Data.DESTINATION_KEY mitgegeben...
+                // Als command wird der Name (Key im Model, z.B. DATA_DESTINATION_KEY) mitgegeben...
                 this.actionListener.actionPerformed(new ActionEvent(source,
                                                                     ActionEvent.ACTION_PERFORMED,
-                                                                    Model.DATA_DESTINATION_KEY));
+                                                                    source.getName()));
             }
         }
     }
@@ -0,0 +1,359 @@
+/**
+ *
+ */
+package gui;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Enumeration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * TelemetryPublisher - Versand der Daten jedes Taktes als UDP-Datagramm an eine
+ * Multicast-Gruppe (oder eine Unicast-Adresse, z.B. 127.0.0.1)...
+ * </p>
+ * <p>
+ * Beliebig viele Beobachter (vgl. TelemetryPublisher.Receiver) koennen die
+ * Gruppe abonnieren, ohne dass im Takt zusaetzlicher Aufwand entsteht. Im Takt
+ * wird nur in einen vorab angelegten ByteBuffer kodiert und ueber einen nicht
+ * blockierenden DatagramChannel gesendet. Kann nicht gesendet werden (Puffer
+ * des Betriebssystems voll), wird das Datagramm verworfen und gezaehlt.
+ * </p>
+ * <p>
+ * Jedes Datagramm traegt eine fortlaufende Nummer (auch bei verworfenen
+ * Datagrammen), Luecken zeigen beim Empfaenger Verluste an.
+ * </p>
+ * <pre>
+ *   MAGIC (int) | sequence (long) | counter (long) | time (long, ns) | phi (long) | phiSetPoint (long)
+ *   | cycleTime (long, ns) | speed (double, Impulse/s) | drvSetPoint (int) | status (byte)
+ * </pre>
+ */
+public class TelemetryPublisher implements Closeable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(TelemetryPublisher.class);
+
+    /**
+     * MAGIC - Kennung eines Datagramms "TLMP"...
+     */
+    public final static int MAGIC = 0x544C4D50;
+
+    /**
+     * DATAGRAM_SIZE - Laenge eines Datagramms in Bytes...
+     */
+    public final static int DATAGRAM_SIZE = 4 + 7 * 8 + 4 + 1;
+
+    /**
+     * DEFAULT_GROUP - Voreinstellung Multicast-Gruppe (organisationslokal)...
+     */
+    public final static String DEFAULT_GROUP = "239.255.3.3";
+
+    /**
+     * DEFAULT_PORT - Voreinstellung Port...
+     */
+    public final static int DEFAULT_PORT = 4803;
+
+    /**
+     * channel - nicht blockierender Kanal fuer den Versand...
+     */
+    private final DatagramChannel channel;
+
+    /**
+     * target - Ziel (Multicast-Gruppe oder Unicast-Adresse)...
+     */
+    private final InetSocketAddress target;
+
+    /**
+     * buffer - vorab angelegter Puffer fuer ein Datagramm...
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(DATAGRAM_SIZE);
+
+    /**
+     * sequence - fortlaufende Nummer des naechsten Datagramms...
+     */
+    private long sequence = 0L;
+
+    /**
+     * dropped - Anzahl nicht gesendeter Datagramme...
+     */
+    private volatile long dropped = 0L;
+
+    /**
+     * TelemetryPublisher(InetSocketAddress target) - Oeffnen des Kanals...
+     * @param target - Multicast-Gruppe (TTL 1, nur lokales Netz) oder Unicast-Adresse
+     * @throws IOException
+     */
+    public TelemetryPublisher(InetSocketAddress target) throws IOException
+    {
+        this.target = target;
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        try
+        {
+            if (target.getAddress().isMulticastAddress())
+            {
+                this.channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, Integer.valueOf(1));
+                this.channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, Boolean.TRUE);
+            }
+            this.channel.configureBlocking(false);
+        }
+        catch (IOException exception)
+        {
+            this.channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * parse(String address) - Ziel aus "host:port" bzw. "host" (Port DEFAULT_PORT)...
+     * @param address
+     * @return
+     */
+    public static InetSocketAddress parse(String address)
+    {
+        final int colon = address.lastIndexOf(':');
+        if (colon < 0)
+        {
+            return new InetSocketAddress(address.trim(), DEFAULT_PORT);
+        }
+        return new InetSocketAddress(address.substring(0, colon).trim(), Integer.parseInt(address.substring(colon + 1).trim()));
+    }
+
+    /**
+     * publish(...) - Kodierung und Versand der Daten eines Taktes (nur aus dem Takt beauftragen)...
+     * @param counter - Taktzaehler
+     * @param time - Zeitpunkt des Taktes (ns, Zeitbasis des Model)
+     * @param phi - Lage in Impulse
+     * @param phiSetPoint - Lage-Sollwert in Impulse
+     * @param cycleTime - Taktzeit in ns
+     * @param speed - Geschwindigkeit in Impulse/s
+     * @param drvSetPoint - Stellgroesse DRV8830
+     * @param status - Status des Model
+     */
+    public void publish(long counter, long time, long phi, long phiSetPoint, long cycleTime, double speed, int drvSetPoint, Status status)
+    {
+        final ByteBuffer buffer = this.buffer;
+        buffer.clear();
+        buffer.putInt(MAGIC)
+              .putLong(this.sequence++)
+              .putLong(counter)
+              .putLong(time)
+              .putLong(phi)
+              .putLong(phiSetPoint)
+              .putLong(cycleTime)
+              .putDouble(speed)
+              .putInt(drvSetPoint)
+              .put((byte) status.ordinal())
+              .flip();
+        try
+        {
+            if (this.channel.send(buffer, this.target) == 0)
+            {
+                this.dropped++;
+            }
+        }
+        catch (IOException exception)
+        {
+            // z.B. Netz (noch) nicht verfuegbar, der Takt laeuft weiter...
+            if (this.dropped++ == 0L)
+            {
+                logger.error("publish()", exception);
+            }
+        }
+    }
+
+    /**
+     * @return Anzahl nicht gesendeter Datagramme
+     */
+    public final long getDropped()
+    {
+        return this.dropped;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.channel.close();
+    }
+
+    /**
+     * Receiver - Empfang der Datagramme eines TelemetryPublisher mit Erkennung von Verlusten...
+     * <p>
+     * Aufruf als Beobachter: <code>java gui.TelemetryPublisher [host:port]</code>
+     * </p>
+     */
+    public static class Receiver implements Closeable
+    {
+        /**
+         * Index der Werte in receive()...
+         */
+        public final static int SEQUENCE = 0;
+        public final static int COUNTER = 1;
+        public final static int TIME = 2;
+        public final static int PHI = 3;
+        public final static int PHI_SET_POINT = 4;
+        public final static int CYCLE_TIME = 5;
+        public final static int DRV_SET_POINT = 6;
+        public final static int STATUS = 7;
+        public final static int SIZE = 8;
+
+        private final DatagramChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(DATAGRAM_SIZE);
+        private long expected = -1L;
+        private long lost = 0L;
+        private double speed = 0.0;
+
+        /**
+         * Receiver(InetSocketAddress address) - Bindung an den Port, bei Multicast Beitritt zur Gruppe...
+         * @param address
+         * @throws IOException
+         */
+        public Receiver(InetSocketAddress address) throws IOException
+        {
+            this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+            try
+            {
+                this.channel.setOption(StandardSocketOptions.SO_REUSEADDR, Boolean.TRUE);
+                final InetAddress group = address.getAddress();
+                if (group.isMulticastAddress())
+                {
+                    this.channel.bind(new InetSocketAddress(address.getPort()));
+                    this.channel.join(group, getMulticastInterface());
+                }
+                else
+                {
+                    this.channel.bind(address);
+                }
+            }
+            catch (IOException exception)
+            {
+                this.channel.close();
+                throw exception;
+            }
+        }
+
+        /**
+         * receive(long[] values) - Warten auf das naechste Datagramm...
+         * @param values - Ergebnis, Index SEQUENCE ... STATUS
+         * @throws IOException
+         */
+        public void receive(long[] values) throws IOException
+        {
+            while (true)
+            {
+                this.buffer.clear();
+                this.channel.receive(this.buffer);
+                this.buffer.flip();
+                if (this.buffer.remaining() != DATAGRAM_SIZE || this.buffer.getInt() != MAGIC)
+                {
+                    continue;
+                }
+                values[SEQUENCE] = this.buffer.getLong();
+                values[COUNTER] = this.buffer.getLong();
+                values[TIME] = this.buffer.getLong();
+                values[PHI] = this.buffer.getLong();
+                values[PHI_SET_POINT] = this.buffer.getLong();
+                values[CYCLE_TIME] = this.buffer.getLong();
+                this.speed = this.buffer.getDouble();
+                values[DRV_SET_POINT] = this.buffer.getInt();
+                values[STATUS] = this.buffer.get();
+                if (this.expected >= 0L && values[SEQUENCE] > this.expected)
+                {
+                    this.lost += values[SEQUENCE] - this.expected;
+                }
+                this.expected = values[SEQUENCE] + 1L;
+                return;
+            }
+        }
+
+        /**
+         * @return Geschwindigkeit (Impulse/s) des zuletzt empfangenen Datagramms
+         */
+        public final double getSpeed()
+        {
+            return this.speed;
+        }
+
+        /**
+         * @return Anzahl verlorener Datagramme (Luecken der Nummerierung)
+         */
+        public final long getLost()
+        {
+            return this.lost;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            this.channel.close();
+        }
+
+        /**
+         * getMulticastInterface() - erste aktive Schnittstelle mit Multicast...
+         */
+        private static NetworkInterface getMulticastInterface() throws IOException
+        {
+            final Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+            NetworkInterface loopback = null;
+            while (interfaces.hasMoreElements())
+            {
+                final NetworkInterface networkInterface = interfaces.nextElement();
+                if (!networkInterface.isUp())
+                {
+                    continue;
+                }
+                if (networkInterface.isLoopback())
+                {
+                    loopback = networkInterface;
+                }
+                else if (networkInterface.supportsMulticast())
+                {
+                    return networkInterface;
+                }
+            }
+            if (loopback == null)
+            {
+                throw new IOException("no network interface for multicast");
+            }
+            return loopback;
+        }
+    }
+
+    /**
+     * main() - einfacher Beobachter: Ausgabe jedes 50. Taktes und der Verluste...
+     * @param args - [host:port]
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException
+    {
+        final InetSocketAddress address = parse((args.length > 0)? args[0] : DEFAULT_GROUP + ":" + DEFAULT_PORT);
+        try (Receiver receiver = new Receiver(address))
+        {
+            final long[] values = new long[Receiver.SIZE];
+            while (true)
+            {
+                receiver.receive(values);
+                if (values[Receiver.SEQUENCE] % 50L == 0L)
+                {
+                    System.out.println("#" + values[Receiver.SEQUENCE]
+                                       + " counter=" + values[Receiver.COUNTER]
+                                       + " phi=" + values[Receiver.PHI] + "/" + values[Receiver.PHI_SET_POINT]
+                                       + " drvSetPoint=" + values[Receiver.DRV_SET_POINT]
+                                       + " verloren=" + receiver.getLost());
+                }
+            }
+        }
+    }
+}
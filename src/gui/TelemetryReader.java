@@ -0,0 +1,417 @@
+/**
+ *
+ */
+package gui;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * TelemetryReader - Lesen einer Aufzeichnung des TelemetryRecorder...
+ * </p>
+ * <p>
+ * Die Datei wird in den Speicher abgebildet (memory mapped), es wird immer nur
+ * ein Block dekodiert. Der Speicherbedarf ist unabhaengig von der Laenge der
+ * Aufzeichnung, gelesen werden nur die Seiten der benoetigten Bloecke.
+ * Jeder Block wird gegen seine CRC32 geprueft.
+ * </p>
+ * <p>
+ * Ueber den Index (ein Eintrag je Block) wird mit seekTick() bzw. seekTime()
+ * binaer gesucht (O(log n)) und ab dort mit next() fortlaufend gelesen. Fehlt
+ * der Index (Abbruch beim Schreiben), wird er beim Oeffnen aus den Bloecken
+ * aufgebaut; ein unvollstaendiger letzter Block wird dabei ignoriert.
+ * </p>
+ * <pre>
+ *   try (TelemetryReader reader = new TelemetryReader(file))
+ *   {
+ *       final long[] record = new long[TelemetryRecorder.COLUMNS];
+ *       reader.seekTick(reader.getSegmentCount() - 1, 1000L);
+ *       while (reader.next(record) &amp;&amp; record[TelemetryRecorder.COLUMN_COUNTER] &lt;= 1100L)
+ *       {
+ *           ... record[TelemetryRecorder.COLUMN_PHI] ...
+ *       }
+ *   }
+ * </pre>
+ * <p>
+ * Die Abbildung ist auf Dateien bis 2 GB beschraenkt (ein MappedByteBuffer).
+ * </p>
+ */
+public class TelemetryReader implements Closeable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(TelemetryReader.class);
+
+    /**
+     * channel - Aufzeichnungsdatei...
+     */
+    private final FileChannel channel;
+
+    /**
+     * buffer - Abbildung der Datei bis zum Ende der Bloecke...
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * startMillis - Startzeit der Aufzeichnung (ms seit 1970)...
+     */
+    private final long startMillis;
+
+    /**
+     * startNanos - Startzeit der Aufzeichnung (ns, Zeitbasis der Spalte COLUMN_TIME)...
+     */
+    private final long startNanos;
+
+    /**
+     * index - ein Eintrag je Block...
+     */
+    private final TelemetryRecorder.Index index;
+
+    /**
+     * crc - Pruefsumme...
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * columns - dekodierter aktueller Block...
+     */
+    private final long[][] columns = new long[TelemetryRecorder.COLUMNS][TelemetryRecorder.BLOCK_SIZE];
+
+    /**
+     * block - naechster zu dekodierender Block...
+     */
+    private int block = 0;
+
+    /**
+     * count - Anzahl der Takte im aktuellen Block...
+     */
+    private int count = 0;
+
+    /**
+     * position - naechster Takt im aktuellen Block...
+     */
+    private int position = 0;
+
+    /**
+     * TelemetryReader(Path file) - Oeffnen der Aufzeichnung, Pruefung des Dateikopfes, Einlesen des Index...
+     * @param file
+     * @throws IOException
+     */
+    public TelemetryReader(Path file) throws IOException
+    {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try
+        {
+            final long size = this.channel.size();
+            if (size > Integer.MAX_VALUE)
+            {
+                throw new IOException("telemetry file too large: " + file);
+            }
+            if (size < TelemetryRecorder.HEADER_SIZE)
+            {
+                throw new IOException("no telemetry file: " + file);
+            }
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+            if (this.buffer.getInt(0) != TelemetryRecorder.MAGIC)
+            {
+                throw new IOException("no telemetry file: " + file);
+            }
+            final byte version = this.buffer.get(4);
+            if (version != TelemetryRecorder.VERSION)
+            {
+                throw new IOException("unsupported version: " + version);
+            }
+            final byte columns = this.buffer.get(5);
+            if (columns != TelemetryRecorder.COLUMNS)
+            {
+                throw new IOException("unsupported column count: " + columns);
+            }
+            this.startMillis = this.buffer.getLong(6);
+            this.startNanos = this.buffer.getLong(14);
+            final TelemetryRecorder.Index index = readIndex((int) size);
+            this.index = (index != null)? index : scanIndex((int) size);
+        }
+        catch (IOException exception)
+        {
+            this.channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * @return the startMillis
+     */
+    public final long getStartMillis()
+    {
+        return this.startMillis;
+    }
+
+    /**
+     * @return the startNanos
+     */
+    public final long getStartNanos()
+    {
+        return this.startNanos;
+    }
+
+    /**
+     * toMillis(long time) - Uhrzeit (ms seit 1970) zum Wert der Spalte COLUMN_TIME...
+     * @param time
+     * @return
+     */
+    public final long toMillis(long time)
+    {
+        return this.startMillis + (time - this.startNanos) / 1000000L;
+    }
+
+    /**
+     * toTime(long millis) - Wert der Spalte COLUMN_TIME zur Uhrzeit (ms seit 1970)...
+     * @param millis
+     * @return
+     */
+    public final long toTime(long millis)
+    {
+        return this.startNanos + (millis - this.startMillis) * 1000000L;
+    }
+
+    /**
+     * @return Anzahl der Bloecke
+     */
+    public final int getBlockCount()
+    {
+        return this.index.size;
+    }
+
+    /**
+     * @return Anzahl der Segmente (Abschnitte mit steigendem counter, vgl. TelemetryRecorder)
+     */
+    public final int getSegmentCount()
+    {
+        return this.index.segmentCount();
+    }
+
+    /**
+     * seekTick(int segment, long counter) - Positionierung auf den ersten Takt
+     * des Segmentes mit Taktzaehler &gt;= counter...
+     * @param segment - 0 ... getSegmentCount()-1
+     * @param counter
+     * @return false, wenn es keinen solchen Takt gibt (next() liefert dann false)
+     * @throws IOException bei fehlerhafter Pruefsumme
+     */
+    public boolean seekTick(int segment, long counter) throws IOException
+    {
+        final int block = this.index.findTick(segment, counter);
+        if (!seekBlock(block))
+        {
+            return false;
+        }
+        while (this.position < this.count && this.columns[TelemetryRecorder.COLUMN_COUNTER][this.position] < counter)
+        {
+            this.position++;
+        }
+        return true;
+    }
+
+    /**
+     * seekTime(long time) - Positionierung auf den ersten Takt mit Zeit &gt;= time...
+     * @param time - Zeitbasis der Spalte COLUMN_TIME (ns), vgl. toTime()
+     * @return false, wenn es keinen solchen Takt gibt (next() liefert dann false)
+     * @throws IOException bei fehlerhafter Pruefsumme
+     */
+    public boolean seekTime(long time) throws IOException
+    {
+        final int block = this.index.findTime(time);
+        if (!seekBlock(block))
+        {
+            return false;
+        }
+        while (this.position < this.count && this.columns[TelemetryRecorder.COLUMN_TIME][this.position] < time)
+        {
+            this.position++;
+        }
+        return true;
+    }
+
+    /**
+     * next(long[] record) - naechster Takt...
+     * @param record - Ergebnis, Index TelemetryRecorder.COLUMN_...
+     * @return false am Ende der Aufzeichnung
+     * @throws IOException bei fehlerhafter Pruefsumme
+     */
+    public boolean next(long[] record) throws IOException
+    {
+        while (this.position >= this.count)
+        {
+            if (this.block >= this.index.size)
+            {
+                return false;
+            }
+            decodeBlock(this.block++);
+        }
+        for (int column = 0; column < TelemetryRecorder.COLUMNS; column++)
+        {
+            record[column] = this.columns[column][this.position];
+        }
+        this.position++;
+        return true;
+    }
+
+    /**
+     * seekBlock(int block) - Dekodierung des Blockes block, next() beginnt mit dessen erstem Takt...
+     */
+    private boolean seekBlock(int block) throws IOException
+    {
+        this.count = 0;
+        this.position = 0;
+        this.block = block;
+        if (block >= this.index.size)
+        {
+            return false;
+        }
+        decodeBlock(this.block++);
+        return true;
+    }
+
+    /**
+     * decodeBlock(int block) - Pruefung und Dekodierung eines Blockes...
+     */
+    private void decodeBlock(int block) throws IOException
+    {
+        final int offset = (int) this.index.offsets[block];
+        final int length = this.buffer.getInt(offset);
+        final int checksum = this.buffer.getInt(offset + 4);
+        final ByteBuffer payload = this.buffer.duplicate();
+        payload.limit(offset + TelemetryRecorder.BLOCK_HEADER_SIZE + length);
+        payload.position(offset + TelemetryRecorder.BLOCK_HEADER_SIZE);
+        this.count = decode(payload, checksum, this.columns, this.crc);
+        this.position = 0;
+    }
+
+    /**
+     * decode() - Pruefung und Dekodierung der Nutzdaten eines Blockes...
+     * @param payload - Nutzdaten (position..limit)
+     * @param checksum - CRC32 aus dem Blockkopf
+     * @param columns - Ergebnis [COLUMNS][BLOCK_SIZE]
+     * @param crc
+     * @return Anzahl der Takte im Block
+     */
+    private static int decode(ByteBuffer payload, int checksum, long[][] columns, CRC32 crc) throws IOException
+    {
+        crc.reset();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum)
+        {
+            throw new IOException("checksum error in block at " + (payload.position() - TelemetryRecorder.BLOCK_HEADER_SIZE));
+        }
+        try
+        {
+            final long count = TelemetryRecorder.getVarint(payload);
+            if (count <= 0L || count > TelemetryRecorder.BLOCK_SIZE)
+            {
+                throw new IOException("invalid record count: " + count);
+            }
+            for (int column = 0; column < TelemetryRecorder.COLUMNS; column++)
+            {
+                final long[] values = columns[column];
+                long previous = 0L;
+                long delta = 0L;
+                for (int index = 0; index < count; index++)
+                {
+                    final long encoded = TelemetryRecorder.unzigzag(TelemetryRecorder.getVarint(payload));
+                    delta = (index < 2)? encoded : delta + encoded;
+                    previous += delta;
+                    values[index] = previous;
+                }
+            }
+            return (int) count;
+        }
+        catch (RuntimeException exception)
+        {
+            throw new IOException("corrupt block", exception);
+        }
+    }
+
+    /**
+     * readIndex(int size) - Einlesen des Index am Dateiende...
+     * @return Index oder null (kein bzw. ungueltiger Index)
+     */
+    private TelemetryRecorder.Index readIndex(int size)
+    {
+        if (size < TelemetryRecorder.HEADER_SIZE + TelemetryRecorder.TRAILER_SIZE
+            || this.buffer.getInt(size - 4) != TelemetryRecorder.INDEX_MAGIC)
+        {
+            return null;
+        }
+        final long offset = this.buffer.getLong(size - TelemetryRecorder.TRAILER_SIZE);
+        if (offset < TelemetryRecorder.HEADER_SIZE || offset > size - TelemetryRecorder.TRAILER_SIZE - 8
+            || this.buffer.getInt((int) offset) != TelemetryRecorder.INDEX_MAGIC)
+        {
+            return null;
+        }
+        final int entries = this.buffer.getInt((int) offset + 4);
+        if (entries < 0 || offset + 8 + (long) entries * TelemetryRecorder.INDEX_ENTRY_SIZE != size - TelemetryRecorder.TRAILER_SIZE)
+        {
+            return null;
+        }
+        final TelemetryRecorder.Index index = new TelemetryRecorder.Index();
+        final ByteBuffer input = this.buffer.duplicate();
+        input.position((int) offset + 8);
+        for (int entry = 0; entry < entries; entry++)
+        {
+            index.add(input.getLong(), input.getLong(), input.getLong(), input.getLong(), input.getLong(), input.getInt());
+        }
+        return index;
+    }
+
+    /**
+     * scanIndex(int size) - Aufbau des Index aus den Bloecken (Index fehlt)...
+     */
+    private TelemetryRecorder.Index scanIndex(int size) throws IOException
+    {
+        logger.info("scanIndex(): kein Index, Aufbau aus den Bloecken...");
+        final TelemetryRecorder.Index index = new TelemetryRecorder.Index();
+        int offset = TelemetryRecorder.HEADER_SIZE;
+        while (offset + TelemetryRecorder.BLOCK_HEADER_SIZE <= size)
+        {
+            final int length = this.buffer.getInt(offset);
+            if (length <= 0 || length > TelemetryRecorder.MAX_PAYLOAD_SIZE)
+            {
+                // Beginn des Index oder ungueltige Daten...
+                break;
+            }
+            final int end = offset + TelemetryRecorder.BLOCK_HEADER_SIZE + length;
+            if (end > size)
+            {
+                logger.error("scanIndex(): unvollstaendiger Block am Ende der Aufzeichnung");
+                break;
+            }
+            final ByteBuffer payload = this.buffer.duplicate();
+            payload.limit(end);
+            payload.position(offset + TelemetryRecorder.BLOCK_HEADER_SIZE);
+            final int count = decode(payload, this.buffer.getInt(offset + 4), this.columns, this.crc);
+            index.add(offset,
+                      this.columns[TelemetryRecorder.COLUMN_COUNTER][0], this.columns[TelemetryRecorder.COLUMN_COUNTER][count - 1],
+                      this.columns[TelemetryRecorder.COLUMN_TIME][0], this.columns[TelemetryRecorder.COLUMN_TIME][count - 1]);
+            offset = end;
+        }
+        return index;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.channel.close();
+    }
+}
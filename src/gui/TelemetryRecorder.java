@@ -0,0 +1,589 @@
+/**
+ *
+ */
+package gui;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * TelemetryRecorder - kompakte Aufzeichnung der Taktdaten (counter, Zeit, phi,
+ * Taktzeit, drvSetPoint) fuer lange Laeufe...
+ * </p>
+ * <p>
+ * Die Werte aufeinanderfolgender Takte aendern sich kaum. Sie werden daher
+ * spaltenweise in Bloecken zu BLOCK_SIZE Takten abgelegt, je Spalte als
+ * Delta der Deltas (delta-of-delta), zickzack- und varint-kodiert. Ein
+ * gleichmaessiger Verlauf (z.B. counter, Zeit) kostet damit ein Byte je Wert.
+ * </p>
+ * <p>
+ * Im Takt werden die Werte nur in primitive Arrays des aktuellen Blockes
+ * eingetragen (keine Allokation). Volle Bloecke werden an einen Hintergrund-Thread
+ * uebergeben, der kodiert, mit CRC32 sichert und anhaengt. Die Bloecke stammen
+ * aus einem festen Vorrat. Ist kein Block frei (Schreiben zu langsam), werden
+ * die Takte verworfen und gezaehlt, der Takt wird nie blockiert.
+ * </p>
+ * <p>
+ * Aufbau der Datei:
+ * </p>
+ * <pre>
+ *   Kopf:  MAGIC (int) | VERSION (byte) | COLUMNS (byte) | Startzeit (long, ms seit 1970) | Startzeit (long, ns Zeitbasis)
+ *   Block: Laenge (int) | CRC32 (int) | Nutzdaten: Anzahl (varint) | Spalte 0 ... Spalte COLUMNS-1
+ *   Spalte: v0 (zickzack varint) | v1-v0 (zickzack varint) | je weiterer Wert (vi-vi-1)-(vi-1-vi-2) (zickzack varint)
+ * </pre>
+ * <p>
+ * Jeder Block ist fuer sich dekodierbar, vgl. TelemetryReader. Mit close() wird
+ * ein duenner Index (ein Eintrag je Block) als Anhang geschrieben:
+ * </p>
+ * <pre>
+ *   Index:    INDEX_MAGIC (int) | Anzahl (int) | je Block: Offset, erster/letzter counter, erste/letzte Zeit (long), Segment (int)
+ *   Abschluss: Offset des Index (long) | INDEX_MAGIC (int)
+ * </pre>
+ * <p>
+ * Da reset() und stop() den Taktzaehler zuruecksetzen, beginnt bei fallendem
+ * counter ein neuer Block und ein neues Segment. Innerhalb eines Segmentes
+ * steigt counter, ueber die ganze Aufzeichnung die Zeit. Fehlt der Index
+ * (Abbruch), baut der TelemetryReader ihn aus den Bloecken neu auf.
+ * </p>
+ */
+public class TelemetryRecorder implements Closeable
+{
+    /**
+     * logger
+     */
+    private final static Logger logger = LoggerFactory.getLogger(TelemetryRecorder.class);
+
+    /**
+     * MAGIC - Dateikennung "TLMT"...
+     */
+    public final static int MAGIC = 0x544C4D54;
+
+    /**
+     * VERSION - Version des Dateiformates...
+     */
+    public final static byte VERSION = 1;
+
+    /**
+     * HEADER_SIZE - Laenge des Dateikopfes in Bytes...
+     */
+    public final static int HEADER_SIZE = 4 + 1 + 1 + 8 + 8;
+
+    /**
+     * BLOCK_HEADER_SIZE - Laenge des Blockkopfes (Laenge, CRC32) in Bytes...
+     */
+    public final static int BLOCK_HEADER_SIZE = 4 + 4;
+
+    /**
+     * INDEX_MAGIC - Kennung des Index "TIDX"...
+     */
+    public final static int INDEX_MAGIC = 0x54494458;
+
+    /**
+     * INDEX_ENTRY_SIZE - Laenge eines Indexeintrages in Bytes...
+     */
+    public final static int INDEX_ENTRY_SIZE = 5 * 8 + 4;
+
+    /**
+     * TRAILER_SIZE - Laenge des Abschlusses (Offset des Index, INDEX_MAGIC) in Bytes...
+     */
+    public final static int TRAILER_SIZE = 8 + 4;
+
+    /**
+     * BLOCK_SIZE - Anzahl der Takte je Block...
+     */
+    public final static int BLOCK_SIZE = 256;
+
+    /**
+     * BLOCK_POOL_SIZE - Anzahl der Bloecke im Vorrat (aktueller Block + Warteschlange)...
+     */
+    public final static int BLOCK_POOL_SIZE = 8;
+
+    /**
+     * FORCE_INTERVAL - Sicherung (force()) nach jeweils FORCE_INTERVAL Bloecken...
+     */
+    public final static int FORCE_INTERVAL = 16;
+
+    /**
+     * Spalten eines Taktes...
+     */
+    public final static int COLUMN_COUNTER = 0;
+    public final static int COLUMN_TIME = 1;
+    public final static int COLUMN_PHI = 2;
+    public final static int COLUMN_CYCLE_TIME = 3;
+    public final static int COLUMN_DRV_SET_POINT = 4;
+
+    /**
+     * COLUMNS - Anzahl der Spalten...
+     */
+    public final static int COLUMNS = 5;
+
+    /**
+     * MAX_PAYLOAD_SIZE - max. Laenge der Nutzdaten eines Blockes (varint: max. 10 Bytes)...
+     */
+    public final static int MAX_PAYLOAD_SIZE = 5 + BLOCK_SIZE * COLUMNS * 10;
+
+    /**
+     * Block - Takte eines Blockes, spaltenweise...
+     */
+    private final static class Block
+    {
+        private final long[][] columns = new long[COLUMNS][BLOCK_SIZE];
+        private int count = 0;
+    }
+
+    /**
+     * POISON - Ende-Kennung fuer den Schreib-Thread...
+     */
+    private final static Block POISON = new Block();
+
+    /**
+     * free - Vorrat freier Bloecke...
+     */
+    private final BlockingQueue<Block> free = new ArrayBlockingQueue<>(BLOCK_POOL_SIZE);
+
+    /**
+     * full - Warteschlange der zu schreibenden Bloecke (+1 fuer POISON)...
+     */
+    private final BlockingQueue<Block> full = new ArrayBlockingQueue<>(BLOCK_POOL_SIZE + 1);
+
+    /**
+     * channel - Ausgabe in die Aufzeichnungsdatei...
+     */
+    private final FileChannel channel;
+
+    /**
+     * writer - Hintergrund-Thread fuer Kodierung und Schreiben...
+     */
+    private final Thread writer;
+
+    /**
+     * block - aktueller Block (nur im Takt), null, wenn kein Block frei ist...
+     */
+    private Block block;
+
+    /**
+     * index - Indexeintraege der geschriebenen Bloecke (nur im Schreib-Thread)...
+     */
+    private final Index index = new Index();
+
+    /**
+     * dropped - Anzahl verworfener Takte...
+     */
+    private volatile long dropped = 0L;
+
+    /**
+     * isClosed - Kennung, close() wurde beauftragt...
+     */
+    private volatile boolean isClosed = false;
+
+    /**
+     * TelemetryRecorder(Path file, long startNanos) - Anlegen (bzw. Ueberschreiben) der Aufzeichnungsdatei...
+     * @param file
+     * @param startNanos - aktueller Zeitpunkt der Zeitbasis (ns), zur Zuordnung der Spalte COLUMN_TIME
+     *                     zur Uhrzeit (vgl. TelemetryReader.toMillis())
+     * @throws IOException
+     */
+    public TelemetryRecorder(Path file, long startNanos) throws IOException
+    {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC)
+              .put(VERSION)
+              .put((byte) COLUMNS)
+              .putLong(System.currentTimeMillis())
+              .putLong(startNanos)
+              .flip();
+        while (header.hasRemaining())
+        {
+            this.channel.write(header);
+        }
+        for (int index = 1; index < BLOCK_POOL_SIZE; index++)
+        {
+            this.free.add(new Block());
+        }
+        this.block = new Block();
+        this.writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                writeLoop();
+            }
+        }, "TelemetryRecorder");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * record(...) - Ablage der Daten eines Taktes (nur aus dem Takt beauftragen)...
+     * @param counter - Taktzaehler
+     * @param time - Zeitpunkt des Taktes (ns, Zeitbasis des Model)
+     * @param phi - Lage in Impulse
+     * @param cycleTime - Taktzeit in ns
+     * @param drvSetPoint - Stellgroesse DRV8830
+     */
+    public void record(long counter, long time, long phi, long cycleTime, int drvSetPoint)
+    {
+        if (this.isClosed)
+        {
+            return;
+        }
+        if (this.block == null)
+        {
+            // Wieder ein Block frei?
+            this.block = this.free.poll();
+            if (this.block == null)
+            {
+                this.dropped++;
+                return;
+            }
+        }
+        Block block = this.block;
+        if (block.count > 0 && counter <= block.columns[COLUMN_COUNTER][block.count - 1])
+        {
+            // counter faellt (reset/stop): neues Segment, neuer Block...
+            this.full.offer(block);
+            block = this.block = this.free.poll();
+            if (block == null)
+            {
+                this.dropped++;
+                return;
+            }
+        }
+        final int index = block.count++;
+        block.columns[COLUMN_COUNTER][index] = counter;
+        block.columns[COLUMN_TIME][index] = time;
+        block.columns[COLUMN_PHI][index] = phi;
+        block.columns[COLUMN_CYCLE_TIME][index] = cycleTime;
+        block.columns[COLUMN_DRV_SET_POINT][index] = drvSetPoint;
+        if (block.count == BLOCK_SIZE)
+        {
+            // Kann nicht fehlschlagen: full fasst alle Bloecke des Vorrats...
+            this.full.offer(block);
+            this.block = this.free.poll();
+        }
+    }
+
+    /**
+     * @return Anzahl der verworfenen Takte (kein Block frei)
+     */
+    public final long getDropped()
+    {
+        return this.dropped;
+    }
+
+    /**
+     * writeLoop() - Kodierung und Schreiben der vollen Bloecke...
+     */
+    private void writeLoop()
+    {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_HEADER_SIZE + MAX_PAYLOAD_SIZE);
+        final CRC32 crc = new CRC32();
+        long reported = 0L;
+        int blocks = 0;
+        boolean isRunning = true;
+        while (isRunning)
+        {
+            try
+            {
+                final Block block = this.full.take();
+                if (block == POISON)
+                {
+                    isRunning = false;
+                    continue;
+                }
+                encode(block, buffer, crc);
+                this.index.add(this.channel.position(), 
+                               block.columns[COLUMN_COUNTER][0], block.columns[COLUMN_COUNTER][block.count - 1],
+                               block.columns[COLUMN_TIME][0], block.columns[COLUMN_TIME][block.count - 1]);
+                block.count = 0;
+                this.free.offer(block);
+                while (buffer.hasRemaining())
+                {
+                    this.channel.write(buffer);
+                }
+                if (++blocks % FORCE_INTERVAL == 0)
+                {
+                    this.channel.force(false);
+                }
+                final long dropped = this.dropped;
+                if (dropped != reported)
+                {
+                    logger.error("TelemetryRecorder: " + (dropped - reported) + " Takte verworfen (Schreiben zu langsam)");
+                    reported = dropped;
+                }
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                isRunning = false;
+            }
+            catch (IOException exception)
+            {
+                logger.error("writeLoop()", exception);
+            }
+        }
+    }
+
+    /**
+     * close() - Schreiben des angefangenen Blockes und Schliessen der Datei...
+     * <p>
+     * Darf nicht parallel zum Takt beauftragt werden (z.B. nach dem letzten
+     * Takt bzw. mit Model.shutdown()).
+     * </p>
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (this.isClosed)
+        {
+            return;
+        }
+        this.isClosed = true;
+        try
+        {
+            if (this.block != null && this.block.count > 0)
+            {
+                this.full.put(this.block);
+            }
+            this.block = null;
+            this.full.put(POISON);
+            this.writer.join();
+            writeIndex();
+            this.channel.force(false);
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * writeIndex() - Anhang des Index und des Abschlusses (nach Ende des Schreib-Thread)...
+     */
+    private void writeIndex() throws IOException
+    {
+        final long offset = this.channel.position();
+        final ByteBuffer buffer = ByteBuffer.allocate(8 + this.index.size * INDEX_ENTRY_SIZE + TRAILER_SIZE);
+        buffer.putInt(INDEX_MAGIC).putInt(this.index.size);
+        for (int entry = 0; entry < this.index.size; entry++)
+        {
+            buffer.putLong(this.index.offsets[entry])
+                  .putLong(this.index.firstCounters[entry])
+                  .putLong(this.index.lastCounters[entry])
+                  .putLong(this.index.firstTimes[entry])
+                  .putLong(this.index.lastTimes[entry])
+                  .putInt(this.index.segments[entry]);
+        }
+        buffer.putLong(offset).putInt(INDEX_MAGIC).flip();
+        while (buffer.hasRemaining())
+        {
+            this.channel.write(buffer);
+        }
+    }
+
+    /**
+     * Index - duenner Index, ein Eintrag je Block (primitive Arrays, Suche binaer)...
+     * <p>
+     * Wird vom TelemetryRecorder geschrieben und vom TelemetryReader gelesen 
+     * bzw. neu aufgebaut.
+     * </p>
+     */
+    static class Index
+    {
+        long[] offsets = new long[64];
+        long[] firstCounters = new long[64];
+        long[] lastCounters = new long[64];
+        long[] firstTimes = new long[64];
+        long[] lastTimes = new long[64];
+        int[] segments = new int[64];
+        int size = 0;
+
+        /**
+         * add() - Eintrag fuer den naechsten Block, das Segment ergibt sich aus dem counter...
+         */
+        void add(long offset, long firstCounter, long lastCounter, long firstTime, long lastTime)
+        {
+            final int segment = (this.size == 0)? 0 
+                              : (firstCounter <= this.lastCounters[this.size - 1])? this.segments[this.size - 1] + 1 
+                              : this.segments[this.size - 1];
+            add(offset, firstCounter, lastCounter, firstTime, lastTime, segment);
+        }
+
+        /**
+         * add() - Eintrag mit Segment (Einlesen des Index)...
+         */
+        void add(long offset, long firstCounter, long lastCounter, long firstTime, long lastTime, int segment)
+        {
+            if (this.size == this.offsets.length)
+            {
+                final int capacity = 2 * this.size;
+                this.offsets = java.util.Arrays.copyOf(this.offsets, capacity);
+                this.firstCounters = java.util.Arrays.copyOf(this.firstCounters, capacity);
+                this.lastCounters = java.util.Arrays.copyOf(this.lastCounters, capacity);
+                this.firstTimes = java.util.Arrays.copyOf(this.firstTimes, capacity);
+                this.lastTimes = java.util.Arrays.copyOf(this.lastTimes, capacity);
+                this.segments = java.util.Arrays.copyOf(this.segments, capacity);
+            }
+            this.offsets[this.size] = offset;
+            this.firstCounters[this.size] = firstCounter;
+            this.lastCounters[this.size] = lastCounter;
+            this.firstTimes[this.size] = firstTime;
+            this.lastTimes[this.size] = lastTime;
+            this.segments[this.size] = segment;
+            this.size++;
+        }
+
+        /**
+         * segmentCount() - Anzahl der Segmente...
+         */
+        int segmentCount()
+        {
+            return (this.size == 0)? 0 : this.segments[this.size - 1] + 1;
+        }
+
+        /**
+         * findTick(int segment, long counter) - erster Block des Segmentes mit lastCounter &gt;= counter...
+         * @return Blocknummer oder size (nicht vorhanden)
+         */
+        int findTick(int segment, long counter)
+        {
+            int low = 0;
+            int high = this.size;
+            while (low < high)
+            {
+                final int middle = (low + high) >>> 1;
+                if (this.segments[middle] < segment
+                    || (this.segments[middle] == segment && this.lastCounters[middle] < counter))
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+            return (low < this.size && this.segments[low] == segment)? low : this.size;
+        }
+
+        /**
+         * findTime(long time) - erster Block mit lastTime &gt;= time...
+         * @return Blocknummer oder size (nicht vorhanden)
+         */
+        int findTime(long time)
+        {
+            int low = 0;
+            int high = this.size;
+            while (low < high)
+            {
+                final int middle = (low + high) >>> 1;
+                if (this.lastTimes[middle] < time)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * encode() - Kodierung eines Blockes in buffer (Blockkopf und Nutzdaten, bereit zum Schreiben)...
+     */
+    static void encode(Block block, ByteBuffer buffer, CRC32 crc)
+    {
+        buffer.clear();
+        buffer.position(BLOCK_HEADER_SIZE);
+        putVarint(buffer, block.count);
+        for (int column = 0; column < COLUMNS; column++)
+        {
+            final long[] values = block.columns[column];
+            long previous = 0L;
+            long delta = 0L;
+            for (int index = 0; index < block.count; index++)
+            {
+                final long value = values[index];
+                final long newDelta = value - previous;
+                // v0 absolut, v1 als Delta, danach Delta der Deltas...
+                putVarint(buffer, zigzag((index < 2)? newDelta : newDelta - delta));
+                delta = newDelta;
+                previous = value;
+            }
+        }
+        final int end = buffer.position();
+        buffer.flip();
+        buffer.position(BLOCK_HEADER_SIZE);
+        crc.reset();
+        crc.update(buffer);
+        buffer.putInt(0, end - BLOCK_HEADER_SIZE);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.position(0);
+        buffer.limit(end);
+    }
+
+    /**
+     * zigzag(long value) - vorzeichenbehaftet auf vorzeichenlos, kleine Betraege bleiben klein...
+     */
+    static long zigzag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * unzigzag(long value) - Umkehrung von zigzag()...
+     */
+    static long unzigzag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    /**
+     * putVarint() - 7 Bit je Byte, gesetztes hoechstes Bit: weiteres Byte folgt...
+     */
+    static void putVarint(ByteBuffer buffer, long value)
+    {
+        while ((value & ~0x7FL) != 0L)
+        {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * getVarint() - Umkehrung von putVarint()...
+     */
+    static long getVarint(ByteBuffer buffer)
+    {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IllegalStateException("varint too long");
+    }
+}
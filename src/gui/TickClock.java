@@ -0,0 +1,35 @@
+/**
+ * 
+ */
+package gui;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * TickClock - Zeitbasis fuer die Taktung in Nanosekunden.
+ * </p>
+ * <p>
+ * Im Betrieb wird TickClock.SYSTEM (System.nanoTime()) verwendet, in der 
+ * Simulation eine VirtualClock, die explizit weitergeschaltet wird.
+ * </p>
+ */
+public interface TickClock
+{
+    /**
+     * SYSTEM - Zeitbasis auf Basis von System.nanoTime()...
+     */
+    public final static TickClock SYSTEM = new TickClock()
+    {
+        @Override
+        public long nanoTime()
+        {
+            return System.nanoTime();
+        }
+    };
+    
+    /**
+     * nanoTime() - aktueller Zeitpunkt in Nanosekunden (nur fuer Differenzen geeignet)
+     * @return
+     */
+    public long nanoTime();
+}
@@ -0,0 +1,251 @@
+/**
+ *
+ */
+package gui;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * TickMetrics - Kennzahlen des Taktes fuer die Beobachtung von aussen (vgl. MetricsServer)...
+ * </p>
+ * <p>
+ * Geschrieben wird nur im Takt (ein Schreiber), gelesen von beliebigen Threads.
+ * Im Takt werden nur Atomics fortgeschrieben (lazySet, keine Sperre, keine
+ * Allokation), Auswertungen wie Perzentile rechnet der Leser aus den Zaehlern.
+ * </p>
+ * <p>
+ * Die Taktzeiten werden in einem Histogramm mit CYCLE_TIME_RESOLUTION Breite
+ * gezaehlt (Werte ab CYCLE_TIME_BUCKETS * CYCLE_TIME_RESOLUTION im letzten Fach),
+ * die Perzentile beziehen sich auf alle Takte seit dem Start der Anwendung.
+ * </p>
+ */
+public class TickMetrics
+{
+    /**
+     * CYCLE_TIME_RESOLUTION - Breite eines Faches des Histogramms in ns (0,1ms)...
+     */
+    public final static long CYCLE_TIME_RESOLUTION = 100000L;
+
+    /**
+     * CYCLE_TIME_BUCKETS - Anzahl der Faecher (0...100ms), dazu ein Fach fuer groessere Werte...
+     */
+    public final static int CYCLE_TIME_BUCKETS = 1000;
+
+    /**
+     * FAULT_REASONS - Bezeichnung der Bits im FAULT-Register des DRV8830
+     * (Bit 0: FAULT, je Fehler gesetzt, Bit 1...4: Ursache)...
+     */
+    public final static String[] FAULT_REASONS = {"FAULT", "OCP", "UVLO", "OTS", "ILIMIT"};
+
+    /**
+     * TICK_RATE_SMOOTHING - Glaettung der Taktrate (exponentiell, je Takt)...
+     */
+    private final static double TICK_RATE_SMOOTHING = 0.1;
+
+    /**
+     * ticks - Anzahl der Takte...
+     */
+    private final AtomicLong ticks = new AtomicLong();
+
+    /**
+     * startedTicks - Anzahl der Takte im Status Start...
+     */
+    private final AtomicLong startedTicks = new AtomicLong();
+
+    /**
+     * saturatedTicks - Anzahl der Takte im Status Start mit Reglerausgang in der Begrenzung...
+     */
+    private final AtomicLong saturatedTicks = new AtomicLong();
+
+    /**
+     * i2cErrors - Anzahl der Fehler beim Zugriff auf den DRV8830...
+     */
+    private final AtomicLong i2cErrors = new AtomicLong();
+
+    /**
+     * faults - Anzahl der Fehlermeldungen des DRV8830 je Bit (vgl. FAULT_REASONS)...
+     */
+    private final AtomicLongArray faults = new AtomicLongArray(FAULT_REASONS.length);
+
+    /**
+     * cycleTimes - Histogramm der Taktzeiten...
+     */
+    private final AtomicLongArray cycleTimes = new AtomicLongArray(CYCLE_TIME_BUCKETS + 1);
+
+    /**
+     * cycleTimeSum - Summe der Taktzeiten in ns...
+     */
+    private final AtomicLong cycleTimeSum = new AtomicLong();
+
+    /**
+     * tickRate - geglaettete Taktrate in Hz (Bits des double)...
+     */
+    private final AtomicLong tickRate = new AtomicLong(Double.doubleToLongBits(0.0));
+
+    /**
+     * record(long cycleTime, boolean isStarted, boolean isSaturated) - Fortschreibung eines Taktes (nur im Takt)...
+     * @param cycleTime - gemessene Taktzeit in ns (erster Takt: 0, wird nicht ausgewertet)
+     * @param isStarted - Status Start
+     * @param isSaturated - Reglerausgang in der Begrenzung
+     */
+    public void record(long cycleTime, boolean isStarted, boolean isSaturated)
+    {
+        this.ticks.lazySet(this.ticks.get() + 1L);
+        if (isStarted)
+        {
+            this.startedTicks.lazySet(this.startedTicks.get() + 1L);
+            if (isSaturated)
+            {
+                this.saturatedTicks.lazySet(this.saturatedTicks.get() + 1L);
+            }
+        }
+        if (cycleTime > 0L)
+        {
+            final int bucket = (int) Math.min(CYCLE_TIME_BUCKETS, cycleTime / CYCLE_TIME_RESOLUTION);
+            this.cycleTimes.lazySet(bucket, this.cycleTimes.get(bucket) + 1L);
+            this.cycleTimeSum.lazySet(this.cycleTimeSum.get() + cycleTime);
+            final double tickRate = Double.longBitsToDouble(this.tickRate.get());
+            final double rate = 1.0E9 / cycleTime;
+            this.tickRate.lazySet(Double.doubleToLongBits((tickRate == 0.0)? rate : tickRate + TICK_RATE_SMOOTHING * (rate - tickRate)));
+        }
+    }
+
+    /**
+     * recordI2CError() - Fehler beim Zugriff auf den DRV8830 (nur im Takt)...
+     */
+    public void recordI2CError()
+    {
+        this.i2cErrors.lazySet(this.i2cErrors.get() + 1L);
+    }
+
+    /**
+     * recordFault(int fault) - Fehlermeldung des DRV8830 (nur im Takt)...
+     * @param fault - Inhalt des FAULT-Registers (!= 0)
+     */
+    public void recordFault(int fault)
+    {
+        for (int bit = 0; bit < FAULT_REASONS.length; bit++)
+        {
+            if ((fault & (1 << bit)) != 0)
+            {
+                this.faults.lazySet(bit, this.faults.get(bit) + 1L);
+            }
+        }
+    }
+
+    /**
+     * @return Anzahl der Takte
+     */
+    public final long getTicks()
+    {
+        return this.ticks.get();
+    }
+
+    /**
+     * @return geglaettete Taktrate in Hz
+     */
+    public final double getTickRate()
+    {
+        return Double.longBitsToDouble(this.tickRate.get());
+    }
+
+    /**
+     * @return Anteil der Takte in der Begrenzung an den Takten im Status Start (0...1)
+     */
+    public final double getSaturationRatio()
+    {
+        final long saturatedTicks = this.saturatedTicks.get();
+        final long startedTicks = this.startedTicks.get();
+        return (startedTicks > 0L)? (double) saturatedTicks / startedTicks : 0.0;
+    }
+
+    /**
+     * @return Anzahl der Takte im Status Start
+     */
+    public final long getStartedTicks()
+    {
+        return this.startedTicks.get();
+    }
+
+    /**
+     * @return Anzahl der Takte im Status Start mit Reglerausgang in der Begrenzung
+     */
+    public final long getSaturatedTicks()
+    {
+        return this.saturatedTicks.get();
+    }
+
+    /**
+     * @return Anzahl der Fehler beim Zugriff auf den DRV8830
+     */
+    public final long getI2CErrors()
+    {
+        return this.i2cErrors.get();
+    }
+
+    /**
+     * @param bit - Index in FAULT_REASONS
+     * @return Anzahl der Fehlermeldungen des DRV8830 mit gesetztem Bit
+     */
+    public final long getFaults(int bit)
+    {
+        return this.faults.get(bit);
+    }
+
+    /**
+     * @return Summe der ausgewerteten Taktzeiten in ns
+     */
+    public final long getCycleTimeSum()
+    {
+        return this.cycleTimeSum.get();
+    }
+
+    /**
+     * getCycleTimeCount() - Anzahl der ausgewerteten Taktzeiten (Summe des Histogramms)...
+     * @return
+     */
+    public long getCycleTimeCount()
+    {
+        long count = 0L;
+        for (int bucket = 0; bucket <= CYCLE_TIME_BUCKETS; bucket++)
+        {
+            count += this.cycleTimes.get(bucket);
+        }
+        return count;
+    }
+
+    /**
+     * getCycleTimePercentile(double quantile) - Perzentil der Taktzeit aus dem Histogramm...
+     * @param quantile - 0...1, z.B. 0.99
+     * @return Obergrenze des Faches in ns, in dem das Perzentil liegt (keine Takte: 0)
+     */
+    public long getCycleTimePercentile(double quantile)
+    {
+        // Momentaufnahme, der Takt schreibt waehrenddessen weiter...
+        final long[] counts = new long[CYCLE_TIME_BUCKETS + 1];
+        long count = 0L;
+        for (int bucket = 0; bucket <= CYCLE_TIME_BUCKETS; bucket++)
+        {
+            counts[bucket] = this.cycleTimes.get(bucket);
+            count += counts[bucket];
+        }
+        if (count == 0L)
+        {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long cumulated = 0L;
+        for (int bucket = 0; bucket < CYCLE_TIME_BUCKETS; bucket++)
+        {
+            cumulated += counts[bucket];
+            if (cumulated >= rank)
+            {
+                return (bucket + 1) * CYCLE_TIME_RESOLUTION;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
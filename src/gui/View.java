@@ -1,7 +1,6 @@
 package gui;
 
 import java.awt.event.ActionListener;
-import java.beans.PropertyChangeListener;
 
 /**
  * Interface View - Basisverhalten der View in Bezug auf
@@ -9,9 +8,16 @@ import java.beans.PropertyChangeListener;
  * @author Detlef Tribius
  *
  */
-public interface View extends PropertyChangeListener
+public interface View
 {
     // View benoetig u.a auch eine addActionListener()-Methode...
     public void addActionListener(ActionListener listener);
     
+    /**
+     * addPropertyListeners(Model model) - Anmeldung der Listener der View
+     * je angezeigter Eigenschaft am Model (vgl. Property)...
+     * @param model
+     */
+    public void addPropertyListeners(Model model);
+    
 }
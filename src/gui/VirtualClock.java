@@ -0,0 +1,58 @@
+/**
+ * 
+ */
+package gui;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * VirtualClock - virtuelle Zeitbasis, die Zeit laeuft nur durch advance()...
+ * </p>
+ * <p>
+ * Damit koennen Model und PositionController ohne Hardware und 
+ * ohne Wartezeiten ueber beliebig viele Takte gefuehrt werden.
+ * </p>
+ */
+public class VirtualClock implements TickClock
+{
+    /**
+     * nanos - aktuelle virtuelle Zeit in Nanosekunden...
+     */
+    private long nanos;
+    
+    /**
+     * Default-Konstruktor, Start bei 0 ns...
+     */
+    public VirtualClock()
+    {
+        this(0L);
+    }
+    
+    /**
+     * 
+     * @param nanos - Startzeitpunkt in Nanosekunden
+     */
+    public VirtualClock(long nanos)
+    {
+        this.nanos = nanos;
+    }
+    
+    @Override
+    public long nanoTime()
+    {
+        return this.nanos;
+    }
+    
+    /**
+     * advance(long deltaNanos) - Weiterschalten der virtuellen Zeit...
+     * @param deltaNanos
+     */
+    public void advance(long deltaNanos)
+    {
+        if (deltaNanos < 0L)
+        {
+            throw new IllegalArgumentException("deltaNanos must not be negative!");
+        }
+        this.nanos += deltaNanos;
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * AntiWindupTest - Erholung aus der Begrenzung je Anti-Windup-Strategie...
+ * </p>
+ * <p>
+ * Der Sprung auf DESTINATION Umdrehungen haelt den Lageregler einige hundert
+ * Takte in der Begrenzung. Je Strategie werden Einschwingzeit (StepAnalyser),
+ * Ueberschwingen und der I-Anteil beim Verlassen der Begrenzung (in Sprungrichtung)
+ * geprueft, die Grenzwerte entsprechen dem Target 'simulate-antiwindup' in build.xml.
+ * NONE ist die Gegenprobe: selbst die weitesten Grenzwerte muessen verletzt werden.
+ * </p>
+ */
+public class AntiWindupTest
+{
+    /**
+     * DESTINATION - Sollwert der Lage in Umdrehungen...
+     */
+    private final static String DESTINATION = "25";
+
+    /**
+     * TICKS - simulierte Takte (80 s)...
+     */
+    private final static int TICKS = 4000;
+
+    /**
+     * MIN_SATURATED_TICKS - min. Dauer der Begrenzung, sonst sagt der Test nichts ueber das Anti-Windup...
+     */
+    private final static long MIN_SATURATED_TICKS = 300L;
+
+    /**
+     * MAX_INTEGRAL_STEP - max. Aenderung des I-Anteils je Takt mit Gain-Scheduling
+     * (gemessen ca. 0,03, frueher 15 beim Eintritt in die inneren Baender)...
+     */
+    private final static double MAX_INTEGRAL_STEP = 0.5;
+
+    /**
+     * MAX_OUTPUT_STEP - max. Aenderung der Stellgroesse je Takt in den inneren Baendern
+     * (gemessen ca. 2,3, frueher 6,5)...
+     */
+    private final static double MAX_OUTPUT_STEP = 3.0;
+
+    /**
+     * Limits - Grenzwerte einer Strategie...
+     */
+    private static class Limits
+    {
+        private final double maxSettlingTime;
+        private final long maxOvershoot;
+        private final double minIntegral;
+        private final double maxIntegral;
+
+        private Limits(double maxSettlingTime, long maxOvershoot, double minIntegral, double maxIntegral)
+        {
+            this.maxSettlingTime = maxSettlingTime;
+            this.maxOvershoot = maxOvershoot;
+            this.minIntegral = minIntegral;
+            this.maxIntegral = maxIntegral;
+        }
+    }
+
+    /**
+     * Grenzwerte je Strategie (Begrenzung der Stellgroesse: 15)...
+     * FREEZE, CONDITIONAL: der I-Anteil bleibt in der Begrenzung nahe 0,
+     * BACK_CALCULATION: P+I wird auf die Begrenzung zurueckgefuehrt (I-Anteil negativ),
+     * CLAMP: der I-Anteil steht auf der Begrenzung.
+     */
+    private final static Limits FREEZE_LIMITS = new Limits(10.5, 50L, -1.0, 1.0);
+    private final static Limits CONDITIONAL_LIMITS = new Limits(10.5, 50L, -1.0, 1.0);
+    private final static Limits BACK_CALCULATION_LIMITS = new Limits(13.0, 50L, -200.0, -100.0);
+    private final static Limits CLAMP_LIMITS = new Limits(10.5, 150L, 14.0, 15.5);
+
+    /**
+     * WIDEST_LIMITS - weiteste Grenzwerte aller Strategien (Gegenprobe mit NONE)...
+     */
+    private final static Limits WIDEST_LIMITS = new Limits(13.0, 150L, -200.0, 15.5);
+
+    @Test
+    public void testFreeze()
+    {
+        final List<String> violations = check(AntiWindup.Strategy.FREEZE, FREEZE_LIMITS);
+        assertTrue(violations.isEmpty(), violations.toString());
+    }
+
+    @Test
+    public void testConditional()
+    {
+        final List<String> violations = check(AntiWindup.Strategy.CONDITIONAL, CONDITIONAL_LIMITS);
+        assertTrue(violations.isEmpty(), violations.toString());
+    }
+
+    @Test
+    public void testBackCalculation()
+    {
+        final List<String> violations = check(AntiWindup.Strategy.BACK_CALCULATION, BACK_CALCULATION_LIMITS);
+        assertTrue(violations.isEmpty(), violations.toString());
+    }
+
+    @Test
+    public void testClamp()
+    {
+        final List<String> violations = check(AntiWindup.Strategy.CLAMP, CLAMP_LIMITS);
+        assertTrue(violations.isEmpty(), violations.toString());
+    }
+
+    /**
+     * testNoneFails() - Gegenprobe: ohne Anti-Windup muss die Pruefung anschlagen,
+     * und zwar bei Einschwingzeit, Ueberschwingen und I-Anteil...
+     */
+    @Test
+    public void testNoneFails()
+    {
+        final List<String> violations = check(AntiWindup.Strategy.NONE, WIDEST_LIMITS);
+        assertEquals(3, violations.size(), violations.toString());
+        for (Limits limits: new Limits[] {FREEZE_LIMITS, CONDITIONAL_LIMITS, BACK_CALCULATION_LIMITS, CLAMP_LIMITS})
+        {
+            assertFalse(check(AntiWindup.Strategy.NONE, limits).isEmpty());
+        }
+    }
+
+    /**
+     * testGainSchedulingClamp() - Sprung mit Gain-Scheduling: weit vom Ziel ist der
+     * Faktor der I-Verstaerkung 0, beim Eintritt in die inneren Baender darf der
+     * I-Anteil nicht springen (kein verdecktes Aufintegrieren, kein Umskalieren
+     * des bisherigen Integrals)...
+     */
+    @Test
+    public void testGainSchedulingClamp()
+    {
+        final Simulation simulation = new Simulation(new SimulatedDrive(), Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L);
+        simulation.getModel().setProperty(Property.GAIN_SCHEDULING, Boolean.TRUE);
+        simulation.setUp(DESTINATION, AntiWindup.Strategy.CLAMP);
+        final PositionController positionController = simulation.getModel().getPositioncontroller();
+        final long phiSetPoint = Model.CIRCUMFERENCE.multiply(new BigDecimal(DESTINATION)).longValue();
+        double integral = 0.0;
+        double output = 0.0;
+        double maxIntegralStep = 0.0;
+        double maxOutputStep = 0.0;
+        boolean isInner = false;
+        for (int index = 0; index < TICKS; index++)
+        {
+            simulation.tick();
+            final long error = phiSetPoint - simulation.getModel().getData().getPhi().longValue();
+            maxIntegralStep = Math.max(maxIntegralStep, Math.abs(positionController.getIntegralOutput() - integral));
+            if (Math.abs(error) < GainSchedule.DEFAULT_ERROR_BANDS[3])
+            {
+                maxOutputStep = isInner? Math.max(maxOutputStep, Math.abs(positionController.getOutput() - output)) : maxOutputStep;
+                isInner = true;
+            }
+            integral = positionController.getIntegralOutput();
+            output = positionController.getOutput();
+        }
+        assertTrue(simulation.getMaxSaturationRun() >= MIN_SATURATED_TICKS, "Begrenzung nur " + simulation.getMaxSaturationRun() + " Takte");
+        assertTrue(isInner, "Ziel nicht erreicht");
+        assertTrue(maxIntegralStep <= MAX_INTEGRAL_STEP, "Sprung im I-Anteil " + maxIntegralStep);
+        assertTrue(maxOutputStep <= MAX_OUTPUT_STEP, "Sprung der Stellgroesse " + maxOutputStep);
+    }
+
+    /**
+     * check(AntiWindup.Strategy antiWindup, Limits limits) - Sprung mit der Strategie,
+     * Vergleich mit den Grenzwerten...
+     * @return Liste der Verletzungen (leer: alle Grenzwerte eingehalten)
+     */
+    private static List<String> check(AntiWindup.Strategy antiWindup, Limits limits)
+    {
+        final Simulation simulation = new Simulation(new SimulatedDrive(), Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L);
+        simulation.setUp(DESTINATION, antiWindup);
+        simulation.run(TICKS);
+
+        // Ohne ausreichende Begrenzung ist der Test selbst ungueltig...
+        assertTrue(simulation.getMaxSaturationRun() >= MIN_SATURATED_TICKS,
+                   antiWindup.name() + ": Begrenzung nur " + simulation.getMaxSaturationRun() + " Takte");
+
+        final List<String> violations = new ArrayList<>();
+        final long phiSetPoint = Model.CIRCUMFERENCE.multiply(new BigDecimal(DESTINATION)).longValue();
+        final StepAnalyser.Result[] results = simulation.getModel().getStepAnalyser().getResults();
+        final StepAnalyser.Result result = (results.length > 0)? results[0] : null;
+        if (result == null || !result.isSettled() || result.getSettlingTime() > limits.maxSettlingTime)
+        {
+            violations.add(antiWindup.name() + ": Einschwingzeit " + ((result != null)? result.getSettlingTime() : Double.NaN) + " s");
+        }
+        final long overshoot = simulation.getOvershoot(phiSetPoint);
+        if (overshoot > limits.maxOvershoot)
+        {
+            violations.add(antiWindup.name() + ": Ueberschwingen " + overshoot);
+        }
+        final double integral = Math.signum(phiSetPoint) * simulation.getIntegralAtDesaturation();
+        if (integral < limits.minIntegral || integral > limits.maxIntegral)
+        {
+            violations.add(antiWindup.name() + ": I-Anteil beim Verlassen der Begrenzung " + integral);
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * CommandLogTest - Aufzeichnung, Wiedereinspielen (Rundreise) und close()...
+ * </p>
+ */
+public class CommandLogTest
+{
+    /**
+     * CYCLE_TIME_NANOS - simulierte Taktzeit...
+     */
+    private final static long CYCLE_TIME_NANOS = Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L;
+
+    /**
+     * FINAL_TICKS - Takte nach der letzten Bedienhandlung...
+     */
+    private final static int FINAL_TICKS = 500;
+
+    private Path recordFile;
+
+    private Path replayFile;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        this.recordFile = Files.createTempFile("record", ".clog");
+        this.replayFile = Files.createTempFile("replay", ".clog");
+        // Neue Protokolle, die Kopfzeile schreibt der CommandLog...
+        Files.delete(this.recordFile);
+        Files.delete(this.replayFile);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(this.recordFile);
+        Files.deleteIfExists(this.replayFile);
+    }
+
+    @Test
+    public void testEncodeDecode() throws IOException
+    {
+        try (CommandLog commandLog = new CommandLog(this.recordFile))
+        {
+            assertTrue(commandLog.append(CommandLog.Command.RESET, 0L, null, null));
+            assertTrue(commandLog.append(CommandLog.Command.PROPERTY, 1L, "key", Boolean.TRUE));
+            assertTrue(commandLog.append(CommandLog.Command.PROPERTY, 2L, "key", new BigDecimal("-1.25")));
+            assertTrue(commandLog.append(CommandLog.Command.PROPERTY, 3L, "key", "Text"));
+            assertTrue(commandLog.append(CommandLog.Command.PROPERTY, 4L, "key", null));
+            assertTrue(commandLog.append(CommandLog.Command.STOP, 5L, null, null));
+        }
+        final List<CommandLog.Entry> entries = CommandLog.read(this.recordFile);
+        assertEquals(6, entries.size());
+        assertEquals(CommandLog.Command.RESET, entries.get(0).getCommand());
+        assertEquals(Boolean.TRUE, entries.get(1).getValue());
+        assertEquals(new BigDecimal("-1.25"), entries.get(2).getValue());
+        assertEquals("Text", entries.get(3).getValue());
+        assertEquals(null, entries.get(4).getValue());
+        assertEquals(5L, entries.get(5).getTick());
+    }
+
+    @Test
+    public void testAppendAfterClose() throws IOException
+    {
+        final CommandLog commandLog = new CommandLog(this.recordFile);
+        commandLog.close();
+        assertFalse(commandLog.append(CommandLog.Command.START, 0L, null, null));
+        assertEquals(0, CommandLog.read(this.recordFile).size());
+    }
+
+    /**
+     * testAppendConcurrentWithClose() - jeder angenommene Eintrag wird geschrieben,
+     * auch wenn close() gleichzeitig laeuft...
+     */
+    @Test
+    public void testAppendConcurrentWithClose() throws Exception
+    {
+        final CommandLog commandLog = new CommandLog(this.recordFile);
+        final AtomicInteger accepted = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(4);
+        final Thread[] threads = new Thread[4];
+        for (int index = 0; index < threads.length; index++)
+        {
+            threads[index] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    started.countDown();
+                    long tick = 0L;
+                    while (true)
+                    {
+                        if (commandLog.append(CommandLog.Command.START, tick++, null, null))
+                        {
+                            accepted.incrementAndGet();
+                        }
+                        else if (tick > CommandLog.QUEUE_CAPACITY)
+                        {
+                            // Nach close() wird nichts mehr angenommen...
+                            return;
+                        }
+                    }
+                }
+            });
+            threads[index].start();
+        }
+        started.await();
+        commandLog.close();
+        for (Thread thread: threads)
+        {
+            thread.join();
+        }
+        assertEquals(accepted.get(), CommandLog.read(this.recordFile).size());
+    }
+
+    /**
+     * testReplayRoundTrip() - Aufzeichnung eines Ablaufes, Wiedereinspielen mit
+     * erneuter Aufzeichnung: gleiche Eintraege zum gleichen Takt, gleiche Lage...
+     */
+    @Test
+    public void testReplayRoundTrip() throws IOException
+    {
+        final Simulation recording = new Simulation(new SimulatedDrive(), CYCLE_TIME_NANOS);
+        final Model model = recording.getModel();
+        try (CommandLog commandLog = new CommandLog(this.recordFile))
+        {
+            model.setCommandLog(commandLog);
+            recording.setUp(Simulation.DEFAULT_DESTINATION, AntiWindup.Strategy.FREEZE);
+            recording.run(300);
+            model.stop();
+            recording.run(10);
+            model.setProperty(Property.DESTINATION, "-5");
+            model.setProperty(Property.ANTI_WINDUP, AntiWindup.Strategy.CLAMP);
+            model.start();
+            recording.run(200);
+            model.reset();
+            model.setProperty(Property.DESTINATION, "3");
+            recording.run(20);
+            model.start();
+            recording.run(FINAL_TICKS);
+            model.setCommandLog(null);
+        }
+        final List<CommandLog.Entry> entries = CommandLog.read(this.recordFile);
+        assertTrue(entries.size() > 10, "zu wenige Eintraege: " + entries.size());
+
+        final Simulation replaying = new Simulation(new SimulatedDrive(), CYCLE_TIME_NANOS);
+        // Der Takt mit dem letzten Eintrag zaehlt bereits zu FINAL_TICKS...
+        replaying.replay(entries, this.replayFile, FINAL_TICKS - 1);
+        final List<CommandLog.Entry> recorded = CommandLog.read(this.replayFile);
+
+        assertEquals(-1, CommandLog.indexOfMismatch(entries, recorded), "Rundreise: " + entries + " / " + recorded);
+        assertEquals(model.getCounter(), replaying.getModel().getCounter());
+        assertEquals(recording.getPhi(), replaying.getPhi());
+        assertEquals(recording.getDrive().getDriveCount(), replaying.getDrive().getDriveCount());
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * EncoderTest - Extrapolation der Lage zwischen den Flanken und im Stillstand...
+ * </p>
+ */
+public class EncoderTest
+{
+    /**
+     * PERIOD - Abstand der Flanken in ns (100 Impulse/s)...
+     */
+    private final static long PERIOD = 10000000L;
+
+    /**
+     * EDGES - Anzahl der Flanken vor dem Anhalten...
+     */
+    private final static int EDGES = 5;
+
+    /**
+     * DELTA - Toleranz der Lage in Impulse...
+     */
+    private final static double DELTA = 1.0E-9;
+
+    private Encoder encoder;
+
+    @BeforeEach
+    public void setUp()
+    {
+        this.encoder = new Encoder();
+    }
+
+    /**
+     * testExtrapolation() - innerhalb der Periode linear mit der Geschwindigkeit...
+     */
+    @Test
+    public void testExtrapolation()
+    {
+        final long last = move(1);
+        assertEquals(EDGES, this.encoder.getCount());
+        assertEquals(EDGES + 0.5, this.encoder.getPosition(last + PERIOD / 2L), DELTA);
+        assertEquals(100.0, this.encoder.getSpeed(last + PERIOD / 2L), DELTA);
+    }
+
+    /**
+     * testStandstill() - bleibt die Flanke aus, kehrt die Lage auf den Zaehlerstand zurueck...
+     */
+    @Test
+    public void testStandstill()
+    {
+        final long last = move(1);
+        assertEquals(EDGES + 0.5, this.encoder.getPosition(last + 3L * PERIOD / 2L), DELTA);
+        assertEquals(EDGES, this.encoder.getPosition(last + 2L * PERIOD), DELTA);
+        assertEquals(EDGES, this.encoder.getPosition(last + 100L * PERIOD), DELTA);
+        // Geschwindigkeit: obere Schranke 1/(now - t)...
+        assertEquals(1.0, this.encoder.getSpeed(last + 100L * PERIOD), DELTA);
+    }
+
+    /**
+     * testStandstillNegative() - ebenso in negativer Richtung...
+     */
+    @Test
+    public void testStandstillNegative()
+    {
+        final long last = move(-1);
+        assertEquals(-EDGES - 0.5, this.encoder.getPosition(last + PERIOD / 2L), DELTA);
+        assertEquals(-EDGES, this.encoder.getPosition(last + 10L * PERIOD), DELTA);
+    }
+
+    /**
+     * move(int direction) - EDGES Flanken im Abstand PERIOD...
+     * @return Zeitstempel der letzten Flanke
+     */
+    private long move(int direction)
+    {
+        long nanos = 1000000000L;
+        for (int index = 0; index < EDGES; index++)
+        {
+            nanos += PERIOD;
+            this.encoder.edge(direction, nanos);
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * GpioEventReaderTest - Ereignisse im Format gpio_v2_line_event aus einer Datei
+ * (Ersatz der FIFO von gpio-events) bis in das Model...
+ * </p>
+ */
+public class GpioEventReaderTest
+{
+    /**
+     * IMPULSES - Anzahl der Impulse A je Test...
+     */
+    private final static int IMPULSES = 10;
+
+    /**
+     * TIMEOUT_NANOS - max. Wartezeit auf den Reader...
+     */
+    private final static long TIMEOUT_NANOS = 5000000000L;
+
+    private Path file;
+
+    private Model model;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        this.file = Files.createTempFile("gpio-events", ".bin");
+        this.model = new Model(new SimulatedDrive(), new VirtualClock());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        this.model.shutdown();
+        Files.deleteIfExists(this.file);
+    }
+
+    /**
+     * testInitialLevelB() - Anfangspegel B High (seqno 0), danach nur Flanken von A:
+     * negative Richtung, ohne dass B je eine Flanke hatte...
+     */
+    @Test
+    public void testInitialLevelB() throws Exception
+    {
+        write(true, true, 0);
+        final GpioEventReader reader = read();
+        assertEquals(-IMPULSES, this.model.getData().getPhi().longValue());
+        assertEquals(0L, reader.getLostCount());
+    }
+
+    /**
+     * testInitialLevelBLow() - Anfangspegel B Low: positive Richtung...
+     */
+    @Test
+    public void testInitialLevelBLow() throws Exception
+    {
+        write(true, false, 0);
+        read();
+        assertEquals(IMPULSES, this.model.getData().getPhi().longValue());
+    }
+
+    /**
+     * testWithoutInitialLevel() - ohne Anfangspegel gilt B als Low...
+     */
+    @Test
+    public void testWithoutInitialLevel() throws Exception
+    {
+        write(false, true, 0);
+        read();
+        assertEquals(IMPULSES, this.model.getData().getPhi().longValue());
+    }
+
+    /**
+     * testLostEvents() - Luecken in seqno werden gezaehlt...
+     */
+    @Test
+    public void testLostEvents() throws Exception
+    {
+        write(true, false, 3);
+        final GpioEventReader reader = read();
+        assertEquals(3L, reader.getLostCount());
+    }
+
+    /**
+     * write() - IMPULSES Impulse A (steigend/fallend), danach ein Takt...
+     * @param isLevelWritten - Anfangspegel (seqno 0) voranstellen
+     * @param is_B_High - Anfangspegel von B
+     * @param gap - Luecke in seqno vor dem Takt
+     */
+    private void write(boolean isLevelWritten, boolean is_B_High, int gap) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate((2 * IMPULSES + 4) * GpioEventReader.EVENT_SIZE).order(ByteOrder.nativeOrder());
+        final long origin = 1000000000L;
+        final long period = 1000000L;
+        if (isLevelWritten)
+        {
+            GpioEventReader.encode(buffer, origin, GpioEventReader.FALLING_EDGE, GpioEventReader.DEFAULT_NE555_LINE, 0, 0);
+            GpioEventReader.encode(buffer, origin, GpioEventReader.FALLING_EDGE, GpioEventReader.DEFAULT_INC_A_LINE, 0, 0);
+            GpioEventReader.encode(buffer, origin, is_B_High? GpioEventReader.RISING_EDGE : GpioEventReader.FALLING_EDGE,
+                                   GpioEventReader.DEFAULT_INC_B_LINE, 0, 0);
+        }
+        int seqno = 0;
+        for (int index = 0; index < IMPULSES; index++)
+        {
+            GpioEventReader.encode(buffer, origin + (2 * index + 1) * period, GpioEventReader.RISING_EDGE,
+                                   GpioEventReader.DEFAULT_INC_A_LINE, ++seqno, 2 * index + 1);
+            GpioEventReader.encode(buffer, origin + (2 * index + 2) * period, GpioEventReader.FALLING_EDGE,
+                                   GpioEventReader.DEFAULT_INC_A_LINE, ++seqno, 2 * index + 2);
+        }
+        seqno += gap;
+        GpioEventReader.encode(buffer, origin + (2 * IMPULSES + 1) * period, GpioEventReader.RISING_EDGE,
+                               GpioEventReader.DEFAULT_NE555_LINE, ++seqno, 1);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * read() - Lesen der Datei bis zum ersten Takt im Model...
+     */
+    private GpioEventReader read() throws Exception
+    {
+        final GpioEventReader reader = new GpioEventReader(this.file);
+        this.model.setEdgeSource(reader);
+        final long startNanos = System.nanoTime();
+        while (this.model.getData().getCounter().longValue() < 1L && System.nanoTime() - startNanos < TIMEOUT_NANOS)
+        {
+            Thread.sleep(5L);
+        }
+        assertEquals(2L * IMPULSES + 1L, reader.getEventCount());
+        return reader;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * GpioRegisterSamplerTest - Flanken aus den Pegeln in GPLEV0 (Puffer als Ersatz
+ * des GPIO-Blockes) und Abbildung eines Geraetes ueber die JNI-Bibliothek...
+ * </p>
+ */
+public class GpioRegisterSamplerTest
+{
+    /**
+     * IMPULSES - Anzahl der Impulse A je Test...
+     */
+    private final static int IMPULSES = 10;
+
+    /**
+     * QUARTER - Viertelperiode von A in ns...
+     */
+    private final static long QUARTER = 1000000L;
+
+    private final static int NE555_MASK = 1 << GpioEventReader.DEFAULT_NE555_LINE;
+    private final static int INC_A_MASK = 1 << GpioEventReader.DEFAULT_INC_A_LINE;
+    private final static int INC_B_MASK = 1 << GpioEventReader.DEFAULT_INC_B_LINE;
+
+    private ByteBuffer registers;
+
+    private VirtualClock clock;
+
+    private Model model;
+
+    private GpioRegisterSampler sampler;
+
+    @BeforeEach
+    public void setUp()
+    {
+        this.registers = ByteBuffer.allocate(GpioRegisterSampler.REGISTER_BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.clock = new VirtualClock();
+        this.model = new Model(new SimulatedDrive(), this.clock);
+        this.sampler = new GpioRegisterSampler(this.registers, GpioEventReader.DEFAULT_NE555_LINE,
+                                               GpioEventReader.DEFAULT_INC_A_LINE, GpioEventReader.DEFAULT_INC_B_LINE,
+                                               0L, this.clock);
+        this.sampler.setModel(this.model);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        this.model.shutdown();
+    }
+
+    /**
+     * testPositiveDirection() - B eilt A nach: positive Richtung...
+     */
+    @Test
+    public void testPositiveDirection()
+    {
+        rotate(+1);
+        assertEquals(IMPULSES, this.sampler.getEdgeCount());
+        assertEquals(0L, this.sampler.getErrorCount());
+        assertEquals(IMPULSES, this.model.getData().getPhi().longValue());
+    }
+
+    /**
+     * testNegativeDirection() - B eilt A vor: negative Richtung...
+     */
+    @Test
+    public void testNegativeDirection()
+    {
+        rotate(-1);
+        assertEquals(IMPULSES, this.sampler.getEdgeCount());
+        assertEquals(-IMPULSES, this.model.getData().getPhi().longValue());
+    }
+
+    /**
+     * testMissedEdge() - A und B aendern sich zwischen zwei Abtastungen...
+     */
+    @Test
+    public void testMissedEdge()
+    {
+        sample(INC_A_MASK | INC_B_MASK);
+        assertEquals(1L, this.sampler.getErrorCount());
+    }
+
+    /**
+     * testMapDevice() - Abbildung eines Geraetes (/dev/zero statt /dev/gpiomem)
+     * ueber NATIVE_LIBRARY, ohne 'ant native' bzw. -Djava.library.path uebersprungen...
+     */
+    @Test
+    public void testMapDevice() throws IOException
+    {
+        final Path device = Paths.get("/dev/zero");
+        assumeTrue(Files.exists(device), "no " + device);
+        final ByteBuffer mapped;
+        try
+        {
+            mapped = GpioRegisterSampler.map(device);
+        }
+        catch (IOException exception)
+        {
+            final String message = String.valueOf(exception.getMessage());
+            assumeTrue(!message.contains(GpioRegisterSampler.NATIVE_LIBRARY), message);
+            throw exception;
+        }
+        assertEquals(GpioRegisterSampler.REGISTER_BLOCK_SIZE, mapped.capacity());
+        assertEquals(0, mapped.getInt(GpioRegisterSampler.GPLEV0_OFFSET));
+    }
+
+    /**
+     * POSITIVE, NEGATIVE - Gray-Folge der Pegel A/B je Periode 
+     * (positiv: A steigt bei B Low, negativ: A steigt bei B High)...
+     */
+    private final static int[] POSITIVE = {INC_A_MASK, INC_A_MASK | INC_B_MASK, INC_B_MASK, 0};
+    private final static int[] NEGATIVE = {INC_B_MASK, INC_A_MASK | INC_B_MASK, INC_A_MASK, 0};
+
+    /**
+     * rotate(int direction) - IMPULSES Perioden der Gray-Folge von A/B, danach ein Takt...
+     * @param direction - +1: B eilt nach, -1: B eilt vor
+     */
+    private void rotate(int direction)
+    {
+        final int[] levels = (direction > 0)? POSITIVE : NEGATIVE;
+        for (int step = 0; step < 4 * IMPULSES; step++)
+        {
+            sample(levels[step & 3]);
+        }
+        sample(NE555_MASK);
+    }
+
+    /**
+     * sample(int level) - Pegel in GPLEV0 ablegen und abtasten...
+     */
+    private void sample(int level)
+    {
+        this.registers.putInt(GpioRegisterSampler.GPLEV0_OFFSET, level);
+        this.clock.advance(QUARTER);
+        this.sampler.poll();
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * MetricsServerTest - Kennzahlen (/metrics) und Server-Sent Events (/events)
+ * einer Simulation ueber HTTP (Port 0: freier Port)...
+ * </p>
+ */
+public class MetricsServerTest
+{
+    /**
+     * TICKS - simulierte Takte vor der Abfrage...
+     */
+    private final static int TICKS = 100;
+
+    /**
+     * TIMEOUT_MILLIS - Wartezeit auf die Antwort...
+     */
+    private final static int TIMEOUT_MILLIS = 5000;
+
+    private Simulation simulation;
+
+    private MetricsServer metricsServer;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        this.simulation = new Simulation(new SimulatedDrive(), Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L);
+        this.simulation.setUp(Simulation.DEFAULT_DESTINATION, AntiWindup.Strategy.FREEZE);
+        this.simulation.run(TICKS);
+        this.metricsServer = new MetricsServer(new InetSocketAddress(MetricsServer.DEFAULT_HOST, 0),
+                                               this.simulation.getModel(), MetricsServer.DEFAULT_EVENTS_PER_SECOND);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        this.metricsServer.close();
+    }
+
+    @Test
+    public void testParse()
+    {
+        final InetSocketAddress address = MetricsServer.parse("9103");
+        assertEquals(MetricsServer.DEFAULT_HOST, address.getHostString());
+        assertEquals(9103, address.getPort());
+        assertEquals(8080, MetricsServer.parse("0.0.0.0:8080").getPort());
+    }
+
+    @Test
+    public void testMetrics() throws IOException
+    {
+        final HttpURLConnection connection = open(MetricsServer.METRICS_PATH);
+        try
+        {
+            assertEquals(200, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith("text/plain"), connection.getContentType());
+            final String body = read(connection.getInputStream());
+            assertTrue(body.contains("# TYPE control_ticks_total counter\n"), body);
+            assertTrue(body.contains("\ncontrol_ticks_total " + TICKS + "\n"), body);
+            assertTrue(body.contains("control_status{status=\"" + Status.Start.name() + "\"} 1\n"), body);
+            assertTrue(body.contains("control_cycle_time_seconds_count "), body);
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    public void testMethodNotAllowed() throws IOException
+    {
+        final HttpURLConnection connection = open(MetricsServer.METRICS_PATH);
+        try
+        {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.getOutputStream().close();
+            assertEquals(405, connection.getResponseCode());
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    public void testEvents() throws IOException
+    {
+        final HttpURLConnection connection = open(MetricsServer.EVENTS_PATH);
+        try
+        {
+            assertEquals(200, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith("text/event-stream"), connection.getContentType());
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)))
+            {
+                assertEquals("id: " + TICKS, reader.readLine());
+                final String data = reader.readLine();
+                assertTrue(data.startsWith("data: {\"counter\":" + TICKS + ",\"phi\":"), data);
+                assertTrue(data.endsWith(",\"status\":\"" + Status.Start.name() + "\"}"), data);
+                assertEquals("", reader.readLine());
+            }
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(String path) throws IOException
+    {
+        final URL url = new URL("http", MetricsServer.DEFAULT_HOST, this.metricsServer.getPort(), path);
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        return connection;
+    }
+
+    private static String read(InputStream input) throws IOException
+    {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)))
+        {
+            final StringBuilder builder = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                builder.append(line).append('\n');
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * ModelTest - Ablauf von start()/stop()/reset() am Model(MotorDriver, TickClock)...
+ * </p>
+ */
+public class ModelTest
+{
+    private SimulatedDrive drive;
+
+    private Simulation simulation;
+
+    private Model model;
+
+    @BeforeEach
+    public void setUp()
+    {
+        this.drive = new SimulatedDrive();
+        this.simulation = new Simulation(this.drive, Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L);
+        this.model = this.simulation.getModel();
+        this.simulation.setUp(Simulation.DEFAULT_DESTINATION, AntiWindup.Strategy.FREEZE);
+    }
+
+    @Test
+    public void testCounter()
+    {
+        this.simulation.run(20);
+        assertEquals(20L, this.model.getCounter());
+        assertTrue(this.drive.getValue() != 0, "kein drive() nach start()");
+    }
+
+    @Test
+    public void testStopBrakesWithoutTick()
+    {
+        this.simulation.run(20);
+        final long brakeCount = this.drive.getBrakeCount();
+        this.model.stop();
+        // Kein Takt: stop() bremst trotzdem sofort...
+        assertEquals(brakeCount + 1L, this.drive.getBrakeCount());
+        assertEquals(0, this.drive.getValue());
+
+        // Der naechste Takt fuehrt applyStop() aus, kein weiteres drive()...
+        final long driveCount = this.drive.getDriveCount();
+        this.simulation.run(5);
+        assertEquals(driveCount, this.drive.getDriveCount());
+        assertEquals(0, this.drive.getValue());
+    }
+
+    @Test
+    public void testRestartAfterStop()
+    {
+        this.simulation.run(20);
+        this.model.stop();
+        this.simulation.run(5);
+        final long driveCount = this.drive.getDriveCount();
+        this.model.start();
+        this.simulation.run(5);
+        assertTrue(this.drive.getDriveCount() > driveCount, "kein drive() nach erneutem start()");
+    }
+
+    @Test
+    public void testReset()
+    {
+        this.simulation.run(20);
+        this.model.reset();
+        // reset() wird zu Beginn des Taktes ausgefuehrt, der Takt zaehlt dann als erster...
+        this.simulation.run(1);
+        assertEquals(1L, this.model.getCounter());
+    }
+}
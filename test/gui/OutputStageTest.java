@@ -0,0 +1,102 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * OutputStageTest - Totzone, Haftreibung und Mittelwert der Sigma-Delta-Modulation...
+ * </p>
+ */
+public class OutputStageTest
+{
+    /**
+     * DEAD_ZONE, FRICTION_OFFSET - Kennlinie des DRV8830 im Test...
+     */
+    private final static int DEAD_ZONE = 5;
+    private final static int FRICTION_OFFSET = 3;
+
+    /**
+     * SMALL_DESTINATION - Sollwert der Lage in Umdrehungen (wenige Impulse)...
+     */
+    private final static String SMALL_DESTINATION = "0,01";
+
+    /**
+     * TICKS - Takte fuer den Mittelwert...
+     */
+    private final static int TICKS = 1000;
+
+    /**
+     * testDeadZone() - ohne Kompensation nur die Totzone...
+     */
+    @Test
+    public void testDeadZone()
+    {
+        final OutputStage outputStage = new OutputStage(DEAD_ZONE, FRICTION_OFFSET, OutputStage.MAX_VSET);
+        assertEquals(DEAD_ZONE + 0.5, mean(outputStage, 0.5, false), 0.01);
+        assertEquals(0, outputStage.apply(0.0, false));
+    }
+
+    /**
+     * testFrictionOffset() - mit Kompensation kommt der Offset hinzu, der volle Bereich bleibt...
+     */
+    @Test
+    public void testFrictionOffset()
+    {
+        final OutputStage outputStage = new OutputStage(DEAD_ZONE, FRICTION_OFFSET, OutputStage.MAX_VSET);
+        final int maxValue = outputStage.getMaxValue();
+        final double expected = DEAD_ZONE + FRICTION_OFFSET + 0.5 * (maxValue - FRICTION_OFFSET) / maxValue;
+        assertEquals(expected, mean(outputStage, 0.5, true), 0.01);
+        assertEquals(-expected, mean(outputStage, -0.5, true), 0.01);
+        assertEquals(OutputStage.MAX_VSET, outputStage.apply(maxValue, true));
+        assertEquals(-OutputStage.MAX_VSET, outputStage.apply(-2.0 * maxValue, true));
+        // Stillstand auch mit Kompensation...
+        assertEquals(0, outputStage.apply(0.0, true));
+    }
+
+    /**
+     * testModel() - mit Ausgangsstufe und Kompensation wirkt der Offset aus
+     * setConditioning() auf den DRV8830 (statt verworfen zu werden)...
+     */
+    @Test
+    public void testModel()
+    {
+        final SimulatedDrive drive = new SimulatedDrive();
+        final Simulation simulation = new Simulation(drive, Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L);
+        final Model model = simulation.getModel();
+        try
+        {
+            model.setConditioning(DEAD_ZONE, FRICTION_OFFSET, 0.0, 0.0);
+            model.setProperty(Property.OUTPUT_STAGE, Boolean.TRUE);
+            model.setProperty(Property.COMPENSATION, Boolean.TRUE);
+            // Kleiner Sprung, der Regler bleibt unterhalb der Begrenzung...
+            simulation.setUp(SMALL_DESTINATION, AntiWindup.Strategy.FREEZE);
+            simulation.tick();
+            final double output = model.getPositioncontroller().getOutput();
+            assertTrue(Math.abs(output) > 0.0 && Math.abs(output) < 1.0, "Reglerausgang " + output);
+            final int maxValue = new OutputStage(DEAD_ZONE, FRICTION_OFFSET, OutputStage.MAX_VSET).getMaxValue();
+            final double expected = DEAD_ZONE + FRICTION_OFFSET + Math.abs(output) * (maxValue - FRICTION_OFFSET) / maxValue;
+            assertEquals(Math.round(expected), Math.abs(drive.getValue()));
+        }
+        finally
+        {
+            model.shutdown();
+        }
+    }
+
+    private static double mean(OutputStage outputStage, double outPut, boolean isCompensated)
+    {
+        long sum = 0L;
+        for (int index = 0; index < TICKS; index++)
+        {
+            sum += outputStage.apply(outPut, isCompensated);
+        }
+        return (double) sum / TICKS;
+    }
+}
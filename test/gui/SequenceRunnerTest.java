@@ -0,0 +1,176 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * SequenceRunnerTest - Pruefung der Sequenz und Bericht je Segment in der Simulation
+ * (Taktung wie SequenceRunner.main() ohne sequence.hardware)...
+ * </p>
+ */
+public class SequenceRunnerTest
+{
+    /**
+     * CYCLE_TIME - Taktzeit der Simulation in s...
+     */
+    private final static double CYCLE_TIME = Simulation.DEFAULT_CYCLE_TIME_MILLIS / 1000.0;
+
+    /**
+     * SEQUENCE - Sprung, Halten, Rampe und Sinus...
+     */
+    private final static List<String> SEQUENCE = Arrays.asList("# Kommentar",
+                                                               "set ENHANCEMENT 0.1",
+                                                               "set INTEGRAL_ENHANCEMENT 0.001",
+                                                               "set ANTI_WINDUP FREEZE",
+                                                               "",
+                                                               "start",
+                                                               "step 5 6",
+                                                               "wait 1",
+                                                               "ramp 0 4   # zurueck",
+                                                               "sine 1 0.5 2",
+                                                               "stop");
+
+    private Simulation simulation;
+
+    private SequenceRunner.TickSource tickSource;
+
+    @BeforeEach
+    public void setUp()
+    {
+        this.simulation = new Simulation(new SimulatedDrive(), Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L);
+        this.simulation.getModel().reset();
+        this.tickSource = new SequenceRunner.TickSource()
+        {
+            @Override
+            public double awaitTick()
+            {
+                SequenceRunnerTest.this.simulation.tick();
+                return CYCLE_TIME;
+            }
+        };
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        this.simulation.getModel().shutdown();
+    }
+
+    @Test
+    public void testParse()
+    {
+        assertEquals(9, SequenceRunner.parse(SEQUENCE).size());
+        assertEquals(1, SequenceRunner.parse(Arrays.asList("set destination 2.5")).size());
+    }
+
+    /**
+     * testDecimalPoint() - Lage mit Dezimalpunkt, an das Model in der Darstellung der Oberflaeche...
+     */
+    @Test
+    public void testDecimalPoint() throws Exception
+    {
+        run(Arrays.asList("set DESTINATION 2.5", "set RPM_SET_POINT -12.25"));
+        assertEquals("2,5", this.simulation.getModel().getProperty(Property.DESTINATION, String.class));
+        assertEquals("-12,25", this.simulation.getModel().getProperty(Property.RPM_SET_POINT, String.class));
+    }
+
+    /**
+     * testParseError() - Fehler mit Zeilennummer, die Sequenz laeuft nicht an...
+     */
+    @Test
+    public void testParseError()
+    {
+        assertTrue(message(Arrays.asList("start", "jump 5 1")).startsWith("Zeile 2: jump 5 1"));
+        assertTrue(message(Arrays.asList("step 5")).startsWith("Zeile 1: "));
+        assertTrue(message(Arrays.asList("wait 0")).contains("Dauer"));
+        assertTrue(message(Arrays.asList("set UNKNOWN 1")).contains("unbekannte Eigenschaft"));
+        assertTrue(message(Arrays.asList("set DATA 1")).contains("nur Anzeige"));
+        // Komma, Tausendertrennung und Exponent sind mehrdeutig bzw. nicht vorgesehen...
+        assertTrue(message(Arrays.asList("set DESTINATION 2,5")).contains("Dezimalpunkt"));
+        assertTrue(message(Arrays.asList("set DESTINATION 1.000.000")).contains("Dezimalpunkt"));
+        assertTrue(message(Arrays.asList("set DESTINATION 2.12345")).contains("Nachkommastellen"));
+        assertTrue(message(Arrays.asList("set ENHANCEMENT 0,1")).contains("Dezimalpunkt"));
+        assertTrue(message(Arrays.asList("step 1e1 5")).contains("Dezimalpunkt"));
+    }
+
+    /**
+     * testRun() - je Segment eine Zeile, Takte entsprechend der Dauer,
+     * Sprungantwort nur beim Sprung...
+     */
+    @Test
+    public void testRun() throws Exception
+    {
+        final String[] lines = run(SEQUENCE);
+        assertEquals(SequenceRunner.HEADER, lines[0]);
+        assertEquals(5, lines.length);
+
+        final String[] step = lines[1].split(SequenceRunner.SEPARATOR, -1);
+        assertEquals(13, step.length);
+        assertEquals("1", step[0]);
+        assertEquals("7", step[1]);
+        assertEquals("step 5 6", step[2]);
+        assertEquals(Math.round(6.0 / CYCLE_TIME), Long.parseLong(step[3]));
+        assertEquals("6.000", step[4]);
+        // Der Sprung fuehrt in die Begrenzung und schwingt innerhalb des Segmentes ein...
+        assertTrue(Double.parseDouble(step[8]) > 0.0, lines[1]);
+        assertTrue(!step[11].isEmpty() && Double.parseDouble(step[11]) < 6.0, lines[1]);
+
+        final String[] waitSegment = lines[2].split(SequenceRunner.SEPARATOR, -1);
+        assertEquals(Math.round(1.0 / CYCLE_TIME), Long.parseLong(waitSegment[3]));
+        assertEquals("", waitSegment[9]);
+        assertEquals("", waitSegment[11]);
+
+        final String[] ramp = lines[3].split(SequenceRunner.SEPARATOR, -1);
+        assertEquals(Math.round(4.0 / CYCLE_TIME), Long.parseLong(ramp[3]));
+        assertEquals("", ramp[11]);
+
+        final String[] sine = lines[4].split(SequenceRunner.SEPARATOR, -1);
+        assertEquals("4", sine[0]);
+        assertEquals(Math.round(2.0 / CYCLE_TIME), Long.parseLong(sine[3]));
+        assertTrue(Double.parseDouble(sine[7]) > 0.0, lines[4]);
+
+        // Nach dem Sinus gilt wieder die Mitte (0) als Sollwert...
+        assertEquals("0", this.simulation.getModel().getProperty(Property.DESTINATION, String.class));
+    }
+
+    private String[] run(List<String> sequence) throws InterruptedException, UnsupportedEncodingException
+    {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PrintStream report = new PrintStream(output, true, StandardCharsets.UTF_8.name()))
+        {
+            new SequenceRunner(this.simulation.getModel(), this.tickSource).run(SequenceRunner.parse(sequence), report);
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8).split("\\r?\\n");
+    }
+
+    private static String message(List<String> sequence)
+    {
+        try
+        {
+            SequenceRunner.parse(sequence);
+        }
+        catch (IllegalArgumentException exception)
+        {
+            return exception.getMessage();
+        }
+        fail("IllegalArgumentException erwartet: " + sequence);
+        return null;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * SimulationTest - Model(MotorDriver, TickClock) im Simulationsbetrieb,
+ * Grenzwerte fuer Rechenzeit, Allokation und Einschwingen...
+ * </p>
+ * <p>
+ * Die Grenzwerte kommen (wie beim Target 'simulate') aus den Systemeigenschaften
+ * simulation.minTicksPerSecond und simulation.maxBytesPerTick, eine Verletzung
+ * laesst den Test und damit 'dist' fehlschlagen.
+ * </p>
+ */
+public class SimulationTest
+{
+    /**
+     * WARM_UP_TICKS - Takte zum Aufwaermen (JIT) vor der Messung...
+     */
+    private final static int WARM_UP_TICKS = 1000;
+
+    /**
+     * MEASURED_TICKS - Takte der Messung...
+     */
+    private final static int MEASURED_TICKS = Simulation.DEFAULT_TICKS;
+
+    /**
+     * SETTLING_TICKS - Takte fuer den Sprung auf 10 Umdrehungen (60 s simuliert)...
+     */
+    private final static int SETTLING_TICKS = 3000;
+
+    /**
+     * MAX_SETTLING_TIME - max. Einschwingzeit in s (gemessen FREEZE: ca. 4 s)...
+     */
+    private final static double MAX_SETTLING_TIME = 5.0;
+
+    /**
+     * MAX_POSITION_ERROR - max. Regelabweichung am Ende in Impulse...
+     */
+    private final static long MAX_POSITION_ERROR = 50L;
+
+    /**
+     * MAX_OVERSHOOT - max. Ueberschwingen in Impulse...
+     */
+    private final static long MAX_OVERSHOOT = 200L;
+
+    private Simulation simulation;
+
+    @BeforeEach
+    public void setUp()
+    {
+        this.simulation = new Simulation(new SimulatedDrive(), Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L);
+        this.simulation.setUp(Simulation.DEFAULT_DESTINATION, AntiWindup.Strategy.FREEZE);
+    }
+
+    @Test
+    public void testTicksPerSecond()
+    {
+        final double minTicksPerSecond = Double.parseDouble(System.getProperty(Simulation.MIN_TICKS_PER_SECOND_KEY, "1000"));
+        this.simulation.run(WARM_UP_TICKS);
+        final Simulation.Measurement measurement = this.simulation.measure(MEASURED_TICKS);
+        assertTrue(measurement.getTicksPerSecond() >= minTicksPerSecond,
+                   "Takte/s " + Math.round(measurement.getTicksPerSecond()) + " < " + minTicksPerSecond);
+    }
+
+    @Test
+    public void testBytesPerTick()
+    {
+        final double maxBytesPerTick = Double.parseDouble(System.getProperty(Simulation.MAX_BYTES_PER_TICK_KEY, "8192"));
+        this.simulation.run(WARM_UP_TICKS);
+        final Simulation.Measurement measurement = this.simulation.measure(MEASURED_TICKS);
+        assertTrue(measurement.getBytesPerTick() <= maxBytesPerTick,
+                   "Bytes/Takt " + Math.round(measurement.getBytesPerTick()) + " > " + maxBytesPerTick);
+    }
+
+    @Test
+    public void testSettling()
+    {
+        this.simulation.run(SETTLING_TICKS);
+        final long phiSetPoint = Model.CIRCUMFERENCE.multiply(new BigDecimal(Simulation.DEFAULT_DESTINATION)).longValue();
+
+        final StepAnalyser.Result[] results = this.simulation.getModel().getStepAnalyser().getResults();
+        assertTrue(results.length > 0, "keine Sprungantwort");
+        final StepAnalyser.Result result = results[0];
+        assertNotNull(result);
+        assertTrue(result.isSettled(), "nicht eingeschwungen: " + result);
+        assertTrue(result.getSettlingTime() <= MAX_SETTLING_TIME, "Einschwingzeit " + result.getSettlingTime() + " s");
+
+        final long positionError = Math.abs(phiSetPoint - this.simulation.getPhi());
+        assertTrue(positionError <= MAX_POSITION_ERROR, "Regelabweichung " + positionError);
+        final long overshoot = this.simulation.getOvershoot(phiSetPoint);
+        assertTrue(overshoot <= MAX_OVERSHOOT, "Ueberschwingen " + overshoot);
+    }
+}
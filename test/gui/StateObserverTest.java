@@ -0,0 +1,109 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * StateObserverTest - Konvergenz der Schaetzung auf der simulierten Strecke,
+ * mit dem Streckenmodell aus Model.setObserverModel()...
+ * </p>
+ */
+public class StateObserverTest
+{
+    /**
+     * GAIN, TIME_CONSTANT - Strecke abweichend von der Voreinstellung (SimulatedDrive)...
+     */
+    private final static double GAIN = 60.0;
+    private final static double TIME_CONSTANT = 0.15;
+
+    /**
+     * TICKS - Takte des Sprunges (20 s)...
+     */
+    private final static int TICKS = 1000;
+
+    /**
+     * SETTLING_TICKS - Takte bis zur Konvergenz, danach wird geprueft...
+     */
+    private final static int SETTLING_TICKS = 50;
+
+    /**
+     * MAX_POSITION_ERROR - max. Abweichung der Lage in Impulse (Quantisierung der Messung)...
+     */
+    private final static double MAX_POSITION_ERROR = 1.5;
+
+    /**
+     * MAX_VELOCITY_ERROR - max. Abweichung der Geschwindigkeit in Impulse/s (gemessen ca. 13)...
+     */
+    private final static double MAX_VELOCITY_ERROR = 25.0;
+
+    /**
+     * MAX_LOAD - max. geschaetzte Last in Impulse/s (Strecke ohne Last, gemessen ca. 7)...
+     */
+    private final static double MAX_LOAD = 25.0;
+
+    /**
+     * testConvergence() - Streckenmodell passend zur Strecke...
+     */
+    @Test
+    public void testConvergence()
+    {
+        final double[] errors = run(true);
+        assertTrue(errors[0] <= MAX_POSITION_ERROR, "Lage " + errors[0]);
+        assertTrue(errors[1] <= MAX_VELOCITY_ERROR, "Geschwindigkeit " + errors[1]);
+        assertTrue(errors[2] <= MAX_LOAD, "Last " + errors[2]);
+    }
+
+    /**
+     * testDefaultModel() - Gegenprobe: mit der Voreinstellung (SimulatedDrive) weicht
+     * die Schaetzung auf dieser Strecke deutlich ab...
+     */
+    @Test
+    public void testDefaultModel()
+    {
+        final double[] errors = run(false);
+        assertTrue(errors[1] > MAX_VELOCITY_ERROR, "Geschwindigkeit " + errors[1]);
+    }
+
+    /**
+     * run(boolean isConfigured) - Sprung auf 10 Umdrehungen...
+     * @param isConfigured - Streckenmodell des Beobachters passend zur Strecke
+     * @return max. Abweichung von Lage, Geschwindigkeit und max. |Last| nach SETTLING_TICKS
+     */
+    private static double[] run(boolean isConfigured)
+    {
+        final SimulatedDrive drive = new SimulatedDrive(GAIN, TIME_CONSTANT);
+        final Simulation simulation = new Simulation(drive, Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L);
+        final Model model = simulation.getModel();
+        try
+        {
+            if (isConfigured)
+            {
+                model.setObserverModel(GAIN, TIME_CONSTANT, StateObserver.DEFAULT_VELOCITY_NOISE, StateObserver.DEFAULT_LOAD_NOISE);
+            }
+            simulation.setUp(Simulation.DEFAULT_DESTINATION, AntiWindup.Strategy.FREEZE);
+            final double[] errors = new double[3];
+            for (int index = 0; index < TICKS; index++)
+            {
+                simulation.tick();
+                if (index >= SETTLING_TICKS)
+                {
+                    final StateObserver observer = model.getObserver();
+                    errors[0] = Math.max(errors[0], Math.abs(observer.getPosition() - drive.getPosition()));
+                    errors[1] = Math.max(errors[1], Math.abs(observer.getVelocity() - drive.getSpeed()));
+                    errors[2] = Math.max(errors[2], Math.abs(observer.getLoad()));
+                }
+            }
+            return errors;
+        }
+        finally
+        {
+            model.shutdown();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * TelemetryPublisherTest - Versand und Empfang der Datagramme ueber Unicast
+ * (127.0.0.1, freier Port), Multicast setzt eine Schnittstelle mit Multicast voraus...
+ * </p>
+ */
+public class TelemetryPublisherTest
+{
+    /**
+     * TICKS - simulierte Takte mit Versand...
+     */
+    private final static int TICKS = 100;
+
+    /**
+     * HOST - Unicast-Adresse fuer den Test...
+     */
+    private final static String HOST = "127.0.0.1";
+
+    private InetSocketAddress address;
+
+    private TelemetryPublisher.Receiver receiver;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        // Freien Port ermitteln, der Receiver bindet an genau diese Adresse...
+        try (DatagramSocket socket = new DatagramSocket(new InetSocketAddress(HOST, 0)))
+        {
+            this.address = new InetSocketAddress(HOST, socket.getLocalPort());
+        }
+        this.receiver = new TelemetryPublisher.Receiver(this.address);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        this.receiver.close();
+    }
+
+    @Test
+    public void testParse()
+    {
+        final InetSocketAddress group = TelemetryPublisher.parse(TelemetryPublisher.DEFAULT_GROUP);
+        assertEquals(TelemetryPublisher.DEFAULT_GROUP, group.getHostString());
+        assertEquals(TelemetryPublisher.DEFAULT_PORT, group.getPort());
+        assertEquals(4900, TelemetryPublisher.parse("127.0.0.1:4900").getPort());
+    }
+
+    /**
+     * testPublish() - Werte eines Datagramms, Datagramme fremder Herkunft werden uebergangen...
+     */
+    @Test
+    public void testPublish() throws IOException
+    {
+        try (DatagramChannel channel = DatagramChannel.open())
+        {
+            channel.send(ByteBuffer.wrap(new byte[TelemetryPublisher.DATAGRAM_SIZE]), this.address);
+        }
+        try (TelemetryPublisher publisher = new TelemetryPublisher(this.address))
+        {
+            publisher.publish(7L, 140000000L, 1234L, -5000L, 20000000L, -321.5, -15, Status.Start);
+            assertEquals(0L, publisher.getDropped());
+        }
+        final long[] values = new long[TelemetryPublisher.Receiver.SIZE];
+        this.receiver.receive(values);
+        assertEquals(0L, values[TelemetryPublisher.Receiver.SEQUENCE]);
+        assertEquals(7L, values[TelemetryPublisher.Receiver.COUNTER]);
+        assertEquals(140000000L, values[TelemetryPublisher.Receiver.TIME]);
+        assertEquals(1234L, values[TelemetryPublisher.Receiver.PHI]);
+        assertEquals(-5000L, values[TelemetryPublisher.Receiver.PHI_SET_POINT]);
+        assertEquals(20000000L, values[TelemetryPublisher.Receiver.CYCLE_TIME]);
+        assertEquals(-15L, values[TelemetryPublisher.Receiver.DRV_SET_POINT]);
+        assertEquals(Status.Start.ordinal(), values[TelemetryPublisher.Receiver.STATUS]);
+        assertEquals(-321.5, this.receiver.getSpeed(), 0.0);
+    }
+
+    /**
+     * testModel() - Versand aus dem Takt der Simulation: jeder Takt ein Datagramm,
+     * fortlaufend nummeriert, ohne Verluste...
+     */
+    @Test
+    public void testModel() throws IOException
+    {
+        final Simulation simulation = new Simulation(new SimulatedDrive(), Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L);
+        final Model model = simulation.getModel();
+        final TelemetryPublisher publisher = new TelemetryPublisher(this.address);
+        model.setTelemetryPublisher(publisher);
+        try
+        {
+            simulation.setUp(Simulation.DEFAULT_DESTINATION, AntiWindup.Strategy.FREEZE);
+            simulation.run(TICKS);
+            assertEquals(0L, publisher.getDropped());
+
+            final long[] values = new long[TelemetryPublisher.Receiver.SIZE];
+            for (int index = 0; index < TICKS; index++)
+            {
+                this.receiver.receive(values);
+                assertEquals(index, values[TelemetryPublisher.Receiver.SEQUENCE]);
+            }
+            assertEquals(model.getData().getCounter().longValue(), values[TelemetryPublisher.Receiver.COUNTER]);
+            assertEquals(model.getData().getPhi().longValue(), values[TelemetryPublisher.Receiver.PHI]);
+            assertEquals(0L, this.receiver.getLost());
+        }
+        finally
+        {
+            model.shutdown();
+        }
+    }
+}
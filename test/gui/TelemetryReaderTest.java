@@ -0,0 +1,133 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * TelemetryReaderTest - Suche ueber den Index nach Takt und Zeit, Aufbau des
+ * Index aus den Bloecken bei abgebrochener Aufzeichnung (Daten vgl. TelemetryRecorderTest)...
+ * </p>
+ */
+public class TelemetryReaderTest
+{
+    private Path file;
+
+    private final long[] record = new long[TelemetryRecorder.COLUMNS];
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        this.file = Files.createTempFile("telemetry", ".tlm");
+        assertEquals(0L, TelemetryRecorderTest.record(this.file));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(this.file);
+    }
+
+    /**
+     * testSeekTick() - Segment und counter, auch ueber das Zuruecksetzen hinweg...
+     */
+    @Test
+    public void testSeekTick() throws IOException
+    {
+        try (TelemetryReader reader = new TelemetryReader(this.file))
+        {
+            assertTick(reader.seekTick(0, 300L), reader, 300);
+            // Letzter Takt des ersten Segmentes, next() setzt im zweiten Segment fort...
+            assertTick(reader.seekTick(0, TelemetryRecorderTest.FIRST_TICKS - 1), reader, TelemetryRecorderTest.FIRST_TICKS - 1);
+            assertTrue(reader.next(this.record));
+            TelemetryRecorderTest.assertRecord(TelemetryRecorderTest.FIRST_TICKS, this.record);
+            assertTick(reader.seekTick(1, 0L), reader, TelemetryRecorderTest.FIRST_TICKS);
+            assertTick(reader.seekTick(1, 400L), reader, TelemetryRecorderTest.FIRST_TICKS + 400);
+            // Nicht vorhanden...
+            assertFalse(reader.seekTick(1, TelemetryRecorderTest.SECOND_TICKS));
+            assertFalse(reader.next(this.record));
+            assertFalse(reader.seekTick(2, 0L));
+        }
+    }
+
+    /**
+     * testSeekTime() - erster Takt mit Zeit &gt;= time, ueber die ganze Aufzeichnung...
+     */
+    @Test
+    public void testSeekTime() throws IOException
+    {
+        try (TelemetryReader reader = new TelemetryReader(this.file))
+        {
+            assertTick(reader.seekTime(0L), reader, 0);
+            final int tick = TelemetryRecorderTest.FIRST_TICKS + 100;
+            final long time = TelemetryRecorderTest.value(tick, TelemetryRecorder.COLUMN_TIME);
+            assertTick(reader.seekTime(time), reader, tick);
+            assertTick(reader.seekTime(time - 1L), reader, tick);
+            assertTick(reader.seekTime(time + 1L), reader, tick + 1);
+            assertTick(reader.seekTime(reader.toTime(reader.toMillis(time))), reader, tick);
+            final int last = TelemetryRecorderTest.FIRST_TICKS + TelemetryRecorderTest.SECOND_TICKS - 1;
+            assertFalse(reader.seekTime(TelemetryRecorderTest.value(last, TelemetryRecorder.COLUMN_TIME) + 1L));
+        }
+    }
+
+    /**
+     * testScanIndex() - Abbruch im letzten Block, ohne Index: der Index wird aus
+     * den vollstaendigen Bloecken aufgebaut, der angefangene Block fehlt...
+     */
+    @Test
+    public void testScanIndex() throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            final ByteBuffer trailer = ByteBuffer.allocate(TelemetryRecorder.TRAILER_SIZE);
+            channel.read(trailer, channel.size() - TelemetryRecorder.TRAILER_SIZE);
+            trailer.flip();
+            final long indexOffset = trailer.getLong();
+            assertEquals(TelemetryRecorder.INDEX_MAGIC, trailer.getInt());
+            // Index weg, vom letzten Block fehlt das letzte Byte...
+            channel.truncate(indexOffset - 1L);
+        }
+        try (TelemetryReader reader = new TelemetryReader(this.file))
+        {
+            assertEquals(TelemetryRecorderTest.BLOCKS - 1, reader.getBlockCount());
+            assertEquals(2, reader.getSegmentCount());
+            int tick = 0;
+            while (reader.next(this.record))
+            {
+                TelemetryRecorderTest.assertRecord(tick++, this.record);
+            }
+            // Es fehlt der angefangene Block des zweiten Segmentes...
+            assertEquals(TelemetryRecorderTest.FIRST_TICKS + TelemetryRecorder.BLOCK_SIZE, tick);
+            assertTick(reader.seekTick(1, 100L), reader, TelemetryRecorderTest.FIRST_TICKS + 100);
+            assertFalse(reader.seekTick(1, TelemetryRecorder.BLOCK_SIZE));
+            final int lost = TelemetryRecorderTest.FIRST_TICKS + TelemetryRecorder.BLOCK_SIZE;
+            assertFalse(reader.seekTime(TelemetryRecorderTest.value(lost, TelemetryRecorder.COLUMN_TIME)));
+        }
+    }
+
+    /**
+     * assertTick() - Suche erfolgreich, next() liefert den Takt tick...
+     */
+    private void assertTick(boolean isFound, TelemetryReader reader, int tick) throws IOException
+    {
+        assertTrue(isFound, "Takt " + tick);
+        assertTrue(reader.next(this.record), "Takt " + tick);
+        TelemetryRecorderTest.assertRecord(tick, this.record);
+    }
+}
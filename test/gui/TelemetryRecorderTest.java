@@ -0,0 +1,169 @@
+/**
+ *
+ */
+package gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Detlef Tribius
+ * <p>
+ * TelemetryRecorderTest - Kodierung (zickzack, varint) und Rundreise mehrerer
+ * Bloecke ueber ein Zuruecksetzen des Taktzaehlers...
+ * </p>
+ */
+public class TelemetryRecorderTest
+{
+    /**
+     * START_NANOS - Startzeit der Zeitbasis...
+     */
+    final static long START_NANOS = 123456789000L;
+
+    /**
+     * CYCLE_TIME_NANOS - Taktzeit...
+     */
+    final static long CYCLE_TIME_NANOS = Simulation.DEFAULT_CYCLE_TIME_MILLIS * 1000000L;
+
+    /**
+     * FIRST_TICKS, SECOND_TICKS - Takte vor und nach dem Zuruecksetzen des counter
+     * (3 + 2 Bloecke, weniger als BLOCK_POOL_SIZE: es wird nichts verworfen)...
+     */
+    final static int FIRST_TICKS = 600;
+    final static int SECOND_TICKS = 500;
+
+    /**
+     * BLOCKS - Anzahl der Bloecke (je Segment ein angefangener Block)...
+     */
+    final static int BLOCKS = 5;
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        this.file = Files.createTempFile("telemetry", ".tlm");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(this.file);
+    }
+
+    /**
+     * testVarint() - Grenzwerte von zigzag() und putVarint()/getVarint()...
+     */
+    @Test
+    public void testVarint()
+    {
+        final long[] values = {0L, 1L, -1L, 63L, -64L, 64L, 300L, -300L, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        final ByteBuffer buffer = ByteBuffer.allocate(values.length * 10);
+        for (long value : values)
+        {
+            TelemetryRecorder.putVarint(buffer, TelemetryRecorder.zigzag(value));
+        }
+        buffer.flip();
+        for (long value : values)
+        {
+            assertEquals(value, TelemetryRecorder.unzigzag(TelemetryRecorder.getVarint(buffer)));
+        }
+        assertFalse(buffer.hasRemaining());
+        // Kleine Betraege: ein Byte, Long.MIN_VALUE: 10 Bytes...
+        assertEquals(1L, TelemetryRecorder.zigzag(-1L));
+        assertEquals(-1L, TelemetryRecorder.zigzag(Long.MIN_VALUE));
+        buffer.clear();
+        TelemetryRecorder.putVarint(buffer, TelemetryRecorder.zigzag(-64L));
+        assertEquals(1, buffer.position());
+        buffer.clear();
+        TelemetryRecorder.putVarint(buffer, TelemetryRecorder.zigzag(Long.MIN_VALUE));
+        assertEquals(10, buffer.position());
+    }
+
+    /**
+     * testRoundTrip() - alle Takte kommen unveraendert zurueck, mit dem Zuruecksetzen
+     * des counter beginnt ein neues Segment...
+     */
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        assertEquals(0L, record(this.file));
+        try (TelemetryReader reader = new TelemetryReader(this.file))
+        {
+            assertEquals(START_NANOS, reader.getStartNanos());
+            assertEquals(BLOCKS, reader.getBlockCount());
+            assertEquals(2, reader.getSegmentCount());
+            final long[] record = new long[TelemetryRecorder.COLUMNS];
+            int tick = 0;
+            while (reader.next(record))
+            {
+                assertRecord(tick++, record);
+            }
+            assertEquals(FIRST_TICKS + SECOND_TICKS, tick);
+        }
+    }
+
+    /**
+     * record(Path file) - Aufzeichnung von FIRST_TICKS + SECOND_TICKS Takten...
+     * @return Anzahl der verworfenen Takte
+     */
+    static long record(Path file) throws IOException
+    {
+        final TelemetryRecorder recorder = new TelemetryRecorder(file, START_NANOS);
+        try
+        {
+            for (int tick = 0; tick < FIRST_TICKS + SECOND_TICKS; tick++)
+            {
+                recorder.record(value(tick, TelemetryRecorder.COLUMN_COUNTER),
+                                value(tick, TelemetryRecorder.COLUMN_TIME),
+                                value(tick, TelemetryRecorder.COLUMN_PHI),
+                                value(tick, TelemetryRecorder.COLUMN_CYCLE_TIME),
+                                (int) value(tick, TelemetryRecorder.COLUMN_DRV_SET_POINT));
+            }
+            return recorder.getDropped();
+        }
+        finally
+        {
+            recorder.close();
+        }
+    }
+
+    /**
+     * value(int tick, int column) - Wert der Spalte im Takt tick (0 ... FIRST_TICKS + SECOND_TICKS - 1):
+     * counter ab 0 je Segment, Zeit mit Schwankung der Taktzeit, phi und drvSetPoint mit Vorzeichenwechsel...
+     */
+    static long value(int tick, int column)
+    {
+        final long jitter = (tick % 7) * 1000L;
+        switch (column)
+        {
+            case TelemetryRecorder.COLUMN_COUNTER:
+                return (tick < FIRST_TICKS)? tick : tick - FIRST_TICKS;
+            case TelemetryRecorder.COLUMN_TIME:
+                return START_NANOS + tick * CYCLE_TIME_NANOS + jitter;
+            case TelemetryRecorder.COLUMN_PHI:
+                return Math.round(2000.0 * Math.sin(tick / 50.0));
+            case TelemetryRecorder.COLUMN_CYCLE_TIME:
+                return CYCLE_TIME_NANOS + jitter;
+            default:
+                return (tick * 37) % 201 - 100;
+        }
+    }
+
+    static void assertRecord(int tick, long[] record)
+    {
+        for (int column = 0; column < TelemetryRecorder.COLUMNS; column++)
+        {
+            assertEquals(value(tick, column), record[column], "Takt " + tick + ", Spalte " + column);
+        }
+    }
+}